@@ -8,14 +8,21 @@ import java.util.concurrent.Executors;
 import javax.annotation.PostConstruct;
 
 import org.cloudfoundry.promregator.cfaccessor.AccessorCacheType;
+import org.cloudfoundry.promregator.cfaccessor.AccessorType;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessorCache;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessorCacheCaffeine;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessorSimulator;
+import org.cloudfoundry.promregator.cfaccessor.CFAuditEventWatcher;
 import org.cloudfoundry.promregator.cfaccessor.CFWatchdog;
 import org.cloudfoundry.promregator.cfaccessor.ReactiveCFAccessorImpl;
+import org.cloudfoundry.promregator.cfaccessor.StreamingCFAccessorImpl;
 import org.cloudfoundry.promregator.config.ConfigurationValidations;
+import org.cloudfoundry.promregator.config.PromregatorConfiguration;
 import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer;
+import org.cloudfoundry.promregator.discovery.CacheWarmer;
+import org.cloudfoundry.promregator.discovery.DiscoveryChangeFeed;
+import org.cloudfoundry.promregator.discovery.FileSdOutput;
 import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
 import org.cloudfoundry.promregator.lifecycle.InstanceLifecycleHandler;
 import org.cloudfoundry.promregator.messagebus.MessageBus;
@@ -66,6 +73,10 @@ public class PromregatorApplication {
 	@Value("${promregator.workaround.dnscache.timeout:-1}")
 	private int javaDnsCacheWorkaroundTimeout;
 
+	@Value("${cf.accessor.type:REACTIVE}")
+	// NB: Spring supports configuration values for enums to be both upper- and lowercased
+	private AccessorType accessorType;
+
 	@Value("${cf.cache.type:CAFFEINE}")
 	// NB: Spring supports configuration values for enums to be both upper- and lowercased
 	private AccessorCacheType cacheType;
@@ -92,6 +103,8 @@ public class PromregatorApplication {
 		
 		if (this.simulationMode) {
 			mainAccessor = new CFAccessorSimulator(this.simulationInstances);
+		} else if (this.accessorType == AccessorType.STREAMING) {
+			mainAccessor = new StreamingCFAccessorImpl();
 		} else {
 			mainAccessor = new ReactiveCFAccessorImpl();
 		}
@@ -126,6 +139,11 @@ public class PromregatorApplication {
 		return cfAccessorCache;
 	}
 	
+	@Bean
+	public CFAuditEventWatcher cfAuditEventWatcher(CFAccessorCache cfAccessorCache, InternalMetrics internalMetrics) {
+		return new CFAuditEventWatcher(cfAccessorCache, internalMetrics);
+	}
+	
 	@Bean
 	public ReactiveTargetResolver reactiveTargetResolver() {
 		return new ReactiveTargetResolver();
@@ -151,6 +169,21 @@ public class PromregatorApplication {
 		return new CFMultiDiscoverer();
 	}
 	
+	@Bean
+	public DiscoveryChangeFeed discoveryChangeFeed() {
+		return new DiscoveryChangeFeed();
+	}
+	
+	@Bean
+	public FileSdOutput fileSdOutput() {
+		return new FileSdOutput();
+	}
+	
+	@Bean
+	public CacheWarmer cacheWarmer(TargetResolver targetResolver, AppInstanceScanner appInstanceScanner, PromregatorConfiguration promregatorConfiguration, InternalMetrics internalMetrics) {
+		return new CacheWarmer(targetResolver, appInstanceScanner, promregatorConfiguration, internalMetrics);
+	}
+	
 	@Bean
 	public InstanceLifecycleHandler instanceLifecycleHandler() {
 		return new InstanceLifecycleHandler();
@@ -0,0 +1,6 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+public enum AccessorType {
+	REACTIVE,
+	STREAMING
+}
@@ -0,0 +1,271 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.cloudfoundry.AbstractCloudFoundryException;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Limits the number of requests to the CF Cloud Controller which may be in flight
+ * at the same time. The limit is not fixed, but adapted automatically based on the
+ * responses observed (AIMD: additive increase, multiplicative decrease):
+ * <ul>
+ * <li>Each successful request increases the limit a little, as long as the limit is
+ * actually being used.</li>
+ * <li>Each request which was rejected by the platform due to overload (HTTP status 429
+ * or 5xx) or which timed out cuts the limit by half.</li>
+ * <li>If the latency of recent requests grows significantly compared to the long-term
+ * latency (i.e. the latency gradient drops), the limit is reduced slightly, as this
+ * indicates that requests start to queue up at the platform.</li>
+ * </ul>
+ * Requests which exceed the limit are queued without blocking any thread.
+ */
+public class AdaptiveConcurrencyLimiter {
+	private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+	private static final double SHORT_TERM_LATENCY_SMOOTHING = 0.2;
+	private static final double LONG_TERM_LATENCY_SMOOTHING = 0.02;
+
+	/**
+	 * if the gradient drops below this value (i.e. recent requests take twice as long
+	 * as usual), the limit is reduced
+	 */
+	private static final double LATENCY_GRADIENT_TOLERANCE = 0.5;
+	private static final double LATENCY_BACKOFF_RATIO = 0.9;
+	private static final double DROP_BACKOFF_RATIO = 0.5;
+
+	private enum Outcome {
+		SUCCESS,
+		DROPPED,
+		IGNORED
+	}
+
+	/**
+	 * the permission to send a single request; must be released exactly once
+	 */
+	private class Permit {
+		private final long startedAt = System.nanoTime();
+		private final AtomicBoolean released = new AtomicBoolean(false);
+
+		public void release(Outcome outcome) {
+			if (!this.released.compareAndSet(false, true)) {
+				return;
+			}
+
+			AdaptiveConcurrencyLimiter.this.onRelease(outcome, System.nanoTime() - this.startedAt);
+		}
+	}
+
+	private class Waiter {
+		private final MonoSink<Permit> sink;
+		private Permit permit;
+		
+		public Waiter(MonoSink<Permit> sink) {
+			this.sink = sink;
+		}
+	}
+
+	private final boolean enabled;
+	private final int minLimit;
+	private final int maxLimit;
+
+	private double limit;
+	private int inFlight;
+
+	private double shortTermLatency;
+	private double longTermLatency;
+	private double latencyGradient = 1.0;
+
+	private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+
+	/**
+	 * creates a limiter, which does not limit the concurrency of requests at all
+	 * @return the limiter
+	 */
+	public static AdaptiveConcurrencyLimiter disabled() {
+		return new AdaptiveConcurrencyLimiter(null, false, 1, 1, 1);
+	}
+
+	/**
+	 * creates a new limiter
+	 * @param internalMetrics the internal metrics to report to; may be <code>null</code>
+	 * @param enabled if <code>false</code>, the concurrency of requests is not limited at all
+	 * @param initialLimit the limit to start with
+	 * @param minLimit the lower boundary of the limit
+	 * @param maxLimit the upper boundary of the limit
+	 */
+	public AdaptiveConcurrencyLimiter(InternalMetrics internalMetrics, boolean enabled, int initialLimit, int minLimit, int maxLimit) {
+		Assert.isTrue(minLimit > 0, "Minimal limit must not be negative or zero");
+		Assert.isTrue(minLimit <= maxLimit, "Minimal limit must not be larger than maximal limit");
+
+		this.enabled = enabled;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+		if (enabled && internalMetrics != null) {
+			internalMetrics.registerConcurrencyLimiterFunctions(this::getLimit, this::getInFlight, this::getLatencyGradient);
+		}
+	}
+
+	/**
+	 * wraps a request such that it is only sent when the current concurrency limit permits so.
+	 * The outcome of the request is used to adapt the limit.
+	 * @param <T> the type of the response
+	 * @param request the (not yet subscribed) request
+	 * @return the request guarded by the limiter
+	 */
+	public <T> Mono<T> limit(Mono<T> request) {
+		if (!this.enabled) {
+			return request;
+		}
+
+		return this.acquire().flatMap(permit -> request
+				.doOnSuccess(response -> permit.release(Outcome.SUCCESS))
+				.doOnError(throwable -> permit.release(classify(throwable)))
+				.doOnCancel(() -> permit.release(Outcome.IGNORED))
+		);
+	}
+
+	private Mono<Permit> acquire() {
+		return Mono.create(sink -> {
+			final Waiter waiter = new Waiter(sink);
+			
+			synchronized (this) {
+				if (this.inFlight < (int) this.limit) {
+					this.inFlight++;
+					waiter.permit = new Permit();
+				} else {
+					this.waiting.add(waiter);
+				}
+			}
+
+			if (waiter.permit != null) {
+				sink.success(waiter.permit);
+				return;
+			}
+			
+			sink.onCancel(() -> {
+				Permit grantedMeanwhile = null;
+				synchronized (this) {
+					if (!this.waiting.remove(waiter)) {
+						grantedMeanwhile = waiter.permit;
+					}
+				}
+				
+				if (grantedMeanwhile != null) {
+					grantedMeanwhile.release(Outcome.IGNORED);
+				}
+			});
+		});
+	}
+
+	private static Outcome classify(Throwable throwable) {
+		final Throwable unwrapped = Exceptions.unwrap(throwable);
+
+		if (unwrapped instanceof TimeoutException) {
+			return Outcome.DROPPED;
+		}
+
+		if (unwrapped instanceof AbstractCloudFoundryException cfException) {
+			final int statusCode = cfException.getStatusCode();
+			if (statusCode == 429 || statusCode >= 500) {
+				return Outcome.DROPPED;
+			}
+		}
+
+		return Outcome.IGNORED;
+	}
+
+	private void onRelease(Outcome outcome, long latencyInNanos) {
+		Waiter next = null;
+
+		synchronized (this) {
+			final int inFlightBefore = this.inFlight;
+			this.inFlight--;
+
+			switch (outcome) {
+			case SUCCESS:
+				this.observeLatency(latencyInNanos);
+				if (this.latencyGradient < LATENCY_GRADIENT_TOLERANCE) {
+					this.limit = Math.max(this.minLimit, this.limit * LATENCY_BACKOFF_RATIO);
+				} else if (inFlightBefore * 2 >= (int) this.limit) {
+					// only grow, if the current limit is really used
+					this.limit = Math.min(this.maxLimit, this.limit + 1.0 / this.limit);
+				}
+				break;
+			case DROPPED:
+				this.limit = Math.max(this.minLimit, this.limit * DROP_BACKOFF_RATIO);
+				log.debug("Request to the Cloud Controller was dropped; reducing concurrency limit to {}", (int) this.limit);
+				break;
+			case IGNORED:
+			default:
+				break;
+			}
+
+			if (this.inFlight < (int) this.limit) {
+				next = this.waiting.poll();
+				if (next != null) {
+					this.inFlight++;
+					next.permit = new Permit();
+				}
+			}
+		}
+
+		if (next != null) {
+			next.sink.success(next.permit);
+		}
+	}
+
+	/* must be called holding the lock on this */
+	private void observeLatency(long latencyInNanos) {
+		if (this.longTermLatency == 0.0) {
+			this.shortTermLatency = latencyInNanos;
+			this.longTermLatency = latencyInNanos;
+			return;
+		}
+
+		this.shortTermLatency += SHORT_TERM_LATENCY_SMOOTHING * (latencyInNanos - this.shortTermLatency);
+		this.longTermLatency += LONG_TERM_LATENCY_SMOOTHING * (latencyInNanos - this.longTermLatency);
+
+		this.latencyGradient = Math.max(0.0, Math.min(1.0, this.longTermLatency / this.shortTermLatency));
+	}
+
+	/**
+	 * @return the current concurrency limit
+	 */
+	public synchronized double getLimit() {
+		return Math.floor(this.limit);
+	}
+
+	/**
+	 * @return the number of requests currently in flight
+	 */
+	public synchronized double getInFlight() {
+		return this.inFlight;
+	}
+
+	/**
+	 * @return the ratio of the long-term latency and the short-term latency (capped at 1.0);
+	 * lower values indicate that requests currently take longer than usual
+	 */
+	public synchronized double getLatencyGradient() {
+		return this.latencyGradient;
+	}
+
+	/**
+	 * @return the number of requests waiting for being permitted
+	 */
+	public synchronized int getQueueSize() {
+		return this.waiting.size();
+	}
+}
@@ -1,10 +1,15 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import java.time.Instant;
+import java.util.Locale;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
 import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
 import org.cloudfoundry.client.v3.spaces.ListSpacesResponse;
@@ -25,6 +30,63 @@ public interface CFAccessor {
 
 	Mono<ListApplicationsResponse> retrieveAllApplicationsInSpaceV3(String orgId, String spaceId);
 
+	/**
+	 * retrieves the organizations with the names provided in a single request (using the <code>names</code> filter).
+	 * Implementations not supporting server-side filtering fall back to filtering all organizations.
+	 * @param orgNames the names of the organizations to retrieve
+	 * @return a Mono on the organizations found; organizations which do not exist are not reported
+	 */
+	default Mono<ListOrganizationsResponse> retrieveOrgIdsV3(Set<String> orgNames) {
+		final Set<String> names = toLowerCase(orgNames);
+		return this.retrieveAllOrgIdsV3().map(response -> ListOrganizationsResponse.builder()
+				.addAllResources(response.getResources().stream().filter(org -> names.contains(org.getName().toLowerCase(Locale.ENGLISH))).toList())
+				.build());
+	}
+
+	/**
+	 * retrieves the spaces within an organization with the names provided in a single request (using the <code>names</code> filter).
+	 * Implementations not supporting server-side filtering fall back to filtering all spaces of the organization.
+	 * @param orgId the id of the organization in which the spaces are located
+	 * @param spaceNames the names of the spaces to retrieve
+	 * @return a Mono on the spaces found; spaces which do not exist are not reported
+	 */
+	default Mono<ListSpacesResponse> retrieveSpaceIdsV3(String orgId, Set<String> spaceNames) {
+		final Set<String> names = toLowerCase(spaceNames);
+		return this.retrieveSpaceIdsInOrgV3(orgId).map(response -> ListSpacesResponse.builder()
+				.addAllResources(response.getResources().stream().filter(space -> names.contains(space.getName().toLowerCase(Locale.ENGLISH))).toList())
+				.build());
+	}
+
+	/**
+	 * retrieves the applications in a space, which are filtered by the Cloud Controller.
+	 * Implementations not supporting server-side filtering fall back to filtering all applications of the space locally
+	 * (including the label selector).
+	 * @param orgId the id of the organization in which the space is located
+	 * @param spaceId the id of the space in which the applications are located
+	 * @param applicationNames the names of the applications to retrieve (<code>names</code> filter); <code>null</code> selects all applications
+	 * @param labelSelector the label selector, which the applications must match (<code>label_selector</code> filter); <code>null</code> selects all applications
+	 * @return a Mono on the applications found
+	 */
+	default Mono<ListApplicationsResponse> retrieveApplicationsInSpaceV3(String orgId, String spaceId, Set<String> applicationNames, String labelSelector) {
+		final Mono<ListApplicationsResponse> allApplications = this.retrieveAllApplicationsInSpaceV3(orgId, spaceId);
+		if (applicationNames == null && labelSelector == null) {
+			return allApplications;
+		}
+		
+		final Set<String> names = applicationNames == null ? null : toLowerCase(applicationNames);
+		return allApplications.map(response -> {
+			// NB: a malformed selector is reported as error of the Mono
+			final LabelSelector selector = labelSelector == null ? null : LabelSelector.parse(labelSelector);
+			
+			return ListApplicationsResponse.builder()
+				.addAllResources(response.getResources().stream()
+						.filter(app -> names == null || names.contains(app.getName().toLowerCase(Locale.ENGLISH)))
+						.filter(app -> selector == null || selector.matches(app.getMetadata() == null ? null : app.getMetadata().getLabels()))
+						.toList())
+				.build();
+		});
+	}
+
 	Mono<ListOrganizationDomainsResponse> retrieveAllDomainsV3(String orgId);
 
 	Mono<ListRoutesResponse> retrieveRoutesForAppId(String appId);
@@ -35,5 +97,59 @@ public interface CFAccessor {
 
 	Mono<ListProcessesResponse> retrieveWebProcessesForAppIds(Set<String> applicationIds);
 	
+	Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId);
+	
+	Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId);
+	
+	/**
+	 * retrieves the web processes of an application using the retrieval of all web processes in its space
+	 * (see {@link #retrieveWebProcessesForSpaceId(String)}).
+	 * Caching implementations may provide the processes of the application without filtering the space's processes again.
+	 * @param spaceId the id of the space in which the application is located
+	 * @param applicationId the id of the application
+	 * @return a Mono on the web processes of the application
+	 */
+	default Mono<ListProcessesResponse> retrieveWebProcessesForAppIdInSpace(String spaceId, String applicationId) {
+		return this.retrieveWebProcessesForSpaceId(spaceId).map(response -> ResponsesByApplication.filterProcesses(response, applicationId));
+	}
+	
+	/**
+	 * retrieves the routes of an application using the retrieval of all routes in its space
+	 * (see {@link #retrieveRoutesForSpaceId(String)}).
+	 * Caching implementations may provide the routes of the application without filtering the space's routes again.
+	 * @param spaceId the id of the space in which the application is located
+	 * @param applicationId the id of the application
+	 * @return a Mono on the routes bound to the application
+	 */
+	default Mono<ListRoutesResponse> retrieveRoutesForAppIdInSpace(String spaceId, String applicationId) {
+		return this.retrieveRoutesForSpaceId(spaceId).map(response -> ResponsesByApplication.filterRoutes(response, applicationId));
+	}
+	
+	/**
+	 * retrieves the statistics of all instances of a process, including their state
+	 * @param processId the id of the process
+	 * @return the statistics per instance
+	 */
+	Mono<GetProcessStatisticsResponse> retrieveProcessStatistics(String processId);
+	
+	Mono<ListApplicationsResponse> retrieveApplicationsUpdatedSince(Instant since);
+	
+	Mono<ListProcessesResponse> retrieveWebProcessesUpdatedSince(Instant since);
+	
+	Mono<ListRoutesResponse> retrieveRoutesUpdatedSince(Instant since);
+	
+	Mono<ListAuditEventsResponse> retrieveAuditEventsSince(Instant since, Set<String> eventTypes);
+	
+	/**
+	 * retrieves the newest audit event of the given types
+	 * @param eventTypes the types of audit events to consider
+	 * @return a Mono on a response containing the newest audit event; its resources are empty, if there is no such event
+	 */
+	Mono<ListAuditEventsResponse> retrieveLatestAuditEvent(Set<String> eventTypes);
+	
 	void reset();
+	
+	private static Set<String> toLowerCase(Set<String> names) {
+		return names.stream().map(name -> name.toLowerCase(Locale.ENGLISH)).collect(Collectors.toSet());
+	}
 }
@@ -12,4 +12,31 @@ public interface CFAccessorCache extends CFAccessor {
 	void invalidateCacheOrg();
 
 	void invalidateCacheDomain();
+	
+	/**
+	 * refreshes the cached lists of applications of a space (if cached)
+	 * @param spaceId the id of the space
+	 */
+	void refreshCacheApplicationsInSpace(String spaceId);
+	
+	/**
+	 * refreshes the cached processes of an application (if cached)
+	 * @param appId the id of the application
+	 * @param spaceId the id of the space of the application; may be <code>null</code>, if unknown
+	 */
+	void refreshCacheProcessesOfApplication(String appId, String spaceId);
+	
+	/**
+	 * refreshes the cached routes of an application (if cached)
+	 * @param appId the id of the application
+	 * @param spaceId the id of the space of the application; may be <code>null</code>, if unknown
+	 */
+	void refreshCacheRoutesOfApplication(String appId, String spaceId);
+	
+	/**
+	 * refreshes all cached entries containing a given route
+	 * @param routeId the id of the route
+	 * @param spaceId the id of the space of the route; may be <code>null</code>, if unknown
+	 */
+	void refreshCacheRoute(String routeId, String spaceId);
 }
@@ -1,13 +1,17 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
-import java.util.Collections;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -15,9 +19,14 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.cloudfoundry.client.v3.Resource;
+import org.cloudfoundry.client.v3.ToOneRelationship;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
 import org.cloudfoundry.client.v3.processes.ProcessResource;
 import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
@@ -29,17 +38,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 
 import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Weigher;
 
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	private static final Logger log = LoggerFactory.getLogger(CFAccessorCacheCaffeine.class);
+	
+	private static final Weigher<Object, Object> RESPONSE_WEIGHER = (key, response) -> CompactResponses.estimateWeight(response);
 
 	private AsyncLoadingCache<String, ListOrganizationsResponse> orgCache;
 	private AsyncLoadingCache<String, ListOrganizationsResponse> allOrgIdCache;
@@ -49,10 +63,16 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	private AsyncLoadingCache<CacheKeyAppsInSpace, ListApplicationsResponse> appsInSpaceCache;
 	private AsyncLoadingCache<String, ListRoutesResponse> routesCache;
 	private AsyncLoadingCache<String, ListProcessesResponse> processCache;
+	private AsyncLoadingCache<String, ListRoutesResponse> routesInSpaceCache;
+	private AsyncLoadingCache<String, ListProcessesResponse> processesInSpaceCache;
+	private AsyncLoadingCache<String, GetProcessStatisticsResponse> processStatsCache;
 	
 	private RoutesRequestAggregator routesRequestAggregator;
 	private ProcessRequestAggregator processRequestAggregator;
 	
+	/* the priorities of the cache loads in progress; callers raise them to their own priority on subscription */
+	private final Map<CompletableFuture<?>, SharedRequestPriority> loadPriorities = new ConcurrentHashMap<>();
+	
 	@Value("${cf.cache.timeout.org:3600}")
 	private int refreshCacheOrgLevelInSeconds;
 
@@ -71,6 +91,9 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	@Value("${cf.cache.timeout.process:300}")
 	private int refreshCacheProcessLevelInSeconds;
 	
+	@Value("${cf.cache.timeout.processStats:30}")
+	private int refreshCacheProcessStatsLevelInSeconds;
+	
 	@Value("${cf.cache.expiry.org:120}")
 	private int expiryCacheOrgLevelInSeconds;
 
@@ -88,6 +111,9 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	
 	@Value("${cf.cache.expiry.process:120}")
 	private int expiryCacheProcessLevelInSeconds;
+	
+	@Value("${cf.cache.expiry.processStats:60}")
+	private int expiryCacheProcessStatsLevelInSeconds;
 
 	@Value("${cf.cache.aggregator.blocksize.route:100}")
 	private int aggregatorBlocksizeRoute;
@@ -95,12 +121,36 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	@Value("${cf.cache.aggregator.checkinterval.route:125}")
 	private int aggregatorCheckintervalRoute;
 
+	@Value("${cf.cache.aggregator.concurrency.route:4}")
+	private int aggregatorConcurrencyRoute;
+
 	@Value("${cf.cache.aggregator.blocksize.process:100}")
 	private int aggregatorBlocksizeProcess;
 	
 	@Value("${cf.cache.aggregator.checkinterval.process:125}")
 	private int aggregatorCheckintervalProcess;
 	
+	@Value("${cf.cache.aggregator.concurrency.process:4}")
+	private int aggregatorConcurrencyProcess;
+	
+	@Value("${cf.cache.deltaSync.enabled:false}")
+	private boolean deltaSyncEnabled;
+	
+	@Value("${cf.cache.deltaSync.fullResyncInterval:3600}")
+	private int deltaSyncFullResyncIntervalInSeconds;
+	
+	@Value("${cf.cache.refresh.jitter:0}")
+	private double refreshJitter;
+	
+	@Value("${cf.cache.refresh.maxRate:0}")
+	private double refreshMaxRate;
+	
+	@Value("${cf.cache.compact.enabled:false}")
+	private boolean compactEnabled;
+	
+	@Value("${cf.cache.maximumWeight:0}")
+	private long maximumWeight;
+	
 	@Autowired
 	private InternalMetrics internalMetrics;
 
@@ -108,119 +158,100 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	
 	private CFAccessor parent;
 
-	
+	/* points in time since which updates have to be retrieved by the next delta synchronization */
+	private Instant deltaSyncApplicationsSince;
+	private Instant deltaSyncProcessesSince;
+	private Instant deltaSyncRoutesSince;
 	
 	public CFAccessorCacheCaffeine(CFAccessor parent) {
 		this.parent = parent;
 	}
 	
-	private class OrgCacheLoader implements AsyncCacheLoader<String, ListOrganizationsResponse> {
+	/**
+	 * a cache loader which retrieves its values using a Mono. Loads take over the
+	 * priority of the callers waiting for them (see {@link #fromCache(CompletableFuture)}).
+	 * Refreshes of existing entries are marked as background requests, so that they do
+	 * not compete with requests on which callers are waiting.
+	 */
+	private abstract class ReactiveCacheLoader<K, V> implements AsyncCacheLoader<K, V> {
+		protected abstract Mono<V> retrieve(K key);
+		
 		@Override
-		public @NonNull CompletableFuture<ListOrganizationsResponse> asyncLoad(@NonNull String key,
-				@NonNull Executor executor) {
-			
-			Mono<ListOrganizationsResponse> mono = parent.retrieveOrgIdV3(key)
+		public @NonNull CompletableFuture<V> asyncLoad(@NonNull K key, @NonNull Executor executor) {
+			final SharedRequestPriority priority = createLoadPriority();
+			Mono<V> mono = this.retrieve(key)
 					.subscribeOn(Schedulers.fromExecutor(executor))
+					.contextWrite(priority.asContext())
 					.cache();
-			return mono.toFuture();
+			return trackLoad(mono.toFuture(), priority);
 		}
-	}
-	
-	private class AllOrgIdCacheLoader implements AsyncCacheLoader<String, ListOrganizationsResponse> {
+
 		@Override
-		public @NonNull CompletableFuture<ListOrganizationsResponse> asyncLoad(@NonNull String key,
-				@NonNull Executor executor) {
-			
-			Mono<ListOrganizationsResponse> mono = parent.retrieveAllOrgIdsV3()
+		public @NonNull CompletableFuture<V> asyncReload(@NonNull K key, @NonNull V oldValue, @NonNull Executor executor) {
+			Mono<V> mono = this.retrieve(key)
 					.subscribeOn(Schedulers.fromExecutor(executor))
+					.contextWrite(RequestPriority.BACKGROUND_REFRESH.asContext())
 					.cache();
 			return mono.toFuture();
 		}
 	}
 	
-	private class SpaceCacheLoader implements AsyncCacheLoader<CacheKeySpace, ListSpacesResponse> {
+	private class OrgCacheLoader extends ReactiveCacheLoader<String, ListOrganizationsResponse> {
 		@Override
-		public @NonNull CompletableFuture<ListSpacesResponse> asyncLoad(@NonNull CacheKeySpace key,
-				@NonNull Executor executor) {
-			Mono<ListSpacesResponse> mono = parent.retrieveSpaceIdV3(key.getOrgId(), key.getSpaceName())
-					.subscribeOn(Schedulers.fromExecutor(executor))
-					.cache();
-			return mono.toFuture();
+		protected Mono<ListOrganizationsResponse> retrieve(String key) {
+			return parent.retrieveOrgIdV3(key);
 		}
 	}
 	
-	private class SpaceIdInOrgCacheLoader implements AsyncCacheLoader<String, ListSpacesResponse> {
+	private class AllOrgIdCacheLoader extends ReactiveCacheLoader<String, ListOrganizationsResponse> {
 		@Override
-		public @NonNull CompletableFuture<ListSpacesResponse> asyncLoad(@NonNull String key,
-				@NonNull Executor executor) {
-			Mono<ListSpacesResponse> mono = parent.retrieveSpaceIdsInOrgV3(key)
-					.subscribeOn(Schedulers.fromExecutor(executor))
-					.cache();
-			return mono.toFuture();
+		protected Mono<ListOrganizationsResponse> retrieve(String key) {
+			return parent.retrieveAllOrgIdsV3();
+		}
+	}
+	
+	private class SpaceCacheLoader extends ReactiveCacheLoader<CacheKeySpace, ListSpacesResponse> {
+		@Override
+		protected Mono<ListSpacesResponse> retrieve(CacheKeySpace key) {
+			return parent.retrieveSpaceIdV3(key.getOrgId(), key.getSpaceName());
+		}
+	}
+	
+	private class SpaceIdInOrgCacheLoader extends ReactiveCacheLoader<String, ListSpacesResponse> {
+		@Override
+		protected Mono<ListSpacesResponse> retrieve(String key) {
+			return parent.retrieveSpaceIdsInOrgV3(key);
 		}
 	}
 
-	private class DomainCacheLoader implements AsyncCacheLoader<String, ListOrganizationDomainsResponse> {
+	private class DomainCacheLoader extends ReactiveCacheLoader<String, ListOrganizationDomainsResponse> {
 		@Override
-		public @NonNull CompletableFuture<ListOrganizationDomainsResponse> asyncLoad(@NonNull String key,
-				@NonNull Executor executor) {
-			Mono<ListOrganizationDomainsResponse> mono = parent.retrieveAllDomainsV3(key)
-					.subscribeOn(Schedulers.fromExecutor(executor))
-					.cache();
-			return mono.toFuture();
+		protected Mono<ListOrganizationDomainsResponse> retrieve(String key) {
+			return parent.retrieveAllDomainsV3(key).map(CFAccessorCacheCaffeine.this::compactDomains);
 		}
 	}
 
-	private class AppsInSpaceV3CacheLoader implements AsyncCacheLoader<CacheKeyAppsInSpace, ListApplicationsResponse> {
+	private class AppsInSpaceV3CacheLoader extends ReactiveCacheLoader<CacheKeyAppsInSpace, ListApplicationsResponse> {
 		@Override
-		public @NonNull CompletableFuture<ListApplicationsResponse> asyncLoad(
-			@NonNull CacheKeyAppsInSpace key, @NonNull Executor executor) {
-			Mono<ListApplicationsResponse> mono = parent.retrieveAllApplicationsInSpaceV3(key.getOrgId(), key.getSpaceId())
-					.subscribeOn(Schedulers.fromExecutor(executor))
-					.cache();
-			return mono.toFuture();
+		protected Mono<ListApplicationsResponse> retrieve(CacheKeyAppsInSpace key) {
+			return parent.retrieveAllApplicationsInSpaceV3(key.getOrgId(), key.getSpaceId()).map(CFAccessorCacheCaffeine.this::compactApplications);
 		}
 	}
 	
 	private class RoutesRequestAggregator extends RequestAggregator<String, ListRoutesResponse> {
 
 		public RoutesRequestAggregator() {
-			super(RequestAggregator.Type.ROUTE, internalMetrics, String.class, ListRoutesResponse.class, aggregatorCheckintervalRoute, aggregatorBlocksizeRoute);
+			super(RequestAggregator.Type.ROUTE, internalMetrics, String.class, ListRoutesResponse.class, aggregatorCheckintervalRoute, aggregatorBlocksizeRoute, aggregatorConcurrencyRoute);
 		}
 
 		@Override
 		protected Mono<ListRoutesResponse> sendRequest(List<String> block) {
-			return parent.retrieveRoutesForAppIds(new HashSet<>(block));
+			return parent.retrieveRoutesForAppIds(new HashSet<>(block)).map(CFAccessorCacheCaffeine.this::compactRoutes);
 		}
 
 		@Override
 		protected Map<String, ListRoutesResponse> determineMapOfResponses(ListRoutesResponse response) {
-			if (response == null || response.getResources() == null) {
-				return Collections.emptyMap();
-			}
-			
-			Map<String, List<RouteResource>> map = new HashMap<>();
-			
-			response.getResources().forEach(rr -> 
-				rr.getDestinations().forEach(dest -> {
-					String appId = dest.getApplication().getApplicationId();
-					map.compute(appId, (key, lrr) -> {
-						if (lrr == null) {
-							lrr = new LinkedList<>();
-						}
-						lrr.add(rr);
-						return lrr;
-					});
-				})
-			);
-			
-			Map<String, ListRoutesResponse> resultMap = new HashMap<>();
-			map.forEach((k, lrr) -> {
-				ListRoutesResponse fullLrr = ListRoutesResponse.builder().resources(lrr).build();
-				resultMap.put(k, fullLrr);
-			});
-			
-			return resultMap;
+			return ResponsesByApplication.groupRoutes(response);
 		}
 		
 	}
@@ -231,7 +262,18 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 				@NonNull Executor executor) {
 			
 			CompletableFuture<ListRoutesResponse> future = new CompletableFuture<>();
-			routesRequestAggregator.addToQueue(key, future);
+			final SharedRequestPriority priority = createLoadPriority();
+			routesRequestAggregator.addToQueue(key, future, priority);
+			return trackLoad(future, priority);
+		}
+
+		@Override
+		public @NonNull CompletableFuture<ListRoutesResponse> asyncReload(@NonNull String key, @NonNull ListRoutesResponse oldValue,
+				@NonNull Executor executor) {
+			
+			// nobody is waiting for a refresh; callers are served with the old value in the meantime
+			CompletableFuture<ListRoutesResponse> future = new CompletableFuture<>();
+			routesRequestAggregator.addToQueue(key, future, new SharedRequestPriority(RequestPriority.BACKGROUND_REFRESH));
 			return future;
 		}
 	}
@@ -239,39 +281,17 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	private class ProcessRequestAggregator extends RequestAggregator<String, ListProcessesResponse> {
 
 		public ProcessRequestAggregator() {
-			super(RequestAggregator.Type.PROCESS, internalMetrics, String.class, ListProcessesResponse.class, aggregatorCheckintervalProcess, aggregatorBlocksizeProcess);
+			super(RequestAggregator.Type.PROCESS, internalMetrics, String.class, ListProcessesResponse.class, aggregatorCheckintervalProcess, aggregatorBlocksizeProcess, aggregatorConcurrencyProcess);
 		}
 
 		@Override
 		protected Mono<ListProcessesResponse> sendRequest(List<String> block) {
-			return parent.retrieveWebProcessesForAppIds(new HashSet<>(block));
+			return parent.retrieveWebProcessesForAppIds(new HashSet<>(block)).map(CFAccessorCacheCaffeine.this::compactProcesses);
 		}
 
 		@Override
 		protected Map<String, ListProcessesResponse> determineMapOfResponses(ListProcessesResponse response) {
-			if (response == null || response.getResources() == null) {
-				return Collections.emptyMap();
-			}
-			
-			Map<String, List<ProcessResource>> map = new HashMap<>();
-			response.getResources().forEach(pr -> {
-				String appId = pr.getRelationships().getApp().getData().getId();
-				map.compute(appId, (key, lpr) -> {
-					if (lpr == null) {
-						lpr = new LinkedList<>();
-					}
-					lpr.add(pr);
-					return lpr;
-				});
-			});
-			
-			Map<String, ListProcessesResponse> resultMap = new HashMap<>();
-			map.forEach((k, lpr) -> {
-				ListProcessesResponse fullLrr = ListProcessesResponse.builder().resources(lpr).build();
-				resultMap.put(k, fullLrr);
-			});
-			
-			return resultMap;
+			return ResponsesByApplication.groupProcesses(response);
 		}
 
 	}
@@ -282,11 +302,49 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 				@NonNull Executor executor) {
 			
 			CompletableFuture<ListProcessesResponse> future = new CompletableFuture<>();
-			processRequestAggregator.addToQueue(key, future);
+			final SharedRequestPriority priority = createLoadPriority();
+			processRequestAggregator.addToQueue(key, future, priority);
+			return trackLoad(future, priority);
+		}
+
+		@Override
+		public @NonNull CompletableFuture<ListProcessesResponse> asyncReload(@NonNull String key, @NonNull ListProcessesResponse oldValue,
+				@NonNull Executor executor) {
+			
+			// nobody is waiting for a refresh; callers are served with the old value in the meantime
+			CompletableFuture<ListProcessesResponse> future = new CompletableFuture<>();
+			processRequestAggregator.addToQueue(key, future, new SharedRequestPriority(RequestPriority.BACKGROUND_REFRESH));
 			return future;
 		}
 	}
 	
+	private class RoutesInSpaceCacheLoader extends ReactiveCacheLoader<String, ListRoutesResponse> {
+		@Override
+		protected Mono<ListRoutesResponse> retrieve(String key) {
+			return parent.retrieveRoutesForSpaceId(key)
+					.map(CFAccessorCacheCaffeine.this::compactRoutes)
+					.doOnNext(response -> ResponsesByApplication.groupRoutes(response)
+							.forEach((appId, lrr) -> routesCache.put(appId, CompletableFuture.completedFuture(lrr))));
+		}
+	}
+	
+	private class ProcessesInSpaceCacheLoader extends ReactiveCacheLoader<String, ListProcessesResponse> {
+		@Override
+		protected Mono<ListProcessesResponse> retrieve(String key) {
+			return parent.retrieveWebProcessesForSpaceId(key)
+					.map(CFAccessorCacheCaffeine.this::compactProcesses)
+					.doOnNext(response -> ResponsesByApplication.groupProcesses(response)
+							.forEach((appId, lpr) -> processCache.put(appId, CompletableFuture.completedFuture(lpr))));
+		}
+	}
+	
+	private class ProcessStatsCacheLoader extends ReactiveCacheLoader<String, GetProcessStatisticsResponse> {
+		@Override
+		protected Mono<GetProcessStatisticsResponse> retrieve(String key) {
+			return parent.retrieveProcessStatistics(key);
+		}
+	}
+	
 	@PostConstruct
 	public void setupCaches() {
 		log.info("Cache refresh timings: org cache: {}s, space cache: {}s, app cache: {}s, app cache: {}s, domain cache: {}s, route cache: {}s, process cache: {}s", 
@@ -296,15 +354,35 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 		
 		Scheduler caffeineScheduler = Scheduler.forScheduledExecutorService(new ScheduledThreadPoolExecutor(1));
 		
+		if (this.deltaSyncEnabled) {
+			log.info("Delta synchronization of applications, routes and processes enabled; full resynchronization happens at most every {}s", 
+					this.deltaSyncFullResyncIntervalInSeconds);
+			
+			final Instant now = Instant.now();
+			this.deltaSyncApplicationsSince = now;
+			this.deltaSyncProcessesSince = now;
+			this.deltaSyncRoutesSince = now;
+		}
+		
 		this.routesRequestAggregator = new RoutesRequestAggregator();
 		this.processRequestAggregator = new ProcessRequestAggregator();
 		
+		// NB: Caffeine only permits a weigher in conjunction with a maximum weight
+		final long cacheMaximumWeight = this.maximumWeight > 0 ? this.maximumWeight : Long.MAX_VALUE;
+		if (this.maximumWeight > 0 && !this.compactEnabled) {
+			log.warn("Option cf.cache.maximumWeight is ignored, as the size of the caches can only be estimated with option cf.cache.compact.enabled set");
+		}
+		final CacheRefreshPacer pacer = new CacheRefreshPacer(this.refreshJitter, this.refreshMaxRate, this.internalMetrics);
+		final int refreshAppsInSpaceInSeconds = this.determineRefreshOfDeltaSynchronizedCache(this.refreshCacheApplicationLevelInSeconds);
+		final int refreshRoutesInSeconds = this.determineRefreshOfDeltaSynchronizedCache(this.refreshCacheRouteLevelInSeconds);
+		final int refreshProcessesInSeconds = this.determineRefreshOfDeltaSynchronizedCache(this.refreshCacheProcessLevelInSeconds);
+		
 		this.orgCache = Caffeine.newBuilder()
 				.expireAfterAccess(this.expiryCacheOrgLevelInSeconds, TimeUnit.SECONDS)
 				.refreshAfterWrite(this.refreshCacheOrgLevelInSeconds, TimeUnit.SECONDS)
 				.scheduler(caffeineScheduler)
 				.recordStats()
-				.buildAsync(new OrgCacheLoader());
+				.buildAsync(pacer.pace("orgCache", this.refreshCacheOrgLevelInSeconds, new OrgCacheLoader()));
 		this.internalMetrics.addCaffeineCache("orgCache", this.orgCache);
 		
 		this.allOrgIdCache = Caffeine.newBuilder()
@@ -312,7 +390,7 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 				.refreshAfterWrite(this.refreshCacheOrgLevelInSeconds, TimeUnit.SECONDS)
 				.recordStats()
 				.scheduler(caffeineScheduler)
-				.buildAsync(new AllOrgIdCacheLoader());
+				.buildAsync(pacer.pace("allOrgCache", this.refreshCacheOrgLevelInSeconds, new AllOrgIdCacheLoader()));
 		this.internalMetrics.addCaffeineCache("allOrgCache", this.allOrgIdCache);
 		
 		this.spaceCache = Caffeine.newBuilder()
@@ -320,7 +398,7 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 				.refreshAfterWrite(this.refreshCacheSpaceLevelInSeconds, TimeUnit.SECONDS)
 				.recordStats()
 				.scheduler(caffeineScheduler)
-				.buildAsync(new SpaceCacheLoader());
+				.buildAsync(pacer.pace("spaceCache", this.refreshCacheSpaceLevelInSeconds, new SpaceCacheLoader()));
 		this.internalMetrics.addCaffeineCache("spaceCache", this.spaceCache);
 		
 		this.spaceIdInOrgCache = Caffeine.newBuilder()
@@ -328,41 +406,157 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 				.refreshAfterWrite(this.refreshCacheSpaceLevelInSeconds, TimeUnit.SECONDS)
 				.recordStats()
 				.scheduler(caffeineScheduler)
-				.buildAsync(new SpaceIdInOrgCacheLoader());
+				.buildAsync(pacer.pace("spaceInOrgCache", this.refreshCacheSpaceLevelInSeconds, new SpaceIdInOrgCacheLoader()));
 		this.internalMetrics.addCaffeineCache("spaceInOrgCache", this.spaceIdInOrgCache);
 
-		this.domainsInOrgCache = Caffeine.newBuilder()
+		this.domainsInOrgCache = this.newWeighedCacheBuilder(cacheMaximumWeight)
 				.expireAfterAccess(this.expiryCacheDomainLevelInSeconds, TimeUnit.SECONDS)
 				.refreshAfterWrite(this.refreshCacheDomainLevelInSeconds, TimeUnit.SECONDS)
 				.recordStats()
 				.scheduler(caffeineScheduler)
-				.buildAsync(new DomainCacheLoader());
+				.buildAsync(pacer.pace("domain", this.refreshCacheDomainLevelInSeconds, new DomainCacheLoader()));
 		this.internalMetrics.addCaffeineCache("domain", this.domainsInOrgCache);
+		this.registerCacheWeightFunction("domain", this.domainsInOrgCache);
 
-		this.appsInSpaceCache = Caffeine.newBuilder()
+		this.appsInSpaceCache = this.newWeighedCacheBuilder(cacheMaximumWeight)
 				.expireAfterAccess(this.expiryCacheApplicationLevelInSeconds, TimeUnit.SECONDS)
-				.refreshAfterWrite(this.refreshCacheApplicationLevelInSeconds, TimeUnit.SECONDS)
+				.refreshAfterWrite(refreshAppsInSpaceInSeconds, TimeUnit.SECONDS)
 				.recordStats()
 				.scheduler(caffeineScheduler)
-				.buildAsync(new AppsInSpaceV3CacheLoader());
+				.buildAsync(pacer.pace("appsInSpace", refreshAppsInSpaceInSeconds, new AppsInSpaceV3CacheLoader()));
 		this.internalMetrics.addCaffeineCache("appsInSpace", this.appsInSpaceCache);
+		this.registerCacheWeightFunction("appsInSpace", this.appsInSpaceCache);
 		
-		this.routesCache = Caffeine.newBuilder()
+		this.routesCache = this.newWeighedCacheBuilder(cacheMaximumWeight)
 				.expireAfterAccess(this.expiryCacheRouteLevelInSeconds, TimeUnit.SECONDS)
-				.refreshAfterWrite(this.refreshCacheRouteLevelInSeconds, TimeUnit.SECONDS)
+				.refreshAfterWrite(refreshRoutesInSeconds, TimeUnit.SECONDS)
 				.recordStats()
 				.scheduler(caffeineScheduler)
-				.buildAsync(new RoutesCacheLoader());
+				.buildAsync(pacer.pace("routes", refreshRoutesInSeconds, new RoutesCacheLoader()));
 		this.internalMetrics.addCaffeineCache("routes", this.routesCache);
+		this.registerCacheWeightFunction("routes", this.routesCache);
 
-		this.processCache = Caffeine.newBuilder()
+		this.processCache = this.newWeighedCacheBuilder(cacheMaximumWeight)
 				.expireAfterAccess(this.expiryCacheProcessLevelInSeconds, TimeUnit.SECONDS)
-				.refreshAfterWrite(this.refreshCacheProcessLevelInSeconds, TimeUnit.SECONDS)
+				.refreshAfterWrite(refreshProcessesInSeconds, TimeUnit.SECONDS)
 				.recordStats()
 				.scheduler(caffeineScheduler)
-				.buildAsync(new ProcessCacheLoader());
+				.buildAsync(pacer.pace("process", refreshProcessesInSeconds, new ProcessCacheLoader()));
 		this.internalMetrics.addCaffeineCache("process", this.processCache);
+		this.registerCacheWeightFunction("process", this.processCache);
+		
+		this.routesInSpaceCache = this.newWeighedCacheBuilder(cacheMaximumWeight)
+				.expireAfterAccess(this.expiryCacheRouteLevelInSeconds, TimeUnit.SECONDS)
+				.refreshAfterWrite(refreshRoutesInSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.scheduler(caffeineScheduler)
+				.buildAsync(pacer.pace("routesInSpace", refreshRoutesInSeconds, new RoutesInSpaceCacheLoader()));
+		this.internalMetrics.addCaffeineCache("routesInSpace", this.routesInSpaceCache);
+		this.registerCacheWeightFunction("routesInSpace", this.routesInSpaceCache);
+		
+		this.processesInSpaceCache = this.newWeighedCacheBuilder(cacheMaximumWeight)
+				.expireAfterAccess(this.expiryCacheProcessLevelInSeconds, TimeUnit.SECONDS)
+				.refreshAfterWrite(refreshProcessesInSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.scheduler(caffeineScheduler)
+				.buildAsync(pacer.pace("processesInSpace", refreshProcessesInSeconds, new ProcessesInSpaceCacheLoader()));
+		this.internalMetrics.addCaffeineCache("processesInSpace", this.processesInSpaceCache);
+		this.registerCacheWeightFunction("processesInSpace", this.processesInSpaceCache);
+		
+		/*
+		 * The state of instances changes much more often than the processes themselves;
+		 * thus, the statistics are neither delta-synchronized nor refreshed as seldom.
+		 */
+		this.processStatsCache = Caffeine.newBuilder()
+				.expireAfterAccess(this.expiryCacheProcessStatsLevelInSeconds, TimeUnit.SECONDS)
+				.refreshAfterWrite(this.refreshCacheProcessStatsLevelInSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.scheduler(caffeineScheduler)
+				.buildAsync(pacer.pace("processStats", this.refreshCacheProcessStatsLevelInSeconds, new ProcessStatsCacheLoader()));
+		this.internalMetrics.addCaffeineCache("processStats", this.processStatsCache);
+		
+	}
+	
+	/* nobody has subscribed yet; callers raise the priority to theirs as soon as they subscribe */
+	private static SharedRequestPriority createLoadPriority() {
+		return new SharedRequestPriority(RequestPriority.lowest());
+	}
+	
+	private <V> CompletableFuture<V> trackLoad(CompletableFuture<V> future, SharedRequestPriority priority) {
+		this.loadPriorities.put(future, priority);
+		future.whenComplete((value, throwable) -> this.loadPriorities.remove(future));
+		return future;
+	}
+	
+	/**
+	 * provides the value of a cache entry; if the entry is still being loaded, the load
+	 * is raised to the priority of the subscriber
+	 */
+	private <V> Mono<V> fromCache(CompletableFuture<V> future) {
+		return Mono.deferContextual(contextView -> {
+			final SharedRequestPriority loadPriority = this.loadPriorities.get(future);
+			if (loadPriority == null) {
+				return Mono.fromFuture(future);
+			}
+			
+			final Disposable following = loadPriority.follow(SharedRequestPriority.fromContext(contextView));
+			return Mono.fromFuture(future).doFinally(signal -> following.dispose());
+		});
+	}
+	
+	/*
+	 * The weight is estimated based on the attributes, which are retained by compacting the responses
+	 * (see CompactResponses.estimateWeight). For responses stored as they are retrieved, the estimate would
+	 * be far too low; thus, weighing (and limiting the size of) the caches requires compaction.
+	 */
+	private Caffeine<Object, Object> newWeighedCacheBuilder(long cacheMaximumWeight) {
+		final Caffeine<Object, Object> builder = Caffeine.newBuilder();
+		if (!this.compactEnabled) {
+			return builder;
+		}
+		
+		return builder.maximumWeight(cacheMaximumWeight).weigher(RESPONSE_WEIGHER);
+	}
+	
+	private void registerCacheWeightFunction(String cacheName, AsyncLoadingCache<?, ?> cache) {
+		if (this.compactEnabled) {
+			this.internalMetrics.registerCacheWeightFunction(cacheName, () -> determineWeightedSize(cache));
+		}
+	}
+	
+	private static double determineWeightedSize(AsyncLoadingCache<?, ?> cache) {
+		return cache.synchronous().policy().eviction()
+				.map(eviction -> eviction.weightedSize().orElse(0L))
+				.orElse(0L)
+				.doubleValue();
+	}
+	
+	private ListApplicationsResponse compactApplications(ListApplicationsResponse response) {
+		return this.compactEnabled ? CompactResponses.compactApplications(response) : response;
+	}
+	
+	private ListProcessesResponse compactProcesses(ListProcessesResponse response) {
+		return this.compactEnabled ? CompactResponses.compactProcesses(response) : response;
+	}
+	
+	private ListRoutesResponse compactRoutes(ListRoutesResponse response) {
+		return this.compactEnabled ? CompactResponses.compactRoutes(response) : response;
+	}
+	
+	private ListOrganizationDomainsResponse compactDomains(ListOrganizationDomainsResponse response) {
+		return this.compactEnabled ? CompactResponses.compactDomains(response) : response;
+	}
+	
+	private int determineRefreshOfDeltaSynchronizedCache(int refreshInSeconds) {
+		if (!this.deltaSyncEnabled) {
+			return refreshInSeconds;
+		}
 		
+		/*
+		 * Changes are applied by the delta synchronization; refreshing the entire cache entry
+		 * is only required to catch deletions, which are not reported by the delta.
+		 */
+		return Math.max(refreshInSeconds, this.deltaSyncFullResyncIntervalInSeconds);
 	}
 
 	@Override
@@ -372,46 +566,70 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 
 	@Override
 	public Mono<ListOrganizationsResponse> retrieveOrgIdV3(String orgName) {
-		return Mono.fromFuture(this.orgCache.get(orgName));
+		return this.fromCache(this.orgCache.get(orgName));
 	}
 
 	@Override
 	public Mono<ListOrganizationsResponse> retrieveAllOrgIdsV3() {
-		return Mono.fromFuture(this.allOrgIdCache.get("all"));
+		return this.fromCache(this.allOrgIdCache.get("all"));
 	}
 
 	@Override
 	public Mono<ListSpacesResponse> retrieveSpaceIdV3(String orgId, String spaceName) {
 		final CacheKeySpace key = new CacheKeySpace(orgId, spaceName);
 		
-		return Mono.fromFuture(this.spaceCache.get(key));
+		return this.fromCache(this.spaceCache.get(key));
 	}
 
 	@Override
 	public Mono<ListSpacesResponse> retrieveSpaceIdsInOrgV3(String orgId) {
-		return Mono.fromFuture(this.spaceIdInOrgCache.get(orgId));
+		return this.fromCache(this.spaceIdInOrgCache.get(orgId));
 	}
 
 	@Override
 	public Mono<ListApplicationsResponse> retrieveAllApplicationsInSpaceV3(String orgId, String spaceId) {
 		final CacheKeyAppsInSpace key = new CacheKeyAppsInSpace(orgId, spaceId);
 
-		return Mono.fromFuture(this.appsInSpaceCache.get(key));
+		return this.fromCache(this.appsInSpaceCache.get(key));
+	}
+
+	/* The following lookups by multiple names are not cached: the result depends on the whole set of
+	 * names requested, which rarely is the same for two requests. The results of the target resolution
+	 * are cached by CachingTargetResolver instead.
+	 */
+
+	@Override
+	public Mono<ListOrganizationsResponse> retrieveOrgIdsV3(Set<String> orgNames) {
+		return this.parent.retrieveOrgIdsV3(orgNames);
+	}
+
+	@Override
+	public Mono<ListSpacesResponse> retrieveSpaceIdsV3(String orgId, Set<String> spaceNames) {
+		return this.parent.retrieveSpaceIdsV3(orgId, spaceNames);
+	}
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsInSpaceV3(String orgId, String spaceId, Set<String> applicationNames, String labelSelector) {
+		if (applicationNames == null && labelSelector == null) {
+			return this.retrieveAllApplicationsInSpaceV3(orgId, spaceId);
+		}
+		
+		return this.parent.retrieveApplicationsInSpaceV3(orgId, spaceId, applicationNames, labelSelector);
 	}
 
 	@Override
 	public Mono<ListOrganizationDomainsResponse> retrieveAllDomainsV3(String orgId) {
-		return Mono.fromFuture(this.domainsInOrgCache.get(orgId));
+		return this.fromCache(this.domainsInOrgCache.get(orgId));
 	}
 
 	@Override
 	public Mono<ListProcessesResponse> retrieveWebProcessesForAppId(String applicationId) {
-		return Mono.fromFuture(this.processCache.get(applicationId));
+		return this.fromCache(this.processCache.get(applicationId));
 	}
 	
 	@Override
 	public Mono<ListRoutesResponse> retrieveRoutesForAppId(String appId) {
-		return Mono.fromFuture(this.routesCache.get(appId));
+		return this.fromCache(this.routesCache.get(appId));
 	}
 	
 	@Override
@@ -436,6 +654,346 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	}
 	
 	
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId) {
+		return this.fromCache(this.routesInSpaceCache.get(spaceId));
+	}
+	
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId) {
+		return this.fromCache(this.processesInSpaceCache.get(spaceId));
+	}
+	
+	/*
+	 * Loading the entry of the space also fills the entries of its applications;
+	 * thus, the space's response does not need to be filtered once more for each application.
+	 */
+	
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForAppIdInSpace(String spaceId, String applicationId) {
+		return this.retrieveWebProcessesForSpaceId(spaceId).flatMap(response -> {
+			final CompletableFuture<ListProcessesResponse> entry = this.processCache.getIfPresent(applicationId);
+			if (entry == null) {
+				// e.g. the application has no web process or the entry has already expired
+				return Mono.just(ResponsesByApplication.filterProcesses(response, applicationId));
+			}
+			return this.fromCache(entry);
+		});
+	}
+	
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForAppIdInSpace(String spaceId, String applicationId) {
+		return this.retrieveRoutesForSpaceId(spaceId).flatMap(response -> {
+			final CompletableFuture<ListRoutesResponse> entry = this.routesCache.getIfPresent(applicationId);
+			if (entry == null) {
+				// e.g. no route is bound to the application or the entry has already expired
+				return Mono.just(ResponsesByApplication.filterRoutes(response, applicationId));
+			}
+			return this.fromCache(entry);
+		});
+	}
+	
+	
+	@Override
+	public Mono<GetProcessStatisticsResponse> retrieveProcessStatistics(String processId) {
+		return this.fromCache(this.processStatsCache.get(processId));
+	}
+	
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsUpdatedSince(Instant since) {
+		// updates must not be cached
+		return this.parent.retrieveApplicationsUpdatedSince(since);
+	}
+	
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesUpdatedSince(Instant since) {
+		// updates must not be cached
+		return this.parent.retrieveWebProcessesUpdatedSince(since);
+	}
+	
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesUpdatedSince(Instant since) {
+		// updates must not be cached
+		return this.parent.retrieveRoutesUpdatedSince(since);
+	}
+	
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveAuditEventsSince(Instant since, Set<String> eventTypes) {
+		// events must not be cached
+		return this.parent.retrieveAuditEventsSince(since, eventTypes);
+	}
+	
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveLatestAuditEvent(Set<String> eventTypes) {
+		// events must not be cached
+		return this.parent.retrieveLatestAuditEvent(eventTypes);
+	}
+	
+	@Scheduled(fixedDelayString = "${cf.cache.deltaSync.interval:60}000", initialDelayString = "${cf.cache.deltaSync.interval:60}000")
+	@SuppressWarnings("unused")
+	private void scheduledDeltaSynchronization() {
+		if (!this.deltaSyncEnabled) {
+			return;
+		}
+		
+		try {
+			this.synchronizeDelta().block();
+		} catch (RuntimeException e) {
+			/*
+			 * The points in time of the last synchronization have not been moved forward;
+			 * thus, the next run will retrieve the missed updates again.
+			 */
+			log.warn("Delta synchronization of the CF topology failed; retrying with the next run", e);
+		}
+	}
+	
+	/**
+	 * retrieves the applications, processes and routes which were updated since the last synchronization
+	 * and patches the entries of the caches, which are affected by them. Entries which are not cached yet
+	 * are not loaded. Deleted resources are not reported by the Cloud Controller; they are only removed by 
+	 * the (slower) regular refresh of the caches.
+	 * @return a Mono, which completes once the delta has been applied
+	 */
+	public Mono<Void> synchronizeDelta() {
+		if (!this.deltaSyncEnabled) {
+			return Mono.empty();
+		}
+		
+		/*
+		 * Note: Applications are synchronized first, such that the spaces of new applications are known
+		 * when patching the processes.
+		 */
+		Mono<Void> applications = Mono.defer(() -> this.parent.retrieveApplicationsUpdatedSince(this.deltaSyncApplicationsSince))
+				.doOnNext(response -> this.deltaSyncApplicationsSince = determineLatestUpdate(nullSafe(response.getResources()), this.deltaSyncApplicationsSince))
+				.map(this::compactApplications)
+				.doOnNext(this::applyApplicationsDelta)
+				.then();
+		
+		Mono<Void> processes = Mono.defer(() -> this.parent.retrieveWebProcessesUpdatedSince(this.deltaSyncProcessesSince))
+				.doOnNext(response -> this.deltaSyncProcessesSince = determineLatestUpdate(nullSafe(response.getResources()), this.deltaSyncProcessesSince))
+				.map(this::compactProcesses)
+				.doOnNext(this::applyProcessesDelta)
+				.then();
+		
+		Mono<Void> routes = Mono.defer(() -> this.parent.retrieveRoutesUpdatedSince(this.deltaSyncRoutesSince))
+				.doOnNext(response -> this.deltaSyncRoutesSince = determineLatestUpdate(nullSafe(response.getResources()), this.deltaSyncRoutesSince))
+				.map(this::compactRoutes)
+				.doOnNext(this::applyRoutesDelta)
+				.then();
+		
+		return applications.then(processes).then(routes)
+				.contextWrite(RequestPriority.BACKGROUND_REFRESH.asContext());
+	}
+	
+	private void applyApplicationsDelta(ListApplicationsResponse response) {
+		final List<ApplicationResource> changed = nullSafe(response.getResources());
+		if (changed.isEmpty()) {
+			return;
+		}
+		
+		final Set<String> changedIds = determineIds(changed);
+		final Map<String, List<ApplicationResource>> changedBySpace = changed.stream()
+				.filter(app -> app.getRelationships() != null && determineRelationshipId(app.getRelationships().getSpace()) != null)
+				.collect(Collectors.groupingBy(app -> determineRelationshipId(app.getRelationships().getSpace())));
+		
+		int updates = 0;
+		for (Map.Entry<CacheKeyAppsInSpace, CompletableFuture<ListApplicationsResponse>> entry : this.appsInSpaceCache.asMap().entrySet()) {
+			final List<ApplicationResource> relevant = changedBySpace.getOrDefault(entry.getKey().getSpaceId(), List.of());
+			final ListApplicationsResponse cached = determineCompletedValue(entry.getValue());
+			if (cached == null || !isAffected(nullSafe(cached.getResources()), changedIds, relevant)) {
+				continue;
+			}
+			
+			final ListApplicationsResponse patched = ListApplicationsResponse.builder().from(cached)
+					.resources(mergeResources(nullSafe(cached.getResources()), changedIds, relevant))
+					.build();
+			this.appsInSpaceCache.put(entry.getKey(), CompletableFuture.completedFuture(patched));
+			updates++;
+		}
+		
+		log.debug("Delta synchronization: {} applications changed, {} cache entries patched", changed.size(), updates);
+		this.internalMetrics.countDeltaSyncUpdates("appsInSpace", updates);
+	}
+	
+	private void applyProcessesDelta(ListProcessesResponse response) {
+		final List<ProcessResource> changed = nullSafe(response.getResources());
+		if (changed.isEmpty()) {
+			return;
+		}
+		
+		final Set<String> changedIds = determineIds(changed);
+		final Map<String, ListProcessesResponse> changedByApplication = ResponsesByApplication.groupProcesses(response);
+		
+		int updates = 0;
+		for (Map.Entry<String, ListProcessesResponse> changedOfApp : changedByApplication.entrySet()) {
+			final ListProcessesResponse cached = determineCompletedValue(this.processCache.asMap().get(changedOfApp.getKey()));
+			if (cached == null) {
+				continue;
+			}
+			
+			final ListProcessesResponse patched = ListProcessesResponse.builder().from(cached)
+					.resources(mergeResources(nullSafe(cached.getResources()), changedIds, nullSafe(changedOfApp.getValue().getResources())))
+					.build();
+			this.processCache.put(changedOfApp.getKey(), CompletableFuture.completedFuture(patched));
+			updates++;
+		}
+		this.internalMetrics.countDeltaSyncUpdates("process", updates);
+		
+		// processes do not refer to their space; it has to be derived from the applications known
+		final Map<String, String> spaceIdByApplicationId = this.determineSpaceIdByApplicationId();
+		final Map<String, List<ProcessResource>> changedBySpace = new HashMap<>();
+		changedByApplication.forEach((appId, lpr) -> {
+			final String spaceId = spaceIdByApplicationId.get(appId);
+			if (spaceId != null) {
+				changedBySpace.computeIfAbsent(spaceId, key -> new LinkedList<>()).addAll(nullSafe(lpr.getResources()));
+			}
+		});
+		
+		int spaceUpdates = 0;
+		for (Map.Entry<String, CompletableFuture<ListProcessesResponse>> entry : this.processesInSpaceCache.asMap().entrySet()) {
+			final List<ProcessResource> relevant = changedBySpace.getOrDefault(entry.getKey(), List.of());
+			final ListProcessesResponse cached = determineCompletedValue(entry.getValue());
+			if (cached == null || !isAffected(nullSafe(cached.getResources()), changedIds, relevant)) {
+				continue;
+			}
+			
+			final ListProcessesResponse patched = ListProcessesResponse.builder().from(cached)
+					.resources(mergeResources(nullSafe(cached.getResources()), changedIds, relevant))
+					.build();
+			this.processesInSpaceCache.put(entry.getKey(), CompletableFuture.completedFuture(patched));
+			spaceUpdates++;
+		}
+		this.internalMetrics.countDeltaSyncUpdates("processesInSpace", spaceUpdates);
+		
+		log.debug("Delta synchronization: {} processes changed, {} cache entries patched", changed.size(), updates + spaceUpdates);
+	}
+	
+	private void applyRoutesDelta(ListRoutesResponse response) {
+		final List<RouteResource> changed = nullSafe(response.getResources());
+		if (changed.isEmpty()) {
+			return;
+		}
+		
+		final Set<String> changedIds = determineIds(changed);
+		final Map<String, ListRoutesResponse> changedByApplication = ResponsesByApplication.groupRoutes(response);
+		
+		/*
+		 * Note: A route may have been unbound from an application; thus, all cached entries
+		 * containing a changed route need to be considered - not only those of the applications,
+		 * to which the route is bound now.
+		 */
+		int updates = 0;
+		for (Map.Entry<String, CompletableFuture<ListRoutesResponse>> entry : this.routesCache.asMap().entrySet()) {
+			final ListRoutesResponse changedOfApp = changedByApplication.get(entry.getKey());
+			final List<RouteResource> relevant = changedOfApp == null ? List.of() : nullSafe(changedOfApp.getResources());
+			final ListRoutesResponse cached = determineCompletedValue(entry.getValue());
+			if (cached == null || !isAffected(nullSafe(cached.getResources()), changedIds, relevant)) {
+				continue;
+			}
+			
+			final ListRoutesResponse patched = ListRoutesResponse.builder().from(cached)
+					.resources(mergeResources(nullSafe(cached.getResources()), changedIds, relevant))
+					.build();
+			this.routesCache.put(entry.getKey(), CompletableFuture.completedFuture(patched));
+			updates++;
+		}
+		this.internalMetrics.countDeltaSyncUpdates("routes", updates);
+		
+		final Map<String, List<RouteResource>> changedBySpace = changed.stream()
+				.filter(route -> route.getRelationships() != null && determineRelationshipId(route.getRelationships().getSpace()) != null)
+				.collect(Collectors.groupingBy(route -> determineRelationshipId(route.getRelationships().getSpace())));
+		
+		int spaceUpdates = 0;
+		for (Map.Entry<String, CompletableFuture<ListRoutesResponse>> entry : this.routesInSpaceCache.asMap().entrySet()) {
+			final List<RouteResource> relevant = changedBySpace.getOrDefault(entry.getKey(), List.of());
+			final ListRoutesResponse cached = determineCompletedValue(entry.getValue());
+			if (cached == null || !isAffected(nullSafe(cached.getResources()), changedIds, relevant)) {
+				continue;
+			}
+			
+			final ListRoutesResponse patched = ListRoutesResponse.builder().from(cached)
+					.resources(mergeResources(nullSafe(cached.getResources()), changedIds, relevant))
+					.build();
+			this.routesInSpaceCache.put(entry.getKey(), CompletableFuture.completedFuture(patched));
+			spaceUpdates++;
+		}
+		this.internalMetrics.countDeltaSyncUpdates("routesInSpace", spaceUpdates);
+		
+		log.debug("Delta synchronization: {} routes changed, {} cache entries patched", changed.size(), updates + spaceUpdates);
+	}
+	
+	private Map<String, String> determineSpaceIdByApplicationId() {
+		final Map<String, String> result = new HashMap<>();
+		this.appsInSpaceCache.asMap().forEach((key, future) -> {
+			final ListApplicationsResponse cached = determineCompletedValue(future);
+			if (cached != null) {
+				nullSafe(cached.getResources()).forEach(app -> result.put(app.getId(), key.getSpaceId()));
+			}
+		});
+		return result;
+	}
+	
+	private static <V> V determineCompletedValue(CompletableFuture<V> future) {
+		if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+			return null;
+		}
+		
+		return future.getNow(null);
+	}
+	
+	private static <T> List<T> nullSafe(List<T> list) {
+		return list == null ? List.of() : list;
+	}
+	
+	private static String determineRelationshipId(ToOneRelationship relationship) {
+		if (relationship == null || relationship.getData() == null) {
+			return null;
+		}
+		
+		return relationship.getData().getId();
+	}
+	
+	private static Set<String> determineIds(List<? extends Resource> resources) {
+		return resources.stream().map(Resource::getId).collect(Collectors.toSet());
+	}
+	
+	private static <T extends Resource> boolean isAffected(List<T> cached, Set<String> changedIds, List<T> relevant) {
+		return !relevant.isEmpty() || cached.stream().anyMatch(resource -> changedIds.contains(resource.getId()));
+	}
+	
+	/**
+	 * replaces the resources in a cached list, which have changed
+	 * @param cached the resources currently cached
+	 * @param changedIds the ids of all resources which have changed
+	 * @param relevant the changed resources which belong to the cached list
+	 * @return the new list of resources to be cached
+	 */
+	private static <T extends Resource> List<T> mergeResources(List<T> cached, Set<String> changedIds, List<T> relevant) {
+		final List<T> result = new ArrayList<>(cached.size() + relevant.size());
+		cached.stream().filter(resource -> !changedIds.contains(resource.getId())).forEach(result::add);
+		result.addAll(relevant);
+		return result;
+	}
+	
+	private static Instant determineLatestUpdate(List<? extends Resource> resources, Instant previous) {
+		Instant latest = previous;
+		for (Resource resource : resources) {
+			if (resource.getUpdatedAt() == null) {
+				continue;
+			}
+			
+			try {
+				final Instant updatedAt = Instant.parse(resource.getUpdatedAt());
+				if (updatedAt.isAfter(latest)) {
+					latest = updatedAt;
+				}
+			} catch (DateTimeParseException e) {
+				log.debug("Ignoring unparsable timestamp of last update of resource {}", resource.getId(), e);
+			}
+		}
+		return latest;
+	}
+	
 	@Override
 	public void invalidateCacheApplication() {
 		log.info("Invalidating application cache");
@@ -466,12 +1024,65 @@ public class CFAccessorCacheCaffeine implements CFAccessorCache {
 	public void invalidateCacheRoute() {
 		log.info("Invalidating route cache");
 		this.routesCache.synchronous().invalidateAll();
+		this.routesInSpaceCache.synchronous().invalidateAll();
 	}
 
 	@Override
 	public void invalidateCacheProcess() {
 		log.info("Invalidating process cache");
 		this.processCache.synchronous().invalidateAll();
+		this.processesInSpaceCache.synchronous().invalidateAll();
+		this.processStatsCache.synchronous().invalidateAll();
+	}
+
+	@Override
+	public void refreshCacheApplicationsInSpace(String spaceId) {
+		this.appsInSpaceCache.asMap().keySet().stream()
+			.filter(key -> key.getSpaceId().equals(spaceId))
+			.forEach(key -> refreshIfPresent(this.appsInSpaceCache, key));
+	}
+	
+	@Override
+	public void refreshCacheProcessesOfApplication(String appId, String spaceId) {
+		refreshIfPresent(this.processCache, appId);
+		
+		if (spaceId != null) {
+			refreshIfPresent(this.processesInSpaceCache, spaceId);
+		}
+	}
+	
+	@Override
+	public void refreshCacheRoutesOfApplication(String appId, String spaceId) {
+		refreshIfPresent(this.routesCache, appId);
+		
+		if (spaceId != null) {
+			refreshIfPresent(this.routesInSpaceCache, spaceId);
+		}
+	}
+	
+	@Override
+	public void refreshCacheRoute(String routeId, String spaceId) {
+		// we do not know the applications to which the route was bound; thus, we have to look at all entries
+		this.routesCache.asMap().forEach((appId, future) -> {
+			final ListRoutesResponse cached = determineCompletedValue(future);
+			if (cached != null && nullSafe(cached.getResources()).stream().anyMatch(route -> routeId.equals(route.getId()))) {
+				refreshIfPresent(this.routesCache, appId);
+			}
+		});
+		
+		if (spaceId != null) {
+			refreshIfPresent(this.routesInSpaceCache, spaceId);
+		}
+	}
+	
+	private static <K> void refreshIfPresent(AsyncLoadingCache<K, ?> cache, K key) {
+		/*
+		 * Note: Refreshing keeps serving the current value until the new one has been retrieved.
+		 * Entries, which are not cached, must not be loaded here.
+		 */
+		if (cache.asMap().containsKey(key)) {
+			cache.synchronous().refresh(key);
+		}
 	}
 
 	@Override
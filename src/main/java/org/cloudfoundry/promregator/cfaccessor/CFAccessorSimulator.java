@@ -1,7 +1,9 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -17,16 +19,20 @@ import org.cloudfoundry.client.v3.ToOneRelationship;
 import org.cloudfoundry.client.v3.applications.ApplicationResource;
 import org.cloudfoundry.client.v3.applications.ApplicationState;
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
 import org.cloudfoundry.client.v3.domains.DomainRelationships;
 import org.cloudfoundry.client.v3.domains.DomainResource;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse;
 import org.cloudfoundry.client.v3.organizations.OrganizationResource;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.HealthCheck;
 import org.cloudfoundry.client.v3.processes.HealthCheckType;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
 import org.cloudfoundry.client.v3.processes.ProcessRelationships;
 import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.processes.ProcessState;
+import org.cloudfoundry.client.v3.processes.ProcessStatisticsResource;
 import org.cloudfoundry.client.v3.routes.Application;
 import org.cloudfoundry.client.v3.routes.Destination;
 import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
@@ -294,4 +300,84 @@ public class CFAccessorSimulator implements CFAccessor {
 		ListProcessesResponse resp = ListProcessesResponse.builder().resources(list).build();
 		return Mono.just(resp).delayElement(this.getSleepRandomDuration());
 	}
+
+	private Set<String> determineAppIdsInSpace() {
+		Set<String> appIds = new HashSet<>();
+		for (int i = 1;i<=100;i++) {
+			appIds.add(APP_UUID_PREFIX+i);
+		}
+		return appIds;
+	}
+
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId) {
+		if (SPACE_UUID.equals(spaceId)) {
+			return this.retrieveRoutesForAppIds(this.determineAppIdsInSpace());
+		}
+		
+		log.error("Invalid retrieveRoutesForSpaceId request");
+		return null;
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId) {
+		if (SPACE_UUID.equals(spaceId)) {
+			return this.retrieveWebProcessesForAppIds(this.determineAppIdsInSpace());
+		}
+		
+		log.error("Invalid retrieveWebProcessesForSpaceId request");
+		return null;
+	}
+
+	@Override
+	public Mono<GetProcessStatisticsResponse> retrieveProcessStatistics(String processId) {
+		if (processId.startsWith(PROCESS_UUID_PREFIX)) {
+			List<ProcessStatisticsResource> list = new ArrayList<>(this.amountInstances);
+			for (int i = 0; i < this.amountInstances; i++) {
+				list.add(ProcessStatisticsResource.builder()
+						.type("web")
+						.index(i)
+						.state(ProcessState.RUNNING)
+						.host("127.0.0.1")
+						.uptime(3600L)
+						.fileDescriptorQuota(16384L)
+						.build());
+			}
+			
+			GetProcessStatisticsResponse resp = GetProcessStatisticsResponse.builder().resources(list).build();
+			return Mono.just(resp).delayElement(this.getSleepRandomDuration());
+		}
+		
+		log.error("Invalid retrieveProcessStatistics request");
+		return null;
+	}
+
+	/*
+	 * Note: The simulated topology never changes; thus, there are no updates to report.
+	 */
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsUpdatedSince(Instant since) {
+		return Mono.just(ListApplicationsResponse.builder().build()).delayElement(this.getSleepRandomDuration());
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesUpdatedSince(Instant since) {
+		return Mono.just(ListProcessesResponse.builder().build()).delayElement(this.getSleepRandomDuration());
+	}
+
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesUpdatedSince(Instant since) {
+		return Mono.just(ListRoutesResponse.builder().build()).delayElement(this.getSleepRandomDuration());
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveAuditEventsSince(Instant since, Set<String> eventTypes) {
+		return Mono.just(ListAuditEventsResponse.builder().build()).delayElement(this.getSleepRandomDuration());
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveLatestAuditEvent(Set<String> eventTypes) {
+		return Mono.just(ListAuditEventsResponse.builder().build()).delayElement(this.getSleepRandomDuration());
+	}
 }
@@ -0,0 +1,207 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.cloudfoundry.client.v3.auditevents.AuditEventResource;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Polls the audit events of the Cloud Controller and refreshes those entries of the cache,
+ * which are affected by them (e.g. the processes of an application, which has been scaled).
+ * This permits using long cache timeouts, while changes are still detected quickly.
+ */
+public class CFAuditEventWatcher {
+	private static final Logger log = LoggerFactory.getLogger(CFAuditEventWatcher.class);
+
+	static final Set<String> APPLICATION_EVENT_TYPES = Set.of(
+			"audit.app.create", "audit.app.update", "audit.app.delete-request",
+			"audit.app.start", "audit.app.stop", "audit.app.restage");
+
+	static final Set<String> PROCESS_EVENT_TYPES = Set.of(
+			"audit.app.process.create", "audit.app.process.update", "audit.app.process.delete",
+			"audit.app.process.scale", "audit.app.process.crash");
+
+	static final Set<String> ROUTE_MAPPING_EVENT_TYPES = Set.of(
+			"audit.app.map-route", "audit.app.unmap-route");
+
+	static final Set<String> ROUTE_EVENT_TYPES = Set.of(
+			"audit.route.create", "audit.route.update", "audit.route.delete-request",
+			"audit.route.share", "audit.route.unshare", "audit.route.transfer-owner");
+
+	private static final Set<String> ALL_EVENT_TYPES;
+
+	static {
+		Set<String> all = new HashSet<>();
+		all.addAll(APPLICATION_EVENT_TYPES);
+		all.addAll(PROCESS_EVENT_TYPES);
+		all.addAll(ROUTE_MAPPING_EVENT_TYPES);
+		all.addAll(ROUTE_EVENT_TYPES);
+		ALL_EVENT_TYPES = Set.copyOf(all);
+	}
+
+	private final CFAccessorCache cfAccessorCache;
+
+	private final InternalMetrics internalMetrics;
+
+	@Value("${cf.cache.auditEvents.enabled:false}")
+	private boolean enabled;
+
+	/*
+	 * the creation time of the latest event processed; null until the newest event
+	 * of the Cloud Controller has been determined. Note that the clock of the Cloud Controller
+	 * is used, as a skew to the local clock otherwise would let events slip through.
+	 */
+	private Instant lastEventCreatedAt;
+
+	/* the ids of the events processed, which were created at lastEventCreatedAt */
+	private Set<String> eventIdsAtLastEventCreatedAt = new HashSet<>();
+
+	public CFAuditEventWatcher(CFAccessorCache cfAccessorCache, InternalMetrics internalMetrics) {
+		this.cfAccessorCache = cfAccessorCache;
+		this.internalMetrics = internalMetrics;
+	}
+
+	@Scheduled(fixedDelayString = "${cf.cache.auditEvents.interval:10}000", initialDelayString = "${cf.cache.auditEvents.interval:10}000")
+	@SuppressWarnings("unused")
+	private void scheduledPolling() {
+		if (!this.enabled) {
+			return;
+		}
+
+		try {
+			this.processAuditEvents().block();
+		} catch (RuntimeException e) {
+			// the events will be retrieved again with the next run
+			log.warn("Retrieving audit events from the Cloud Controller failed; retrying with the next run", e);
+		}
+	}
+
+	/**
+	 * retrieves the audit events created since the last run and refreshes the cache entries affected
+	 * @return a Mono, which completes once all events have been processed
+	 */
+	public Mono<Void> processAuditEvents() {
+		return Mono.defer(() -> {
+			if (this.lastEventCreatedAt == null) {
+				/*
+				 * first run: the caches are loaded freshly anyway, so only
+				 * the events created after the newest one are relevant.
+				 */
+				return this.cfAccessorCache.retrieveLatestAuditEvent(ALL_EVENT_TYPES)
+						.doOnNext(this::startAfterResponse);
+			}
+
+			return this.cfAccessorCache.retrieveAuditEventsSince(this.lastEventCreatedAt, ALL_EVENT_TYPES)
+					.doOnNext(this::processResponse);
+		})
+		.contextWrite(RequestPriority.BACKGROUND_REFRESH.asContext())
+		.then();
+	}
+
+	private void startAfterResponse(ListAuditEventsResponse response) {
+		final AuditEventResource newestEvent = response.getResources() == null ? null : response.getResources().stream()
+				.filter(event -> parseCreatedAt(event) != null)
+				.findFirst()
+				.orElse(null);
+
+		this.eventIdsAtLastEventCreatedAt = new HashSet<>();
+		if (newestEvent == null) {
+			// there is no event at all yet; all events to come are relevant
+			this.lastEventCreatedAt = Instant.EPOCH;
+			return;
+		}
+
+		this.lastEventCreatedAt = parseCreatedAt(newestEvent);
+		this.eventIdsAtLastEventCreatedAt.add(newestEvent.getId());
+	}
+
+	private void processResponse(ListAuditEventsResponse response) {
+		final List<AuditEventResource> events = response.getResources();
+		if (events == null) {
+			return;
+		}
+
+		// events are retrieved newest first, but have to be processed in chronological order
+		final List<AuditEventResource> chronologicalEvents = events.stream()
+				.filter(event -> parseCreatedAt(event) != null)
+				.sorted(Comparator.comparing(CFAuditEventWatcher::parseCreatedAt))
+				.toList();
+
+		for (AuditEventResource event : chronologicalEvents) {
+			final Instant createdAt = parseCreatedAt(event);
+			if (createdAt.isBefore(this.lastEventCreatedAt)) {
+				continue;
+			}
+
+			if (createdAt.equals(this.lastEventCreatedAt)) {
+				if (!this.eventIdsAtLastEventCreatedAt.add(event.getId())) {
+					// already processed in an earlier run
+					continue;
+				}
+			} else {
+				this.lastEventCreatedAt = createdAt;
+				this.eventIdsAtLastEventCreatedAt = new HashSet<>();
+				this.eventIdsAtLastEventCreatedAt.add(event.getId());
+			}
+
+			this.processEvent(event);
+		}
+	}
+
+	private void processEvent(AuditEventResource event) {
+		final String type = event.getType();
+		final String targetId = event.getAuditEventTarget() == null ? null : event.getAuditEventTarget().getId();
+		final String spaceId = event.getSpaceRelationship() == null ? null : event.getSpaceRelationship().getId();
+
+		if (targetId == null) {
+			return;
+		}
+
+		log.debug("Processing audit event {} of type {} for target {}", event.getId(), type, targetId);
+
+		if (APPLICATION_EVENT_TYPES.contains(type)) {
+			if (spaceId != null) {
+				this.cfAccessorCache.refreshCacheApplicationsInSpace(spaceId);
+			}
+			// e.g. starting or stopping an application changes the state of its processes
+			this.cfAccessorCache.refreshCacheProcessesOfApplication(targetId, spaceId);
+		} else if (PROCESS_EVENT_TYPES.contains(type)) {
+			this.cfAccessorCache.refreshCacheProcessesOfApplication(targetId, spaceId);
+		} else if (ROUTE_MAPPING_EVENT_TYPES.contains(type)) {
+			this.cfAccessorCache.refreshCacheRoutesOfApplication(targetId, spaceId);
+		} else if (ROUTE_EVENT_TYPES.contains(type)) {
+			this.cfAccessorCache.refreshCacheRoute(targetId, spaceId);
+		} else {
+			return;
+		}
+
+		if (this.internalMetrics != null) {
+			this.internalMetrics.countAuditEvent(type);
+		}
+	}
+
+	private static Instant parseCreatedAt(AuditEventResource event) {
+		if (event.getCreatedAt() == null) {
+			return null;
+		}
+
+		try {
+			return Instant.parse(event.getCreatedAt());
+		} catch (DateTimeParseException e) {
+			log.warn("Unable to parse creation timestamp '{}' of audit event {}", event.getCreatedAt(), event.getId());
+			return null;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Spreads the refreshes of cache entries over time. Entries which were loaded at the same
+ * time (e.g. during startup) otherwise also become due for refresh at the same time, which
+ * causes periodic waves of requests to the CF Cloud Controller.
+ * <ul>
+ * <li>Each refresh is delayed by a random period of up to a configurable fraction of the
+ * cache's refresh interval (jitter). As the refreshed entry is written only then, the
+ * next refresh of the entry is shifted accordingly.</li>
+ * <li>Optionally, refreshes are started at a maximal rate; refreshes exceeding that rate
+ * are queued without blocking any thread.</li>
+ * </ul>
+ * While a refresh is delayed, the cache continues to serve the old value.
+ */
+public class CacheRefreshPacer {
+	private final double jitter;
+
+	private final long slotIntervalInNanos;
+
+	private final InternalMetrics internalMetrics;
+
+	private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+	private final AtomicInteger queueSize = new AtomicInteger(0);
+
+	/**
+	 * @param jitter the fraction of the refresh interval by which refreshes are delayed at most (0 disables jitter)
+	 * @param maxRate the maximal number of refreshes started per second (0 disables limiting the rate)
+	 * @param internalMetrics the internal metrics to report to
+	 */
+	public CacheRefreshPacer(double jitter, double maxRate, InternalMetrics internalMetrics) {
+		this.jitter = Math.max(0.0, Math.min(jitter, 1.0));
+		this.slotIntervalInNanos = maxRate > 0 ? (long) (1_000_000_000L / maxRate) : 0L;
+		this.internalMetrics = internalMetrics;
+
+		this.internalMetrics.registerCacheRefreshQueueSizeFunction(this.queueSize::doubleValue);
+	}
+
+	/**
+	 * wraps a cache loader such that its refreshes are paced
+	 * @param <K> the type of the key of the cache
+	 * @param <V> the type of the value of the cache
+	 * @param cacheName the name of the cache (used for metrics)
+	 * @param refreshIntervalInSeconds the refresh interval of the cache, to which the jitter is relative
+	 * @param loader the loader to be wrapped
+	 * @return the loader, whose refreshes are paced
+	 */
+	public <K, V> AsyncCacheLoader<K, V> pace(String cacheName, int refreshIntervalInSeconds, AsyncCacheLoader<K, V> loader) {
+		final Duration maxJitter = Duration.ofMillis((long) (refreshIntervalInSeconds * 1000L * this.jitter));
+
+		return new AsyncCacheLoader<>() {
+			@Override
+			public @NonNull CompletableFuture<? extends V> asyncLoad(@NonNull K key, @NonNull Executor executor) throws Exception {
+				return loader.asyncLoad(key, executor);
+			}
+
+			@Override
+			public @NonNull CompletableFuture<? extends V> asyncReload(@NonNull K key, @NonNull V oldValue, @NonNull Executor executor) throws Exception {
+				internalMetrics.countCacheRefresh(cacheName);
+
+				if (maxJitter.isZero() && slotIntervalInNanos == 0) {
+					return loader.asyncReload(key, oldValue, executor);
+				}
+
+				return CacheRefreshPacer.this.delay(maxJitter)
+						.then(Mono.defer(() -> Mono.fromFuture(() -> this.reload(key, oldValue, executor))))
+						.toFuture();
+			}
+
+			@SuppressWarnings("unchecked")
+			private CompletableFuture<V> reload(K key, V oldValue, Executor executor) {
+				try {
+					return (CompletableFuture<V>) loader.asyncReload(key, oldValue, executor);
+				} catch (Exception e) {
+					return CompletableFuture.failedFuture(e);
+				}
+			}
+		};
+	}
+
+	private Mono<Void> delay(Duration maxJitter) {
+		return Mono.defer(() -> {
+			this.queueSize.incrementAndGet();
+			final AtomicBoolean dequeued = new AtomicBoolean(false);
+			final Runnable dequeue = () -> {
+				if (dequeued.compareAndSet(false, true)) {
+					this.queueSize.decrementAndGet();
+				}
+			};
+
+			return Mono.delay(this.determineJitterDelay(maxJitter))
+					// the slot must be determined only after the jitter has passed
+					.then(Mono.defer(() -> Mono.delay(this.acquireSlot())))
+					.doOnTerminate(dequeue)
+					.doOnCancel(dequeue)
+					.then();
+		});
+	}
+
+	Duration determineJitterDelay(Duration maxJitter) {
+		if (maxJitter.isZero()) {
+			return Duration.ZERO;
+		}
+		return Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxJitter.toMillis() + 1));
+	}
+
+	/**
+	 * reserves the next free slot for starting a refresh
+	 * @return the time to wait until the slot reserved has come
+	 */
+	Duration acquireSlot() {
+		if (this.slotIntervalInNanos == 0) {
+			return Duration.ZERO;
+		}
+
+		final long now = System.nanoTime();
+		final long previous = this.nextSlot.getAndAccumulate(now, (next, current) -> Math.max(next, current) + this.slotIntervalInNanos);
+		final long slot = Math.max(previous, now);
+		return Duration.ofNanos(slot - now);
+	}
+
+	public int getQueueSize() {
+		return this.queueSize.get();
+	}
+}
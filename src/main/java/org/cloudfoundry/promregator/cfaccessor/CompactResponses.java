@@ -0,0 +1,271 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.cloudfoundry.client.v3.BuildpackData;
+import org.cloudfoundry.client.v3.Lifecycle;
+import org.cloudfoundry.client.v3.LifecycleType;
+import org.cloudfoundry.client.v3.Metadata;
+import org.cloudfoundry.client.v3.Relationship;
+import org.cloudfoundry.client.v3.ToOneRelationship;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.domains.DomainRelationships;
+import org.cloudfoundry.client.v3.domains.DomainResource;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.HealthCheck;
+import org.cloudfoundry.client.v3.processes.HealthCheckType;
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessRelationships;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.routes.Application;
+import org.cloudfoundry.client.v3.routes.Destination;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v3.routes.RouteRelationships;
+import org.cloudfoundry.client.v3.routes.RouteResource;
+
+/**
+ * Helper functions to strip responses of the CF Cloud Controller down to the attributes,
+ * which Promregator actually reads (ids, names, states, number of instances, URLs,
+ * relationships, the internal flag of domains and the annotations relevant for scraping).
+ * Links, lifecycle data, labels, commands and the like are dropped before the responses
+ * are stored in the cache.
+ *
+ * Attributes, which are mandatory for the response objects, but never read by Promregator,
+ * are set to shared placeholder values.
+ *
+ * Additionally, this class provides an estimate of the heap memory retained by a response.
+ */
+public final class CompactResponses {
+
+	static final String ANNOTATION_PREFIX_PROMETHEUS_IO = "prometheus.io/";
+
+	static final Lifecycle PLACEHOLDER_LIFECYCLE = Lifecycle.builder()
+			.type(LifecycleType.BUILDPACK)
+			.data(BuildpackData.builder().build())
+			.build();
+
+	static final Metadata EMPTY_METADATA = Metadata.builder().build();
+
+	/* NB: the health check is mandatory, but never read; HealthCheckType.NONE is deprecated */
+	static final HealthCheck PLACEHOLDER_HEALTH_CHECK = HealthCheck.builder().type(HealthCheckType.PROCESS).build();
+
+	static final ToOneRelationship EMPTY_RELATIONSHIP = ToOneRelationship.builder().build();
+
+	static final DomainRelationships PLACEHOLDER_DOMAIN_RELATIONSHIPS = DomainRelationships.builder()
+			.organization(EMPTY_RELATIONSHIP)
+			.build();
+
+	/* rough estimates of the heap retained by an object, respectively by a String (excluding its characters) */
+	private static final int OBJECT_OVERHEAD = 48;
+	private static final int STRING_OVERHEAD = 40;
+
+	private CompactResponses() {
+		// static helper class only
+	}
+
+	public static ListApplicationsResponse compactApplications(ListApplicationsResponse response) {
+		if (response == null || response.getResources() == null) {
+			return response;
+		}
+
+		final List<ApplicationResource> resources = response.getResources().stream()
+				.map(CompactResponses::compact)
+				.toList();
+
+		return ListApplicationsResponse.builder().pagination(response.getPagination()).resources(resources).build();
+	}
+
+	static ApplicationResource compact(ApplicationResource app) {
+		return ApplicationResource.builder()
+				.id(app.getId())
+				.name(app.getName())
+				.state(app.getState())
+				.createdAt(app.getCreatedAt())
+				.updatedAt(app.getUpdatedAt())
+				.lifecycle(PLACEHOLDER_LIFECYCLE)
+				.relationships(app.getRelationships())
+				.metadata(compactMetadata(app.getMetadata()))
+				.build();
+	}
+
+	private static Metadata compactMetadata(Metadata metadata) {
+		if (metadata == null || metadata.getAnnotations() == null || metadata.getAnnotations().isEmpty()) {
+			return EMPTY_METADATA;
+		}
+
+		final Map<String, String> relevantAnnotations = metadata.getAnnotations().entrySet().stream()
+				.filter(e -> e.getKey() != null && e.getKey().startsWith(ANNOTATION_PREFIX_PROMETHEUS_IO) && e.getValue() != null)
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+		if (relevantAnnotations.isEmpty()) {
+			return EMPTY_METADATA;
+		}
+
+		return Metadata.builder().annotations(relevantAnnotations).build();
+	}
+
+	public static ListProcessesResponse compactProcesses(ListProcessesResponse response) {
+		if (response == null || response.getResources() == null) {
+			return response;
+		}
+
+		final List<ProcessResource> resources = response.getResources().stream()
+				.map(CompactResponses::compact)
+				.toList();
+
+		return ListProcessesResponse.builder().pagination(response.getPagination()).resources(resources).build();
+	}
+
+	static ProcessResource compact(ProcessResource process) {
+		return ProcessResource.builder()
+				.id(process.getId())
+				.type(process.getType())
+				.instances(process.getInstances())
+				.createdAt(process.getCreatedAt())
+				.updatedAt(process.getUpdatedAt())
+				.relationships(compactProcessRelationships(process.getRelationships()))
+				.command("")
+				.diskInMb(0)
+				.memoryInMb(0)
+				.healthCheck(PLACEHOLDER_HEALTH_CHECK)
+				.metadata(EMPTY_METADATA)
+				.build();
+	}
+
+	private static ProcessRelationships compactProcessRelationships(ProcessRelationships relationships) {
+		if (relationships == null || relationships.getApp() == null) {
+			return ProcessRelationships.builder().build();
+		}
+		return ProcessRelationships.builder().app(relationships.getApp()).build();
+	}
+
+	public static ListRoutesResponse compactRoutes(ListRoutesResponse response) {
+		if (response == null || response.getResources() == null) {
+			return response;
+		}
+
+		final List<RouteResource> resources = response.getResources().stream()
+				.map(CompactResponses::compact)
+				.toList();
+
+		return ListRoutesResponse.builder().pagination(response.getPagination()).resources(resources).build();
+	}
+
+	static RouteResource compact(RouteResource route) {
+		final RouteResource.Builder builder = RouteResource.builder()
+				.id(route.getId())
+				.host(route.getHost())
+				.path(route.getPath())
+				.url(route.getUrl())
+				.createdAt(route.getCreatedAt())
+				.updatedAt(route.getUpdatedAt())
+				.relationships(compactRouteRelationships(route.getRelationships()));
+
+		if (route.getDestinations() != null) {
+			for (Destination destination : route.getDestinations()) {
+				if (destination.getApplication() == null) {
+					continue;
+				}
+				builder.destination(Destination.builder()
+						.application(Application.builder().applicationId(destination.getApplication().getApplicationId()).build())
+						.build());
+			}
+		}
+
+		return builder.build();
+	}
+
+	private static RouteRelationships compactRouteRelationships(RouteRelationships relationships) {
+		if (relationships == null) {
+			return RouteRelationships.builder().domain(EMPTY_RELATIONSHIP).space(EMPTY_RELATIONSHIP).build();
+		}
+		return RouteRelationships.builder()
+				.domain(relationships.getDomain() == null ? EMPTY_RELATIONSHIP : relationships.getDomain())
+				.space(relationships.getSpace() == null ? EMPTY_RELATIONSHIP : relationships.getSpace())
+				.build();
+	}
+
+	public static ListOrganizationDomainsResponse compactDomains(ListOrganizationDomainsResponse response) {
+		if (response == null || response.getResources() == null) {
+			return response;
+		}
+
+		final List<DomainResource> resources = response.getResources().stream()
+				.map(CompactResponses::compact)
+				.toList();
+
+		return ListOrganizationDomainsResponse.builder().pagination(response.getPagination()).resources(resources).build();
+	}
+
+	static DomainResource compact(DomainResource domain) {
+		return DomainResource.builder()
+				.id(domain.getId())
+				.name(domain.getName())
+				.isInternal(domain.isInternal())
+				.createdAt(domain.getCreatedAt())
+				.updatedAt(domain.getUpdatedAt())
+				.relationships(PLACEHOLDER_DOMAIN_RELATIONSHIPS)
+				.build();
+	}
+
+	/**
+	 * estimates the heap memory retained by a response. The estimate is not exact, but
+	 * proportional to the number of resources and the length of their attributes read by Promregator.
+	 * @param response the response to be estimated
+	 * @return the estimated number of bytes
+	 */
+	public static int estimateWeight(Object response) {
+		long weight = OBJECT_OVERHEAD;
+
+		if (response instanceof ListApplicationsResponse lar && lar.getResources() != null) {
+			for (ApplicationResource app : lar.getResources()) {
+				weight += OBJECT_OVERHEAD + weigh(app.getId(), app.getName(), app.getCreatedAt(), app.getUpdatedAt());
+				if (app.getMetadata() != null && app.getMetadata().getAnnotations() != null) {
+					for (Map.Entry<String, String> e : app.getMetadata().getAnnotations().entrySet()) {
+						weight += weigh(e.getKey(), e.getValue());
+					}
+				}
+				weight += OBJECT_OVERHEAD + weigh(relationshipId(app.getRelationships() == null ? null : app.getRelationships().getSpace()));
+			}
+		} else if (response instanceof ListProcessesResponse lpr && lpr.getResources() != null) {
+			for (ProcessResource process : lpr.getResources()) {
+				weight += OBJECT_OVERHEAD + weigh(process.getId(), process.getType(), process.getCommand(), process.getCreatedAt(), process.getUpdatedAt());
+				weight += OBJECT_OVERHEAD + weigh(relationshipId(process.getRelationships() == null ? null : process.getRelationships().getApp()));
+			}
+		} else if (response instanceof ListRoutesResponse lrr && lrr.getResources() != null) {
+			for (RouteResource route : lrr.getResources()) {
+				weight += OBJECT_OVERHEAD + weigh(route.getId(), route.getHost(), route.getPath(), route.getUrl(), route.getCreatedAt(), route.getUpdatedAt());
+				weight += 2 * OBJECT_OVERHEAD;
+				if (route.getDestinations() != null) {
+					weight += route.getDestinations().size() * (2L * OBJECT_OVERHEAD + STRING_OVERHEAD + 36);
+				}
+			}
+		} else if (response instanceof ListOrganizationDomainsResponse lodr && lodr.getResources() != null) {
+			for (DomainResource domain : lodr.getResources()) {
+				weight += OBJECT_OVERHEAD + weigh(domain.getId(), domain.getName(), domain.getCreatedAt(), domain.getUpdatedAt());
+			}
+		}
+
+		return (int) Math.min(weight, Integer.MAX_VALUE);
+	}
+
+	private static long weigh(String... values) {
+		long weight = 0;
+		for (String value : values) {
+			if (value != null) {
+				weight += STRING_OVERHEAD + value.length();
+			}
+		}
+		return weight;
+	}
+
+	private static String relationshipId(ToOneRelationship relationship) {
+		if (relationship == null) {
+			return null;
+		}
+		final Relationship data = relationship.getData();
+		return data == null ? null : data.getId();
+	}
+}
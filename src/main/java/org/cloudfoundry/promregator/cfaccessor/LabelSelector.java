@@ -0,0 +1,130 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A label selector of the CF Cloud Controller V3 API (see https://v3-apidocs.cloudfoundry.org/#labels-and-selectors),
+ * which is evaluated locally. This is required for implementations of the {@link CFAccessor},
+ * which cannot let the Cloud Controller filter the resources.
+ *
+ * A selector consists of requirements separated by commas, all of which must be met:
+ * <code>key</code>, <code>!key</code>, <code>key=value</code>, <code>key==value</code>, <code>key!=value</code>,
+ * <code>key in (value1,value2)</code> and <code>key notin (value1,value2)</code>.
+ */
+final class LabelSelector {
+	private static final Pattern SET_REQUIREMENT = Pattern.compile("^(\\S+)\\s+(in|notin)\\s*\\((.*)\\)$");
+
+	private enum Operator {
+		EXISTS, NOT_EXISTS, EQUALS, NOT_EQUALS, IN, NOT_IN
+	}
+
+	private static record Requirement(String key, Operator operator, Set<String> values) {
+		boolean matches(Map<String, String> labels) {
+			final String value = labels.get(this.key);
+
+			return switch (this.operator) {
+			case EXISTS -> value != null;
+			case NOT_EXISTS -> value == null;
+			case EQUALS, IN -> value != null && this.values.contains(value);
+			// as with the Cloud Controller, resources without the label also match
+			case NOT_EQUALS, NOT_IN -> value == null || !this.values.contains(value);
+			};
+		}
+	}
+
+	private final List<Requirement> requirements;
+
+	private LabelSelector(List<Requirement> requirements) {
+		this.requirements = requirements;
+	}
+
+	/**
+	 * parses a label selector
+	 * @param selector the label selector, e.g. <code>team=monitoring,env in (prod,staging)</code>
+	 * @return the label selector parsed
+	 * @throws IllegalArgumentException if the selector is malformed
+	 */
+	static LabelSelector parse(String selector) {
+		final List<Requirement> requirements = new ArrayList<>();
+		for (String requirement : splitRequirements(selector)) {
+			requirements.add(parseRequirement(requirement.trim(), selector));
+		}
+		return new LabelSelector(requirements);
+	}
+
+	/**
+	 * @param labels the labels of a resource; may be <code>null</code>
+	 * @return <code>true</code>, if the labels meet all requirements of the selector
+	 */
+	boolean matches(Map<String, String> labels) {
+		final Map<String, String> nonNullLabels = labels == null ? Map.of() : labels;
+		return this.requirements.stream().allMatch(requirement -> requirement.matches(nonNullLabels));
+	}
+
+	/* commas within the parentheses of set-based requirements do not separate requirements */
+	private static List<String> splitRequirements(String selector) {
+		final List<String> result = new ArrayList<>();
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < selector.length(); i++) {
+			final char c = selector.charAt(i);
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (c == ',' && depth == 0) {
+				result.add(selector.substring(start, i));
+				start = i + 1;
+			}
+		}
+		result.add(selector.substring(start));
+		return result;
+	}
+
+	private static Requirement parseRequirement(String requirement, String selector) {
+		if (requirement.isEmpty()) {
+			throw new IllegalArgumentException(String.format("Label selector '%s' contains an empty requirement", selector));
+		}
+
+		final Matcher setMatcher = SET_REQUIREMENT.matcher(requirement);
+		if (setMatcher.matches()) {
+			final Set<String> values = Arrays.stream(setMatcher.group(3).split(","))
+					.map(String::trim)
+					.collect(Collectors.toSet());
+			final Operator operator = "in".equals(setMatcher.group(2)) ? Operator.IN : Operator.NOT_IN;
+			return new Requirement(setMatcher.group(1), operator, values);
+		}
+
+		int index = requirement.indexOf("!=");
+		if (index > 0) {
+			return new Requirement(requirement.substring(0, index).trim(), Operator.NOT_EQUALS, Set.of(requirement.substring(index + 2).trim()));
+		}
+
+		index = requirement.indexOf("==");
+		if (index > 0) {
+			return new Requirement(requirement.substring(0, index).trim(), Operator.EQUALS, Set.of(requirement.substring(index + 2).trim()));
+		}
+
+		index = requirement.indexOf('=');
+		if (index > 0) {
+			return new Requirement(requirement.substring(0, index).trim(), Operator.EQUALS, Set.of(requirement.substring(index + 1).trim()));
+		}
+
+		if (requirement.startsWith("!")) {
+			return new Requirement(requirement.substring(1).trim(), Operator.NOT_EXISTS, Set.of());
+		}
+
+		if (requirement.contains(" ") || requirement.contains("(") || requirement.contains(")")) {
+			throw new IllegalArgumentException(String.format("Label selector '%s' contains the malformed requirement '%s'", selector, requirement));
+		}
+
+		return new Requirement(requirement, Operator.EXISTS, Set.of());
+	}
+}
@@ -1,9 +1,11 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
-import org.cloudfoundry.client.v3.PaginatedRequest;
-
+/**
+ * creates the request for a given page; usually, the request is a {@link org.cloudfoundry.client.v3.PaginatedRequest},
+ * but lean clients may also use other representations of a request (e.g. its URI).
+ */
 @FunctionalInterface
-public interface PaginatedRequestGeneratorFunctionV3<T extends PaginatedRequest> {
+public interface PaginatedRequestGeneratorFunctionV3<T> {
 	// for the idea, see also https://stackoverflow.com/a/27872395 
 	T apply(int resultsPerPage, int pageNumber);
 }
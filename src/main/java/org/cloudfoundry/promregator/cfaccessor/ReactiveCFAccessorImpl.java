@@ -3,6 +3,11 @@ package org.cloudfoundry.promregator.cfaccessor;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -11,9 +16,16 @@ import javax.annotation.PostConstruct;
 import org.apache.http.conn.util.InetAddressUtils;
 import org.apache.logging.log4j.util.Strings;
 import org.cloudfoundry.client.v3.Pagination;
+import org.cloudfoundry.client.v3.Resource;
 import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ListApplicationsRequest;
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.auditevents.AuditEventResource;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsRequest;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsRequest;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.ListProcessesRequest;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
 import org.cloudfoundry.client.v3.routes.ListRoutesRequest;
@@ -33,6 +45,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 
 import reactor.core.publisher.Mono;
 
@@ -44,6 +57,10 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 	public static final ListApplicationsResponse INVALID_APPLICATIONS_RESPONSE = ListApplicationsResponse.builder().build();
 	
 	private static final String CF_API_V3_PROCESS_TYPE_WEB = "web";
+	
+	private static final String CF_API_V3_ORDER_BY_UPDATED_AT_DESCENDING = "-updated_at";
+	
+	private static final String CF_API_V3_ORDER_BY_CREATED_AT_DESCENDING = "-created_at";
 
 	@Value("${cf.api_host}")
 	private String apiHost;
@@ -76,16 +93,19 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 	private int requestTimeoutSpace;
 
 	@Value("${cf.request.timeout.appInSpace:2500}")
-	private int requestTimeoutAppInSpace;
+	protected int requestTimeoutAppInSpace;
 	
 	@Value("${cf.request.timeout.domain:2500}")
-	private int requestTimeoutDomains;
+	protected int requestTimeoutDomains;
 
 	@Value("${cf.request.timeout.route:2500}")
-	private int requestTimeoutRoute;
+	protected int requestTimeoutRoute;
 	
 	@Value("${cf.request.timeout.process:2500}")
-	private int requestTimeoutProcess;
+	protected int requestTimeoutProcess;
+	
+	@Value("${cf.request.timeout.auditEvent:2500}")
+	private int requestTimeoutAuditEvent;
 	
 	@Value("${cf.connectionPool.size:#{null}}")
 	private Integer connectionPoolSize;
@@ -102,14 +122,41 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 	@Value("${cf.request.backoff:500}") 
 	private long backoffDelay;
 	
+	@Value("${cf.request.retry.budgetRatio:0.1}")
+	private double retryBudgetRatio;
+	
+	@Value("${cf.request.retry.minRetriesPerSecond:1}")
+	private double retryMinRetriesPerSecond;
+	
+	@Value("${cf.request.retry.throttledBackoff:2000}")
+	private long throttledBackoffDelay;
+	
+	@Value("${cf.request.pageConcurrency:8}")
+	private int pageConcurrency;
+	
+	@Value("${cf.request.adaptiveConcurrency.enabled:false}")
+	private boolean adaptiveConcurrencyEnabled;
+	
+	@Value("${cf.request.adaptiveConcurrency.initialLimit:20}")
+	private int adaptiveConcurrencyInitialLimit;
+	
+	@Value("${cf.request.adaptiveConcurrency.minLimit:1}")
+	private int adaptiveConcurrencyMinLimit;
+	
+	@Value("${cf.request.adaptiveConcurrency.maxLimit:200}")
+	private int adaptiveConcurrencyMaxLimit;
+	
 	@Autowired
 	private InternalMetrics internalMetrics;
 
+	@Autowired
+	private Environment environment;
+
 	
 	private static final Pattern PATTERN_HTTP_BASED_PROTOCOL_PREFIX = Pattern.compile("^https?://", Pattern.CASE_INSENSITIVE);
 	
 	private ReactorCloudFoundryClient cloudFoundryClient;
-	private ReactiveCFPaginatedRequestFetcher paginatedRequestFetcher;
+	protected ReactiveCFPaginatedRequestFetcher paginatedRequestFetcher;
 	
 	private DefaultConnectionContext connectionContext(ProxyConfiguration proxyConfiguration) throws ConfigurationException {
 		if (apiHost != null && PATTERN_HTTP_BASED_PROTOCOL_PREFIX.matcher(apiHost).find()) {
@@ -226,11 +273,37 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 		}
 	}
 
+	/**
+	 * @return the Cloud Foundry client currently in use; it is replaced on each {@link #reset()}
+	 */
+	protected ReactorCloudFoundryClient getCloudFoundryClient() {
+		return this.cloudFoundryClient;
+	}
+
 	@PostConstruct
 	@SuppressWarnings("unused")
 	private void setupPaginatedRequestFetcher() {
-		this.paginatedRequestFetcher = new ReactiveCFPaginatedRequestFetcher(this.internalMetrics, this.requestRateLimit, 
-				Duration.ofMillis(this.backoffDelay));
+		ReactiveRateLimiter rateLimiter = new ReactiveRateLimiter(this.internalMetrics, this.requestRateLimit, this.determineRequestRateLimitsByType());
+		
+		AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(this.internalMetrics, this.adaptiveConcurrencyEnabled, 
+				this.adaptiveConcurrencyInitialLimit, this.adaptiveConcurrencyMinLimit, this.adaptiveConcurrencyMaxLimit);
+		
+		RetryBudget retryBudget = new RetryBudget(this.internalMetrics, ReactiveCFPaginatedRequestFetcher.MAX_RETRIES, Duration.ofMillis(this.backoffDelay), 
+				Duration.ofMillis(this.throttledBackoffDelay), this.retryBudgetRatio, this.retryMinRetriesPerSecond);
+		
+		this.paginatedRequestFetcher = new ReactiveCFPaginatedRequestFetcher(this.internalMetrics, rateLimiter, concurrencyLimiter, retryBudget, this.pageConcurrency);
+	}
+
+	private Map<String, Double> determineRequestRateLimitsByType() {
+		Map<String, Double> result = new HashMap<>();
+		for (RequestType requestType : RequestType.values()) {
+			final String metricName = requestType.getMetricName();
+			Double limit = this.environment.getProperty("cf.request.rateLimitByType."+metricName, Double.class);
+			if (limit != null) {
+				result.put(metricName, limit);
+			}
+		}
+		return result;
 	}
 
 	@Override
@@ -324,6 +397,79 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 				r -> this.cloudFoundryClient.applicationsV3().list(r), this.requestTimeoutAppInSpace, responseGenerator);
 	}
 
+	@Override
+	public Mono<org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse> retrieveOrgIdsV3(Set<String> orgNames) {
+		PaginatedRequestGeneratorFunctionV3<org.cloudfoundry.client.v3.organizations.ListOrganizationsRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			org.cloudfoundry.client.v3.organizations.ListOrganizationsRequest.builder()
+					.addAllNames(orgNames)
+					.perPage(resultsPerPage)
+					.page(pageNumber)
+					.build();
+
+		PaginatedResponseGeneratorFunctionV3<org.cloudfoundry.client.v3.organizations.OrganizationResource, org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse> responseGenerator = (list, numberOfPages) ->
+			org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse.builder()
+					.addAllResources(list)
+					.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+					.build();
+
+		return this.paginatedRequestFetcher.performGenericPagedRetrievalV3(RequestType.ORG, orgNames, requestGenerator,
+					r -> this.cloudFoundryClient.organizationsV3().list(r), this.requestTimeoutOrg, responseGenerator);
+	}
+
+	@Override
+	public Mono<org.cloudfoundry.client.v3.spaces.ListSpacesResponse> retrieveSpaceIdsV3(String orgId, Set<String> spaceNames) {
+		String key = String.format("%s|%s", orgId, spaceNames);
+
+		PaginatedRequestGeneratorFunctionV3<org.cloudfoundry.client.v3.spaces.ListSpacesRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			org.cloudfoundry.client.v3.spaces.ListSpacesRequest.builder()
+					.organizationId(orgId)
+					.addAllNames(spaceNames)
+					.perPage(resultsPerPage)
+					.page(pageNumber)
+					.build();
+
+		PaginatedResponseGeneratorFunctionV3<org.cloudfoundry.client.v3.spaces.SpaceResource, org.cloudfoundry.client.v3.spaces.ListSpacesResponse> responseGenerator = (list, numberOfPages) ->
+			org.cloudfoundry.client.v3.spaces.ListSpacesResponse.builder()
+					.addAllResources(list)
+					.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+					.build();
+
+		return this.paginatedRequestFetcher.performGenericPagedRetrievalV3(RequestType.SPACE, key, requestGenerator,
+					r -> this.cloudFoundryClient.spacesV3().list(r), this.requestTimeoutSpace, responseGenerator);
+	}
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsInSpaceV3(String orgId, String spaceId, Set<String> applicationNames, String labelSelector) {
+		String key = String.format("%s|%s|%s|%s", orgId, spaceId, applicationNames, labelSelector);
+
+		PaginatedRequestGeneratorFunctionV3<ListApplicationsRequest> requestGenerator = (resultsPerPage, pageNumber) -> {
+			ListApplicationsRequest.Builder builder = ListApplicationsRequest.builder()
+					.organizationId(orgId)
+					.spaceId(spaceId)
+					.perPage(resultsPerPage)
+					.page(pageNumber);
+			
+			if (applicationNames != null) {
+				builder.addAllNames(applicationNames);
+			}
+			
+			if (labelSelector != null) {
+				builder.labelSelector(labelSelector);
+			}
+			
+			return builder.build();
+		};
+
+		PaginatedResponseGeneratorFunctionV3<ApplicationResource, ListApplicationsResponse> responseGenerator = (list, numberOfPages) ->
+			ListApplicationsResponse.builder()
+				.addAllResources(list)
+				.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+				.build();
+
+		return this.paginatedRequestFetcher.performGenericPagedRetrievalV3(RequestType.ALL_APPS_IN_SPACE, key, requestGenerator,
+				r -> this.cloudFoundryClient.applicationsV3().list(r), this.requestTimeoutAppInSpace, responseGenerator);
+	}
+
 	@Override
 	public Mono<ListOrganizationDomainsResponse> retrieveAllDomainsV3(String orgId) {
 		org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsRequest request = org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsRequest.builder().organizationId(orgId).build();
@@ -396,5 +542,193 @@ public class ReactiveCFAccessorImpl implements CFAccessor {
 				responseGenerator);
 	}
 
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId) {
+		PaginatedRequestGeneratorFunctionV3<ListRoutesRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			ListRoutesRequest.builder()
+				.spaceId(spaceId)
+				.perPage(resultsPerPage)
+				.page(pageNumber)
+				.build();
+		
+		PaginatedResponseGeneratorFunctionV3<org.cloudfoundry.client.v3.routes.RouteResource, ListRoutesResponse> responseGenerator = (list, numberOfPages) -> 
+			ListRoutesResponse.builder()
+				.addAllResources(list)
+				.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+				.build();
+		
+		return this.paginatedRequestFetcher.performGenericPagedRetrievalV3(RequestType.ROUTES, spaceId, requestGenerator, 
+				r -> this.cloudFoundryClient.routesV3().list(r), this.requestTimeoutRoute, 
+				responseGenerator);
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId) {
+		PaginatedRequestGeneratorFunctionV3<ListProcessesRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			ListProcessesRequest.builder()
+				.spaceId(spaceId)
+				.type(CF_API_V3_PROCESS_TYPE_WEB)
+				.perPage(resultsPerPage)
+				.page(pageNumber)
+				.build();
+		
+		PaginatedResponseGeneratorFunctionV3<org.cloudfoundry.client.v3.processes.ProcessResource, ListProcessesResponse> responseGenerator = (list, numberOfPages) -> 
+			ListProcessesResponse.builder()
+			.addAllResources(list)
+			.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+			.build();
+		
+		return this.paginatedRequestFetcher.performGenericPagedRetrievalV3(RequestType.PROCESSES, spaceId, requestGenerator, 
+				r -> this.cloudFoundryClient.processes().list(r), this.requestTimeoutProcess, 
+				responseGenerator);
+	}
+
+	@Override
+	public Mono<GetProcessStatisticsResponse> retrieveProcessStatistics(String processId) {
+		GetProcessStatisticsRequest request = GetProcessStatisticsRequest.builder().processId(processId).build();
+		
+		return this.paginatedRequestFetcher.performGenericRetrieval(RequestType.PROCESS_STATS, processId, request, 
+				r -> this.cloudFoundryClient.processes().getStatistics(r), this.requestTimeoutProcess);
+	}
+
+	/*
+	 * Note: The Cloud Foundry client library does not support the "updated_ats" filter of the
+	 * V3 API. Instead, the resources are requested in descending order of their last update
+	 * and paging stops as soon as a page contains a resource, which has not been updated since
+	 * the point in time requested.
+	 */
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsUpdatedSince(Instant since) {
+		PaginatedRequestGeneratorFunctionV3<ListApplicationsRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			ListApplicationsRequest.builder()
+				.orderBy(CF_API_V3_ORDER_BY_UPDATED_AT_DESCENDING)
+				.perPage(resultsPerPage)
+				.page(pageNumber)
+				.build();
+
+		PaginatedResponseGeneratorFunctionV3<ApplicationResource, ListApplicationsResponse> responseGenerator = (list, numberOfPages) ->
+			ListApplicationsResponse.builder()
+				.addAllResources(filterUpdatedSince(list, since))
+				.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+				.build();
+
+		return this.paginatedRequestFetcher.performSequentialPagedRetrievalV3(RequestType.UPDATED_APPS, since.toString(), requestGenerator,
+				r -> this.cloudFoundryClient.applicationsV3().list(r), this.requestTimeoutAppInSpace, responseGenerator,
+				page -> isLastResourceUpdatedSince(page.getResources(), since));
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesUpdatedSince(Instant since) {
+		PaginatedRequestGeneratorFunctionV3<ListProcessesRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			ListProcessesRequest.builder()
+				.type(CF_API_V3_PROCESS_TYPE_WEB)
+				.orderBy(CF_API_V3_ORDER_BY_UPDATED_AT_DESCENDING)
+				.perPage(resultsPerPage)
+				.page(pageNumber)
+				.build();
+
+		PaginatedResponseGeneratorFunctionV3<org.cloudfoundry.client.v3.processes.ProcessResource, ListProcessesResponse> responseGenerator = (list, numberOfPages) ->
+			ListProcessesResponse.builder()
+				.addAllResources(filterUpdatedSince(list, since))
+				.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+				.build();
+
+		return this.paginatedRequestFetcher.performSequentialPagedRetrievalV3(RequestType.UPDATED_PROCESSES, since.toString(), requestGenerator,
+				r -> this.cloudFoundryClient.processes().list(r), this.requestTimeoutProcess, responseGenerator,
+				page -> isLastResourceUpdatedSince(page.getResources(), since));
+	}
+
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesUpdatedSince(Instant since) {
+		PaginatedRequestGeneratorFunctionV3<ListRoutesRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			ListRoutesRequest.builder()
+				.orderBy(CF_API_V3_ORDER_BY_UPDATED_AT_DESCENDING)
+				.perPage(resultsPerPage)
+				.page(pageNumber)
+				.build();
+
+		PaginatedResponseGeneratorFunctionV3<org.cloudfoundry.client.v3.routes.RouteResource, ListRoutesResponse> responseGenerator = (list, numberOfPages) ->
+			ListRoutesResponse.builder()
+				.addAllResources(filterUpdatedSince(list, since))
+				.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+				.build();
+
+		return this.paginatedRequestFetcher.performSequentialPagedRetrievalV3(RequestType.UPDATED_ROUTES, since.toString(), requestGenerator,
+				r -> this.cloudFoundryClient.routesV3().list(r), this.requestTimeoutRoute, responseGenerator,
+				page -> isLastResourceUpdatedSince(page.getResources(), since));
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveAuditEventsSince(Instant since, Set<String> eventTypes) {
+		/*
+		 * Note: The "created_ats" filter is not supported by the Cloud Foundry client library either;
+		 * the same approach as for updated resources is used (see above).
+		 */
+		PaginatedRequestGeneratorFunctionV3<ListAuditEventsRequest> requestGenerator = (resultsPerPage, pageNumber) ->
+			ListAuditEventsRequest.builder()
+				.addAllTypes(eventTypes)
+				.orderBy(CF_API_V3_ORDER_BY_CREATED_AT_DESCENDING)
+				.perPage(resultsPerPage)
+				.page(pageNumber)
+				.build();
+
+		PaginatedResponseGeneratorFunctionV3<AuditEventResource, ListAuditEventsResponse> responseGenerator = (list, numberOfPages) ->
+			ListAuditEventsResponse.builder()
+				.addAllResources(list.stream().filter(event -> isCreatedSince(event, since)).toList())
+				.pagination(Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build())
+				.build();
+
+		return this.paginatedRequestFetcher.performSequentialPagedRetrievalV3(RequestType.AUDIT_EVENTS, since.toString(), requestGenerator,
+				r -> this.cloudFoundryClient.auditEventsV3().list(r), this.requestTimeoutAuditEvent, responseGenerator,
+				page -> !page.getResources().isEmpty() && isCreatedSince(page.getResources().get(page.getResources().size() - 1), since));
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveLatestAuditEvent(Set<String> eventTypes) {
+		ListAuditEventsRequest request = ListAuditEventsRequest.builder()
+				.addAllTypes(eventTypes)
+				.orderBy(CF_API_V3_ORDER_BY_CREATED_AT_DESCENDING)
+				.perPage(1)
+				.page(1)
+				.build();
+
+		return this.paginatedRequestFetcher.performGenericRetrieval(RequestType.AUDIT_EVENTS, "latest", request,
+				r -> this.cloudFoundryClient.auditEventsV3().list(r), this.requestTimeoutAuditEvent);
+	}
+
+	private static <T extends Resource> List<T> filterUpdatedSince(List<T> resources, Instant since) {
+		return resources.stream().filter(r -> isUpdatedSince(r, since)).toList();
+	}
+
+	private static boolean isLastResourceUpdatedSince(List<? extends Resource> resources, Instant since) {
+		if (resources == null || resources.isEmpty()) {
+			return false;
+		}
+
+		return isUpdatedSince(resources.get(resources.size() - 1), since);
+	}
+
+	private static boolean isUpdatedSince(Resource resource, Instant since) {
+		return isTimestampNotBefore(resource.getUpdatedAt(), since, resource.getId());
+	}
+
+	private static boolean isCreatedSince(AuditEventResource event, Instant since) {
+		return isTimestampNotBefore(event.getCreatedAt(), since, event.getId());
+	}
+
+	private static boolean isTimestampNotBefore(String timestamp, Instant since, String resourceId) {
+		if (timestamp == null) {
+			// better safe than sorry: treat it as changed
+			return true;
+		}
+
+		try {
+			return !Instant.parse(timestamp).isBefore(since);
+		} catch (DateTimeParseException e) {
+			log.warn("Unable to parse timestamp '{}' of resource {}", timestamp, resourceId);
+			return true;
+		}
+	}
 
 }
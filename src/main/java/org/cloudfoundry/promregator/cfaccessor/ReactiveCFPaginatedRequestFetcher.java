@@ -1,10 +1,16 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 
 import org.cloudfoundry.client.v2.OrderDirection;
@@ -15,14 +21,11 @@ import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.util.concurrent.RateLimiter;
-
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import reactor.core.Disposable;
 import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
-import reactor.util.retry.Retry;
 
 public class ReactiveCFPaginatedRequestFetcher {
 	private static final Logger log = LoggerFactory.getLogger(ReactiveCFPaginatedRequestFetcher.class);
@@ -30,52 +33,61 @@ public class ReactiveCFPaginatedRequestFetcher {
 	private static final int MAX_SUPPORTED_RESULTS_PER_PAGE = 100;
 	private static final int RESULTS_PER_PAGE = MAX_SUPPORTED_RESULTS_PER_PAGE;
 
+	public static final int MAX_RETRIES = 2;
+
+	public static final int DEFAULT_PAGE_CONCURRENCY = 8;
+
 	private InternalMetrics internalMetrics;
 
-	private final RateLimiter cfccRateLimiter;
+	private final ReactiveRateLimiter rateLimiter;
+
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+	private final RetryBudget retryBudget;
+
+	private final int pageConcurrency;
+
+	/**
+	 * identifies a single request to the CF Cloud Controller; requestData is part of the
+	 * identity, as the same key may be used for different requests (e.g. multiple pages)
+	 */
+	private static record InFlightKey(RequestType requestType, Object key, Object requestData) {}
 
-	private final Duration initialBackoffDelay;
+	private final Map<InFlightKey, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
 
 	public ReactiveCFPaginatedRequestFetcher(InternalMetrics internalMetrics, double requestRateLimit, Duration backoffDelay) {
+		this(internalMetrics, new ReactiveRateLimiter(internalMetrics, requestRateLimit, Collections.emptyMap()), 
+				AdaptiveConcurrencyLimiter.disabled(), new RetryBudget(internalMetrics, MAX_RETRIES, backoffDelay, Duration.ZERO, -1.0, 0), DEFAULT_PAGE_CONCURRENCY);
+	}
+
+	/**
+	 * @param pageConcurrency the maximal number of subsequent pages of the same paged retrieval, which are requested in parallel
+	 */
+	public ReactiveCFPaginatedRequestFetcher(InternalMetrics internalMetrics, ReactiveRateLimiter rateLimiter, 
+			AdaptiveConcurrencyLimiter concurrencyLimiter, RetryBudget retryBudget, int pageConcurrency) {
 		super();
 		this.internalMetrics = internalMetrics;
-		this.initialBackoffDelay = backoffDelay;
-
-		if (requestRateLimit <= 0.0f) {
-			this.cfccRateLimiter = RateLimiter.create(Double.POSITIVE_INFINITY);
-		} else {
-			this.cfccRateLimiter = RateLimiter.create(requestRateLimit);
-		}
+		this.rateLimiter = rateLimiter;
+		this.concurrencyLimiter = concurrencyLimiter;
+		this.retryBudget = retryBudget;
+		this.pageConcurrency = Math.max(1, pageConcurrency);
 	}
 
 	/**
 	 * Returns an empty Mono, which is only resolved after the configured rate limit
 	 * could be acquired.
-	 * @param requestType the RequestType for which the rate limiting shall be acquired (mainly for statistical purpose only)
+	 * @param requestType the RequestType for which the rate limiting shall be acquired
+	 * @param priority the (shared) priority of the request (see also {@link RequestPriority})
 	 * @return an empty Mono
 	 */
-	private Mono<Object> rateLimitingMono(RequestType requestType) {
-		return Mono.fromCallable(() -> {
-
-			if (this.internalMetrics != null) {
-				this.internalMetrics.increaseRateLimitQueueSize();
-			}
-
-			double waitTime = cfccRateLimiter.acquire(1);
-
-			if (waitTime > 0.001) {
-				log.debug("Rate Limiting has throttled request of {} for {} seconds", requestType.getLoggerSuffix(), String.format("%.3f", waitTime));
-			}
-
-			if (this.internalMetrics != null) {
-				this.internalMetrics.decreaseRateLimitQueueSize();
-				this.internalMetrics.observeRateLimiterDuration(requestType.getMetricName(), waitTime);
-			}
-
-			return new Object();
-		}).subscribeOn(Schedulers.boundedElastic()).flatMap(x -> Mono.empty());
+	private Mono<Void> rateLimitingMono(RequestType requestType, SharedRequestPriority priority) {
+		return this.rateLimiter.acquire(requestType, priority);
 	}
 
+	/**
+	 * a request which is in flight, together with the priority shared by all its subscribers
+	 */
+	private static record InFlightRequest(Mono<?> mono, SharedRequestPriority priority) {}
 
 	/**
 	 * performs standard (raw) retrieval from the CF Cloud Controller of a single
@@ -95,100 +107,146 @@ public class ReactiveCFPaginatedRequestFetcher {
 	 * @param timeoutInMS
 	 *            the timeout value in milliseconds for a single data request to the
 	 *            CF Cloud Controller
-	 * @return a Mono on the response provided by the CF Cloud Controller
-	 */
-	@SuppressWarnings("lgtm[java/sync-on-boxed-types]")
-	/*
-	 * Reasoning: The string used as foundation for the lock is made very unique.
-	 * The risk of another thread using exactly the very same value of the string for a different purpose
-	 * is considered acceptable.
-	 * Moreover, the performance impact of the lock being engaged improperly is considered small,
-	 * as the duration of this method is assumed to be within milliseconds.
-	 * The effort of implementing a key to lock-object mapping (as alternative) is expected to be rather high
-	 * and would imply the risk of memory leaks.
+	 * @return a Mono on the response provided by the CF Cloud Controller; concurrent subscribers
+	 *            for the same request type, key and request data share the same request
 	 */
 	public <P, R, K> Mono<P> performGenericRetrieval(RequestType requestType, K key, R requestData,
 												  Function<R, Mono<P>> requestFunction, int timeoutInMS) {
+		final InFlightKey inFlightKey = new InFlightKey(requestType, key, requestData);
+
+		/*
+		 * Single-flight: concurrent subscribers asking for the very same request share
+		 * one Mono (and thus one request to the CFCC). The entry is only added once the
+		 * request is subscribed, and it is removed as soon as the request has terminated,
+		 * so later subscribers trigger a fresh request.
+		 * The shared request always has the highest priority of all its subscribers.
+		 */
+		return Mono.deferContextual(contextView -> {
+			InFlightRequest existing = this.inFlightRequests.get(inFlightKey);
+			if (existing == null) {
+				final InFlightRequest created = this.createInFlightRequest(inFlightKey, SharedRequestPriority.fromContext(contextView),
+						requestType, key, requestData, requestFunction, timeoutInMS);
+				existing = this.inFlightRequests.putIfAbsent(inFlightKey, created);
+				if (existing == null) {
+					return this.<P>castMono(created.mono());
+				}
+			}
+
+			// either found directly or another subscriber has won the race
+			if (this.internalMetrics != null) {
+				this.internalMetrics.countRequestDeduplication(requestType.getMetricName());
+			}
+			final Disposable following = existing.priority().follow(SharedRequestPriority.fromContext(contextView));
+			return this.<P>castMono(existing.mono()).doFinally(signal -> following.dispose());
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <P> Mono<P> castMono(Mono<?> mono) {
+		return (Mono<P>) mono;
+	}
+
+	private <P, R, K> InFlightRequest createInFlightRequest(InFlightKey inFlightKey, SharedRequestPriority priority, RequestType requestType, 
+			K key, R requestData, Function<R, Mono<P>> requestFunction, int timeoutInMS) {
+		// NB: the entry must only be removed, if it still is this request (and not a newer one stored under the same key)
+		final AtomicReference<InFlightRequest> self = new AtomicReference<>();
+
+		final Mono<P> shared = this.createRetrievalMono(requestType, key, requestData, requestFunction, timeoutInMS, priority)
+				// Note: doFinally() would only fire after the subscribers have been informed, which is too late
+				.doOnTerminate(() -> this.inFlightRequests.remove(inFlightKey, self.get()))
+				.doOnCancel(() -> this.inFlightRequests.remove(inFlightKey, self.get()))
+				.cache();
+		self.set(new InFlightRequest(shared, priority));
+		return self.get();
+	}
+
+	/**
+	 * the number of requests to the CF Cloud Controller which are currently in flight (i.e. 
+	 * being shared between callers)
+	 * @return the number of requests in flight
+	 */
+	public int getNumberOfRequestsInFlight() {
+		return this.inFlightRequests.size();
+	}
+
+	private <P, R, K> Mono<P> createRetrievalMono(RequestType requestType, K key, R requestData,
+			Function<R, Mono<P>> requestFunction, int timeoutInMS, SharedRequestPriority priority) {
 		final String retrievalTypeName = requestType.getMetricName();
 		final String logName = requestType.getLoggerSuffix();
 
-		final String lock = (this.getClass().getCanonicalName()+"|"+retrievalTypeName+"|"+key).intern();
-
-		synchronized (lock) {
-			Mono<P> result = null;
-
-			ReactiveTimer reactiveTimer = new ReactiveTimer(this.internalMetrics, retrievalTypeName);
-
-			final Mono<P> enrichedRequestFunction = requestFunction.apply(requestData).timeout(Duration.ofMillis(timeoutInMS));
-			/*
-			 * Note 1: Applying (i.e. calling) the function "requestFunction" here
-			 * does not trigger the request to be sent to the CFCC.
-			 * Instead, it just will create the corresponding Flux/Mono, which does
-			 * not have any subscriber yet.
-			 *
-			 * Note 2: There is a major difference between the coding modeled
-			 *
-			 * requestFunction.apply(requestData).timeout(...)
-			 *
-			 * and
-			 *
-			 * someMono.flatMap(value -> requestFunction).timeout(...)
-			 *
-			 * The major point here is that the first variant applies the timeout
-			 * only to the stream returned by requestFunction.apply(...), whilst
-			 * the second variant applies it to
-			 * 1. someMono,
-			 * 2. the flatMap function
-			 * 3. the return value of the requestFunction
-			 *
-			 * The difference there is that in the second variant counting
-			 * for the timeout starts already when someMono is subscribed to.
-			 * In the second variant, someMono is not considered.
-			 *
-			 * In this case here, the difference may be huge: The first variant
-			 * puts a timeout on each request (which is what we want). The
-			 * second variant means that timeout would be counting from the
-			 * first subscription happening - which is wrong especially in case
-			 * of retry attempts.
-			 */
-
-			result = this.rateLimitingMono(requestType).then(Mono.just(reactiveTimer))
-						// start the timer
-						.flatMap(timer -> {
-							timer.start();
-							return Mono.just(0 /* any value will just do; will be ignored */); // Cannot use Mono.empty() here!
-						}).flatMap(nothing -> enrichedRequestFunction)
-						.retryWhen(Retry.backoff(2, this.initialBackoffDelay))
-						/*
-						 * Note: Don't push the retry attempts above into enrichedRequestFunction!
-						 * It would change the semantics of the metric behind the timer.
-						 * see also https://github.com/promregator/promregator/pull/174/files#r392031592
-						 */
-						.doOnError(throwable -> {
-							Throwable unwrappedThrowable = Exceptions.unwrap(throwable);
-							if (unwrappedThrowable instanceof TimeoutException) {
-								log.error("Async retrieval of {} with key {} caused a timeout after {}ms even though we tried three times", logName, key, timeoutInMS);
-							} else if (unwrappedThrowable instanceof OutOfMemoryError){
-								// This may be an direct memory or a heap error!
-								// Using String.format and/or log.error here is a bad idea - it takes memory!
-
-								if (System.getenv("VCAP_APPLICATION") != null) {
-									// we assume that we are running on a Cloud Foundry container
-									this.triggerOutOfMemoryRestart();
-								}
-
-							} else {
-								log.error("Async retrieval of {} with key {} raised a reactor error", logName, key, unwrappedThrowable);
+		ReactiveTimer reactiveTimer = new ReactiveTimer(this.internalMetrics, retrievalTypeName);
+
+		final Mono<P> enrichedRequestFunction = requestFunction.apply(requestData).timeout(Duration.ofMillis(timeoutInMS));
+		/*
+		 * Note 1: Applying (i.e. calling) the function "requestFunction" here
+		 * does not trigger the request to be sent to the CFCC.
+		 * Instead, it just will create the corresponding Flux/Mono, which does
+		 * not have any subscriber yet.
+		 *
+		 * Note 2: There is a major difference between the coding modeled
+		 *
+		 * requestFunction.apply(requestData).timeout(...)
+		 *
+		 * and
+		 *
+		 * someMono.flatMap(value -> requestFunction).timeout(...)
+		 *
+		 * The major point here is that the first variant applies the timeout
+		 * only to the stream returned by requestFunction.apply(...), whilst
+		 * the second variant applies it to
+		 * 1. someMono,
+		 * 2. the flatMap function
+		 * 3. the return value of the requestFunction
+		 *
+		 * The difference there is that in the second variant counting
+		 * for the timeout starts already when someMono is subscribed to.
+		 * In the second variant, someMono is not considered.
+		 *
+		 * In this case here, the difference may be huge: The first variant
+		 * puts a timeout on each request (which is what we want). The
+		 * second variant means that timeout would be counting from the
+		 * first subscription happening - which is wrong especially in case
+		 * of retry attempts.
+		 */
+
+		final Mono<P> timedRequest = Mono.just(reactiveTimer)
+					// start the timer
+					.flatMap(timer -> {
+						timer.start();
+						return Mono.just(0 /* any value will just do; will be ignored */); // Cannot use Mono.empty() here!
+					}).flatMap(nothing -> enrichedRequestFunction)
+					.doOnSuccess(response -> this.retryBudget.recordSuccess());
+
+		return this.rateLimitingMono(requestType, priority)
+					.then(this.concurrencyLimiter.limit(timedRequest))
+					.retryWhen(this.retryBudget.retrySpec(requestType))
+					/*
+					 * Note: Don't push the retry attempts above into enrichedRequestFunction!
+					 * It would change the semantics of the metric behind the timer.
+					 * see also https://github.com/promregator/promregator/pull/174/files#r392031592
+					 */
+					.doOnError(throwable -> {
+						Throwable unwrappedThrowable = Exceptions.unwrap(throwable);
+						if (unwrappedThrowable instanceof TimeoutException) {
+							log.error("Async retrieval of {} with key {} caused a timeout after {}ms even though we retried as far as permitted", logName, key, timeoutInMS);
+						} else if (unwrappedThrowable instanceof OutOfMemoryError){
+							// This may be an direct memory or a heap error!
+							// Using String.format and/or log.error here is a bad idea - it takes memory!
+
+							if (System.getenv("VCAP_APPLICATION") != null) {
+								// we assume that we are running on a Cloud Foundry container
+								this.triggerOutOfMemoryRestart();
 							}
-						})
-						// stop the timer
-						.zipWith(Mono.just(reactiveTimer)).map(tuple -> {
-					tuple.getT2().stop();
-					return tuple.getT1();
-				}).log(log.getName() + "." + logName, Level.FINE).cache();
-
-			return result;
-		}
+
+						} else {
+							log.error("Async retrieval of {} with key {} raised a reactor error", logName, key, unwrappedThrowable);
+						}
+					})
+					// stop the timer
+					.zipWith(Mono.just(reactiveTimer)).map(tuple -> {
+				tuple.getT2().stop();
+				return tuple.getT1();
+			}).log(log.getName() + "." + logName, Level.FINE);
 	}
 
 	@SuppressFBWarnings(value = "DM_EXIT", justification="Restart of JVM is done intentionally here!")
@@ -289,26 +347,62 @@ public class ReactiveCFPaginatedRequestFetcher {
 	 *
 	 * @return a Mono on the response provided by the CF Cloud Controller
 	 */
-	public <S, P extends org.cloudfoundry.client.v3.PaginatedResponse<?>, R extends org.cloudfoundry.client.v3.PaginatedRequest, K> Mono<P> performGenericPagedRetrievalV3(
+	public <S, P extends org.cloudfoundry.client.v3.PaginatedResponse<?>, R, K> Mono<P> performGenericPagedRetrievalV3(
 		RequestType requestType, K key, PaginatedRequestGeneratorFunctionV3<R> requestGenerator,
 		Function<R, Mono<P>> requestFunction, int timeoutInMS,
 		PaginatedResponseGeneratorFunctionV3<S, P> responseGenerator) {
+		
+		return this.performGenericPagedRetrievalV3(requestType, key, requestGenerator, requestFunction, timeoutInMS, responseGenerator, false);
+	}
+
+	/**
+	 * performs a retrieval from the CF Cloud Controller fetching all pages available.
+	 *
+	 * @param requestType
+	 * 	the type information of the request which is being made
+	 * @param key
+	 * 	the key for which the request is being made (e.g. orgId, orgId|spaceName, set of Ids ...)
+	 * 	Warning! The object must be string-serializable (for logging purpose)!
+	 * @param requestGenerator
+	 * 	a request generator function, which permits creating request objects instance for a given set of page parameters (e.g. for which page, using
+	 * 	which page size, ...)
+	 * @param requestFunction
+	 * 	a function which calls the CF API operation, which is being made.
+	 * @param timeoutInMS
+	 * 	the timeout value in milliseconds for a single data request to the CF Cloud Controller
+	 * @param responseGenerator
+	 * 	a response generator function, which permits creating a response object, which contains the collected resources of all pages retrieved.
+	 * @param reuseSinglePage
+	 * 	if <code>true</code> and there is only a single page, this page is returned as it is (i.e. including the pagination 
+	 * 	provided by the CF Cloud Controller) instead of creating a new response object using <code>responseGenerator</code>
+	 *
+	 * @return a Mono on the response provided by the CF Cloud Controller
+	 */
+	public <S, P extends org.cloudfoundry.client.v3.PaginatedResponse<?>, R, K> Mono<P> performGenericPagedRetrievalV3(
+		RequestType requestType, K key, PaginatedRequestGeneratorFunctionV3<R> requestGenerator,
+		Function<R, Mono<P>> requestFunction, int timeoutInMS,
+		PaginatedResponseGeneratorFunctionV3<S, P> responseGenerator, boolean reuseSinglePage) {
 
 		final String pageRetrievalType = requestType.getMetricName() + "_singlePage";
 
 		ReactiveTimer reactiveTimer = new ReactiveTimer(this.internalMetrics, pageRetrievalType);
 
-		Mono<P> firstPage = Mono.just(reactiveTimer).doOnNext(ReactiveTimer::start).flatMap(dummy ->
-				this.performGenericRetrieval(requestType, key, requestGenerator.apply(RESULTS_PER_PAGE, 1), requestFunction, timeoutInMS))
-				.cache(); // required: used twice below (once for fetching additional pages, plus second time in Mono.zip() below)
+		return Mono.just(reactiveTimer).doOnNext(ReactiveTimer::start)
+				.flatMap(timer -> this.streamPagesV3(requestType, key, requestGenerator, requestFunction, timeoutInMS)
+						.collect(PageCollector<S, P>::new, PageCollector::add)
+						.map(collector -> {
+							final P retObject = reuseSinglePage && collector.getNumberOfPages() == 1
+									? collector.getFirstPage()
+									: responseGenerator.apply(collector.getResources(), collector.getNumberOfPages());
 
-		Flux<R> requestFlux = firstPage.map(page -> page.getPagination().getTotalPages() - 1)
-				.flatMapMany(pagesCount -> Flux.range(2, pagesCount))
-				.map(pageNumber -> requestGenerator.apply(RESULTS_PER_PAGE, pageNumber));
+							timer.stop();
+
+							return retObject;
+						}));
+	}
 
-		Mono<List<P>> subsequentPagesList = requestFlux.flatMap(req ->
-				this.performGenericRetrieval(requestType, key, req, requestFunction, timeoutInMS))
-				.collectList();
+	private <P extends org.cloudfoundry.client.v3.PaginatedResponse<?>, R, K> Flux<P> streamPagesV3(RequestType requestType, K key,
+		PaginatedRequestGeneratorFunctionV3<R> requestGenerator, Function<R, Mono<P>> requestFunction, int timeoutInMS) {
 
 		/*
 		 * Word on error handling: We can't judge here what will be the consequence, if
@@ -317,23 +411,155 @@ public class ReactiveCFPaginatedRequestFetcher {
 		 * data was ok or not). So the safe answer here is to raise an error for the
 		 * entire request. That, however, is already in place with the error handling in
 		 * performGenericRetrieval: the stream is already in state "error" and thus will
-		 * not emit any item.
+		 * not emit any further item.
 		 */
+		return this.performGenericRetrieval(requestType, key, requestGenerator.apply(RESULTS_PER_PAGE, 1), requestFunction, timeoutInMS)
+				.flatMapMany(firstPage -> {
+					final int totalPages = totalPages(firstPage);
+					if (totalPages <= 1) {
+						return Flux.just(firstPage);
+					}
+
+					/*
+					 * Note: flatMapSequential subscribes to up to pageConcurrency pages at the same time,
+					 * but emits them in the order of their page number. Only pages which arrived ahead
+					 * of their predecessors are buffered.
+					 */
+					Flux<P> subsequentPages = Flux.range(2, totalPages - 1)
+							.flatMapSequential(pageNumber -> this.performGenericRetrieval(requestType, key, 
+									requestGenerator.apply(RESULTS_PER_PAGE, pageNumber), requestFunction, timeoutInMS), this.pageConcurrency);
+
+					return Flux.concat(Mono.just(firstPage), subsequentPages);
+				});
+	}
 
-		return Mono.zip(firstPage, subsequentPagesList, Mono.just(reactiveTimer)).map(tuple -> {
-			P first = tuple.getT1();
-			List<P> subsequent = tuple.getT2();
+	private static int totalPages(org.cloudfoundry.client.v3.PaginatedResponse<?> page) {
+		if (page.getPagination() == null || page.getPagination().getTotalPages() == null) {
+			return 1;
+		}
+		return page.getPagination().getTotalPages();
+	}
 
-			List<S> ret = new LinkedList<>();
+	/**
+	 * collects the resources of all pages of a paged retrieval; the list is sized
+	 * upfront based on the pagination information provided with the first page.
+	 * As this information is provided by the CF Cloud Controller, it is only taken
+	 * as a hint, which is bounded by the number of pages announced.
+	 * The list is only created once a second page has arrived; a single page does
+	 * not need to be copied.
+	 */
+	private static final class PageCollector<S, P extends org.cloudfoundry.client.v3.PaginatedResponse<?>> {
+		private P firstPage;
+		private List<S> resources;
+		private int numberOfPages;
+
+		void add(P page) {
+			this.numberOfPages++;
+			if (this.firstPage == null) {
+				this.firstPage = page;
+				return;
+			}
+			
+			if (this.resources == null) {
+				this.resources = new ArrayList<>(expectedNumberOfResources(this.firstPage));
+				this.addResourcesOf(this.firstPage);
+			}
+			this.addResourcesOf(page);
+		}
 
-			ret.addAll((List<? extends S>) first.getResources());
-			for (P listResponse : subsequent) {
-				ret.addAll((List<? extends S>) listResponse.getResources());
+		@SuppressWarnings("unchecked")
+		private void addResourcesOf(P page) {
+			this.resources.addAll((List<? extends S>) page.getResources());
+		}
+
+		private static int expectedNumberOfResources(org.cloudfoundry.client.v3.PaginatedResponse<?> page) {
+			final int maximalNumberOfResources = Math.max(0, totalPages(page)) * RESULTS_PER_PAGE;
+			if (page.getPagination() != null && page.getPagination().getTotalResults() != null) {
+				return Math.max(0, Math.min(page.getPagination().getTotalResults(), maximalNumberOfResources));
 			}
+			return maximalNumberOfResources;
+		}
 
-			P retObject = responseGenerator.apply(ret, subsequent.size() + 1);
+		P getFirstPage() {
+			return this.firstPage;
+		}
 
-			tuple.getT3().stop();
+		@SuppressWarnings("unchecked")
+		List<S> getResources() {
+			if (this.resources != null) {
+				return this.resources;
+			}
+			if (this.firstPage == null) {
+				return new ArrayList<>();
+			}
+			// NB: the resources of a single page are immutable already; the response generator copies them anyway
+			return (List<S>) this.firstPage.getResources();
+		}
+
+		int getNumberOfPages() {
+			return this.numberOfPages;
+		}
+	}
+
+	/**
+	 * performs a retrieval from the CF Cloud Controller fetching one page after the other, until either
+	 * all pages have been retrieved or a page indicates that no further pages are of interest. This is
+	 * useful for requests which are sorted (e.g. by the time of the last update), where only the first
+	 * pages are relevant.
+	 *
+	 * @param requestType
+	 * 	the type information of the request which is being made
+	 * @param key
+	 * 	the key for which the request is being made
+	 * 	Warning! The object must be string-serializable (for logging purpose)!
+	 * @param requestGenerator
+	 * 	a request generator function, which permits creating request objects instance for a given set of page parameters
+	 * @param requestFunction
+	 * 	a function which calls the CF API operation, which is being made.
+	 * @param timeoutInMS
+	 * 	the timeout value in milliseconds for a single data request to the CF Cloud Controller
+	 * @param responseGenerator
+	 * 	a response generator function, which permits creating a response object, which contains the collected resources of all pages retrieved.
+	 * @param continuePaging
+	 * 	a predicate, which is called for each page retrieved; if it returns <code>false</code>, no further pages are requested
+	 *
+	 * @return a Mono on the response provided by the CF Cloud Controller
+	 */
+	public <S, P extends org.cloudfoundry.client.v3.PaginatedResponse<?>, R, K> Mono<P> performSequentialPagedRetrievalV3(
+		RequestType requestType, K key, PaginatedRequestGeneratorFunctionV3<R> requestGenerator,
+		Function<R, Mono<P>> requestFunction, int timeoutInMS,
+		PaginatedResponseGeneratorFunctionV3<S, P> responseGenerator, Predicate<P> continuePaging) {
+
+		final String pageRetrievalType = requestType.getMetricName() + "_singlePage";
+
+		ReactiveTimer reactiveTimer = new ReactiveTimer(this.internalMetrics, pageRetrievalType);
+
+		record NumberedPage<P>(int pageNumber, P page) {}
+
+		Flux<NumberedPage<P>> pages = Mono.just(reactiveTimer).doOnNext(ReactiveTimer::start).flatMap(dummy ->
+				this.performGenericRetrieval(requestType, key, requestGenerator.apply(RESULTS_PER_PAGE, 1), requestFunction, timeoutInMS))
+				.map(page -> new NumberedPage<>(1, page))
+				.expand(numberedPage -> {
+					final P page = numberedPage.page();
+					final Integer totalPages = page.getPagination() == null ? null : page.getPagination().getTotalPages();
+					if (totalPages == null || numberedPage.pageNumber() >= totalPages || !continuePaging.test(page)) {
+						return Mono.empty();
+					}
+
+					final int nextPageNumber = numberedPage.pageNumber() + 1;
+					return this.performGenericRetrieval(requestType, key, requestGenerator.apply(RESULTS_PER_PAGE, nextPageNumber), requestFunction, timeoutInMS)
+							.map(nextPage -> new NumberedPage<>(nextPageNumber, nextPage));
+				});
+
+		return pages.collectList().map(list -> {
+			List<S> ret = new ArrayList<>(list.size() * RESULTS_PER_PAGE);
+			for (NumberedPage<P> numberedPage : list) {
+				ret.addAll((List<? extends S>) numberedPage.page().getResources());
+			}
+
+			P retObject = responseGenerator.apply(ret, list.size());
+
+			reactiveTimer.stop();
 
 			return retObject;
 		});
@@ -0,0 +1,324 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A non-blocking token-bucket rate limiter for requests to the CF Cloud Controller.
+ *
+ * Requests which cannot be served immediately are queued (per priority) and
+ * are released by a timer as soon as tokens become available again. No thread is
+ * parked while waiting. Queued requests with higher priority are always released
+ * before those with lower priority.
+ *
+ * Besides the global rate limit, an additional rate limit may be set per type of
+ * request (identified by the metric name of the RequestType). A request is only
+ * released if both its type's budget and the global budget permit it.
+ *
+ * If the priority of a waiting request is raised (see {@link SharedRequestPriority}),
+ * it moves to the queue of its new priority.
+ */
+public class ReactiveRateLimiter {
+	private static final Logger log = LoggerFactory.getLogger(ReactiveRateLimiter.class);
+
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+	private static class TokenBucket {
+		private final double permitsPerNano;
+		private final double capacity;
+
+		private double tokens;
+		private long lastRefill;
+
+		public TokenBucket(double permitsPerSecond, long now) {
+			this.permitsPerNano = permitsPerSecond / NANOS_PER_SECOND;
+			// permits bursts of up to one second
+			this.capacity = Math.max(1.0, permitsPerSecond);
+			this.tokens = 1.0;
+			this.lastRefill = now;
+		}
+
+		public void refill(long now) {
+			final long elapsed = now - this.lastRefill;
+			if (elapsed <= 0) {
+				return;
+			}
+
+			this.tokens = Math.min(this.capacity, this.tokens + elapsed * this.permitsPerNano);
+			this.lastRefill = now;
+		}
+
+		public boolean hasToken() {
+			return this.tokens >= 1.0;
+		}
+
+		public void consume() {
+			this.tokens -= 1.0;
+		}
+
+		public long nanosUntilNextToken() {
+			if (this.hasToken()) {
+				return 0;
+			}
+
+			return (long) Math.ceil((1.0 - this.tokens) / this.permitsPerNano);
+		}
+	}
+
+	private static class Waiter {
+		private final RequestType requestType;
+		/* NB: guarded by the lock on the rate limiter */
+		private RequestPriority priority;
+		private final MonoSink<Long> sink;
+		private final long enqueuedAt;
+
+		public Waiter(RequestType requestType, RequestPriority priority, MonoSink<Long> sink, long enqueuedAt) {
+			this.requestType = requestType;
+			this.priority = priority;
+			this.sink = sink;
+			this.enqueuedAt = enqueuedAt;
+		}
+	}
+
+	private final InternalMetrics internalMetrics;
+
+	private final Scheduler scheduler;
+
+	private final TokenBucket globalBucket;
+
+	private final Map<String, TokenBucket> requestTypeBuckets = new HashMap<>();
+
+	private final EnumMap<RequestPriority, ArrayDeque<Waiter>> queues = new EnumMap<>(RequestPriority.class);
+
+	private Disposable scheduledDrain;
+	private long scheduledDrainAt;
+
+	/**
+	 * creates a new rate limiter
+	 * @param internalMetrics the internal metrics to report to; may be <code>null</code>
+	 * @param requestRateLimit the global number of requests per second permitted; zero or negative values disable global rate limiting
+	 * @param requestRateLimitsByType the number of requests per second permitted for each type of request, where the key
+	 * is the metric name of the RequestType; zero or negative values disable rate limiting for that type
+	 */
+	public ReactiveRateLimiter(InternalMetrics internalMetrics, double requestRateLimit, Map<String, Double> requestRateLimitsByType) {
+		this(internalMetrics, requestRateLimit, requestRateLimitsByType, Schedulers.parallel());
+	}
+
+	ReactiveRateLimiter(InternalMetrics internalMetrics, double requestRateLimit, Map<String, Double> requestRateLimitsByType, Scheduler scheduler) {
+		this.internalMetrics = internalMetrics;
+		this.scheduler = scheduler;
+
+		final long now = System.nanoTime();
+
+		this.globalBucket = isLimited(requestRateLimit) ? new TokenBucket(requestRateLimit, now) : null;
+
+		requestRateLimitsByType.forEach((metricName, limit) -> {
+			if (limit != null && isLimited(limit)) {
+				log.info("Rate limiting requests of type {} to {} requests per second", metricName, limit);
+				this.requestTypeBuckets.put(metricName, new TokenBucket(limit, now));
+			}
+		});
+
+		for (RequestPriority priority : RequestPriority.values()) {
+			this.queues.put(priority, new ArrayDeque<>());
+		}
+	}
+
+	private static boolean isLimited(double rateLimit) {
+		return rateLimit > 0.0 && rateLimit != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @return <code>true</code>, if no rate limit is configured at all
+	 */
+	public boolean isUnlimited() {
+		return this.globalBucket == null && this.requestTypeBuckets.isEmpty();
+	}
+
+	/**
+	 * Returns an empty Mono, which is only completed after the rate limit permits sending
+	 * the request. Waiting does not block any thread.
+	 * @param requestType the type of the request which shall be sent
+	 * @param priority the priority of the request which shall be sent
+	 * @return an empty Mono
+	 */
+	public Mono<Void> acquire(RequestType requestType, RequestPriority priority) {
+		return this.acquire(requestType, new SharedRequestPriority(priority));
+	}
+
+	/**
+	 * Returns an empty Mono, which is only completed after the rate limit permits sending
+	 * the request. Waiting does not block any thread. If the priority is raised while
+	 * waiting, the request is queued with its new priority.
+	 * @param requestType the type of the request which shall be sent
+	 * @param priority the (shared) priority of the request which shall be sent
+	 * @return an empty Mono
+	 */
+	public Mono<Void> acquire(RequestType requestType, SharedRequestPriority priority) {
+		if (this.isUnlimited()) {
+			return Mono.empty();
+		}
+
+		return Mono.<Long>create(sink -> {
+			final Waiter waiter = new Waiter(requestType, priority.get(), sink, System.nanoTime());
+			sink.onCancel(() -> this.remove(waiter));
+
+			synchronized (this) {
+				this.queues.get(waiter.priority).add(waiter);
+			}
+			if (this.internalMetrics != null) {
+				this.internalMetrics.increaseRateLimitQueueSize(waiter.priority.getMetricName());
+			}
+
+			final Disposable raiseListener = priority.onRaise(newPriority -> this.raise(waiter, newPriority));
+			sink.onDispose(raiseListener);
+
+			// the priority might have been raised before the listener was registered
+			this.raise(waiter, priority.get());
+
+			this.drain();
+		}).doOnNext(waitTimeInNanos -> {
+			final double waitTime = waitTimeInNanos / NANOS_PER_SECOND;
+			if (waitTime > 0.001) {
+				log.debug("Rate Limiting has throttled request of {} with priority {} for {} seconds", requestType.getLoggerSuffix(), priority, String.format("%.3f", waitTime));
+			}
+
+			if (this.internalMetrics != null) {
+				this.internalMetrics.observeRateLimiterDuration(requestType.getMetricName(), waitTime);
+			}
+		}).then();
+	}
+
+	private void remove(Waiter waiter) {
+		final RequestPriority priority;
+		final boolean removed;
+		synchronized (this) {
+			priority = waiter.priority;
+			removed = this.queues.get(priority).remove(waiter);
+		}
+
+		if (removed && this.internalMetrics != null) {
+			this.internalMetrics.decreaseRateLimitQueueSize(priority.getMetricName());
+		}
+	}
+
+	private void raise(Waiter waiter, RequestPriority newPriority) {
+		final RequestPriority oldPriority;
+		synchronized (this) {
+			oldPriority = waiter.priority;
+			if (!newPriority.isHigherThan(oldPriority) || !this.queues.get(oldPriority).remove(waiter)) {
+				// not higher or not waiting anymore
+				return;
+			}
+
+			waiter.priority = newPriority;
+			this.queues.get(newPriority).add(waiter);
+		}
+
+		if (this.internalMetrics != null) {
+			this.internalMetrics.decreaseRateLimitQueueSize(oldPriority.getMetricName());
+			this.internalMetrics.increaseRateLimitQueueSize(newPriority.getMetricName());
+		}
+
+		this.drain();
+	}
+
+	private void drain() {
+		final List<Waiter> released = new ArrayList<>();
+		final long now = System.nanoTime();
+
+		synchronized (this) {
+			if (this.scheduledDrain != null && this.scheduledDrainAt - now <= 0) {
+				// the planned attempt is due (or is just being executed)
+				this.scheduledDrain = null;
+			}
+
+			if (this.globalBucket != null) {
+				this.globalBucket.refill(now);
+			}
+			this.requestTypeBuckets.values().forEach(bucket -> bucket.refill(now));
+
+			long nanosUntilNextAttempt = Long.MAX_VALUE;
+
+			queueLoop:
+			for (ArrayDeque<Waiter> queue : this.queues.values()) {
+				for (Iterator<Waiter> it = queue.iterator(); it.hasNext();) {
+					if (this.globalBucket != null && !this.globalBucket.hasToken()) {
+						nanosUntilNextAttempt = Math.min(nanosUntilNextAttempt, this.globalBucket.nanosUntilNextToken());
+						break queueLoop;
+					}
+
+					final Waiter waiter = it.next();
+					final TokenBucket typeBucket = this.requestTypeBuckets.get(waiter.requestType.getMetricName());
+					if (typeBucket != null && !typeBucket.hasToken()) {
+						// the budget of this type is exhausted; others may still proceed
+						nanosUntilNextAttempt = Math.min(nanosUntilNextAttempt, typeBucket.nanosUntilNextToken());
+						continue;
+					}
+
+					if (this.globalBucket != null) {
+						this.globalBucket.consume();
+					}
+					if (typeBucket != null) {
+						typeBucket.consume();
+					}
+
+					it.remove();
+					released.add(waiter);
+				}
+			}
+
+			if (nanosUntilNextAttempt != Long.MAX_VALUE) {
+				this.scheduleDrain(now, nanosUntilNextAttempt);
+			}
+		}
+
+		for (Waiter waiter : released) {
+			// NB: the priority of a released waiter cannot be raised anymore
+			if (this.internalMetrics != null) {
+				this.internalMetrics.decreaseRateLimitQueueSize(waiter.priority.getMetricName());
+			}
+			waiter.sink.success(Math.max(0, now - waiter.enqueuedAt));
+		}
+	}
+
+	/* must be called holding the lock on this */
+	private void scheduleDrain(long now, long delayInNanos) {
+		final long due = now + delayInNanos;
+		if (this.scheduledDrain != null && this.scheduledDrainAt - due <= 0) {
+			// there is already an earlier attempt planned
+			return;
+		}
+
+		if (this.scheduledDrain != null) {
+			this.scheduledDrain.dispose();
+		}
+
+		this.scheduledDrainAt = due;
+		this.scheduledDrain = this.scheduler.schedule(this::drain, delayInNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param priority the priority for which the queue length shall be determined
+	 * @return the number of requests waiting with the priority specified
+	 */
+	public synchronized int getQueueSize(RequestPriority priority) {
+		return this.queues.get(priority).size();
+	}
+}
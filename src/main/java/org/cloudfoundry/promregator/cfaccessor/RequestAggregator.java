@@ -1,31 +1,59 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
 
 import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+/**
+ * Bundles single requests (e.g. for the routes of one application) into blocks, which
+ * are sent as one request to the CF Cloud Controller.
+ *
+ * A block is sent as soon as either
+ * <ul>
+ * <li>the maximal block size is reached, or</li>
+ * <li>the oldest request in the queue has waited for the maximal wait time, or</li>
+ * <li>no further request has been added for a short quiet period (a fifth of the maximal wait time).</li>
+ * </ul>
+ * The latter ensures that a lone request (or the last requests of a burst) does not wait
+ * the full maximal wait time for further requests, which will not come anyway.
+ * Several blocks may be in flight at the same time, but only up to a configured number.
+ * If the Cloud Controller is slow, requests therefore pile up in the queue and are sent
+ * in larger blocks later on, instead of sending more and more requests in parallel.
+ *
+ * A block is sent with the highest priority of the requests it contains.
+ */
 public abstract class RequestAggregator<K, V> {
 	private static final Logger log = LoggerFactory.getLogger(RequestAggregator.class);
 
-	private static record QueueItem<K, V> (K requestItem, CompletableFuture<V> future) {}
-	
+	public static final int DEFAULT_MAX_CONCURRENT_BLOCKS = 4;
+
+	private static final int QUIET_PERIOD_DIVISOR = 5;
+
+	private static record QueueItem<K, V> (K requestItem, CompletableFuture<V> future, SharedRequestPriority priority, long enqueuedAt) {}
+
 	public enum Type {
 		ROUTE("route"),
 		PROCESS("process"),
 		OTHER("other"); // used for unit testing
-		
+
 		private String typeName;
-		
+
 		private Type(String typeName) {
 			this.typeName = typeName;
 		}
@@ -37,124 +65,263 @@ public abstract class RequestAggregator<K, V> {
 			return typeName;
 		}
 	}
-	
-	private ConcurrentLinkedDeque<QueueItem<K, V>> queue = new ConcurrentLinkedDeque<>();
-	
-	private Processor processor;
-	
-	private int checkIntervalInMillis;
-	private int maxBlockSize;
-	
-	private class Processor extends Thread {
-		
-		private final Logger log = LoggerFactory.getLogger(Processor.class);
-
-		public Processor(Class<K> typeOfK, Class<V> typeOfV) {
-			super(String.format("Processor for ReactiveCFAccesor requests %s -> %s", typeOfK.toString(), typeOfV.toString()));
-		}
-		
-		private boolean shouldRun = true;
-		
-		@Override
-		public void run() {
-			
-			while (shouldRun) {
-				
-				try {
-					Thread.sleep(checkIntervalInMillis);
-				} catch (InterruptedException e) {
-					log.info("Processor was interrupted", e);
-					Thread.currentThread().interrupt();
-				}
-				
-				if (queue.isEmpty()) {
-					continue;
-				}
-				
-				log.debug("Woke up with {} items in the queue", queue.size());
-				
-				// there is something in the queue which needs to be handled now
-				final ArrayList<K> block = new ArrayList<>(maxBlockSize);
-				final HashMap<K, CompletableFuture<V>> map = new HashMap<>();
-				
-				while (block.size() < maxBlockSize && !queue.isEmpty()) {
-					QueueItem<K,V> queueItem = queue.poll();
-					map.put(queueItem.requestItem(), queueItem.future());
-					
-					block.add(queueItem.requestItem());
-				}
-				
-				log.debug("Sending a request with a block of {} items", block.size());
-				Mono<V> responseMono = sendRequest(block);
-				
-				responseMono.doOnNext(response -> {
-					log.debug("Received response {}", response);
-					Map<K, V> responseMap = determineMapOfResponses(response);
-					
-					map.entrySet().forEach(entry -> {
-						K key = entry.getKey();
-						CompletableFuture<V> future = entry.getValue();
-						
-						V list = responseMap.get(key);
-						log.debug("Resolving {} with {}", key, list);
-						future.complete(list); // which may be null
-					});
-				})
-				.doOnError(t -> {
-					log.info("Exception was raised during retrieving the response; propagating exception to all requestors", t);
-					map.values().forEach(e -> e.completeExceptionally(t));
-				}).onErrorStop()
-				.subscribe();
-				
-			}
-			
-		}
-		
-	}
-	
+
+	private final Type type;
+	private final InternalMetrics internalMetrics;
+	private final String name;
+
+	private final ArrayDeque<QueueItem<K, V>> queue = new ArrayDeque<>();
+
+	private final long maxWaitInNanos;
+	private final long quietPeriodInNanos;
+	private final int maxBlockSize;
+	private final int maxConcurrentBlocks;
+
+	private final Scheduler scheduler;
+
+	private int blocksInFlight;
+	private long lastEnqueuedAt;
+	private boolean stopped;
+
+	private Disposable scheduledFlush;
+	private long scheduledFlushAt;
+
 	protected RequestAggregator(Type type, InternalMetrics internalMetrics, Class<K> typeOfK, Class<V> typeOfV, int checkIntervalInMillis, int maxBlockSize) {
-		this.checkIntervalInMillis = checkIntervalInMillis;
-		this.maxBlockSize = maxBlockSize;
-		
+		this(type, internalMetrics, typeOfK, typeOfV, checkIntervalInMillis, maxBlockSize, DEFAULT_MAX_CONCURRENT_BLOCKS);
+	}
+
+	/**
+	 * creates a new RequestAggregator
+	 * @param type the type of the aggregator (used for metrics)
+	 * @param internalMetrics the internal metrics to report to; may be <code>null</code>
+	 * @param typeOfK the type of the request items
+	 * @param typeOfV the type of the responses
+	 * @param checkIntervalInMillis the maximal time in milliseconds a request waits in the queue before a block is sent
+	 * @param maxBlockSize the maximal number of requests bundled into a block
+	 * @param maxConcurrentBlocks the maximal number of blocks which may be in flight at the same time
+	 */
+	protected RequestAggregator(Type type, InternalMetrics internalMetrics, Class<K> typeOfK, Class<V> typeOfV, int checkIntervalInMillis, int maxBlockSize, int maxConcurrentBlocks) {
 		Assert.isTrue(checkIntervalInMillis > 0, "Check Interval must not be negative or zero");
 		Assert.isTrue(maxBlockSize > 0, "BlockSize must not be negative or zero");
-		
+		Assert.isTrue(maxConcurrentBlocks > 0, "Number of concurrent blocks must not be negative or zero");
+
+		this.type = type;
+		this.internalMetrics = internalMetrics;
+		this.name = String.format("RequestAggregator for ReactiveCFAccesor requests %s -> %s", typeOfK.getSimpleName(), typeOfV.getSimpleName());
+		this.maxWaitInNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalInMillis);
+		this.quietPeriodInNanos = this.maxWaitInNanos / QUIET_PERIOD_DIVISOR;
+		this.maxBlockSize = maxBlockSize;
+		this.maxConcurrentBlocks = maxConcurrentBlocks;
+		this.scheduler = Schedulers.parallel();
+
 		if (internalMetrics != null) {
 			switch (type) {
-			case ROUTE: 
-				internalMetrics.registerDequeRouteSizeFunction(() -> (double) queue.size());
+			case ROUTE:
+				internalMetrics.registerDequeRouteSizeFunction(() -> (double) this.getQueueSize());
 				break;
-			case PROCESS: 
-				internalMetrics.registerDequeProcessSizeFunction(() -> (double) queue.size());
+			case PROCESS:
+				internalMetrics.registerDequeProcessSizeFunction(() -> (double) this.getQueueSize());
 				break;
 			case OTHER:
 				break; // ignore
 			default:
 				throw new UnsupportedOperationException("Unkown RequestAggregator Type");
 			}
-			
+
 		}
-		
-		this.processor = new Processor(typeOfK, typeOfV);
-		this.processor.start();
 	}
-	
+
 	public void addToQueue(K item, CompletableFuture<V> future) {
+		this.addToQueue(item, future, new SharedRequestPriority(RequestPriority.FOREGROUND));
+	}
+
+	/**
+	 * adds a request to the queue
+	 * @param item the request item
+	 * @param future the future, which is completed with the response to the request item
+	 * @param priority the priority of the request
+	 */
+	public void addToQueue(K item, CompletableFuture<V> future, SharedRequestPriority priority) {
 		log.debug("Adding item {}", item);
-		this.queue.add(new QueueItem<>(item, future));
+
+		synchronized (this) {
+			if (this.stopped) {
+				future.completeExceptionally(new IllegalStateException(this.name + " has already been stopped"));
+				return;
+			}
+
+			this.lastEnqueuedAt = System.nanoTime();
+			this.queue.add(new QueueItem<>(item, future, priority, this.lastEnqueuedAt));
+		}
+
+		this.flush();
 	}
-	
+
+	/**
+	 * sends as many blocks as permitted at the moment and schedules the next check
+	 * for the deadline of the oldest request still waiting or the end of the quiet period,
+	 * whichever comes first.
+	 */
+	private void flush() {
+		final List<List<QueueItem<K, V>>> blocks = new LinkedList<>();
+		final long now = System.nanoTime();
+
+		synchronized (this) {
+			if (this.scheduledFlush != null && this.scheduledFlushAt - now <= 0) {
+				// the planned check is due (or is just being executed)
+				this.scheduledFlush = null;
+			}
+
+			while (!this.queue.isEmpty() && this.blocksInFlight < this.maxConcurrentBlocks) {
+				final boolean blockFull = this.queue.size() >= this.maxBlockSize;
+				final boolean deadlineReached = now - this.queue.peek().enqueuedAt() >= this.maxWaitInNanos;
+				final boolean quiet = now - this.lastEnqueuedAt >= this.quietPeriodInNanos;
+				if (!blockFull && !deadlineReached && !quiet) {
+					break;
+				}
+
+				final List<QueueItem<K, V>> block = new ArrayList<>(Math.min(this.maxBlockSize, this.queue.size()));
+				while (block.size() < this.maxBlockSize && !this.queue.isEmpty()) {
+					block.add(this.queue.poll());
+				}
+
+				this.blocksInFlight++;
+				blocks.add(block);
+			}
+
+			if (!this.queue.isEmpty() && this.blocksInFlight < this.maxConcurrentBlocks) {
+				final long deadline = this.queue.peek().enqueuedAt() + this.maxWaitInNanos;
+				final long endOfQuietPeriod = this.lastEnqueuedAt + this.quietPeriodInNanos;
+				this.scheduleFlush(deadline - endOfQuietPeriod <= 0 ? deadline : endOfQuietPeriod, now);
+			}
+			/*
+			 * Note: If all blocks are in flight, the next check is triggered
+			 * by the completion of one of them.
+			 */
+		}
+
+		blocks.forEach(block -> this.send(block, now));
+	}
+
+	/* must be called holding the lock on this */
+	private void scheduleFlush(long due, long now) {
+		if (this.scheduledFlush != null && this.scheduledFlushAt - due <= 0) {
+			// there is already an earlier check planned
+			return;
+		}
+
+		if (this.scheduledFlush != null) {
+			this.scheduledFlush.dispose();
+		}
+
+		this.scheduledFlushAt = due;
+		this.scheduledFlush = this.scheduler.schedule(this::flush, Math.max(0, due - now), TimeUnit.NANOSECONDS);
+	}
+
+	private void send(List<QueueItem<K, V>> block, long now) {
+		final ArrayList<K> requestItems = new ArrayList<>(block.size());
+		final Map<K, List<CompletableFuture<V>>> map = new LinkedHashMap<>();
+		final SharedRequestPriority blockPriority = new SharedRequestPriority(RequestPriority.lowest());
+		final Disposable.Composite following = Disposables.composite();
+
+		for (QueueItem<K, V> queueItem : block) {
+			following.add(blockPriority.follow(queueItem.priority()));
+
+			map.computeIfAbsent(queueItem.requestItem(), key -> {
+				requestItems.add(key);
+				return new LinkedList<>();
+			}).add(queueItem.future());
+
+			if (this.internalMetrics != null) {
+				this.internalMetrics.observeRequestAggregatorQueueWaitTime(this.type.getTypeName(), (now - queueItem.enqueuedAt()) / 1_000_000_000.0);
+			}
+		}
+
+		if (this.internalMetrics != null) {
+			this.internalMetrics.observeRequestAggregatorBlockSize(this.type.getTypeName(), requestItems.size());
+		}
+
+		log.debug("Sending a request with a block of {} items", requestItems.size());
+
+		Mono<V> responseMono;
+		try {
+			responseMono = this.sendRequest(requestItems);
+		} catch (RuntimeException e) {
+			responseMono = Mono.error(e);
+		}
+
+		responseMono.contextWrite(blockPriority.asContext())
+		.doOnNext(response -> {
+			log.debug("Received response {}", response);
+			Map<K, V> responseMap = this.determineMapOfResponses(response);
+
+			map.forEach((key, futures) -> {
+				V value = responseMap.get(key);
+				log.debug("Resolving {} with {}", key, value);
+				futures.forEach(future -> future.complete(value)); // which may be null
+			});
+		})
+		.doOnError(t -> {
+			log.info("Exception was raised during retrieving the response; propagating exception to all requestors", t);
+			map.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(t)));
+		})
+		.doFinally(signal -> {
+			following.dispose();
+
+			// requests without any response must not wait forever
+			map.values().forEach(futures -> futures.forEach(future -> future.complete(null)));
+
+			synchronized (this) {
+				this.blocksInFlight--;
+			}
+			this.flush();
+		})
+		.onErrorResume(t -> Mono.empty())
+		.subscribe();
+	}
+
+	/**
+	 * @return the number of requests waiting in the queue to be sent
+	 */
+	public synchronized int getQueueSize() {
+		return this.queue.size();
+	}
+
+	/**
+	 * @return the number of blocks currently in flight
+	 */
+	public synchronized int getBlocksInFlight() {
+		return this.blocksInFlight;
+	}
+
+	/**
+	 * stops the aggregator; requests still waiting in the queue are completed exceptionally.
+	 */
 	public void stop() {
-		this.processor.shouldRun = false;
+		final List<QueueItem<K, V>> remaining;
+
+		synchronized (this) {
+			this.stopped = true;
+
+			if (this.scheduledFlush != null) {
+				this.scheduledFlush.dispose();
+				this.scheduledFlush = null;
+			}
+
+			remaining = new ArrayList<>(this.queue);
+			this.queue.clear();
+		}
+
+		remaining.forEach(item -> item.future().completeExceptionally(new IllegalStateException(this.name + " has been stopped")));
 	}
-	
+
 	/**
 	 * sends a request based on a set of requests in the block
 	 * @param block the block of requests which shall be sent
 	 * @return a Mono with the response of the request sent
 	 */
 	protected abstract Mono<V> sendRequest(List<K> block);
-	
+
 	/**
 	 * converts the response into a map, whose key is the request identifier of the block. The values are
 	 * responses to that identifier.
@@ -162,5 +329,5 @@ public abstract class RequestAggregator<K, V> {
 	 * @return the map containing values as specified above.
 	 */
 	protected abstract Map<K, V> determineMapOfResponses(V response);
-	
+
 }
@@ -0,0 +1,128 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.function.Supplier;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * The priority of a request to the CF Cloud Controller, which is used when
+ * requests need to be throttled due to rate limiting.
+ * The order of the enum values defines the priority: values declared first
+ * are served first.
+ *
+ * The priority is transported using the Reactor context of the request's
+ * subscription. If no priority is set there, FOREGROUND is assumed.
+ * Blocking operations (such as a discovery) may set the priority for the current
+ * thread instead (see {@link #callBlocking(Supplier)}); they then take it over into
+ * the Reactor context of the streams they block on (see {@link #contextOfCurrentThread()}).
+ */
+public enum RequestPriority {
+	/**
+	 * a cache miss, on which some caller (e.g. a Prometheus scrape) is waiting
+	 */
+	FOREGROUND("foreground"),
+
+	/**
+	 * a refresh of a cache entry, which is still served with its old value in the meantime
+	 */
+	BACKGROUND_REFRESH("backgroundRefresh"),
+
+	/**
+	 * a request crawling the platform in advance, on which nobody is waiting yet
+	 */
+	DISCOVERY_CRAWL("discoveryCrawl");
+
+	static final String CONTEXT_KEY = RequestPriority.class.getName();
+
+	private static final ThreadLocal<RequestPriority> BLOCKING_PRIORITY = new ThreadLocal<>();
+
+	private final String metricName;
+
+	private RequestPriority(String metricName) {
+		this.metricName = metricName;
+	}
+
+	/**
+	 * @return the metricName
+	 */
+	public String getMetricName() {
+		return metricName;
+	}
+
+	/**
+	 * @return a Reactor context, which marks all requests sent in the context with this priority
+	 */
+	public Context asContext() {
+		return Context.of(CONTEXT_KEY, this);
+	}
+
+	/**
+	 * @param other the priority to compare with
+	 * @return <code>true</code>, if requests with this priority are served before those with the other priority
+	 */
+	public boolean isHigherThan(RequestPriority other) {
+		return this.ordinal() < other.ordinal();
+	}
+
+	/**
+	 * @return the priority, which is served last
+	 */
+	public static RequestPriority lowest() {
+		final RequestPriority[] values = values();
+		return values[values.length - 1];
+	}
+
+	/**
+	 * determines the priority of a request based on the Reactor context it is executed in.
+	 * @param contextView the Reactor context of the subscription
+	 * @return the priority found in the context; FOREGROUND, if no priority has been set
+	 */
+	public static RequestPriority fromContext(ContextView contextView) {
+		final Object value = contextView.getOrDefault(CONTEXT_KEY, FOREGROUND);
+		if (value instanceof SharedRequestPriority shared) {
+			return shared.get();
+		}
+		return (RequestPriority) value;
+	}
+
+	/**
+	 * calls a blocking operation, marking all requests which it sends with this priority
+	 * @param <T> the type of the result of the operation
+	 * @param operation the blocking operation to call
+	 * @return the result of the operation
+	 */
+	public <T> T callBlocking(Supplier<T> operation) {
+		final RequestPriority previous = BLOCKING_PRIORITY.get();
+		BLOCKING_PRIORITY.set(this);
+		try {
+			return operation.get();
+		} finally {
+			if (previous == null) {
+				BLOCKING_PRIORITY.remove();
+			} else {
+				BLOCKING_PRIORITY.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * runs a blocking operation, marking all requests which it sends with this priority
+	 * @param operation the blocking operation to run
+	 */
+	public void runBlocking(Runnable operation) {
+		this.callBlocking(() -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	/**
+	 * @return a Reactor context with the priority, which has been set for the current thread
+	 * (see {@link #callBlocking(Supplier)}); an empty context, if none is set
+	 */
+	public static Context contextOfCurrentThread() {
+		final RequestPriority priority = BLOCKING_PRIORITY.get();
+		return priority == null ? Context.empty() : priority.asContext();
+	}
+}
@@ -10,6 +10,11 @@ public enum RequestType {
 	DOMAINS("domains", "retrieveDomains"),	
 	PROCESSES("processes", "retrieveProcesses"),
 	ROUTES("routes", "retrieveRoutes"),
+	PROCESS_STATS("processStats", "retrieveProcessStatistics"),
+	UPDATED_APPS("updatedApps", "retrieveUpdatedApplications"),
+	UPDATED_PROCESSES("updatedProcesses", "retrieveUpdatedProcesses"),
+	UPDATED_ROUTES("updatedRoutes", "retrieveUpdatedRoutes"),
+	AUDIT_EVENTS("auditEvents", "retrieveAuditEvents"),
 	OTHER("other", "other"); // used for unit testing only
 	
 	private final String metricName;
@@ -0,0 +1,114 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v3.routes.RouteResource;
+
+/**
+ * Helper functions to split responses of the CF Cloud Controller, which contain
+ * resources of multiple applications, into responses per application.
+ */
+public final class ResponsesByApplication {
+
+	private ResponsesByApplication() {
+		// static helper class only
+	}
+
+	/**
+	 * groups the processes of a response by the application they belong to
+	 * @param response the response containing processes of multiple applications
+	 * @return a map of application ids to the response containing the processes of that application only
+	 */
+	public static Map<String, ListProcessesResponse> groupProcesses(ListProcessesResponse response) {
+		if (response == null || response.getResources() == null) {
+			return Collections.emptyMap();
+		}
+
+		Map<String, List<ProcessResource>> map = new HashMap<>();
+		response.getResources().forEach(pr -> {
+			String appId = determineApplicationId(pr);
+			if (appId == null) {
+				return;
+			}
+
+			map.computeIfAbsent(appId, key -> new LinkedList<>()).add(pr);
+		});
+
+		Map<String, ListProcessesResponse> resultMap = new HashMap<>();
+		map.forEach((appId, lpr) -> resultMap.put(appId, ListProcessesResponse.builder().resources(lpr).build()));
+
+		return resultMap;
+	}
+
+	/**
+	 * groups the routes of a response by the applications they are bound to. If a route
+	 * is bound to multiple applications, it is contained in the response of each of them.
+	 * @param response the response containing routes of multiple applications
+	 * @return a map of application ids to the response containing the routes of that application only
+	 */
+	public static Map<String, ListRoutesResponse> groupRoutes(ListRoutesResponse response) {
+		if (response == null || response.getResources() == null) {
+			return Collections.emptyMap();
+		}
+
+		Map<String, List<RouteResource>> map = new HashMap<>();
+		response.getResources().forEach(rr -> {
+			if (rr.getDestinations() == null) {
+				return;
+			}
+
+			rr.getDestinations().forEach(dest -> {
+				String appId = dest.getApplication().getApplicationId();
+				map.computeIfAbsent(appId, key -> new LinkedList<>()).add(rr);
+			});
+		});
+
+		Map<String, ListRoutesResponse> resultMap = new HashMap<>();
+		map.forEach((appId, lrr) -> resultMap.put(appId, ListRoutesResponse.builder().resources(lrr).build()));
+
+		return resultMap;
+	}
+
+	/**
+	 * determines the processes of a single application
+	 * @param response the response containing processes of multiple applications
+	 * @param appId the id of the application whose processes shall be determined
+	 * @return the response containing the processes of the application only
+	 */
+	public static ListProcessesResponse filterProcesses(ListProcessesResponse response, String appId) {
+		List<ProcessResource> list = response.getResources().stream()
+				.filter(pr -> appId.equals(determineApplicationId(pr)))
+				.toList();
+
+		return ListProcessesResponse.builder().resources(list).build();
+	}
+
+	/**
+	 * determines the routes bound to a single application
+	 * @param response the response containing routes of multiple applications
+	 * @param appId the id of the application whose routes shall be determined
+	 * @return the response containing the routes of the application only
+	 */
+	public static ListRoutesResponse filterRoutes(ListRoutesResponse response, String appId) {
+		List<RouteResource> list = response.getResources().stream()
+				.filter(rr -> rr.getDestinations() != null && rr.getDestinations().stream().anyMatch(dest -> appId.equals(dest.getApplication().getApplicationId())))
+				.toList();
+
+		return ListRoutesResponse.builder().resources(list).build();
+	}
+
+	private static String determineApplicationId(ProcessResource pr) {
+		if (pr.getRelationships() == null || pr.getRelationships().getApp() == null || pr.getRelationships().getApp().getData() == null) {
+			return null;
+		}
+
+		return pr.getRelationships().getApp().getData().getId();
+	}
+}
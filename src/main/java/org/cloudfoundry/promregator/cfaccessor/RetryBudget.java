@@ -0,0 +1,187 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.cloudfoundry.AbstractCloudFoundryException;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.Retry.RetrySignal;
+
+/**
+ * Limits the number of retries of failed requests to the CF Cloud Controller, which
+ * are sent across all requests. Retries are only permitted as long as they do not
+ * exceed a fraction of the requests which recently succeeded (plus a small reserve,
+ * such that retries are also possible if there is only little traffic).
+ *
+ * This prevents that during an outage of the Cloud Controller each failing request
+ * is retried independently, which would multiply the load on an already struggling
+ * platform.
+ *
+ * Retries are delayed using exponential backoff with full jitter, i.e. the delay is
+ * chosen randomly between zero and the exponential backoff interval. Requests which
+ * were rejected by the platform due to rate limiting (HTTP status code 429) are
+ * delayed at least by the configured throttling backoff interval.
+ */
+public class RetryBudget {
+	private static final Logger log = LoggerFactory.getLogger(RetryBudget.class);
+
+	private static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+
+	private static final int WINDOW_SLOTS = 10;
+	private static final long SLOT_DURATION_IN_NANOS = 1_000_000_000L;
+
+	private final InternalMetrics internalMetrics;
+
+	private final int maxRetries;
+	private final Duration backoffDelay;
+	private final Duration throttledBackoffDelay;
+
+	private final double budgetRatio;
+	private final int minRetriesPerWindow;
+
+	/* sliding window of the last seconds; the slot is determined by the current second */
+	private final long[] slotIds = new long[WINDOW_SLOTS];
+	private final int[] successes = new int[WINDOW_SLOTS];
+	private final int[] retries = new int[WINDOW_SLOTS];
+
+	/**
+	 * creates a new retry budget
+	 * @param internalMetrics the internal metrics to report to; may be <code>null</code>
+	 * @param maxRetries the maximal number of retries of a single request
+	 * @param backoffDelay the backoff interval of the first retry; it is doubled for each further retry
+	 * @param throttledBackoffDelay the minimal delay before retrying a request which was rejected due to rate limiting
+	 * @param budgetRatio the ratio of retries permitted compared to the number of successful requests in the recent past;
+	 * a negative value disables the budget (i.e. each request may be retried)
+	 * @param minRetriesPerSecond the number of retries per second which are always permitted, regardless of the number of
+	 * successful requests
+	 */
+	public RetryBudget(InternalMetrics internalMetrics, int maxRetries, Duration backoffDelay, Duration throttledBackoffDelay,
+			double budgetRatio, double minRetriesPerSecond) {
+		Assert.isTrue(maxRetries >= 0, "Number of retries must not be negative");
+		Assert.isTrue(minRetriesPerSecond >= 0, "Minimal number of retries per second must not be negative");
+
+		this.internalMetrics = internalMetrics;
+		this.maxRetries = maxRetries;
+		this.backoffDelay = backoffDelay;
+		this.throttledBackoffDelay = throttledBackoffDelay;
+		this.budgetRatio = budgetRatio;
+		this.minRetriesPerWindow = (int) Math.ceil(minRetriesPerSecond * WINDOW_SLOTS);
+	}
+
+	/**
+	 * informs the budget about a request which succeeded
+	 */
+	public void recordSuccess() {
+		if (this.budgetRatio < 0) {
+			return;
+		}
+
+		synchronized (this) {
+			this.successes[this.currentSlot(System.nanoTime())]++;
+		}
+	}
+
+	/**
+	 * tries to take a retry from the budget
+	 * @return <code>true</code>, if the retry may be sent; <code>false</code> otherwise
+	 */
+	public boolean tryAcquireRetry() {
+		if (this.budgetRatio < 0) {
+			return true;
+		}
+
+		synchronized (this) {
+			final int slot = this.currentSlot(System.nanoTime());
+
+			int recentSuccesses = 0;
+			int recentRetries = 0;
+			for (int i = 0; i < WINDOW_SLOTS; i++) {
+				recentSuccesses += this.successes[i];
+				recentRetries += this.retries[i];
+			}
+
+			if (recentRetries >= this.minRetriesPerWindow + recentSuccesses * this.budgetRatio) {
+				return false;
+			}
+
+			this.retries[slot]++;
+			return true;
+		}
+	}
+
+	/* must be called holding the lock on this */
+	private int currentSlot(long now) {
+		final long slotId = now / SLOT_DURATION_IN_NANOS;
+		final int slot = (int) Math.floorMod(slotId, (long) WINDOW_SLOTS);
+
+		if (this.slotIds[slot] != slotId) {
+			// the slot contains values from an earlier round, which are outdated
+			this.slotIds[slot] = slotId;
+			this.successes[slot] = 0;
+			this.retries[slot] = 0;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * creates the retry specification to be used for requests of a given type
+	 * @param requestType the type of the request
+	 * @return the retry specification
+	 */
+	public Retry retrySpec(RequestType requestType) {
+		return Retry.from(retrySignals -> retrySignals.concatMap(retrySignal -> this.retry(requestType, retrySignal)));
+	}
+
+	private Mono<Long> retry(RequestType requestType, RetrySignal retrySignal) {
+		final Throwable failure = retrySignal.failure();
+
+		if (retrySignal.totalRetries() >= this.maxRetries) {
+			return Mono.error(failure);
+		}
+
+		if (!this.tryAcquireRetry()) {
+			log.debug("Retry budget exhausted; not retrying failed request of {}", requestType.getLoggerSuffix());
+			if (this.internalMetrics != null) {
+				this.internalMetrics.countRetry(requestType.getMetricName(), false);
+			}
+			return Mono.error(failure);
+		}
+
+		if (this.internalMetrics != null) {
+			this.internalMetrics.countRetry(requestType.getMetricName(), true);
+		}
+
+		return Mono.delay(this.determineDelay(retrySignal.totalRetries(), failure)).thenReturn(retrySignal.totalRetries());
+	}
+
+	Duration determineDelay(long retriesSoFar, Throwable failure) {
+		final long backoffInMillis = this.backoffDelay.toMillis() << Math.min(retriesSoFar, 20);
+
+		// full jitter: any delay between zero and the exponential backoff interval
+		long delayInMillis = backoffInMillis <= 0 ? 0 : ThreadLocalRandom.current().nextLong(backoffInMillis + 1);
+
+		if (isThrottled(failure)) {
+			/*
+			 * Note: The Cloud Foundry client library does not provide access to the headers
+			 * of the response. Thus, the "Retry-After" header cannot be taken into account and
+			 * the configured throttling backoff interval is used instead.
+			 */
+			delayInMillis += this.throttledBackoffDelay.toMillis();
+		}
+
+		return Duration.ofMillis(delayInMillis);
+	}
+
+	private static boolean isThrottled(Throwable throwable) {
+		return Exceptions.unwrap(throwable) instanceof AbstractCloudFoundryException cfException
+				&& cfException.getStatusCode() == HTTP_STATUS_TOO_MANY_REQUESTS;
+	}
+}
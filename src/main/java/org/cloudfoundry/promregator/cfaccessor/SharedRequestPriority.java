@@ -0,0 +1,115 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * The priority of a request to the CF Cloud Controller, which is shared by multiple callers
+ * (e.g. due to the single-flight deduplication or a cache load). The priority only may be raised,
+ * such that the request always has the highest priority of all callers waiting for it.
+ *
+ * Listeners (e.g. a rate limiter, in whose queue the request is waiting) are informed
+ * whenever the priority is raised.
+ */
+public final class SharedRequestPriority {
+	private RequestPriority priority;
+
+	private final List<Consumer<RequestPriority>> listeners = new ArrayList<>(1);
+
+	public SharedRequestPriority(RequestPriority initialPriority) {
+		this.priority = initialPriority;
+	}
+
+	/**
+	 * @return the current priority
+	 */
+	public synchronized RequestPriority get() {
+		return this.priority;
+	}
+
+	/**
+	 * raises the priority; lower priorities are ignored
+	 * @param newPriority the priority requested by another caller
+	 */
+	public void raiseTo(RequestPriority newPriority) {
+		final List<Consumer<RequestPriority>> toNotify;
+
+		synchronized (this) {
+			if (!newPriority.isHigherThan(this.priority)) {
+				return;
+			}
+
+			this.priority = newPriority;
+			toNotify = new ArrayList<>(this.listeners);
+		}
+
+		// NB: listeners are called without holding the lock
+		toNotify.forEach(listener -> listener.accept(newPriority));
+	}
+
+	/**
+	 * raises the priority whenever the other priority is raised (and immediately to its current value)
+	 * @param other the priority to follow
+	 * @return a Disposable to stop following the other priority; it must be disposed once the request
+	 * having this priority has terminated, as the other priority may outlive it by far
+	 */
+	public Disposable follow(SharedRequestPriority other) {
+		if (other == this) {
+			return Disposables.disposed();
+		}
+
+		final Disposable listener = other.onRaise(this::raiseTo);
+		this.raiseTo(other.get());
+		return listener;
+	}
+
+	/**
+	 * registers a listener, which is called each time the priority is raised
+	 * @param listener the listener receiving the new priority
+	 * @return a Disposable to unregister the listener again
+	 */
+	public Disposable onRaise(Consumer<RequestPriority> listener) {
+		synchronized (this) {
+			this.listeners.add(listener);
+		}
+
+		return () -> {
+			synchronized (this) {
+				this.listeners.remove(listener);
+			}
+		};
+	}
+
+	/**
+	 * @return a Reactor context, which marks all requests sent in the context with this (shared) priority
+	 */
+	public Context asContext() {
+		return Context.of(RequestPriority.CONTEXT_KEY, this);
+	}
+
+	/**
+	 * determines the shared priority of a Reactor context
+	 * @param contextView the Reactor context of the subscription
+	 * @return the shared priority found in the context; if the context only contains a plain priority
+	 * (or none at all), a new shared priority starting with that priority
+	 */
+	public static SharedRequestPriority fromContext(ContextView contextView) {
+		final Object value = contextView.getOrDefault(RequestPriority.CONTEXT_KEY, RequestPriority.FOREGROUND);
+		if (value instanceof SharedRequestPriority shared) {
+			return shared;
+		}
+
+		return new SharedRequestPriority((RequestPriority) value);
+	}
+
+	@Override
+	public String toString() {
+		return this.get().toString();
+	}
+}
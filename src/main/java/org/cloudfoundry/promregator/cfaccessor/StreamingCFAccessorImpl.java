@@ -0,0 +1,201 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.cloudfoundry.client.v3.Pagination;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.domains.DomainResource;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v3.routes.RouteResource;
+import org.cloudfoundry.promregator.cfaccessor.StreamingResponseParser.PageParser;
+import org.cloudfoundry.reactor.ConnectionContext;
+import org.cloudfoundry.reactor.TokenProvider;
+import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
+import org.springframework.beans.factory.annotation.Value;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A variant of {@link ReactiveCFAccessorImpl}, which retrieves the applications, routes, processes
+ * and domains - i.e. the requests issued for each scraping target regularly - with a lean client
+ * ({@link StreamingCFClient}): the responses are decoded from the byte stream directly into the
+ * compact resources Promregator requires (see also {@link StreamingResponseParser}).
+ *
+ * All other requests (info, organizations, spaces, changes, audit events) are still handled
+ * by the Cloud Foundry client library. Rate limiting, retries, timeouts and the parallel
+ * retrieval of subsequent pages are the same for both variants.
+ */
+public class StreamingCFAccessorImpl extends ReactiveCFAccessorImpl {
+
+	private static final int MAXIMAL_NUMBER_OF_ROUTES_PER_CAPI_REQUEST = 5000;
+
+	private static final String CF_API_V3_PROCESS_TYPE_WEB = "web";
+
+	@Value("${cf.accessor.streaming.compression:true}")
+	private boolean compression;
+
+	private StreamingCFClient streamingClient;
+
+	@Override
+	public void reset() {
+		super.reset();
+
+		final ReactorCloudFoundryClient cloudFoundryClient = this.getCloudFoundryClient();
+		if (cloudFoundryClient == null) {
+			return;
+		}
+
+		final ConnectionContext connectionContext = cloudFoundryClient.getConnectionContext();
+		final TokenProvider tokenProvider = cloudFoundryClient.getTokenProvider();
+
+		this.streamingClient = new StreamingCFClient(connectionContext.getHttpClient(), cloudFoundryClient.getRootV3(),
+				Mono.defer(() -> tokenProvider.getToken(connectionContext)), () -> tokenProvider.invalidate(connectionContext), this.compression);
+	}
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveAllApplicationsInSpaceV3(String orgId, String spaceId) {
+		String key = String.format("%s|%s", orgId, spaceId);
+
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("apps?organization_guids=%s&space_guids=%s&per_page=%d&page=%d", encode(orgId), encode(spaceId), resultsPerPage, pageNumber);
+
+		PaginatedResponseGeneratorFunctionV3<ApplicationResource, ListApplicationsResponse> responseGenerator = (list, numberOfPages) ->
+			ListApplicationsResponse.builder()
+				.addAllResources(list)
+				.pagination(pagination(list, numberOfPages))
+				.build();
+
+		return this.retrieveAllPages(RequestType.ALL_APPS_IN_SPACE, key, requestGenerator, StreamingResponseParser::parseApplications,
+				this.requestTimeoutAppInSpace, responseGenerator);
+	}
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsInSpaceV3(String orgId, String spaceId, Set<String> applicationNames, String labelSelector) {
+		String key = String.format("%s|%s|%s|%s", orgId, spaceId, applicationNames, labelSelector);
+
+		StringBuilder filter = new StringBuilder(String.format("organization_guids=%s&space_guids=%s", encode(orgId), encode(spaceId)));
+		if (applicationNames != null) {
+			filter.append("&names=").append(encodeList(applicationNames));
+		}
+		if (labelSelector != null) {
+			filter.append("&label_selector=").append(encode(labelSelector));
+		}
+		final String filterQuery = filter.toString();
+
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("apps?%s&per_page=%d&page=%d", filterQuery, resultsPerPage, pageNumber);
+
+		PaginatedResponseGeneratorFunctionV3<ApplicationResource, ListApplicationsResponse> responseGenerator = (list, numberOfPages) ->
+			ListApplicationsResponse.builder()
+				.addAllResources(list)
+				.pagination(pagination(list, numberOfPages))
+				.build();
+
+		return this.retrieveAllPages(RequestType.ALL_APPS_IN_SPACE, key, requestGenerator, StreamingResponseParser::parseApplications,
+				this.requestTimeoutAppInSpace, responseGenerator);
+	}
+
+	@Override
+	public Mono<ListOrganizationDomainsResponse> retrieveAllDomainsV3(String orgId) {
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("organizations/%s/domains?per_page=%d&page=%d", encode(orgId), resultsPerPage, pageNumber);
+
+		PaginatedResponseGeneratorFunctionV3<DomainResource, ListOrganizationDomainsResponse> responseGenerator = (list, numberOfPages) ->
+			ListOrganizationDomainsResponse.builder()
+				.addAllResources(list)
+				.pagination(pagination(list, numberOfPages))
+				.build();
+
+		return this.retrieveAllPages(RequestType.DOMAINS, orgId, requestGenerator, StreamingResponseParser::parseDomains,
+				this.requestTimeoutDomains, responseGenerator);
+	}
+
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForAppIds(Set<String> appIds) {
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("routes?app_guids=%s&per_page=%d&page=%d", encodeList(appIds), MAXIMAL_NUMBER_OF_ROUTES_PER_CAPI_REQUEST, pageNumber);
+
+		return this.retrieveAllPages(RequestType.ROUTES, appIds, requestGenerator, StreamingResponseParser::parseRoutes,
+				this.requestTimeoutRoute, StreamingCFAccessorImpl::routesResponse);
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForAppId(String applicationId) {
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("processes?app_guids=%s&types=%s&per_page=%d&page=%d", encode(applicationId), CF_API_V3_PROCESS_TYPE_WEB, resultsPerPage, pageNumber);
+
+		return this.retrieveAllPages(RequestType.PROCESSES, applicationId, requestGenerator, StreamingResponseParser::parseProcesses,
+				this.requestTimeoutProcess, StreamingCFAccessorImpl::processesResponse);
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForAppIds(Set<String> applicationIds) {
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("processes?app_guids=%s&types=%s&per_page=%d&page=%d", encodeList(applicationIds), CF_API_V3_PROCESS_TYPE_WEB, resultsPerPage, pageNumber);
+
+		return this.retrieveAllPages(RequestType.PROCESSES, applicationIds, requestGenerator, StreamingResponseParser::parseProcesses,
+				this.requestTimeoutProcess, StreamingCFAccessorImpl::processesResponse);
+	}
+
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId) {
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("routes?space_guids=%s&per_page=%d&page=%d", encode(spaceId), resultsPerPage, pageNumber);
+
+		return this.retrieveAllPages(RequestType.ROUTES, spaceId, requestGenerator, StreamingResponseParser::parseRoutes,
+				this.requestTimeoutRoute, StreamingCFAccessorImpl::routesResponse);
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId) {
+		PaginatedRequestGeneratorFunctionV3<String> requestGenerator = (resultsPerPage, pageNumber) ->
+			String.format("processes?space_guids=%s&types=%s&per_page=%d&page=%d", encode(spaceId), CF_API_V3_PROCESS_TYPE_WEB, resultsPerPage, pageNumber);
+
+		return this.retrieveAllPages(RequestType.PROCESSES, spaceId, requestGenerator, StreamingResponseParser::parseProcesses,
+				this.requestTimeoutProcess, StreamingCFAccessorImpl::processesResponse);
+	}
+
+	private <S, P extends org.cloudfoundry.client.v3.PaginatedResponse<?>, K> Mono<P> retrieveAllPages(RequestType requestType, K key,
+			PaginatedRequestGeneratorFunctionV3<String> requestGenerator, PageParser<P> parser, int timeoutInMS,
+			PaginatedResponseGeneratorFunctionV3<S, P> responseGenerator) {
+		// NB: most responses consist of a single page only, which then does not need to be rebuilt
+		return this.paginatedRequestFetcher.performGenericPagedRetrievalV3(requestType, key, requestGenerator,
+				pathAndQuery -> this.streamingClient.get(pathAndQuery, parser), timeoutInMS, responseGenerator, true);
+	}
+
+	private static ListRoutesResponse routesResponse(List<RouteResource> list, int numberOfPages) {
+		return ListRoutesResponse.builder()
+				.addAllResources(list)
+				.pagination(pagination(list, numberOfPages))
+				.build();
+	}
+
+	private static ListProcessesResponse processesResponse(List<ProcessResource> list, int numberOfPages) {
+		return ListProcessesResponse.builder()
+				.addAllResources(list)
+				.pagination(pagination(list, numberOfPages))
+				.build();
+	}
+
+	private static Pagination pagination(Collection<?> list, int numberOfPages) {
+		return Pagination.builder().totalPages(numberOfPages).totalResults(list.size()).build();
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	private static String encodeList(Set<String> values) {
+		// sorted, such that the same set of ids always results in the same request
+		return String.join(",", new TreeSet<>(values).stream().map(StreamingCFAccessorImpl::encode).toList());
+	}
+}
@@ -0,0 +1,98 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+import org.cloudfoundry.client.v3.ClientV3Exception;
+import org.cloudfoundry.client.v3.Error;
+import org.cloudfoundry.promregator.cfaccessor.StreamingResponseParser.PageParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * A lean HTTP client for the few list endpoints of the CF Cloud Controller V3 API, which
+ * Promregator queries regularly. The response bodies are handed to a {@link PageParser}
+ * as a stream of bytes, i.e. without an intermediate String or JSON tree.
+ *
+ * Note that the bytes of a page are aggregated before the parser is invoked, as the parser
+ * (Jackson's blocking streaming API) must not wait for further bytes on the event loop. Thus, 
+ * the memory required is bounded by the size of a single page, but it is not constant.
+ * Parsing the aggregated page then is handed off to the parallel scheduler, such that the
+ * event loop is free to serve other connections in the meantime.
+ */
+public class StreamingCFClient {
+	private static final Logger log = LoggerFactory.getLogger(StreamingCFClient.class);
+
+	private final HttpClient httpClient;
+
+	private final Mono<String> rootV3;
+
+	private final Mono<String> authorization;
+
+	private final Runnable invalidateAuthorization;
+
+	/**
+	 * @param httpClient the HTTP client to use (e.g. configured for SSL and proxies)
+	 * @param rootV3 the URL of the V3 API of the Cloud Controller (e.g. <code>https://api.example.org/v3</code>)
+	 * @param authorization the value of the Authorization header to send (e.g. <code>bearer ...</code>)
+	 * @param invalidateAuthorization called if the Cloud Controller rejected the authorization
+	 * @param compression whether the responses shall be requested gzip-compressed
+	 */
+	public StreamingCFClient(HttpClient httpClient, Mono<String> rootV3, Mono<String> authorization, Runnable invalidateAuthorization, boolean compression) {
+		this.httpClient = httpClient.compress(compression);
+		this.rootV3 = rootV3;
+		this.authorization = authorization;
+		this.invalidateAuthorization = invalidateAuthorization;
+	}
+
+	/**
+	 * retrieves a single page from the Cloud Controller
+	 * @param <P> the type of the response
+	 * @param pathAndQuery the path relative to the V3 API, including the query (e.g. <code>apps?page=1</code>)
+	 * @param parser the parser decoding the response body
+	 * @return a Mono on the response decoded
+	 */
+	public <P> Mono<P> get(String pathAndQuery, PageParser<P> parser) {
+		return Mono.zip(this.rootV3, this.authorization).flatMap(tuple -> {
+			final String uri = tuple.getT1() + "/" + pathAndQuery;
+
+			return this.httpClient
+				.headers(headers -> headers
+						.set(HttpHeaderNames.AUTHORIZATION, tuple.getT2())
+						.set(HttpHeaderNames.ACCEPT, HttpHeaderValues.APPLICATION_JSON))
+				.get()
+				.uri(uri)
+				.responseSingle((response, body) -> {
+					final HttpResponseStatus status = response.status();
+					if (status.code() != HttpResponseStatus.OK.code()) {
+						if (status.code() == HttpResponseStatus.UNAUTHORIZED.code()) {
+							this.invalidateAuthorization.run();
+						}
+
+						log.debug("Request to {} failed with status {}", uri, status);
+						final Error error = Error.builder().code(status.code()).title(status.reasonPhrase()).detail(uri).build();
+						return body.then(Mono.error(new ClientV3Exception(status.code(), Collections.singletonList(error))));
+					}
+
+					// NB: the body is aggregated per page (see above)
+					return body.asInputStream()
+						.switchIfEmpty(Mono.error(() -> new IOException("Empty response received from "+uri)))
+						.flatMap(in -> Mono.fromCallable(() -> parse(in, parser)).subscribeOn(Schedulers.parallel()));
+				});
+		});
+	}
+
+	private static <P> P parse(InputStream in, PageParser<P> parser) throws IOException {
+		try (InputStream stream = in) {
+			return parser.parse(stream);
+		}
+	}
+}
@@ -0,0 +1,382 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudfoundry.client.v3.Metadata;
+import org.cloudfoundry.client.v3.Pagination;
+import org.cloudfoundry.client.v3.Relationship;
+import org.cloudfoundry.client.v3.ToOneRelationship;
+import org.cloudfoundry.client.v3.applications.ApplicationRelationships;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ApplicationState;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.domains.DomainResource;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessRelationships;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.routes.Application;
+import org.cloudfoundry.client.v3.routes.Destination;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v3.routes.RouteRelationships;
+import org.cloudfoundry.client.v3.routes.RouteResource;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Decodes pages of the CF Cloud Controller V3 API with Jackson's streaming API. Only the
+ * attributes which Promregator actually reads are taken from the byte stream; everything
+ * else is skipped without being materialized. The resources created are the same compact
+ * ones as produced by {@link CompactResponses}.
+ *
+ * The resources and responses are still built using the builders of the Cloud Foundry client
+ * library (with placeholders for its mandatory attributes), as the rest of Promregator (e.g. 
+ * {@link CFAccessor} and its caches) is based on these types.
+ */
+public final class StreamingResponseParser {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private StreamingResponseParser() {
+		// static helper class only
+	}
+
+	/**
+	 * parses a single page of a CF Cloud Controller V3 API list response
+	 * @param <P> the type of the response
+	 */
+	@FunctionalInterface
+	public interface PageParser<P> {
+		P parse(InputStream in) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface ResourceReader<S> {
+		S read(JsonParser parser) throws IOException;
+	}
+
+	private static record Page<S>(List<S> resources, Pagination pagination) {}
+
+	public static ListApplicationsResponse parseApplications(InputStream in) throws IOException {
+		final Page<ApplicationResource> page = parsePage(in, StreamingResponseParser::readApplication);
+		return ListApplicationsResponse.builder().pagination(page.pagination()).resources(page.resources()).build();
+	}
+
+	public static ListProcessesResponse parseProcesses(InputStream in) throws IOException {
+		final Page<ProcessResource> page = parsePage(in, StreamingResponseParser::readProcess);
+		return ListProcessesResponse.builder().pagination(page.pagination()).resources(page.resources()).build();
+	}
+
+	public static ListRoutesResponse parseRoutes(InputStream in) throws IOException {
+		final Page<RouteResource> page = parsePage(in, StreamingResponseParser::readRoute);
+		return ListRoutesResponse.builder().pagination(page.pagination()).resources(page.resources()).build();
+	}
+
+	public static ListOrganizationDomainsResponse parseDomains(InputStream in) throws IOException {
+		final Page<DomainResource> page = parsePage(in, StreamingResponseParser::readDomain);
+		return ListOrganizationDomainsResponse.builder().pagination(page.pagination()).resources(page.resources()).build();
+	}
+
+	private static <S> Page<S> parsePage(InputStream in, ResourceReader<S> resourceReader) throws IOException {
+		try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+			expectStartObject(parser, parser.nextToken());
+
+			List<S> resources = new ArrayList<>();
+			Pagination pagination = Pagination.builder().build();
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				final JsonToken value = parser.nextToken();
+
+				if ("pagination".equals(field) && value == JsonToken.START_OBJECT) {
+					pagination = readPagination(parser);
+				} else if ("resources".equals(field) && value == JsonToken.START_ARRAY) {
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						resources.add(resourceReader.read(parser));
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+
+			return new Page<>(resources, pagination);
+		}
+	}
+
+	private static Pagination readPagination(JsonParser parser) throws IOException {
+		final Pagination.Builder builder = Pagination.builder();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken value = parser.nextToken();
+
+			if ("total_pages".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+				builder.totalPages(parser.getIntValue());
+			} else if ("total_results".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+				builder.totalResults(parser.getIntValue());
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return builder.build();
+	}
+
+	private static ApplicationResource readApplication(JsonParser parser) throws IOException {
+		final ApplicationResource.Builder builder = ApplicationResource.builder()
+				.lifecycle(CompactResponses.PLACEHOLDER_LIFECYCLE)
+				.metadata(CompactResponses.EMPTY_METADATA)
+				.createdAt("");
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken value = parser.nextToken();
+
+			switch (field) {
+			case "guid" -> builder.id(parser.getValueAsString());
+			case "name" -> builder.name(parser.getValueAsString());
+			case "state" -> builder.state(ApplicationState.from(parser.getValueAsString()));
+			case "created_at" -> builder.createdAt(parser.getValueAsString(""));
+			case "updated_at" -> builder.updatedAt(parser.getValueAsString());
+			case "relationships" -> {
+				final Map<String, String> relationships = readRelationships(parser, value);
+				builder.relationships(ApplicationRelationships.builder().space(toOneRelationship(relationships.get("space"))).build());
+			}
+			case "metadata" -> builder.metadata(readMetadata(parser, value));
+			default -> parser.skipChildren();
+			}
+		}
+
+		return builder.build();
+	}
+
+	private static ProcessResource readProcess(JsonParser parser) throws IOException {
+		final ProcessResource.Builder builder = ProcessResource.builder()
+				.command("")
+				.diskInMb(0)
+				.memoryInMb(0)
+				.healthCheck(CompactResponses.PLACEHOLDER_HEALTH_CHECK)
+				.metadata(CompactResponses.EMPTY_METADATA)
+				.relationships(ProcessRelationships.builder().build())
+				.createdAt("");
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken value = parser.nextToken();
+
+			switch (field) {
+			case "guid" -> builder.id(parser.getValueAsString());
+			case "type" -> builder.type(parser.getValueAsString());
+			case "instances" -> builder.instances(parser.getValueAsInt());
+			case "created_at" -> builder.createdAt(parser.getValueAsString(""));
+			case "updated_at" -> builder.updatedAt(parser.getValueAsString());
+			case "relationships" -> {
+				final Map<String, String> relationships = readRelationships(parser, value);
+				final String appId = relationships.get("app");
+				if (appId != null) {
+					builder.relationships(ProcessRelationships.builder().app(toOneRelationship(appId)).build());
+				}
+			}
+			default -> parser.skipChildren();
+			}
+		}
+
+		return builder.build();
+	}
+
+	private static RouteResource readRoute(JsonParser parser) throws IOException {
+		final RouteResource.Builder builder = RouteResource.builder()
+				.host("")
+				.path("")
+				.url("")
+				.createdAt("");
+
+		ToOneRelationship domain = CompactResponses.EMPTY_RELATIONSHIP;
+		ToOneRelationship space = CompactResponses.EMPTY_RELATIONSHIP;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken value = parser.nextToken();
+
+			switch (field) {
+			case "guid" -> builder.id(parser.getValueAsString());
+			case "host" -> builder.host(parser.getValueAsString(""));
+			case "path" -> builder.path(parser.getValueAsString(""));
+			case "url" -> builder.url(parser.getValueAsString(""));
+			case "created_at" -> builder.createdAt(parser.getValueAsString(""));
+			case "updated_at" -> builder.updatedAt(parser.getValueAsString());
+			case "destinations" -> builder.destinations(readDestinations(parser, value));
+			case "relationships" -> {
+				final Map<String, String> relationships = readRelationships(parser, value);
+				domain = toOneRelationship(relationships.get("domain"));
+				space = toOneRelationship(relationships.get("space"));
+			}
+			default -> parser.skipChildren();
+			}
+		}
+
+		return builder.relationships(RouteRelationships.builder().domain(domain).space(space).build()).build();
+	}
+
+	private static List<Destination> readDestinations(JsonParser parser, JsonToken value) throws IOException {
+		final List<Destination> destinations = new ArrayList<>();
+		if (value != JsonToken.START_ARRAY) {
+			parser.skipChildren();
+			return destinations;
+		}
+
+		while (parser.nextToken() == JsonToken.START_OBJECT) {
+			String appId = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				final JsonToken destinationValue = parser.nextToken();
+
+				if ("app".equals(field) && destinationValue == JsonToken.START_OBJECT) {
+					appId = readGuid(parser);
+				} else {
+					parser.skipChildren();
+				}
+			}
+
+			if (appId != null) {
+				destinations.add(Destination.builder().application(Application.builder().applicationId(appId).build()).build());
+			}
+		}
+
+		return destinations;
+	}
+
+	private static DomainResource readDomain(JsonParser parser) throws IOException {
+		final DomainResource.Builder builder = DomainResource.builder()
+				.relationships(CompactResponses.PLACEHOLDER_DOMAIN_RELATIONSHIPS)
+				.isInternal(false)
+				.createdAt("");
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			parser.nextToken();
+
+			switch (field) {
+			case "guid" -> builder.id(parser.getValueAsString());
+			case "name" -> builder.name(parser.getValueAsString());
+			case "internal" -> builder.isInternal(parser.getValueAsBoolean());
+			case "created_at" -> builder.createdAt(parser.getValueAsString(""));
+			case "updated_at" -> builder.updatedAt(parser.getValueAsString());
+			default -> parser.skipChildren();
+			}
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * reads an object of to-one relationships such as <code>{"space": {"data": {"guid": "..."}}}</code>;
+	 * to-many relationships are skipped.
+	 * @return a map of the relationship names to the guids referenced
+	 */
+	private static Map<String, String> readRelationships(JsonParser parser, JsonToken value) throws IOException {
+		final Map<String, String> result = new HashMap<>(4);
+		if (value != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return result;
+		}
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String relationshipName = parser.getCurrentName();
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				final JsonToken dataValue = parser.nextToken();
+
+				if ("data".equals(field) && dataValue == JsonToken.START_OBJECT) {
+					final String guid = readGuid(parser);
+					if (guid != null) {
+						result.put(relationshipName, guid);
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * reads the attribute "guid" of the current object and skips all other attributes of it
+	 */
+	private static String readGuid(JsonParser parser) throws IOException {
+		String guid = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			parser.nextToken();
+
+			if ("guid".equals(field)) {
+				guid = parser.getValueAsString();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return guid;
+	}
+
+	private static Metadata readMetadata(JsonParser parser, JsonToken value) throws IOException {
+		if (value != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return CompactResponses.EMPTY_METADATA;
+		}
+
+		Map<String, String> annotations = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken metadataValue = parser.nextToken();
+
+			if (!"annotations".equals(field) || metadataValue != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String key = parser.getCurrentName();
+				final JsonToken annotationValue = parser.nextToken();
+
+				if (annotationValue == JsonToken.VALUE_STRING && key.startsWith(CompactResponses.ANNOTATION_PREFIX_PROMETHEUS_IO)) {
+					if (annotations == null) {
+						annotations = new HashMap<>();
+					}
+					annotations.put(key, parser.getText());
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+
+		if (annotations == null) {
+			return CompactResponses.EMPTY_METADATA;
+		}
+		return Metadata.builder().annotations(annotations).build();
+	}
+
+	private static ToOneRelationship toOneRelationship(String guid) {
+		if (guid == null) {
+			return CompactResponses.EMPTY_RELATIONSHIP;
+		}
+		return ToOneRelationship.builder().data(Relationship.builder().id(guid).build()).build();
+	}
+
+	private static void expectStartObject(JsonParser parser, JsonToken token) throws JsonParseException {
+		if (token != JsonToken.START_OBJECT) {
+			throw new JsonParseException(parser, "Response of the Cloud Controller is not a JSON object");
+		}
+	}
+}
@@ -18,14 +18,22 @@ public class Target {
 
 	private String orgRegex;
 
+	private Pattern orgRegexPattern;
+
 	private String spaceName;
 
 	private String spaceRegex;
 
+	private Pattern spaceRegexPattern;
+
 	private String applicationName;
 
 	private String applicationRegex;
 
+	private Pattern applicationRegexPattern;
+
+	private String labelSelector;
+
 	private String overrideRouteAndPath;
 
 	private String path;
@@ -61,10 +69,14 @@ public class Target {
 	public Target(Target source) {
 		this.orgName = source.orgName;
 		this.orgRegex = source.orgRegex;
+		this.orgRegexPattern = source.orgRegexPattern;
 		this.spaceName = source.spaceName;
 		this.spaceRegex = source.spaceRegex;
+		this.spaceRegexPattern = source.spaceRegexPattern;
 		this.applicationName = source.applicationName;
 		this.applicationRegex = source.applicationRegex;
+		this.applicationRegexPattern = source.applicationRegexPattern;
+		this.labelSelector = source.labelSelector;
 		this.overrideRouteAndPath = source.overrideRouteAndPath;
 		this.path = source.path;
 		if (source.kubernetesAnnotations != null)
@@ -96,6 +108,14 @@ public class Target {
 
 	public void setOrgRegex(String orgRegex) {
 		this.orgRegex = orgRegex;
+		this.orgRegexPattern = compileNameRegex(orgRegex);
+	}
+
+	/**
+	 * @return the compiled (case-insensitive) pattern of orgRegex; <code>null</code>, if no orgRegex is set
+	 */
+	public Pattern getOrgRegexPattern() {
+		return orgRegexPattern;
 	}
 
 	public String getSpaceName() {
@@ -112,6 +132,14 @@ public class Target {
 
 	public void setSpaceRegex(String spaceRegex) {
 		this.spaceRegex = spaceRegex;
+		this.spaceRegexPattern = compileNameRegex(spaceRegex);
+	}
+
+	/**
+	 * @return the compiled (case-insensitive) pattern of spaceRegex; <code>null</code>, if no spaceRegex is set
+	 */
+	public Pattern getSpaceRegexPattern() {
+		return spaceRegexPattern;
 	}
 
 	public String getApplicationName() {
@@ -128,6 +156,40 @@ public class Target {
 
 	public void setApplicationRegex(String applicationRegex) {
 		this.applicationRegex = applicationRegex;
+		this.applicationRegexPattern = compileNameRegex(applicationRegex);
+	}
+
+	/**
+	 * @return the compiled (case-insensitive) pattern of applicationRegex; <code>null</code>, if no applicationRegex is set
+	 */
+	public Pattern getApplicationRegexPattern() {
+		return applicationRegexPattern;
+	}
+
+	/*
+	 * The regular expressions for names are compiled once when the configuration is loaded
+	 * and not each time the targets are resolved.
+	 * To ensure consistency with the behavior of many Cloud Foundry implementations, 
+	 * names are compared case-insensitively (see also issue #76).
+	 */
+	private static Pattern compileNameRegex(String regex) {
+		if (regex == null) {
+			return null;
+		}
+		
+		return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+	}
+
+	/**
+	 * @return the label selector (in the syntax of the Cloud Foundry V3 API), which the applications need to match; 
+	 * <code>null</code>, if the applications shall not be selected by their labels
+	 */
+	public String getLabelSelector() {
+		return labelSelector;
+	}
+
+	public void setLabelSelector(String labelSelector) {
+		this.labelSelector = labelSelector;
 	}
 
 	public String getOverrideRouteAndPath() {
@@ -252,6 +314,8 @@ public class Target {
 		builder.append(applicationName);
 		builder.append(", applicationRegex=");
 		builder.append(applicationRegex);
+		builder.append(", labelSelector=");
+		builder.append(labelSelector);
 		builder.append(", overrideRouteAndPath=");
 		builder.append(overrideRouteAndPath);
 		builder.append(", path=");
@@ -1,18 +1,26 @@
 package org.cloudfoundry.promregator.discovery;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
 import org.cloudfoundry.promregator.config.PromregatorConfiguration;
 import org.cloudfoundry.promregator.messagebus.MessageBus;
 import org.cloudfoundry.promregator.messagebus.MessageBusTopic;
@@ -26,6 +34,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public class CFMultiDiscoverer implements CFDiscoverer {
 	private static final Logger log = LoggerFactory.getLogger(CFMultiDiscoverer.class);
 	
@@ -49,6 +60,91 @@ public class CFMultiDiscoverer implements CFDiscoverer {
 	@Value("${promregator.discoverer.timeout:600}")
 	private int expiryTimeout;
 	
+	@Value("${promregator.discoverer.snapshot.file:#{null}}")
+	private String snapshotFile;
+	
+	@Value("${promregator.discoverer.snapshot.maxAge:86400}")
+	private int snapshotMaxAge;
+	
+	private DiscoverySnapshotStore snapshotStore;
+	
+	@Value("${promregator.sharding.total:1}")
+	private int shardingTotal;
+	
+	@Value("${promregator.sharding.index:${CF_INSTANCE_INDEX:0}}")
+	private int shardingIndex;
+	
+	private ShardAssignment shardAssignment = new ShardAssignment(1, 0);
+	
+	/* the instances read from the snapshot; null, once the first live discovery has succeeded */
+	private volatile List<Instance> warmStartInstances;
+	
+	/* the point in time after which the snapshot is too old to be served any longer */
+	private Instant warmStartExpiresAt;
+	
+	private final AtomicBoolean warmStartRevalidationRunning = new AtomicBoolean(false);
+	
+	@PostConstruct
+	public void setup() {
+		this.shardAssignment = new ShardAssignment(this.shardingTotal, this.shardingIndex);
+		if (this.shardAssignment.isSharded()) {
+			log.info("Only discovering instances of shard {} of {} shards", this.shardingIndex, this.shardingTotal);
+		}
+		
+		// NB: the shard assignment is required for reading the snapshot
+		this.loadSnapshot();
+	}
+	
+	private void loadSnapshot() {
+		if (this.snapshotFile == null) {
+			return;
+		}
+		
+		this.snapshotStore = new DiscoverySnapshotStore(Paths.get(this.snapshotFile));
+		
+		DiscoverySnapshotStore.Snapshot snapshot;
+		try {
+			Instant notBefore = Instant.now(this.clock).minus(this.snapshotMaxAge, ChronoUnit.SECONDS);
+			snapshot = this.snapshotStore.readSnapshot(this.promregatorConfiguration.getTargets(), notBefore);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Unable to read discovery snapshot from {}; starting without it", this.snapshotFile, e);
+			return;
+		}
+		
+		if (snapshot.instances().isEmpty()) {
+			return;
+		}
+		
+		// the snapshot may have been written with another shard assignment
+		List<Instance> instances = filterInstances(snapshot.instances(), null, this::isResponsibleFor);
+		
+		log.info("Warm start using {} instances from discovery snapshot {}", instances.size(), this.snapshotFile);
+		for (Instance instance : instances) {
+			this.registerInstance(instance);
+		}
+		this.warmStartExpiresAt = snapshot.createdAt().plus(this.snapshotMaxAge, ChronoUnit.SECONDS);
+		this.warmStartInstances = instances;
+	}
+	
+	/**
+	 * determines the instances of the snapshot, which still may be served
+	 * @return the instances of the snapshot; <code>null</code>, if the live discovery has succeeded or the snapshot has become too old meanwhile
+	 */
+	@Nullable
+	private List<Instance> determineWarmStartInstances() {
+		final List<Instance> staleInstances = this.warmStartInstances;
+		if (staleInstances == null || Instant.now(this.clock).isBefore(this.warmStartExpiresAt)) {
+			return staleInstances;
+		}
+		
+		/* the revalidation in the background has not succeeded for too long;
+		 * the stale snapshot must not be served indefinitely.
+		 */
+		log.error("Discovery snapshot {} could not be revalidated before it became older than {} seconds; no longer serving it", this.snapshotFile, this.snapshotMaxAge);
+		this.warmStartInstances = null;
+		return null;
+	}
+	
 	/**
 	 * performs the discovery based on the configured set of targets in the configuration, (pre-)filtering the returned set applying the filter criteria supplied.
 	 * The instances discovered are automatically registered at this Discoverer
@@ -59,19 +155,67 @@ public class CFMultiDiscoverer implements CFDiscoverer {
 	@Nullable
 	@Override
 	public List<Instance> discover(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		final Predicate<? super Instance> shardInstanceFilter = this.restrictToShard(instanceFilter);
+		
+		final List<Instance> staleInstances = this.determineWarmStartInstances();
+		if (staleInstances != null) {
+			this.revalidateWarmStartInBackground();
+			return filterInstances(staleInstances, applicationIdFilter, shardInstanceFilter);
+		}
+		
+		List<Instance> instanceList = this.performDiscovery(applicationIdFilter, shardInstanceFilter);
+		if (instanceList == null) {
+			return Collections.emptyList();
+		}
+		
+		if (applicationIdFilter == null && instanceFilter == null) {
+			this.publishDiscoveredInstances(instanceList);
+		}
+		
+		return instanceList;
+	}
+	
+	@Nullable
+	private Predicate<? super Instance> restrictToShard(@Nullable Predicate<? super Instance> instanceFilter) {
+		if (!this.shardAssignment.isSharded()) {
+			return instanceFilter;
+		}
+		
+		if (instanceFilter == null) {
+			return this::isResponsibleFor;
+		}
+		
+		return instance -> this.isResponsibleFor(instance) && instanceFilter.test(instance);
+	}
+	
+	private boolean isResponsibleFor(Instance instance) {
+		return this.shardAssignment.isResponsibleFor(instance.getInstanceId());
+	}
+	
+	/**
+	 * checks whether an instance belongs to the shard of this replica of Promregator without performing any discovery
+	 * @param instanceId the identifier of the instance, i.e. <code>applicationId:instanceNumber</code>
+	 * @return <code>true</code>, if the instance is discovered (and thus may be scraped) by this replica
+	 */
+	public boolean isInShard(String instanceId) {
+		return this.shardAssignment.isResponsibleFor(instanceId);
+	}
+	
+	@Nullable
+	private List<Instance> performDiscovery(@Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
 		log.debug("We have {} targets configured", this.promregatorConfiguration.getTargets().size());
 		
 		List<ResolvedTarget> resolvedTargets = this.targetResolver.resolveTargets(this.promregatorConfiguration.getTargets());
 		if (resolvedTargets == null) {
 			log.warn("Target resolved was unable to resolve configured targets");
-			return Collections.emptyList();
+			return null;
 		}
 		log.debug("Raw list contains {} resolved targets", resolvedTargets.size());
 		
 		List<Instance> instanceList = this.appInstanceScanner.determineInstancesFromTargets(resolvedTargets, applicationIdFilter, instanceFilter);
 		if (instanceList == null) {
 			log.warn("Instance Scanner unable to determine instances from provided targets");
-			return Collections.emptyList();
+			return null;
 		}
 		log.debug("Raw list contains {} instances", instanceList.size());
 
@@ -82,6 +226,83 @@ public class CFMultiDiscoverer implements CFDiscoverer {
 		
 		return instanceList;
 	}
+	
+	/**
+	 * answering from the snapshot, the (slow) first discovery is triggered asynchronously, 
+	 * such that the caches get warm without blocking the caller.
+	 */
+	private void revalidateWarmStartInBackground() {
+		if (!this.warmStartRevalidationRunning.compareAndSet(false, true)) {
+			return;
+		}
+		
+		/* NB: an unsuccessful discovery yields null, i.e. an empty Mono; the snapshot then continues to be served,
+		 * until it becomes older than the maximal age (see determineWarmStartInstances).
+		 * Nobody is waiting for this discovery directly.
+		 */
+		Mono.fromCallable(() -> RequestPriority.DISCOVERY_CRAWL.callBlocking(() -> this.performDiscovery(null, this.restrictToShard(null))))
+			.subscribeOn(Schedulers.boundedElastic())
+			.doFinally(signal -> this.warmStartRevalidationRunning.set(false))
+			.subscribe(this::completeWarmStart, e -> log.warn("Revalidating the discovery snapshot failed; retrying with the next request", e));
+	}
+	
+	private void completeWarmStart(List<Instance> liveInstances) {
+		final List<Instance> staleInstances = this.warmStartInstances;
+		if (staleInstances == null) {
+			return;
+		}
+		
+		/* instances of the snapshot, which are gone meanwhile, have never been reported by this process;
+		 * hence, they are dropped silently instead of notifying about their removal
+		 */
+		Set<Instance> live = new HashSet<>(liveInstances);
+		for (Instance instance : staleInstances) {
+			if (!live.contains(instance)) {
+				this.instanceExpiryMap.remove(instance);
+			}
+		}
+		
+		this.warmStartInstances = null;
+		log.info("Discovery snapshot revalidated; now serving {} live instances", liveInstances.size());
+		
+		this.publishDiscoveredInstances(liveInstances);
+	}
+	
+	private void publishDiscoveredInstances(List<Instance> instances) {
+		this.messageBus.notifyEvent(MessageBusTopic.DISCOVERER_INSTANCES_DISCOVERED, Collections.unmodifiableList(instances));
+	}
+	
+	private static List<Instance> filterInstances(List<Instance> instances, @Nullable Predicate<? super String> applicationIdFilter, @Nullable Predicate<? super Instance> instanceFilter) {
+		List<Instance> result = new ArrayList<>(instances.size());
+		for (Instance instance : instances) {
+			if (applicationIdFilter != null && !applicationIdFilter.test(instance.getApplicationId())) {
+				continue;
+			}
+			if (instanceFilter != null && !instanceFilter.test(instance)) {
+				continue;
+			}
+			result.add(instance);
+		}
+		return result;
+	}
+	
+	/**
+	 * writes the instances currently registered to the snapshot file (if configured).
+	 * This method is automatically called by the Spring framework in regular intervals asynchronously.
+	 */
+	@Scheduled(fixedDelayString = "${promregator.discoverer.snapshot.interval:60}000", initialDelayString = "${promregator.discoverer.snapshot.interval:60}000")
+	public void writeSnapshot() {
+		if (this.snapshotStore == null || this.warmStartInstances != null) {
+			// not configured or nothing new to persist
+			return;
+		}
+		
+		try {
+			this.snapshotStore.write(new ArrayList<>(this.instanceExpiryMap.keySet()), this.promregatorConfiguration.getTargets(), Instant.now(this.clock));
+		} catch (IOException | RuntimeException e) {
+			log.warn("Unable to write discovery snapshot to {}", this.snapshotFile, e);
+		}
+	}
 
 	private void registerInstance(Instance instance) {
 		Instant timeout = nextTimeout();
@@ -0,0 +1,158 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
+import org.cloudfoundry.promregator.config.PromregatorConfiguration;
+import org.cloudfoundry.promregator.config.Target;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.cloudfoundry.promregator.scanner.AppInstanceScanner;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.cloudfoundry.promregator.scanner.TargetResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Crawls all configured targets once during startup, such that the caches of the target resolver
+ * and of the CFAccessor are filled before the first discovery request arrives.
+ *
+ * Spring Boot runs all ApplicationRunners before it reports the application to be ready
+ * (see <code>ReadinessState.ACCEPTING_TRAFFIC</code>). Therefore, the application is only
+ * reported ready after the warm-up has completed (or has timed out).
+ */
+public class CacheWarmer implements ApplicationRunner {
+	private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+	private final TargetResolver targetResolver;
+
+	private final AppInstanceScanner appInstanceScanner;
+
+	private final PromregatorConfiguration promregatorConfiguration;
+
+	private final InternalMetrics internalMetrics;
+
+	@Value("${cf.cache.warmUp.enabled:false}")
+	private boolean enabled;
+
+	@Value("${cf.cache.warmUp.parallelism:4}")
+	private int parallelism;
+
+	@Value("${cf.cache.warmUp.timeout:300}")
+	private int timeout;
+
+	private final AtomicInteger targetsTotal = new AtomicInteger(0);
+
+	private final AtomicInteger targetsWarmedUp = new AtomicInteger(0);
+
+	private volatile long startedAt;
+
+	private volatile long durationInMillis = -1;
+
+	public CacheWarmer(TargetResolver targetResolver, AppInstanceScanner appInstanceScanner, PromregatorConfiguration promregatorConfiguration, InternalMetrics internalMetrics) {
+		this.targetResolver = targetResolver;
+		this.appInstanceScanner = appInstanceScanner;
+		this.promregatorConfiguration = promregatorConfiguration;
+		this.internalMetrics = internalMetrics;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!this.enabled) {
+			return;
+		}
+
+		this.internalMetrics.registerWarmUpFunctions(this.targetsTotal::doubleValue, this.targetsWarmedUp::doubleValue, this::determineDurationInSeconds);
+
+		final CountDownLatch completed = new CountDownLatch(1);
+		final Disposable subscription = this.warmUp()
+				.doFinally(signal -> completed.countDown())
+				.subscribe(null, e -> log.warn("Warm-up of caches failed; continuing startup", e));
+
+		try {
+			if (!completed.await(this.timeout, TimeUnit.SECONDS)) {
+				/* the targets not crawled yet must not keep on consuming capacity of the Cloud Controller in the background;
+				 * caches which are not warm yet are filled lazily by the first discovery requests
+				 */
+				subscription.dispose();
+				log.warn("Warm-up of caches did not complete within {} seconds; {} of {} targets are warm. Continuing startup", this.timeout, this.targetsWarmedUp.get(), this.targetsTotal.get());
+			}
+		} catch (InterruptedException e) {
+			subscription.dispose();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * resolves all configured targets and determines their instances in parallel.
+	 * The requests are sent with the priority of crawling, such that they do not delay scrapes.
+	 * @return a Mono, which completes once all targets have been crawled
+	 */
+	public Mono<Void> warmUp() {
+		final List<Target> targets = this.promregatorConfiguration.getTargets();
+
+		return Mono.<Void>defer(() -> {
+			this.startedAt = System.currentTimeMillis();
+			this.targetsTotal.set(targets.size());
+			this.targetsWarmedUp.set(0);
+			log.info("Warming up caches for {} targets", targets.size());
+
+			/* NB: The requests sent to the Cloud Controller are still subject to its rate limiting;
+			 * the parallelism only determines, how many targets are crawled at the same time.
+			 */
+			return Flux.fromIterable(targets)
+					.flatMap(target -> Mono.deferContextual(contextView -> Mono.fromRunnable(() ->
+									// NB: resolving and scanning are blocking; the priority needs to be bridged to them
+									RequestPriority.fromContext(contextView).runBlocking(() -> this.warmUpTarget(target))))
+							.subscribeOn(Schedulers.boundedElastic())
+							.onErrorResume(e -> {
+								log.warn("Unable to warm up caches for target {}", target, e);
+								return Mono.empty();
+							})
+							.doOnTerminate(this.targetsWarmedUp::incrementAndGet), this.parallelism)
+					.then(Mono.fromRunnable(() -> {
+						this.durationInMillis = System.currentTimeMillis() - this.startedAt;
+						log.info("Warm-up of caches for {} targets completed after {} ms", targets.size(), this.durationInMillis);
+					}));
+		})
+		.contextWrite(RequestPriority.DISCOVERY_CRAWL.asContext());
+	}
+
+	private void warmUpTarget(Target target) {
+		List<ResolvedTarget> resolvedTargets = this.targetResolver.resolveTargets(Collections.singletonList(target));
+		if (resolvedTargets == null || resolvedTargets.isEmpty()) {
+			return;
+		}
+
+		this.appInstanceScanner.determineInstancesFromTargets(resolvedTargets, null, null);
+	}
+
+	private double determineDurationInSeconds() {
+		if (this.durationInMillis >= 0) {
+			return this.durationInMillis / 1000.0;
+		}
+		if (this.startedAt == 0) {
+			return 0.0;
+		}
+		return (System.currentTimeMillis() - this.startedAt) / 1000.0;
+	}
+
+	public int getTargetsTotal() {
+		return this.targetsTotal.get();
+	}
+
+	public int getTargetsWarmedUp() {
+		return this.targetsWarmedUp.get();
+	}
+}
@@ -0,0 +1,201 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
+import org.cloudfoundry.promregator.messagebus.MessageBus;
+import org.cloudfoundry.promregator.messagebus.MessageBusTopic;
+import org.cloudfoundry.promregator.messagebus.MessageSubscriber;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Keeps track of the changes of the set of instances discovered, by comparing the results of
+ * successive (unfiltered) discoveries of the {@link CFMultiDiscoverer}.
+ * <p>
+ * Each change increases the version of the feed. Clients remember the token of the version they
+ * have seen last, and only receive the instances added and removed since then. Tokens contain an
+ * epoch, which differs with each start of Promregator; thus, clients with a token of a previous run
+ * (or one that is older than the history kept) start over with the complete set of instances.
+ */
+public class DiscoveryChangeFeed implements MessageSubscriber {
+	private static final Logger log = LoggerFactory.getLogger(DiscoveryChangeFeed.class);
+
+	/**
+	 * the instances added and removed between two versions of the feed
+	 * @param token the token of the (newer) version
+	 * @param reset if <code>true</code>, the changes are relative to an empty set of instances (and not to the version requested)
+	 * @param added the instances added
+	 * @param removed the instances removed
+	 */
+	public static record ChangeSet(String token, boolean reset, List<Instance> added, List<Instance> removed) {
+		public boolean isEmpty() {
+			return !this.reset && this.added.isEmpty() && this.removed.isEmpty();
+		}
+	}
+
+	private record Delta(long version, List<Instance> added, List<Instance> removed) {}
+
+	@Autowired
+	private MessageBus messageBus;
+
+	@Autowired
+	private CFMultiDiscoverer cfDiscoverer;
+
+	@Value("${promregator.discovery.feed.history:1000}")
+	private int historySize;
+
+	private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+	/* NB: all fields below are guarded by "this" */
+	private long version = 0;
+
+	private Set<Instance> current = new LinkedHashSet<>();
+
+	private final Deque<Delta> history = new ArrayDeque<>();
+
+	private final Sinks.Many<String> versionSink = Sinks.many().multicast().directBestEffort();
+
+	@PostConstruct
+	public void registerAtMessageBus() {
+		this.messageBus.subscribe(MessageBusTopic.DISCOVERER_INSTANCES_DISCOVERED, this);
+	}
+
+	@Override
+	public void receiveMessage(String topic, Object message) {
+		@SuppressWarnings("unchecked")
+		List<Instance> instances = (List<Instance>) message;
+
+		this.update(instances);
+	}
+
+	synchronized void update(List<Instance> instances) {
+		Set<Instance> next = new LinkedHashSet<>(instances);
+
+		List<Instance> added = new ArrayList<>();
+		for (Instance instance : next) {
+			if (!this.current.contains(instance)) {
+				added.add(instance);
+			}
+		}
+
+		List<Instance> removed = new ArrayList<>();
+		for (Instance instance : this.current) {
+			if (!next.contains(instance)) {
+				removed.add(instance);
+			}
+		}
+
+		if (added.isEmpty() && removed.isEmpty()) {
+			return;
+		}
+
+		this.version++;
+		this.current = next;
+		this.history.addLast(new Delta(this.version, added, removed));
+		while (this.history.size() > this.historySize) {
+			this.history.removeFirst();
+		}
+
+		log.info("Discovered instances changed with version {}: {} added, {} removed", this.version, added.size(), removed.size());
+		this.versionSink.tryEmitNext(this.token(this.version));
+	}
+
+	/**
+	 * determines the changes since a given version
+	 * @param token the token of the version the client has seen last; may be <code>null</code>, if the client has not seen any version yet
+	 * @return the changes since the version requested; a reset, if the changes since this version are not known
+	 */
+	public synchronized ChangeSet changesSince(@Nullable String token) {
+		final String currentToken = this.token(this.version);
+
+		long since = this.parseVersion(token);
+		if (since < 0 || since > this.version || (since < this.version && !this.isInHistory(since + 1))) {
+			return new ChangeSet(currentToken, true, new ArrayList<>(this.current), Collections.emptyList());
+		}
+
+		/*
+		 * coalesce all deltas after the version requested; an instance, which was added and
+		 * removed again in the meantime, is not reported at all
+		 */
+		Set<Instance> added = new LinkedHashSet<>();
+		Set<Instance> removed = new LinkedHashSet<>();
+		for (Delta delta : this.history) {
+			if (delta.version() <= since) {
+				continue;
+			}
+
+			for (Instance instance : delta.removed()) {
+				if (!added.remove(instance)) {
+					removed.add(instance);
+				}
+			}
+			for (Instance instance : delta.added()) {
+				if (!removed.remove(instance)) {
+					added.add(instance);
+				}
+			}
+		}
+
+		return new ChangeSet(currentToken, false, new ArrayList<>(added), new ArrayList<>(removed));
+	}
+
+	private boolean isInHistory(long deltaVersion) {
+		Delta oldest = this.history.peekFirst();
+		return oldest != null && oldest.version() <= deltaVersion;
+	}
+
+	/**
+	 * @return a hot stream of the tokens of new versions, as they occur
+	 */
+	public Flux<String> versions() {
+		return this.versionSink.asFlux();
+	}
+
+	/**
+	 * triggers a discovery in regular intervals, as long as a client is waiting for changes.
+	 * This method is automatically called by the Spring framework in regular intervals asynchronously.
+	 */
+	@Scheduled(fixedDelayString = "${promregator.discovery.feed.interval:30}000", initialDelayString = "${promregator.discovery.feed.interval:30}000")
+	public void refresh() {
+		if (this.versionSink.currentSubscriberCount() == 0) {
+			return;
+		}
+
+		// NB: the result is published via the message bus; nobody is waiting for this discovery directly
+		RequestPriority.DISCOVERY_CRAWL.runBlocking(() -> this.cfDiscoverer.discover(null, null));
+	}
+
+	private String token(long tokenVersion) {
+		return this.epoch + "-" + tokenVersion;
+	}
+
+	private long parseVersion(@Nullable String token) {
+		if (token == null || !token.startsWith(this.epoch + "-")) {
+			return -1;
+		}
+
+		try {
+			return Long.parseLong(token.substring(this.epoch.length() + 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.config.Target;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the instances discovered to a local file and reads them back, such that
+ * discovery requests may be answered right after a restart - before the caches are warm again.
+ *
+ * The file uses a compact, versioned binary format. Each resolved target is only written once;
+ * the instances refer to it by index. The original target of the configuration is referred to
+ * by its position in the list of configured targets. If the configuration has changed in between,
+ * the instances of the targets affected are dropped on reading.
+ *
+ * Writing is done to a temporary file first, which then is renamed atomically. Thus, a crash
+ * during writing never leaves a truncated snapshot behind.
+ */
+public class DiscoverySnapshotStore {
+	private static final Logger log = LoggerFactory.getLogger(DiscoverySnapshotStore.class);
+
+	static final int MAGIC = 0x50524753; // "PRGS"
+
+	static final short FORMAT_VERSION = 2;
+
+	/* version 1 did not contain the direct access URLs of the instances yet */
+	private static final short FORMAT_VERSION_WITHOUT_DIRECT_ACCESS_URL = 1;
+
+	private final Path file;
+
+	/**
+	 * the instances read from a snapshot file
+	 * @param createdAt the point in time at which the snapshot was taken; <code>null</code>, if there is no (current) snapshot
+	 * @param instances the instances read
+	 */
+	public record Snapshot(@Nullable Instant createdAt, List<Instance> instances) {}
+
+	public DiscoverySnapshotStore(Path file) {
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * writes the instances provided to the snapshot file, replacing any previous snapshot atomically
+	 * @param instances the instances which shall be persisted
+	 * @param configuredTargets the list of targets currently configured
+	 * @param createdAt the point in time at which the snapshot is taken
+	 * @throws IOException if writing the snapshot file failed
+	 */
+	public void write(Collection<Instance> instances, List<Target> configuredTargets, Instant createdAt) throws IOException {
+		Map<ResolvedTarget, Integer> targetIndex = new HashMap<>();
+		List<ResolvedTarget> resolvedTargets = new ArrayList<>();
+		List<Instance> persistableInstances = new ArrayList<>(instances.size());
+
+		for (Instance instance : instances) {
+			ResolvedTarget rt = instance.getTarget();
+			if (rt == null || indexOfConfiguredTarget(configuredTargets, rt.getOriginalTarget()) == -1) {
+				// not related to the current configuration (anymore); would be dropped on reading anyway
+				continue;
+			}
+
+			if (!targetIndex.containsKey(rt)) {
+				targetIndex.put(rt, resolvedTargets.size());
+				resolvedTargets.add(rt);
+			}
+			persistableInstances.add(instance);
+		}
+
+		Path directory = this.file.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		Path tempFile = Files.createTempFile(directory, this.file.getFileName().toString(), ".tmp");
+
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				out.writeInt(MAGIC);
+				out.writeShort(FORMAT_VERSION);
+				out.writeLong(createdAt.toEpochMilli());
+
+				out.writeInt(resolvedTargets.size());
+				for (ResolvedTarget rt : resolvedTargets) {
+					Target originalTarget = rt.getOriginalTarget();
+					out.writeInt(indexOfConfiguredTarget(configuredTargets, originalTarget));
+					out.writeUTF(originalTarget.toString());
+					writeNullableString(out, rt.getOrgName());
+					writeNullableString(out, rt.getSpaceName());
+					writeNullableString(out, rt.getApplicationName());
+					writeNullableString(out, rt.getApplicationId());
+					writeNullableString(out, rt.getPath());
+					writeNullableString(out, rt.getProtocol());
+					out.writeBoolean(Boolean.TRUE.equals(rt.getKubernetesAnnotations()));
+				}
+
+				out.writeInt(persistableInstances.size());
+				for (Instance instance : persistableInstances) {
+					out.writeInt(targetIndex.get(instance.getTarget()));
+					writeNullableString(out, instance.getInstanceId());
+					writeNullableString(out, instance.getAccessUrl());
+					out.writeBoolean(instance.isInternal());
+					writeNullableString(out, instance.getDirectAccessUrl());
+				}
+			}
+
+			moveAtomically(tempFile, this.file);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+
+		log.debug("Wrote snapshot with {} instances of {} targets to {}", persistableInstances.size(), resolvedTargets.size(), this.file);
+	}
+
+	/**
+	 * reads the instances from the snapshot file
+	 * @param configuredTargets the list of targets currently configured
+	 * @param notBefore snapshots taken before this point in time are considered outdated and are ignored
+	 * @return the list of instances read, which still belong to a configured target; an empty list, if there is no (current) snapshot
+	 * @throws IOException if the snapshot file could not be read or is of an unsupported format
+	 */
+	public List<Instance> read(List<Target> configuredTargets, Instant notBefore) throws IOException {
+		return this.readSnapshot(configuredTargets, notBefore).instances();
+	}
+
+	/**
+	 * reads the snapshot file
+	 * @param configuredTargets the list of targets currently configured
+	 * @param notBefore snapshots taken before this point in time are considered outdated and are ignored
+	 * @return the snapshot read, whose instances still belong to a configured target
+	 * @throws IOException if the snapshot file could not be read or is of an unsupported format
+	 */
+	public Snapshot readSnapshot(List<Target> configuredTargets, Instant notBefore) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(String.format("File %s is not a discovery snapshot", this.file));
+			}
+
+			short version = in.readShort();
+			if (version != FORMAT_VERSION && version != FORMAT_VERSION_WITHOUT_DIRECT_ACCESS_URL) {
+				throw new IOException(String.format("Discovery snapshot %s has unsupported format version %d", this.file, version));
+			}
+
+			Instant createdAt = Instant.ofEpochMilli(in.readLong());
+			if (createdAt.isBefore(notBefore)) {
+				log.info("Discovery snapshot {} taken at {} is outdated; ignoring it", this.file, createdAt);
+				return new Snapshot(null, new LinkedList<>());
+			}
+
+			int numberOfTargets = in.readInt();
+			List<ResolvedTarget> resolvedTargets = new ArrayList<>(numberOfTargets);
+			for (int i = 0; i < numberOfTargets; i++) {
+				int configIndex = in.readInt();
+				String fingerprint = in.readUTF();
+
+				ResolvedTarget rt = new ResolvedTarget();
+				rt.setOrgName(readNullableString(in));
+				rt.setSpaceName(readNullableString(in));
+				rt.setApplicationName(readNullableString(in));
+				rt.setApplicationId(readNullableString(in));
+				rt.setPath(readNullableString(in));
+				rt.setProtocol(readNullableString(in));
+				rt.setKubernetesAnnotations(in.readBoolean());
+
+				Target originalTarget = determineConfiguredTarget(configuredTargets, configIndex, fingerprint);
+				if (originalTarget == null) {
+					// configuration has changed since then
+					resolvedTargets.add(null);
+					continue;
+				}
+				rt.setOriginalTarget(originalTarget);
+				resolvedTargets.add(rt);
+			}
+
+			int numberOfInstances = in.readInt();
+			List<Instance> result = new LinkedList<>();
+			for (int i = 0; i < numberOfInstances; i++) {
+				int targetIndex = in.readInt();
+				String instanceId = readNullableString(in);
+				String accessUrl = readNullableString(in);
+				boolean internal = in.readBoolean();
+				String directAccessUrl = version == FORMAT_VERSION_WITHOUT_DIRECT_ACCESS_URL ? null : readNullableString(in);
+
+				ResolvedTarget rt = resolvedTargets.get(targetIndex);
+				if (rt == null) {
+					continue;
+				}
+				Instance instance = new Instance(rt, instanceId, accessUrl, internal);
+				instance.setDirectAccessUrl(directAccessUrl);
+				result.add(instance);
+			}
+
+			log.debug("Read snapshot with {} instances taken at {} from {}", result.size(), createdAt, this.file);
+			return new Snapshot(createdAt, result);
+		} catch (NoSuchFileException e) {
+			return new Snapshot(null, new LinkedList<>());
+		}
+	}
+
+	private static int indexOfConfiguredTarget(List<Target> configuredTargets, @Nullable Target target) {
+		// NB: Target does not implement equals(); we are looking for the very same object here
+		for (int i = 0; i < configuredTargets.size(); i++) {
+			if (configuredTargets.get(i) == target) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Nullable
+	private static Target determineConfiguredTarget(List<Target> configuredTargets, int configIndex, String fingerprint) {
+		if (configIndex < 0 || configIndex >= configuredTargets.size()) {
+			return null;
+		}
+
+		Target target = configuredTargets.get(configIndex);
+		if (!fingerprint.equals(target.toString())) {
+			return null;
+		}
+		return target;
+	}
+
+	static void moveAtomically(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			log.debug("File system of {} does not support atomic moves; falling back to non-atomic replacement", target);
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		return in.readUTF();
+	}
+}
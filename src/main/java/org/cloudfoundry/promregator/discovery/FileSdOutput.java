@@ -0,0 +1,141 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
+import org.cloudfoundry.promregator.discovery.FileSdWriter.Format;
+import org.cloudfoundry.promregator.messagebus.MessageBus;
+import org.cloudfoundry.promregator.messagebus.MessageBusTopic;
+import org.cloudfoundry.promregator.messagebus.MessageSubscriber;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Writes the instances discovered to a <code>file_sd_configs</code> file (see {@link FileSdWriter}),
+ * whenever they have changed. Discoveries are triggered in regular intervals, as there are no requests
+ * to the discovery endpoint, if Prometheus only reads the file.
+ */
+public class FileSdOutput implements MessageSubscriber {
+	private static final Logger log = LoggerFactory.getLogger(FileSdOutput.class);
+
+	@Autowired
+	private MessageBus messageBus;
+
+	@Autowired
+	private CFMultiDiscoverer cfDiscoverer;
+
+	@Value("${promregator.discovery.file.path:#{null}}")
+	private String path;
+
+	@Value("${promregator.discovery.file.format:json}")
+	private String format;
+
+	@Value("${promregator.discovery.file.splitByOrg:false}")
+	private boolean splitByOrg;
+
+	@Value("${promregator.discovery.hostname:localhost}")
+	private String myHostname;
+
+	@Value("${promregator.discovery.port:${server.port:8080}}")
+	private int myPort;
+
+	@Value("${promregator.discovery.ownMetricsEndpoint:true}")
+	private boolean promregatorMetricsEndpoint;
+
+	private FileSdWriter writer;
+
+	/* the instances not written yet; only the latest ones are of interest */
+	private final AtomicReference<List<Instance>> pending = new AtomicReference<>();
+
+	private final AtomicBoolean writing = new AtomicBoolean(false);
+
+	/* NB: only accessed while writing */
+	private Set<Instance> written;
+
+	@PostConstruct
+	public void setup() {
+		if (this.path == null) {
+			return;
+		}
+
+		Format fileFormat = Format.valueOf(this.format.toUpperCase(Locale.ROOT));
+		String target = String.format("%s:%d", this.myHostname, this.myPort);
+		this.writer = new FileSdWriter(Paths.get(this.path), fileFormat, this.splitByOrg, target, this.promregatorMetricsEndpoint);
+
+		log.info("Writing discovered instances as {} to {}", fileFormat, this.path);
+		this.messageBus.subscribe(MessageBusTopic.DISCOVERER_INSTANCES_DISCOVERED, this);
+	}
+
+	@Override
+	public void receiveMessage(String topic, Object message) {
+		@SuppressWarnings("unchecked")
+		List<Instance> instances = (List<Instance>) message;
+
+		this.pending.set(instances);
+		if (!this.writing.compareAndSet(false, true)) {
+			// the instances are picked up by the write currently running
+			return;
+		}
+
+		// NB: the discovery shall not wait for the file being written
+		Mono.fromRunnable(this::writePending)
+			.subscribeOn(Schedulers.boundedElastic())
+			.subscribe(null, e -> log.warn("Unexpected error on writing the discovered instances to {}", this.path, e));
+	}
+
+	private void writePending() {
+		do {
+			List<Instance> instances;
+			while ((instances = this.pending.getAndSet(null)) != null) {
+				this.writeIfChanged(instances);
+			}
+			this.writing.set(false);
+		} while (this.pending.get() != null && this.writing.compareAndSet(false, true));
+	}
+
+	private void writeIfChanged(List<Instance> instances) {
+		Set<Instance> current = new HashSet<>(instances);
+		if (current.equals(this.written)) {
+			return;
+		}
+
+		try {
+			this.writer.write(instances);
+			this.written = current;
+			log.info("Wrote {} discovered instances to {}", instances.size(), this.path);
+		} catch (IOException | RuntimeException e) {
+			// NB: written remains unchanged; thus, writing is retried with the next discovery
+			log.warn("Unable to write discovered instances to {}", this.path, e);
+		}
+	}
+
+	/**
+	 * triggers a discovery in regular intervals; its result is written to the file, if it has changed.
+	 * This method is automatically called by the Spring framework in regular intervals asynchronously.
+	 */
+	@Scheduled(fixedDelayString = "${promregator.discovery.file.interval:60}000", initialDelay = 5000)
+	public void refresh() {
+		if (this.writer == null) {
+			return;
+		}
+
+		// NB: the result is published via the message bus; nobody is waiting for this discovery directly
+		RequestPriority.DISCOVERY_CRAWL.runBlocking(() -> this.cfDiscoverer.discover(null, null));
+	}
+}
@@ -0,0 +1,164 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.cloudfoundry.promregator.endpoint.DiscoveryDocument;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+
+/**
+ * Writes the instances discovered to a file in the format of Prometheus' <code>file_sd_configs</code>
+ * (JSON or YAML), such that a Prometheus running next to Promregator does not need to fetch the discovery document via HTTP.
+ *
+ * The document is generated in a streaming fashion, i.e. one target after the other is written to the file,
+ * without creating the entire document in memory. Its entries are the same as those of the discovery endpoint.
+ * It is written to a temporary file first, which then is renamed atomically. Thus, Prometheus never reads a file, which is only written partially.
+ *
+ * Optionally, the instances are split into one file per org. The file configured then only contains
+ * Promregator's own metrics endpoint, and the files of the orgs are placed next to it,
+ * named <code>&lt;name&gt;-&lt;org&gt;.&lt;extension&gt;</code>.
+ */
+public class FileSdWriter {
+	private static final Logger log = LoggerFactory.getLogger(FileSdWriter.class);
+
+	/* labels, which are not known (e.g. for Promregator's own metrics endpoint), are omitted */
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+			.setDefaultPropertyInclusion(JsonInclude.Include.NON_NULL);
+
+	private static final ObjectMapper YAML_MAPPER = new ObjectMapper(YAMLFactory.builder().disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER).build())
+			.setDefaultPropertyInclusion(JsonInclude.Include.NON_NULL);
+
+	public enum Format {
+		JSON,
+		YAML
+	}
+
+	private final Path file;
+
+	private final Format format;
+
+	private final boolean splitByOrg;
+
+	private final String target;
+
+	private final boolean withOwnMetricsEndpoint;
+
+	/* the files of the orgs written last time; those not written again need to be deleted */
+	private Set<Path> orgFiles = Collections.emptySet();
+
+	/**
+	 * @param file the file to be written
+	 * @param format the format of the file
+	 * @param splitByOrg if <code>true</code>, an own file is written for each org
+	 * @param target the scraping target (i.e. the address of Promregator) to be announced
+	 * @param withOwnMetricsEndpoint if <code>true</code>, Promregator's own metrics endpoint is added
+	 */
+	public FileSdWriter(Path file, Format format, boolean splitByOrg, String target, boolean withOwnMetricsEndpoint) {
+		this.file = file;
+		this.format = format;
+		this.splitByOrg = splitByOrg;
+		this.target = target;
+		this.withOwnMetricsEndpoint = withOwnMetricsEndpoint;
+	}
+
+	/**
+	 * writes the instances provided, replacing the previous file(s) atomically
+	 * @param instances the instances discovered
+	 * @throws IOException if writing any of the files failed
+	 */
+	public synchronized void write(Collection<Instance> instances) throws IOException {
+		Path directory = this.file.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+
+		if (!this.splitByOrg) {
+			this.writeFile(this.file, instances, this.withOwnMetricsEndpoint);
+			log.debug("Wrote {} instances to {}", instances.size(), this.file);
+			return;
+		}
+
+		Map<Path, List<Instance>> instancesByFile = new LinkedHashMap<>();
+		for (Instance instance : instances) {
+			Path orgFile = this.fileOfOrg(instance.getTarget().getOrgName());
+			instancesByFile.computeIfAbsent(orgFile, key -> new ArrayList<>()).add(instance);
+		}
+
+		this.writeFile(this.file, Collections.emptyList(), this.withOwnMetricsEndpoint);
+		for (Map.Entry<Path, List<Instance>> entry : instancesByFile.entrySet()) {
+			this.writeFile(entry.getKey(), entry.getValue(), false);
+		}
+
+		// orgs without any instance (anymore)
+		for (Path staleFile : this.orgFiles) {
+			if (!instancesByFile.containsKey(staleFile)) {
+				Files.deleteIfExists(staleFile);
+			}
+		}
+		this.orgFiles = new HashSet<>(instancesByFile.keySet());
+
+		log.debug("Wrote {} instances of {} orgs next to {}", instances.size(), instancesByFile.size(), this.file);
+	}
+
+	Path fileOfOrg(@Nullable String orgName) {
+		String fileName = this.file.getFileName().toString();
+		int dot = fileName.lastIndexOf('.');
+		String stem = dot > 0 ? fileName.substring(0, dot) : fileName;
+		String extension = dot > 0 ? fileName.substring(dot) : "";
+
+		// org names may contain characters, which are not permitted in file names
+		String org = orgName == null ? "" : orgName.replaceAll("[^A-Za-z0-9._-]", "_");
+		return this.file.resolveSibling(String.format("%s-%s%s", stem, org, extension));
+	}
+
+	private void writeFile(Path path, Collection<Instance> instances, boolean withOwn) throws IOException {
+		Path tempFile = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+
+		try {
+			try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				this.writeDocument(writer, instances, withOwn);
+			}
+
+			DiscoverySnapshotStore.moveAtomically(tempFile, path);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private void writeDocument(Writer writer, Collection<Instance> instances, boolean withOwn) throws IOException {
+		final ObjectMapper mapper = this.format == Format.YAML ? YAML_MAPPER : JSON_MAPPER;
+		final String[] targets = { this.target };
+
+		try (JsonGenerator generator = mapper.createGenerator(writer)) {
+			generator.writeStartArray();
+			for (Instance instance : instances) {
+				generator.writeObject(DiscoveryDocument.responseFor(instance, targets));
+			}
+			if (withOwn) {
+				generator.writeObject(DiscoveryDocument.responseForOwnMetricsEndpoint(targets));
+			}
+			generator.writeEndArray();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package org.cloudfoundry.promregator.discovery;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Assigns instances to one of several replicas (shards) of Promregator, such that each instance
+ * is discovered and scraped by exactly one replica.
+ * <p>
+ * The assignment uses the Jump Consistent Hash algorithm (Lamping and Veach, 2014) on the instance identifier.
+ * It does not require any coordination between the replicas, and if the number of shards is
+ * changed from <i>n</i> to <i>n+1</i>, only about 1/(<i>n+1</i>) of the instances move to another shard.
+ */
+public final class ShardAssignment {
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final int total;
+
+	private final int index;
+
+	/**
+	 * @param total the total number of shards
+	 * @param index the index of the shard of this replica, starting with 0; ignored, if there is only one shard
+	 */
+	public ShardAssignment(int total, int index) {
+		if (total < 1) {
+			throw new IllegalArgumentException(String.format("The total number of shards must be positive, but is %d; check option promregator.sharding.total", total));
+		}
+
+		if (total == 1) {
+			/* the index defaults to CF_INSTANCE_INDEX; thus, it may be set, even if sharding has not been enabled
+			 * (e.g. when scaling Promregator horizontally without sharding)
+			 */
+			this.total = 1;
+			this.index = 0;
+			return;
+		}
+
+		if (index < 0 || index >= total) {
+			throw new IllegalArgumentException(String.format("The shard index %d is out of range for %d shards; check option promregator.sharding.index", index, total));
+		}
+
+		this.total = total;
+		this.index = index;
+	}
+
+	/**
+	 * @return <code>true</code>, if there is more than one shard, i.e. instances are distributed across replicas
+	 */
+	public boolean isSharded() {
+		return this.total > 1;
+	}
+
+	/**
+	 * checks whether an instance belongs to the shard of this replica
+	 * @param instanceId the identifier of the instance, i.e. <code>applicationId:instanceNumber</code>
+	 * @return <code>true</code>, if the instance shall be discovered and scraped by this replica
+	 */
+	public boolean isResponsibleFor(String instanceId) {
+		if (!this.isSharded()) {
+			return true;
+		}
+
+		return shardOf(instanceId, this.total) == this.index;
+	}
+
+	/**
+	 * determines the shard an instance is assigned to
+	 * @param instanceId the identifier of the instance
+	 * @param total the total number of shards
+	 * @return the index of the shard, in the range of <code>[0, total)</code>
+	 */
+	static int shardOf(String instanceId, int total) {
+		return jumpConsistentHash(hash(instanceId), total);
+	}
+
+	/*
+	 * String.hashCode() only provides 32 bits and is poorly distributed for similar strings;
+	 * hence, FNV-1a (64 bit) is used instead.
+	 */
+	private static long hash(String value) {
+		long hash = FNV_OFFSET_BASIS;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static int jumpConsistentHash(long key, int buckets) {
+		long candidate = -1;
+		long next = 0;
+		long k = key;
+		while (next < buckets) {
+			candidate = next;
+			k = k * 2862933555777941757L + 1;
+			next = (long) ((candidate + 1) * ((double) (1L << 31) / (double) ((k >>> 33) + 1)));
+		}
+		return (int) candidate;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+}
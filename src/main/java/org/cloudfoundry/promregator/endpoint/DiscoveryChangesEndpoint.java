@@ -0,0 +1,215 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.cloudfoundry.promregator.discovery.DiscoveryChangeFeed;
+import org.cloudfoundry.promregator.discovery.DiscoveryChangeFeed.ChangeSet;
+import org.cloudfoundry.promregator.endpoint.DiscoveryEndpoint.DiscoveryResponse;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Provides the changes of the instances discovered, such that clients do not need to download
+ * the entire discovery document again. Changes can either be polled (optionally waiting for the next change),
+ * or be streamed as Server-Sent Events.
+ */
+@RestController
+@RequestMapping(EndpointConstants.ENDPOINT_PATH_DISCOVERY_CHANGES)
+public class DiscoveryChangesEndpoint {
+
+	private static final Logger log = LoggerFactory.getLogger(DiscoveryChangesEndpoint.class);
+
+	private static final String INITIAL_TICK = "initial";
+
+	/**
+	 * the maximal time in seconds a polling client may wait for the next change
+	 */
+	private static final int MAX_WAIT = 120;
+
+	private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
+	/**
+	 * the time a polling request may take longer than its waiting time, before it is aborted
+	 */
+	private static final Duration TIMEOUT_GRACE_PERIOD = Duration.ofSeconds(10);
+
+	@Autowired
+	private DiscoveryChangeFeed discoveryChangeFeed;
+
+	@Value("${promregator.discovery.hostname:#{null}}")
+	private String myHostname;
+
+	@Value("${promregator.discovery.port:0}")
+	private int myPort;
+
+	@Value("${promregator.discovery.feed.streamTimeout:3600}")
+	private int streamTimeout;
+
+	public static class DiscoveryChanges {
+		private final String version;
+
+		private final boolean reset;
+
+		private final DiscoveryResponse[] added;
+
+		private final DiscoveryResponse[] removed;
+
+		public DiscoveryChanges(String version, boolean reset, DiscoveryResponse[] added, DiscoveryResponse[] removed) {
+			super();
+			this.version = version;
+			this.reset = reset;
+			this.added = added.clone();
+			this.removed = removed.clone();
+		}
+
+		public String getVersion() {
+			return version;
+		}
+
+		public boolean isReset() {
+			return reset;
+		}
+
+		public DiscoveryResponse[] getAdded() {
+			return added.clone();
+		}
+
+		public DiscoveryResponse[] getRemoved() {
+			return removed.clone();
+		}
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public DeferredResult<DiscoveryChanges> getChanges(HttpServletRequest request,
+			@RequestParam(name = "since", required = false) String since,
+			@RequestParam(name = "wait", required = false, defaultValue = "0") int wait) {
+
+		final String[] targets = this.determineTargets(request);
+
+		if (wait <= 0) {
+			DeferredResult<DiscoveryChanges> result = new DeferredResult<>();
+			result.setResult(toDiscoveryChanges(this.discoveryChangeFeed.changesSince(since), targets));
+			return result;
+		}
+
+		final Duration waitDuration = Duration.ofSeconds(Math.min(wait, MAX_WAIT));
+
+		/*
+		 * NB: the request's own timeout only is a safety net; the changes are determined once
+		 * the waiting time has passed (see below)
+		 */
+		final DeferredResult<DiscoveryChanges> result = new DeferredResult<>(waitDuration.plus(TIMEOUT_GRACE_PERIOD).toMillis());
+
+		Disposable subscription = this.ticks()
+				.map(tick -> this.discoveryChangeFeed.changesSince(since))
+				.filter(changeSet -> !changeSet.isEmpty())
+				.next()
+				.timeout(waitDuration, Mono.fromSupplier(() -> this.discoveryChangeFeed.changesSince(since)))
+				.map(changeSet -> toDiscoveryChanges(changeSet, targets))
+				.subscribe(result::setResult, result::setErrorResult);
+
+		result.onCompletion(subscription::dispose);
+		return result;
+	}
+
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(HttpServletRequest request,
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(name = "since", required = false) String since) {
+
+		final String[] targets = this.determineTargets(request);
+
+		// reconnecting clients tell us which version they have received last
+		final AtomicReference<String> lastToken = new AtomicReference<>(lastEventId != null ? lastEventId : since);
+
+		Flux<SseEventBuilder> changes = this.ticks()
+				.concatMap(tick -> {
+					ChangeSet changeSet = this.discoveryChangeFeed.changesSince(lastToken.get());
+					if (changeSet.isEmpty()) {
+						return Mono.empty();
+					}
+
+					lastToken.set(changeSet.token());
+					log.debug("Streaming discovery changes of version {}", changeSet.token());
+					return Mono.just(SseEmitter.event()
+							.id(changeSet.token())
+							.name("changes")
+							.data(toDiscoveryChanges(changeSet, targets), MediaType.APPLICATION_JSON));
+				});
+
+		// keeps idle connections open, e.g. when passing the Cloud Foundry router
+		Flux<SseEventBuilder> heartbeats = Flux.interval(HEARTBEAT_INTERVAL)
+				.map(i -> SseEmitter.event().comment("keep-alive"));
+
+		/*
+		 * The stream is closed after the configured time; clients reconnect (with the Last-Event-ID header)
+		 * and do not miss any change. Hence, the stream does not occupy the request forever.
+		 */
+		final SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(this.streamTimeout));
+
+		Disposable subscription = Flux.merge(changes, heartbeats)
+				.subscribe(event -> send(emitter, event), emitter::completeWithError);
+
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> subscription.dispose());
+		emitter.onCompletion(subscription::dispose);
+		return emitter;
+	}
+
+	private static void send(SseEmitter emitter, SseEventBuilder event) {
+		try {
+			emitter.send(event);
+		} catch (IOException e) {
+			// the client has gone; this cancels the subscription
+			throw Exceptions.propagate(e);
+		}
+	}
+
+	/**
+	 * @return a tick initially and on each new version of the feed
+	 */
+	private Flux<String> ticks() {
+		// NB: subscribe to new versions first, such that a change happening in between does not get lost
+		return Flux.merge(this.discoveryChangeFeed.versions(), Mono.just(INITIAL_TICK))
+				.onBackpressureLatest();
+	}
+
+	private String[] determineTargets(HttpServletRequest request) {
+		String localHostname = this.myHostname != null ? this.myHostname : request.getLocalName();
+		int localPort = this.myPort != 0 ? this.myPort : request.getLocalPort();
+		return new String[] { String.format("%s:%d", localHostname, localPort) };
+	}
+
+	private static DiscoveryChanges toDiscoveryChanges(ChangeSet changeSet, String[] targets) {
+		return new DiscoveryChanges(changeSet.token(), changeSet.reset(), toResponses(changeSet.added(), targets), toResponses(changeSet.removed(), targets));
+	}
+
+	private static DiscoveryResponse[] toResponses(List<Instance> instances, String[] targets) {
+		return instances.stream()
+				.map(instance -> DiscoveryDocument.responseFor(instance, targets))
+				.toArray(DiscoveryResponse[]::new);
+	}
+}
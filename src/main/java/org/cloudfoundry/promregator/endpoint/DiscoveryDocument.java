@@ -0,0 +1,249 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.cloudfoundry.promregator.endpoint.DiscoveryEndpoint.DiscoveryLabel;
+import org.cloudfoundry.promregator.endpoint.DiscoveryEndpoint.DiscoveryResponse;
+import org.cloudfoundry.promregator.scanner.Instance;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * An immutable discovery document in the format of Prometheus' http_sd / file_sd, which is
+ * serialized (and compressed) only once when it is created. As long as the instances
+ * discovered do not change, the very same document is served to all callers.
+ * <p>
+ * The ETag is derived from the content only; thus, multiple replicas of Promregator
+ * serving the same instances provide the same ETag. As the compressed variant is a different
+ * representation of the document, it carries an ETag of its own (suffixed with <code>-gzip</code>).
+ */
+public final class DiscoveryDocument {
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final long version;
+
+	private final List<Instance> instances;
+
+	private final String[] targets;
+
+	private final boolean withOwnMetricsEndpoint;
+
+	private final DiscoveryResponse[] responses;
+
+	private final byte[] json;
+
+	private final byte[] gzip;
+
+	private final String etag;
+
+	private final String gzipEtag;
+
+	private DiscoveryDocument(long version, List<Instance> instances, String[] targets, boolean withOwnMetricsEndpoint, DiscoveryResponse[] responses, byte[] json) {
+		this.version = version;
+		this.instances = instances;
+		this.targets = targets;
+		this.withOwnMetricsEndpoint = withOwnMetricsEndpoint;
+		this.responses = responses;
+		this.json = json;
+		this.gzip = compress(json);
+
+		final String hash = HexFormat.of().formatHex(sha256(json), 0, 16);
+		this.etag = String.format("\"%s\"", hash);
+		this.gzipEtag = String.format("\"%s-gzip\"", hash);
+	}
+
+	private DiscoveryDocument(DiscoveryDocument other, List<Instance> instances) {
+		this.version = other.version;
+		this.instances = instances;
+		this.targets = other.targets;
+		this.withOwnMetricsEndpoint = other.withOwnMetricsEndpoint;
+		this.responses = other.responses;
+		this.json = other.json;
+		this.gzip = other.gzip;
+		this.etag = other.etag;
+		this.gzipEtag = other.gzipEtag;
+	}
+
+	/**
+	 * creates a new discovery document
+	 * @param version the version of the document
+	 * @param instances the instances, which shall be discoverable; the list must not be modified afterwards
+	 * @param targets the scraping targets (i.e. the address of Promregator) to be announced
+	 * @param withOwnMetricsEndpoint if <code>true</code>, Promregator's own metrics endpoint is added to the document
+	 * @return the document created
+	 */
+	public static DiscoveryDocument create(long version, List<Instance> instances, String[] targets, boolean withOwnMetricsEndpoint) {
+		List<DiscoveryResponse> result = new ArrayList<>(instances.size() + 1);
+		for (Instance instance : instances) {
+			result.add(responseFor(instance, targets));
+		}
+
+		if (withOwnMetricsEndpoint) {
+			// finally, also add our own metrics endpoint
+			result.add(responseForOwnMetricsEndpoint(targets));
+		}
+
+		final DiscoveryResponse[] responses = result.toArray(new DiscoveryResponse[0]);
+
+		byte[] json;
+		try {
+			json = OBJECT_MAPPER.writeValueAsBytes(responses);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unable to serialize discovery document", e);
+		}
+
+		return new DiscoveryDocument(version, instances, targets.clone(), withOwnMetricsEndpoint, responses, json);
+	}
+
+	/**
+	 * creates the entry of a discovery document for a single instance
+	 * @param instance the instance, which shall be discoverable
+	 * @param targets the scraping targets (i.e. the address of Promregator) to be announced
+	 * @return the entry of the discovery document
+	 */
+	public static DiscoveryResponse responseFor(Instance instance, String[] targets) {
+		String path = String.format(EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING+"/%s/%s", instance.getApplicationId(), instance.getInstanceNumber());
+		DiscoveryLabel dl = new DiscoveryLabel(path, instance);
+
+		return new DiscoveryResponse(targets, dl);
+	}
+
+	/**
+	 * creates the entry of a discovery document for Promregator's own metrics endpoint
+	 * @param targets the scraping targets (i.e. the address of Promregator) to be announced
+	 * @return the entry of the discovery document
+	 */
+	public static DiscoveryResponse responseForOwnMetricsEndpoint(String[] targets) {
+		return new DiscoveryResponse(targets, new DiscoveryLabel(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS));
+	}
+
+	/**
+	 * checks whether this document was created from the same instances
+	 * @param otherInstances the instances, which shall be discoverable
+	 * @return <code>true</code>, if this document may be served for the instances provided
+	 */
+	public boolean isBasedOn(List<Instance> otherInstances) {
+		// NB: the very same list is checked first, as this is the usual case when serving the latest document
+		return this.instances == otherInstances || this.instances.equals(otherInstances);
+	}
+
+	/**
+	 * creates a document with the same content (and version), which is based on another list of the same instances
+	 * @param otherInstances the instances, for which {@link #isBasedOn(List)} holds
+	 * @return the document based on the list provided
+	 */
+	DiscoveryDocument rebasedOn(List<Instance> otherInstances) {
+		return new DiscoveryDocument(this, otherInstances);
+	}
+
+	/**
+	 * creates the succeeding document for other instances, announcing the same scraping targets
+	 * @param nextVersion the version of the new document
+	 * @param otherInstances the instances, which shall be discoverable
+	 * @return the document created
+	 */
+	DiscoveryDocument successor(long nextVersion, List<Instance> otherInstances) {
+		return create(nextVersion, otherInstances, this.targets, this.withOwnMetricsEndpoint);
+	}
+
+	/**
+	 * checks whether the caller already has this document
+	 * @param ifNoneMatch the value of the <code>If-None-Match</code> header of the request; may be <code>null</code>
+	 * @return <code>true</code>, if the entity tag of this document (of either representation) is listed
+	 */
+	public boolean matches(String ifNoneMatch) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+
+		for (String tag : ifNoneMatch.split(",")) {
+			String trimmed = tag.trim();
+			if (trimmed.startsWith("W/")) {
+				// weak comparison is sufficient for GET requests
+				trimmed = trimmed.substring(2);
+			}
+
+			if ("*".equals(trimmed) || this.etag.equals(trimmed) || this.gzipEtag.equals(trimmed)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static byte[] compress(byte[] data) {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 8 + 64);
+		try (GZIPOutputStream gos = new GZIPOutputStream(bos)) {
+			gos.write(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to compress discovery document", e);
+		}
+		return bos.toByteArray();
+	}
+
+	private static byte[] sha256(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+		}
+	}
+
+	/**
+	 * @return the version of the document; increased each time the instances discovered change
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the number of targets in the document (including Promregator's own metrics endpoint)
+	 */
+	public int getSize() {
+		return this.responses.length;
+	}
+
+	/**
+	 * @return the entries of the document
+	 */
+	public DiscoveryResponse[] getResponses() {
+		return responses.clone();
+	}
+
+	/**
+	 * @return the document serialized as JSON. The array must not be modified.
+	 */
+	public byte[] getJson() {
+		return json;
+	}
+
+	/**
+	 * @return the document serialized as JSON and compressed using gzip. The array must not be modified.
+	 */
+	public byte[] getGzip() {
+		return gzip;
+	}
+
+	/**
+	 * @return the (strong) entity tag of the document, including the quotes
+	 */
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * @return the (strong) entity tag of the document compressed using gzip, including the quotes
+	 */
+	public String getGzipEtag() {
+		return gzipEtag;
+	}
+}
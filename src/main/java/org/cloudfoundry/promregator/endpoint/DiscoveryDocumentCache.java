@@ -0,0 +1,156 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
+import org.cloudfoundry.promregator.messagebus.MessageBus;
+import org.cloudfoundry.promregator.messagebus.MessageBusTopic;
+import org.cloudfoundry.promregator.messagebus.MessageSubscriber;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the discovery document last created for each scraping target announced.
+ * As {@link DiscoveryEndpoint} is request-scoped, the documents need to be kept
+ * in a singleton outside of it.
+ * <p>
+ * The documents are rebuilt whenever an (unfiltered) discovery has been published on the message bus;
+ * a new document (with a new version) is only created, if the instances discovered have changed in the meantime.
+ * Requests are served with the latest document directly, i.e. without waiting for a discovery. Once the latest
+ * discovery is older than the refresh interval, the next request triggers a discovery in the background.
+ */
+@Component
+public class DiscoveryDocumentCache implements MessageSubscriber {
+	private static final Logger log = LoggerFactory.getLogger(DiscoveryDocumentCache.class);
+
+	@Autowired
+	private MessageBus messageBus;
+
+	@Value("${promregator.discovery.refreshInterval:15}")
+	private int refreshIntervalInSeconds;
+
+	private final AtomicLong version = new AtomicLong(0);
+
+	/*
+	 * the key is the scraping target announced; usually, there is only one
+	 */
+	private final ConcurrentHashMap<String, DiscoveryDocument> documents = new ConcurrentHashMap<>();
+
+	/* the instances of the latest discovery published; null, if there was none yet */
+	private volatile List<Instance> latestInstances;
+
+	private volatile long latestDiscoveryAt;
+
+	private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+	@PostConstruct
+	public void registerAtMessageBus() {
+		this.messageBus.subscribe(MessageBusTopic.DISCOVERER_INSTANCES_DISCOVERED, this);
+	}
+
+	@Override
+	public void receiveMessage(String topic, Object message) {
+		@SuppressWarnings("unchecked")
+		List<Instance> instances = (List<Instance>) message;
+
+		// NB: set first, such that documents created in the meantime are already based on these instances
+		this.latestInstances = instances;
+		this.latestDiscoveryAt = System.nanoTime();
+
+		for (String key : this.documents.keySet()) {
+			this.documents.computeIfPresent(key, (k, current) -> this.rebuild(current, instances));
+		}
+	}
+
+	private DiscoveryDocument rebuild(DiscoveryDocument current, List<Instance> instances) {
+		if (current.isBasedOn(instances)) {
+			// same content; just remember the latest list, such that requests only need to compare the references
+			return current.rebasedOn(instances);
+		}
+
+		DiscoveryDocument document = current.successor(this.version.incrementAndGet(), instances);
+		log.info("Created discovery document version {} with {} targets", document.getVersion(), document.getSize());
+		return document;
+	}
+
+	/**
+	 * provides the discovery document based on the latest discovery published
+	 * @param targets the scraping targets to be announced
+	 * @param withOwnMetricsEndpoint if <code>true</code>, Promregator's own metrics endpoint is added to the document
+	 * @return the discovery document or <code>null</code>, if no discovery has been published yet
+	 */
+	@Nullable
+	public DiscoveryDocument getLatestDocument(String[] targets, boolean withOwnMetricsEndpoint) {
+		final List<Instance> instances = this.latestInstances;
+		if (instances == null) {
+			return null;
+		}
+
+		final String key = key(targets, withOwnMetricsEndpoint);
+
+		DiscoveryDocument document = this.documents.get(key);
+		if (document != null && document.isBasedOn(instances)) {
+			return document;
+		}
+
+		return this.getDocument(instances, targets, withOwnMetricsEndpoint);
+	}
+
+	/**
+	 * provides the discovery document for a list of instances
+	 * @param instances the instances, which shall be discoverable
+	 * @param targets the scraping targets to be announced
+	 * @param withOwnMetricsEndpoint if <code>true</code>, Promregator's own metrics endpoint is added to the document
+	 * @return the discovery document, which may have been created on a previous call
+	 */
+	public DiscoveryDocument getDocument(List<Instance> instances, String[] targets, boolean withOwnMetricsEndpoint) {
+		return this.documents.compute(key(targets, withOwnMetricsEndpoint), (k, current) -> {
+			if (current != null && current.isBasedOn(instances)) {
+				return current;
+			}
+
+			DiscoveryDocument document = DiscoveryDocument.create(this.version.incrementAndGet(), instances, targets, withOwnMetricsEndpoint);
+			log.info("Created discovery document version {} with {} targets", document.getVersion(), document.getSize());
+			return document;
+		});
+	}
+
+	/**
+	 * triggers a discovery in the background, if the latest discovery is older than the refresh interval.
+	 * At most one such discovery runs at a time; its result is published via the message bus.
+	 * @param discovery the (blocking) discovery to run
+	 */
+	public void refreshIfOutdated(Runnable discovery) {
+		if (System.nanoTime() - this.latestDiscoveryAt < TimeUnit.SECONDS.toNanos(this.refreshIntervalInSeconds)) {
+			return;
+		}
+
+		if (!this.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+
+		// NB: the old document is still served in the meantime; nobody is waiting for this discovery directly
+		Mono.fromRunnable(() -> RequestPriority.BACKGROUND_REFRESH.runBlocking(discovery))
+			.subscribeOn(Schedulers.boundedElastic())
+			.doFinally(signal -> this.refreshing.set(false))
+			.subscribe(null, e -> log.warn("Refreshing the discovery document failed; retrying with the next request", e));
+	}
+
+	private static String key(String[] targets, boolean withOwnMetricsEndpoint) {
+		return String.join(",", targets) + (withOwnMetricsEndpoint ? "+own" : "");
+	}
+}
@@ -1,6 +1,5 @@
 package org.cloudfoundry.promregator.endpoint;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +31,9 @@ public class DiscoveryEndpoint {
 	
 	@Autowired
 	private CFMultiDiscoverer cfDiscoverer;
+	
+	@Autowired
+	private DiscoveryDocumentCache discoveryDocumentCache;
 
 	@Value("${promregator.discovery.hostname:#{null}}")
 	private String myHostname;
@@ -128,38 +131,100 @@ public class DiscoveryEndpoint {
 	}
 	
 	@GetMapping(produces=MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<DiscoveryResponse[]> getDiscovery(HttpServletRequest request) {
+	public ResponseEntity<byte[]> getDiscovery(HttpServletRequest request) {
 		
-		List<Instance> instances = this.cfDiscoverer.discover(null, null);
-		// @SonarQube: No, there shall not be any || instances.isEmpty() here! Why? See https://github.com/promregator/promregator/issues/180
-		if (instances == null) {
+		DiscoveryDocument document = this.determineDiscoveryDocument(request);
+		if (document == null) {
 			return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
 		}
 		
+		final boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag(gzip ? document.getGzipEtag() : document.getEtag());
+		headers.set(EndpointConstants.HTTP_HEADER_PROMREGATOR_DISCOVERY_VERSION, Long.toString(document.getVersion()));
+		headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+		
+		if (document.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+			log.debug("Discovery document version {} is already known to the client", document.getVersion());
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+		}
+		
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		
+		log.info("Returning discovery document version {} with {} targets", document.getVersion(), document.getSize());
+		
+		if (gzip) {
+			/*
+			 * The compressed document is prepared already; setting the Content-Encoding
+			 * also prevents the servlet container from compressing it once again.
+			 */
+			headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+			return new ResponseEntity<>(document.getGzip(), headers, HttpStatus.OK);
+		}
+		
+		return new ResponseEntity<>(document.getJson(), headers, HttpStatus.OK);
+	}
+	
+	/**
+	 * determines the discovery document to be served for a request
+	 * @param request the request for the discovery document
+	 * @return the discovery document or <code>null</code>, if the discovery has not taken place yet
+	 */
+	DiscoveryDocument determineDiscoveryDocument(HttpServletRequest request) {
 		String localHostname = this.myHostname != null ? this.myHostname : request.getLocalName();
 		int localPort = this.myPort != 0 ? this.myPort : request.getLocalPort();
 		final String[] targets = { String.format("%s:%d", localHostname, localPort) };
 		
-		log.info("Using scraping target {} in discovery response", targets[0]);
+		log.debug("Using scraping target {} in discovery response", targets[0]);
 		
-		List<DiscoveryResponse> result = new LinkedList<>();
-		for (Instance instance : instances) {
-			
-			String path = String.format(EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING+"/%s/%s", instance.getApplicationId(), instance.getInstanceNumber());
-			DiscoveryLabel dl = new DiscoveryLabel(path, instance);
-			
-			DiscoveryResponse dr = new DiscoveryResponse(targets, dl);
-			result.add(dr);
+		DiscoveryDocument document = this.discoveryDocumentCache.getLatestDocument(targets, this.promregatorMetricsEndpoint);
+		if (document != null) {
+			// NB: the request-scoped endpoint must not be referenced by the background discovery
+			final CFMultiDiscoverer discoverer = this.cfDiscoverer;
+			this.discoveryDocumentCache.refreshIfOutdated(() -> discoverer.discover(null, null));
+			return document;
+		}
+		
+		/*
+		 * No discovery has been published yet (e.g. as the instances are still served from the discovery snapshot);
+		 * hence, the discovery needs to be awaited.
+		 */
+		List<Instance> instances = this.cfDiscoverer.discover(null, null);
+		// @SonarQube: No, there shall not be any || instances.isEmpty() here! Why? See https://github.com/promregator/promregator/issues/180
+		if (instances == null) {
+			return null;
 		}
 		
-		if (this.promregatorMetricsEndpoint) {
-			// finally, also add our own metrics endpoint
-			DiscoveryLabel dl = new DiscoveryLabel(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS);
-			result.add(new DiscoveryResponse(targets, dl));
+		document = this.discoveryDocumentCache.getLatestDocument(targets, this.promregatorMetricsEndpoint);
+		if (document != null) {
+			return document;
 		}
 		
-		log.info("Returning discovery document with {} targets", result.size());
+		return this.discoveryDocumentCache.getDocument(instances, targets, this.promregatorMetricsEndpoint);
+	}
+	
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+				continue;
+			}
+			
+			// "gzip;q=0" explicitly rejects the encoding
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].replace(" ", "");
+				if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+					return false;
+				}
+			}
+			return true;
+		}
 		
-		return new ResponseEntity<>(result.toArray(new DiscoveryResponse[0]), HttpStatus.OK);
+		return false;
 	}
 }
@@ -6,9 +6,14 @@ public final class EndpointConstants {
 	}
 	
 	public static final String ENDPOINT_PATH_DISCOVERY = "/discovery";
+	public static final String ENDPOINT_PATH_DISCOVERY_V2 = "/v2/discovery";
+	public static final String ENDPOINT_PATH_DISCOVERY_CHANGES = "/discovery/changes";
 	public static final String ENDPOINT_PATH_SINGLE_TARGET_SCRAPING = "/singleTargetMetrics";
 	public static final String ENDPOINT_PATH_PROMREGATOR_METRICS = "/promregatorMetrics";
 	public static final String ENDPOINT_PATH_CACHE_INVALIDATION = "/cache/invalidate";
+	public static final String ENDPOINT_PATH_READINESS = "/ready";
+	public static final String ENDPOINT_PATH_RESOLUTION_PLAN = "/debug/resolutionPlan";
 	
 	public static final String HTTP_HEADER_PROMREGATOR_INSTANCE_IDENTIFIER = "X-Promregator-Instance";
+	public static final String HTTP_HEADER_PROMREGATOR_DISCOVERY_VERSION = "X-Promregator-Discovery-Version";
 }
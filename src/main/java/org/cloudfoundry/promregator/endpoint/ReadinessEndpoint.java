@@ -0,0 +1,32 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reports whether Promregator is ready to serve requests, e.g. to be used as readiness probe.
+ * Promregator is not ready yet while the warm-up of caches is running during startup
+ * (see option "cf.cache.warmUp.enabled").
+ */
+@RestController
+@RequestMapping(EndpointConstants.ENDPOINT_PATH_READINESS)
+public class ReadinessEndpoint {
+
+	@Autowired
+	private ApplicationAvailability applicationAvailability;
+
+	@GetMapping(produces = MediaType.TEXT_PLAIN_VALUE)
+	public ResponseEntity<String> getReadiness() {
+		ReadinessState state = this.applicationAvailability.getReadinessState();
+
+		HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+		return ResponseEntity.status(status).body(state.name());
+	}
+}
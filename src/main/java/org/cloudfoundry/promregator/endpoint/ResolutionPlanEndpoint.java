@@ -0,0 +1,36 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import org.cloudfoundry.promregator.scanner.ResolutionPlan;
+import org.cloudfoundry.promregator.scanner.TargetResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Shows for debugging purposes how the configured targets were resolved the last time:
+ * which lookups were sent to the Cloud Controller and how many lookups were saved by sharing
+ * them between targets.
+ * Note that targets whose resolution is still cached (see option "cf.cache.timeout.resolver")
+ * are not part of the plan.
+ */
+@RestController
+@RequestMapping(EndpointConstants.ENDPOINT_PATH_RESOLUTION_PLAN)
+public class ResolutionPlanEndpoint {
+
+	@Autowired
+	private TargetResolver targetResolver;
+
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ResolutionPlan> getResolutionPlan() {
+		ResolutionPlan plan = this.targetResolver.getLastResolutionPlan();
+		if (plan == null) {
+			return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
+		}
+
+		return ResponseEntity.ok(plan);
+	}
+}
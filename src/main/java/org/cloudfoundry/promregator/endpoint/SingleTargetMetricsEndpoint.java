@@ -97,6 +97,12 @@ public class SingleTargetMetricsEndpoint {
 	@Value("${promregator.scraping.socketReadTimeout:5000}")
 	private int fetcherSocketReadTimeout;
 	
+	@Value("${promregator.scraping.directToCellTimeout:1000}")
+	private int fetcherDirectTimeout;
+	
+	@Value("${promregator.scraping.directToCellAuthentication:false}")
+	private boolean fetcherDirectAuthentication;
+	
 	@Autowired
 	private UUID promregatorInstanceIdentifier;
 	
@@ -252,9 +258,11 @@ public class SingleTargetMetricsEndpoint {
 			cfmfConfig.setPromregatorInstanceIdentifier(this.promregatorInstanceIdentifier);
 			cfmfConfig.setConnectionTimeoutInMillis(this.fetcherConnectionTimeout);
 			cfmfConfig.setSocketReadTimeoutInMillis(this.fetcherSocketReadTimeout);
+			cfmfConfig.setDirectTimeoutInMillis(this.fetcherDirectTimeout);
+			cfmfConfig.setDirectAuthenticationEnabled(this.fetcherDirectAuthentication);
 			this.provideProxyConfiguration(cfmfConfig);
 			
-			mf = new CFMetricsFetcher(accessURL, instance.getInstanceId(), cfmfConfig, instance.isInternal());
+			mf = new CFMetricsFetcher(accessURL, instance.getDirectAccessUrl(), instance.getInstanceId(), cfmfConfig, instance.isInternal());
 		}
 		
 		return mf;
@@ -367,7 +375,13 @@ public class SingleTargetMetricsEndpoint {
 		}
 		
 		final String instanceId = String.format("%s:%s", applicationId, instanceNumber);
-		
+
+		if (!this.cfDiscoverer.isInShard(instanceId)) {
+			// rejected without any discovery; the instance is scraped by another replica of Promregator
+			log.debug("Instance {} belongs to another shard; rejecting scraping request", instanceId);
+			return new ResponseEntity<>("Instance is assigned to another shard", HttpStatus.NOT_FOUND);
+		}
+
 		FetchResult response = null;
 		try {
 			response = this.handleRequest(applicationId, instanceId);
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 
 import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
 import io.prometheus.client.Histogram.Timer;
 import io.prometheus.client.exporter.common.TextFormat;
 
@@ -33,6 +34,10 @@ import io.prometheus.client.exporter.common.TextFormat;
  * by a CF instance. For the sake of retrieving the metrics reliably, it addresses the call to a single CF instance 
  * only using CF Direct HTTP Endpoint Routing.
  * 
+ * If the address of the instance on its Diego cell is known, the instance is scraped there directly first. Only if
+ * this fails, the request is sent via the gorouter. As the direct request is sent using plain HTTP, it uses its own (short)
+ * timeout and is only authenticated, if this has been enabled explicitly.
+ * 
  * It implements the MetricsFetcher interface to allow running it in a ThreadPool(Executor). The result of the 
  * Callable is the Prometheus metrics data upon success. In case retrieving the data failed, <code>null</code> is returned.
  *
@@ -48,11 +53,17 @@ public class CFMetricsFetcher implements MetricsFetcher {
 	private static final Pattern CONTENT_TYPE_OPENMETRIC_100_WRONG_VERSION = Pattern.compile("^application/openmetrics-text; *version=(0\\.\\d++\\.\\d++)");
 	private static final Pattern CONTENT_TYPE_TEXT_004 = Pattern.compile("^text/plain; *version=0\\.0\\.4; *charset=utf-8");
 	
+	static final String PATH_DIRECT = "direct";
+	static final String PATH_ROUTE = "route";
+	
 	private String endpointUrl;
+	private String directEndpointUrl;
 	private String instanceId;
 	private boolean withInternalRouting;
 	private final RequestConfig config;
+	private final RequestConfig directConfig;
 	private AuthenticationEnricher ae;
+	private boolean directAuthenticationEnabled;
 	
 	private Gauge.Child up;
 	
@@ -73,9 +84,23 @@ public class CFMetricsFetcher implements MetricsFetcher {
 	 * @param config additional configurations specifying additional properties for retrieving data.
 	 */
 	public CFMetricsFetcher(String endpointUrl, String instanceId, CFMetricsFetcherConfig config, boolean withInternalRouting) {
+		this(endpointUrl, null, instanceId, config, withInternalRouting);
+	}
+	
+	/**
+	 * creates a new Metrics Fetcher, which scrapes the instance directly on its Diego cell first and falls back to
+	 * the endpoint URL, if this fails.
+	 * @param endpointUrl the endpoint URL, which shall be used to query the CF app for the Prometheus metrics.
+	 * @param directEndpointUrl the URL of the instance on its Diego cell; may be <code>null</code>, if unknown.
+	 * @param instanceId the instance Id in format <i>[app guid]:[instance number]</i>, which identifies the instance uniquely.
+	 * @param config additional configurations specifying additional properties for retrieving data.
+	 */
+	public CFMetricsFetcher(String endpointUrl, String directEndpointUrl, String instanceId, CFMetricsFetcherConfig config, boolean withInternalRouting) {
 		this.endpointUrl = endpointUrl;
+		this.directEndpointUrl = directEndpointUrl;
 		this.instanceId = instanceId;
 		this.ae = config.getAuthenticationEnricher();
+		this.directAuthenticationEnabled = config.isDirectAuthenticationEnabled();
 		this.mfm = config.getMetricsFetcherMetrics();
 		this.withInternalRouting = withInternalRouting;
 
@@ -94,37 +119,90 @@ public class CFMetricsFetcher implements MetricsFetcher {
 		}
 		
 		this.config = requestConfigBuilder.build();
+		
+		if (config.getDirectTimeoutInMillis() > 0) {
+			this.directConfig = RequestConfig.copy(this.config)
+				.setSocketTimeout(Math.min(config.getDirectTimeoutInMillis(), config.getSocketReadTimeoutInMillis()))
+				.setConnectTimeout(Math.min(config.getDirectTimeoutInMillis(), config.getConnectionTimeoutInMillis()))
+				.build();
+		} else {
+			this.directConfig = this.config;
+		}
 	}
 
 	
 	@Override
 	public FetchResult call() throws Exception {
-		log.debug("Reading metrics from {} for instance {}", this.endpointUrl, this.instanceId);
+		Timer timer = null;
+		if (this.mfm.getLatencyRequest() != null) {
+			timer = this.mfm.getLatencyRequest().startTimer();
+		}
+		
+		FetchResult result = null;
+		try {
+			if (this.directEndpointUrl != null) {
+				result = this.fetch(this.directEndpointUrl, PATH_DIRECT, this.directConfig, false, this.directAuthenticationEnabled);
+				
+				if (result == null) {
+					log.debug("Scraping instance {} directly at {} failed; falling back to {}", this.instanceId, this.directEndpointUrl, this.endpointUrl);
+					if (this.mfm.getDirectFallbacks() != null) {
+						this.mfm.getDirectFallbacks().inc();
+					}
+				}
+			}
+			
+			if (result == null) {
+				result = this.fetch(this.endpointUrl, PATH_ROUTE, this.config, !this.withInternalRouting, true);
+			}
+		} finally {
+			if (timer != null) {
+				timer.observeDuration();
+			}
+			
+			countSuccessOrFailure(result != null);
+		}
 		
-		HttpGet httpget = setupRequest();
-
-		FetchResult result = performRequest(httpget);
 		if (result == null) {
 			return null;
 		}
 		
-		log.debug("Successfully received metrics from {} for instance {}", this.endpointUrl, this.instanceId);
-		
 		if (this.mfm.getRequestSize() != null) {
 			this.mfm.getRequestSize().observe(result.data().length());
 		}
 		
 		return result;
 	}
+	
+	private FetchResult fetch(String url, String path, RequestConfig requestConfig, boolean withAppInstanceHeader, boolean withAuthentication) {
+		log.debug("Reading metrics from {} for instance {}", url, this.instanceId);
+		
+		HttpGet httpget = setupRequest(url, requestConfig, withAppInstanceHeader, withAuthentication);
+		
+		final long startTime = System.nanoTime();
+		FetchResult result = performRequest(httpget, url);
+		
+		final Histogram.Child pathLatency = this.mfm.getPathLatency(path, result != null);
+		if (pathLatency != null) {
+			pathLatency.observe((System.nanoTime() - startTime) / 1e9);
+		}
+		
+		if (result == null) {
+			return null;
+		}
+		
+		log.debug("Successfully received metrics from {} for instance {}", url, this.instanceId);
+		
+		return result;
+	}
 
-	private HttpGet setupRequest() {
-		HttpGet httpget = new HttpGet(this.endpointUrl);
+	private HttpGet setupRequest(String url, RequestConfig requestConfig, boolean withAppInstanceHeader, boolean withAuthentication) {
+		HttpGet httpget = new HttpGet(url);
 		
-		if (this.config != null) {
-			httpget.setConfig(this.config);
+		if (requestConfig != null) {
+			httpget.setConfig(requestConfig);
 		}
 
-		if (!withInternalRouting) {
+		if (withAppInstanceHeader) {
 			// see also https://docs.cloudfoundry.org/concepts/http-routing.html
 			httpget.setHeader(HTTP_HEADER_CF_APP_INSTANCE, this.instanceId);
 		}
@@ -134,22 +212,15 @@ public class CFMetricsFetcher implements MetricsFetcher {
 		
 		httpget.setHeader(HttpHeaders.ACCEPT, String.format("%s, %s;q=0.9", TextFormat.CONTENT_TYPE_OPENMETRICS_100, TextFormat.CONTENT_TYPE_004));
 		
-		if (this.ae != null) {
+		if (withAuthentication && this.ae != null) {
 			this.ae.enrichWithAuthentication(httpget);
 		}
 		return httpget;
 	}
 	
-	private FetchResult performRequest(HttpGet httpget) {
+	private FetchResult performRequest(HttpGet httpget, String url) {
 		CloseableHttpResponse response = null;
 		
-		Timer timer = null;
-		if (this.mfm.getLatencyRequest() != null) {
-			timer = this.mfm.getLatencyRequest().startTimer();
-		}
-		
-		boolean available = false;
-		
 		FetchResult result = null;
 		try {
 			@SuppressWarnings("resource") // there is no closing necessary here - we are just choosing the "right" client here.
@@ -157,26 +228,25 @@ public class CFMetricsFetcher implements MetricsFetcher {
 			response = httpClient.execute(httpget);
 
 			if (response.getStatusLine().getStatusCode() != 200) {
-				log.warn("Target server at '{}' and instance '{}' responded with a non-200 status code: {}", this.endpointUrl, this.instanceId, response.getStatusLine().getStatusCode());
+				log.warn("Target server at '{}' and instance '{}' responded with a non-200 status code: {}", url, this.instanceId, response.getStatusLine().getStatusCode());
 				return null;
 			}
 			
 			final Header contentTypeHeader = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
-			final String contentType = this.determineTextFormat(contentTypeHeader);
+			final String contentType = this.determineTextFormat(contentTypeHeader, url);
 			if (contentType == null) {
 				return null;
 			}
 			
 			result = new FetchResult(EntityUtils.toString(response.getEntity()), contentType);
-			available = true;
 		} catch (HttpHostConnectException hhce) {
-			log.warn("Unable to connect to server trying to fetch metrics from {}, instance {}", this.endpointUrl, this.instanceId, hhce);
+			log.warn("Unable to connect to server trying to fetch metrics from {}, instance {}", url, this.instanceId, hhce);
 			return null;
 		} catch (SocketTimeoutException ste) {
-			log.warn("Read timeout for data from socket while trying to fetch metrics from {}, instance {}", this.endpointUrl, this.instanceId, ste);
+			log.warn("Read timeout for data from socket while trying to fetch metrics from {}, instance {}", url, this.instanceId, ste);
 			return null;
 		} catch (ConnectTimeoutException cte) {
-			log.warn("Timeout while trying to connect to {}, instance {} for fetching metrics", this.endpointUrl, this.instanceId, cte);
+			log.warn("Timeout while trying to connect to {}, instance {} for fetching metrics", url, this.instanceId, cte);
 			return null;
 		} catch (ClientProtocolException e) {
 			log.warn("Client communication error while fetching metrics from target server", e);
@@ -185,10 +255,6 @@ public class CFMetricsFetcher implements MetricsFetcher {
 			log.warn("IO Exception while fetching metrics from target server", e);
 			return null;
 		} finally {
-			if (timer != null) {
-				timer.observeDuration();
-			}
-
 			if (response != null) {
 				try {
 					response.close();
@@ -197,14 +263,12 @@ public class CFMetricsFetcher implements MetricsFetcher {
 					// bad luck!
 				}
 			}
-			
-			countSuccessOrFailure(available);
 		}
 		
 		return result;
 	}
 
-	private String determineTextFormat(Header contentTypeHeader) {
+	private String determineTextFormat(Header contentTypeHeader, String url) {
 		if (contentTypeHeader == null) {
 			return TextFormat.CONTENT_TYPE_004;
 		}
@@ -226,7 +290,7 @@ public class CFMetricsFetcher implements MetricsFetcher {
 				logWrongVersion.warn("The implementation at {} and instance {} returned an invalid content type by specifying an invalid version identifier {} of the OpenMetric format. "
 						+ "Promregator is guessing that you mean version 1.0.0. Please fix your Prometheus client library! "
 						+ "See also https://github.com/promregator/promregator/wiki/Invalid-Version-In-Content-Type-of-OpenMetrics-Endpoints", 
-						this.endpointUrl, this.instanceId, versionIdentifierProvided, logWrongVersion.getName());
+						url, this.instanceId, versionIdentifierProvided, logWrongVersion.getName());
 			}
 			return TextFormat.CONTENT_TYPE_OPENMETRICS_100;
 		}
@@ -236,7 +300,7 @@ public class CFMetricsFetcher implements MetricsFetcher {
 			return TextFormat.CONTENT_TYPE_004;
 		}
 		
-		log.warn("Target at endpoint URL {} and instance {} returned a Content-Type header on scraping which is unknown by Promregator: {}", this.endpointUrl, this.instanceId, contentTypeValue);
+		log.warn("Target at endpoint URL {} and instance {} returned a Content-Type header on scraping which is unknown by Promregator: {}", url, this.instanceId, contentTypeValue);
 		return null;
 	}
 
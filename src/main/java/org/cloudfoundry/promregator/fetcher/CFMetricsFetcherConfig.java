@@ -20,6 +20,9 @@ public class CFMetricsFetcherConfig {
 	private int connectionTimeoutInMillis;
 	private int socketReadTimeoutInMillis;
 	
+	private int directTimeoutInMillis;
+	private boolean directAuthenticationEnabled;
+	
 	public CFMetricsFetcherConfig() {
 		super();
 	}
@@ -135,6 +138,35 @@ public class CFMetricsFetcherConfig {
 	public void setSocketReadTimeoutInMillis(int socketReadTimeoutInMillis) {
 		this.socketReadTimeoutInMillis = socketReadTimeoutInMillis;
 	}
+
+	/**
+	 * @return the directTimeoutInMillis
+	 */
+	public int getDirectTimeoutInMillis() {
+		return directTimeoutInMillis;
+	}
+
+	/**
+	 * @param directTimeoutInMillis the timeout (both for connecting and for reading) of requests sent to the instance on its Diego cell directly;
+	 * 0, if the regular timeouts shall be used
+	 */
+	public void setDirectTimeoutInMillis(int directTimeoutInMillis) {
+		this.directTimeoutInMillis = directTimeoutInMillis;
+	}
+
+	/**
+	 * @return the directAuthenticationEnabled
+	 */
+	public boolean isDirectAuthenticationEnabled() {
+		return directAuthenticationEnabled;
+	}
+
+	/**
+	 * @param directAuthenticationEnabled if <code>true</code>, the authentication enricher is also applied to requests sent to the instance on its Diego cell directly
+	 */
+	public void setDirectAuthenticationEnabled(boolean directAuthenticationEnabled) {
+		this.directAuthenticationEnabled = directAuthenticationEnabled;
+	}
 	
 	
 }
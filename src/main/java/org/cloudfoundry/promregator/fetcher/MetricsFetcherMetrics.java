@@ -28,6 +28,19 @@ public class MetricsFetcherMetrics {
 			.exponentialBuckets(100, 1.5, 16)
 			.register();
 
+	/*
+	 * Note: These metrics are intended to compare scraping instances directly on their Diego cells with scraping them
+	 * via the gorouter. They do not carry the labels of the target to keep their cardinality low.
+	 */
+	private static Histogram pathLatency = Histogram.build("promregator_request_path_latency", "The latency of scraping requests by the path they took to the target (direct to the Diego cell or via the route)")
+			.labelNames("path", "result")
+			.unit("seconds")
+			.exponentialBuckets(0.005, 2, 12)
+			.register();
+	
+	private static Counter directFallbacks = Counter.build("promregator_request_direct_fallback", "Scraping requests, which failed directly at the Diego cell and were retried via the route")
+			.register();
+
 	private String[] ownTelemetryLabels;
 
 	public MetricsFetcherMetrics(String[] ownTelemetryLabels, boolean requestLatencyEnabled) {
@@ -66,6 +79,17 @@ public class MetricsFetcherMetrics {
 	}
 	
 	
+	public Histogram.Child getPathLatency(String path, boolean success) {
+		if (pathLatency == null)
+			return null;
+		
+		return pathLatency.labels(path, success ? "success" : "failure");
+	}
+	
+	public Counter getDirectFallbacks() {
+		return directFallbacks;
+	}
+	
 	/**
 	 * deregisters the samples from the (global) CollectorRegistry
 	 * once an instance is no longer required.
@@ -2,6 +2,8 @@ package org.cloudfoundry.promregator.internalmetrics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
@@ -16,6 +18,7 @@ import io.prometheus.client.Collector;
 import io.prometheus.client.Collector.MetricFamilySamples.Sample;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.Histogram.Timer;
 import io.prometheus.client.cache.caffeine.CacheMetricsCollector;
@@ -31,15 +34,48 @@ public class InternalMetrics {
 	private CacheMetricsCollector caffeineCacheMetricsCollector;
 
 	private Histogram rateLimitWaitTime;
+	
+	private Counter requestDeduplications;
+	private Counter retries;
+	private Counter deltaSyncUpdates;
+	private Counter auditEvents;
+	private Counter cacheRefreshes;
 	private AtomicInteger rateLimitQueueSize = new AtomicInteger(0);
+	private Gauge rateLimitQueueSizeByPriority;
+
+	private Histogram requestAggregatorBlockSize;
+	private Histogram requestAggregatorQueueWaitTime;
+
+	private Histogram scanDuration;
+	private Histogram scanStageLatency;
+	private Gauge skippedInstances;
 
 	private Supplier<Double> dequeRouteSizeFunction;
 	private Supplier<Double> dequeProcessSizeFunction;
 	
+	private Supplier<Double> concurrencyLimitFunction;
+	private Supplier<Double> concurrencyInFlightFunction;
+	private Supplier<Double> concurrencyLatencyGradientFunction;
+	
+	private Supplier<Double> cacheRefreshQueueSizeFunction;
+	private Map<String, Supplier<Double>> cacheWeightFunctions = new ConcurrentHashMap<>();
+	
+	private Supplier<Double> warmUpTargetsTotalFunction;
+	private Supplier<Double> warmUpTargetsDoneFunction;
+	private Supplier<Double> warmUpDurationFunction;
+	
 	private class InternalCollector extends Collector {
 
 		private static final String PROMREGATOR_CFFETCH_RATELIMIT_QUEUE_SIZE = "promregator_cffetch_ratelimit_queue_size";
 		private static final String PROMREGATOR_REQUEST_AGGREGATOR_QUEUE_SIZE = "promregator_request_aggregator_queue_size";
+		private static final String PROMREGATOR_CFFETCH_CONCURRENCY_LIMIT = "promregator_cffetch_concurrency_limit";
+		private static final String PROMREGATOR_CFFETCH_CONCURRENCY_INFLIGHT = "promregator_cffetch_concurrency_inflight";
+		private static final String PROMREGATOR_CFFETCH_CONCURRENCY_LATENCY_GRADIENT = "promregator_cffetch_concurrency_latency_gradient";
+		private static final String PROMREGATOR_CACHE_REFRESH_QUEUE_SIZE = "promregator_cache_refresh_queue_size";
+		private static final String PROMREGATOR_CACHE_ESTIMATED_SIZE = "promregator_cache_estimated_size_bytes";
+		private static final String PROMREGATOR_CACHE_WARMUP_TARGETS = "promregator_cache_warmup_targets";
+		private static final String PROMREGATOR_CACHE_WARMUP_TARGETS_DONE = "promregator_cache_warmup_targets_done";
+		private static final String PROMREGATOR_CACHE_WARMUP_DURATION = "promregator_cache_warmup_duration_seconds";
 
 		@Override
 		public List<MetricFamilySamples> collect() {
@@ -58,10 +94,38 @@ public class InternalMetrics {
 				result.add(queueSizeDequeMFS);
 			}
 			
+			if (concurrencyLimitFunction != null) {
+				result.add(gaugeSample(PROMREGATOR_CFFETCH_CONCURRENCY_LIMIT, "The current limit of concurrent CFCC requests determined by the adaptive concurrency limiter", concurrencyLimitFunction));
+				result.add(gaugeSample(PROMREGATOR_CFFETCH_CONCURRENCY_INFLIGHT, "The number of CFCC requests currently in flight", concurrencyInFlightFunction));
+				result.add(gaugeSample(PROMREGATOR_CFFETCH_CONCURRENCY_LATENCY_GRADIENT, "The ratio of long-term and short-term latency of CFCC requests; lower values indicate increasing latency", concurrencyLatencyGradientFunction));
+			}
+			
+			if (cacheRefreshQueueSizeFunction != null) {
+				result.add(gaugeSample(PROMREGATOR_CACHE_REFRESH_QUEUE_SIZE, "The number of refreshes of cache entries being delayed for spreading them over time", cacheRefreshQueueSizeFunction));
+			}
+			
+			if (!cacheWeightFunctions.isEmpty()) {
+				List<Sample> samples = new ArrayList<>(cacheWeightFunctions.size());
+				cacheWeightFunctions.forEach((cacheName, function) -> 
+					samples.add(new Sample(PROMREGATOR_CACHE_ESTIMATED_SIZE, Lists.newArrayList("cache"), Lists.newArrayList(cacheName), function.get())));
+				result.add(new MetricFamilySamples(PROMREGATOR_CACHE_ESTIMATED_SIZE, Type.GAUGE, 
+						"The estimated heap memory retained by the entries of a cache", samples));
+			}
+			
+			if (warmUpTargetsTotalFunction != null) {
+				result.add(gaugeSample(PROMREGATOR_CACHE_WARMUP_TARGETS, "The number of targets to be crawled by the warm-up of caches during startup", warmUpTargetsTotalFunction));
+				result.add(gaugeSample(PROMREGATOR_CACHE_WARMUP_TARGETS_DONE, "The number of targets already crawled by the warm-up of caches during startup", warmUpTargetsDoneFunction));
+				result.add(gaugeSample(PROMREGATOR_CACHE_WARMUP_DURATION, "The time the warm-up of caches during startup took (or has taken so far)", warmUpDurationFunction));
+			}
 			
 			return result;
 		}
 		
+		private MetricFamilySamples gaugeSample(String name, String help, Supplier<Double> function) {
+			Sample sample = new Sample(name, new ArrayList<>(), new ArrayList<>(), function.get());
+			return new MetricFamilySamples(name, Type.GAUGE, help, Lists.newArrayList(sample));
+		}
+		
 	}
 	
 	@PostConstruct
@@ -88,6 +152,56 @@ public class InternalMetrics {
 				.linearBuckets(0.0, 0.05, 50)
 				.register();
 		
+		this.rateLimitQueueSizeByPriority = Gauge.build("promregator_cffetch_ratelimit_priority_queue_size", "The number of CFCC requests being throttled by rate limiting per priority")
+				.labelNames("priority")
+				.register();
+		
+		this.requestDeduplications = Counter.build("promregator_cffetch_deduplicated", "The number of CFCC requests which were served by sharing an identical request already in flight")
+				.labelNames("request_type")
+				.register();
+		
+		this.retries = Counter.build("promregator_cffetch_retries", "The number of retries of failed CFCC requests, which were permitted or denied by the retry budget")
+				.labelNames("request_type", "decision")
+				.register();
+		
+		this.deltaSyncUpdates = Counter.build("promregator_cache_delta_sync_updates", "The number of cache entries patched by the incremental synchronization of the CF topology")
+				.labelNames("cache")
+				.register();
+		
+		this.auditEvents = Counter.build("promregator_cache_audit_events", "The number of Cloud Controller audit events, which caused entries of the cache to be refreshed")
+				.labelNames("event_type")
+				.register();
+		
+		this.cacheRefreshes = Counter.build("promregator_cache_refreshes", "The number of refreshes of cache entries triggered")
+				.labelNames("cache")
+				.register();
+		
+		this.requestAggregatorBlockSize = Histogram.build("promregator_request_aggregator_block_size", "The number of requests bundled into a block by the RequestAggregator")
+				.labelNames("type")
+				.exponentialBuckets(1, 2, 10)
+				.register();
+		
+		this.requestAggregatorQueueWaitTime = Histogram.build("promregator_request_aggregator_queue_waittime", "Time requests waited in the RequestAggregator's queue before being sent")
+				.unit("seconds")
+				.labelNames("type")
+				.linearBuckets(0.0, 0.025, 40)
+				.register();
+		
+		this.scanDuration = Histogram.build("promregator_scan_duration", "Time it took to determine the instances of a list of resolved targets")
+				.unit("seconds")
+				.exponentialBuckets(0.01, 2, 14)
+				.register();
+		
+		this.scanStageLatency = Histogram.build("promregator_scan_stage_latency", "Latency of a single stage when determining the instances of a resolved target")
+				.unit("seconds")
+				.labelNames("stage")
+				.linearBuckets(0.0, 0.05, 40)
+				.register();
+		
+		this.skippedInstances = Gauge.build("promregator_scan_skipped_instances", "The number of instances not scraped during the last scan, because they were not running")
+				.labelNames("state")
+				.register();
+		
 		CollectorRegistry.defaultRegistry.register(new InternalCollector());
 	}
 
@@ -121,18 +235,90 @@ public class InternalMetrics {
 		this.rateLimitWaitTime.labels(requestType).observe(waitTime);
 	}
 	
-	public void increaseRateLimitQueueSize() {
+	public void countRequestDeduplication(String requestType) {
+		if (!this.enabled)
+			return;
+
+		this.requestDeduplications.labels(requestType).inc();
+	}
+	
+	public void countRetry(String requestType, boolean permitted) {
+		if (!this.enabled)
+			return;
+
+		this.retries.labels(requestType, permitted ? "allowed" : "denied").inc();
+	}
+	
+	public void countDeltaSyncUpdates(String cacheName, int updates) {
+		if (!this.enabled)
+			return;
+
+		this.deltaSyncUpdates.labels(cacheName).inc(updates);
+	}
+	
+	public void countAuditEvent(String eventType) {
+		if (!this.enabled)
+			return;
+
+		this.auditEvents.labels(eventType).inc();
+	}
+	
+	public void countCacheRefresh(String cacheName) {
+		if (!this.enabled)
+			return;
+
+		this.cacheRefreshes.labels(cacheName).inc();
+	}
+	
+	public void increaseRateLimitQueueSize(String priority) {
 		if (!this.enabled)
 			return;
 
 		this.rateLimitQueueSize.incrementAndGet();
+		this.rateLimitQueueSizeByPriority.labels(priority).inc();
 	}
 	
-	public void decreaseRateLimitQueueSize() {
+	public void decreaseRateLimitQueueSize(String priority) {
 		if (!this.enabled)
 			return;
 
 		this.rateLimitQueueSize.decrementAndGet();
+		this.rateLimitQueueSizeByPriority.labels(priority).dec();
+	}
+	
+	public void observeRequestAggregatorBlockSize(String type, int blockSize) {
+		if (!this.enabled)
+			return;
+
+		this.requestAggregatorBlockSize.labels(type).observe(blockSize);
+	}
+	
+	public void observeRequestAggregatorQueueWaitTime(String type, double waitTime) {
+		if (!this.enabled)
+			return;
+
+		this.requestAggregatorQueueWaitTime.labels(type).observe(waitTime);
+	}
+	
+	public void observeScanDuration(double duration) {
+		if (!this.enabled)
+			return;
+
+		this.scanDuration.observe(duration);
+	}
+	
+	public void observeScanStageLatency(String stage, double latency) {
+		if (!this.enabled)
+			return;
+
+		this.scanStageLatency.labels(stage).observe(latency);
+	}
+	
+	public void setSkippedInstances(String state, int count) {
+		if (!this.enabled)
+			return;
+
+		this.skippedInstances.labels(state).set(count);
 	}
 	
 	public void registerDequeRouteSizeFunction(Supplier<Double> function) {
@@ -142,5 +328,25 @@ public class InternalMetrics {
 	public void registerDequeProcessSizeFunction(Supplier<Double> function) {
 		this.dequeProcessSizeFunction = function;
 	}
+	
+	public void registerConcurrencyLimiterFunctions(Supplier<Double> limitFunction, Supplier<Double> inFlightFunction, Supplier<Double> latencyGradientFunction) {
+		this.concurrencyLimitFunction = limitFunction;
+		this.concurrencyInFlightFunction = inFlightFunction;
+		this.concurrencyLatencyGradientFunction = latencyGradientFunction;
+	}
+	
+	public void registerCacheRefreshQueueSizeFunction(Supplier<Double> function) {
+		this.cacheRefreshQueueSizeFunction = function;
+	}
+	
+	public void registerCacheWeightFunction(String cacheName, Supplier<Double> function) {
+		this.cacheWeightFunctions.put(cacheName, function);
+	}
+	
+	public void registerWarmUpFunctions(Supplier<Double> targetsTotalFunction, Supplier<Double> targetsDoneFunction, Supplier<Double> durationFunction) {
+		this.warmUpTargetsTotalFunction = targetsTotalFunction;
+		this.warmUpTargetsDoneFunction = targetsDoneFunction;
+		this.warmUpDurationFunction = durationFunction;
+	}
 
 }
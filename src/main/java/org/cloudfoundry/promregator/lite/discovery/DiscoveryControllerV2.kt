@@ -2,8 +2,12 @@ package org.cloudfoundry.promregator.lite.discovery
 
 import com.fasterxml.jackson.annotation.JsonGetter
 import com.fasterxml.jackson.annotation.JsonInclude
-import kotlinx.coroutines.runBlocking
+import org.cloudfoundry.promregator.endpoint.EndpointConstants
+import org.cloudfoundry.promregator.scanner.Instance
 import org.springframework.beans.factory.annotation.Value
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import org.springframework.http.ResponseEntity
 import org.springframework.web.bind.annotation.GetMapping
 import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.RestController
@@ -33,23 +37,58 @@ private val log = mu.KotlinLogging.logger {}
 
 @RestController
 class DiscoveryControllerV2(
-//        private val discoveryService: DiscoveryService,
+        private val discoveryService: DiscoveryService,
+        @Value("\${cf.api_host:#{null}}") private val apiHost: String?,
         @Value("\${promregator.discovery.hostname:#{null}}") private val promHostname: String?,
         @Value("\${promregator.discovery.port:0}") val promPort: Int,
         @Value("\${promregator.discovery.ownMetricsEndpoint:true}") private val promregatorMetricsEndpoint: Boolean,
 ) {
 
-    @GetMapping("v2/discovery")
-    fun discovery(request: HttpServletRequest,
+    @GetMapping(EndpointConstants.ENDPOINT_PATH_DISCOVERY_V2, produces = [MediaType.APPLICATION_JSON_VALUE])
+    suspend fun discovery(request: HttpServletRequest,
                   @RequestParam(required = false, defaultValue = "false") bypassCache: Boolean,
                   @RequestParam api: String?,
                   @RequestParam org: String?,
                   @RequestParam space: String?,
                   @RequestParam application: String?
-    ): List<DiscoveryV2Response> {
-        return runBlocking {
-            log.warn { "V2 Discovery is incomplete, but callable" }
-            listOf()
+    ): ResponseEntity<List<DiscoveryV2Response>> {
+        // read from the request before suspending: the request object must not be accessed from another thread
+        val localHostname = promHostname ?: request.localName
+        val localPort = if (promPort != 0) promPort else request.localPort
+        val targets = listOf("$localHostname:$localPort")
+
+        if (!api.isNullOrBlank() && !api.equals(apiHost, ignoreCase = true)) {
+            // Promregator is connected to a single Cloud Controller only
+            log.debug { "V2 discovery requested for API $api, but connected to $apiHost" }
+            return ResponseEntity.ok(listOf())
+        }
+
+        val index = discoveryService.discover(bypassCache)
+                ?: return ResponseEntity(HttpStatus.SERVICE_UNAVAILABLE)
+
+        val orgFilter = org?.takeIf { it.isNotBlank() }
+        val spaceFilter = space?.takeIf { it.isNotBlank() }
+        val applicationFilter = application?.takeIf { it.isNotBlank() }
+
+        val instances = index.filter(orgFilter, spaceFilter, applicationFilter)
+        val result = instances.mapTo(ArrayList(instances.size + 1)) { DiscoveryV2Response(targets, toLabel(it)) }
+
+        if (promregatorMetricsEndpoint && orgFilter == null && spaceFilter == null && applicationFilter == null) {
+            // our own metrics endpoint is only part of the unfiltered document; otherwise each job would scrape it
+            result.add(DiscoveryV2Response(targets, DiscoveryLabelV2(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS)))
         }
+
+        log.info { "Returning V2 discovery document with ${result.size} of ${index.instances.size} targets" }
+        return ResponseEntity.ok(result)
     }
+
+    private fun toLabel(instance: Instance) = DiscoveryLabelV2(
+            targetPath = "${EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING}/${instance.applicationId}/${instance.instanceNumber}",
+            orgName = instance.target.orgName,
+            spaceName = instance.target.spaceName,
+            applicationName = instance.target.applicationName,
+            applicationId = instance.applicationId,
+            instanceNumber = instance.instanceNumber,
+            instanceId = instance.instanceId,
+    )
 }
@@ -0,0 +1,74 @@
+package org.cloudfoundry.promregator.lite.discovery
+
+import kotlinx.coroutines.reactor.awaitSingleOrNull
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.stereotype.Service
+import reactor.core.publisher.Mono
+import reactor.core.scheduler.Schedulers
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+
+private val log = mu.KotlinLogging.logger {}
+
+/**
+ * Provides the instances discovered as [InstanceIndex] to the V2 discovery.
+ *
+ * Typically, Prometheus is configured with one job per org, which all request the discovery
+ * at about the same time. The index is therefore kept for a short time, and only one of them
+ * triggers the (blocking) discovery, while the others wait without blocking a thread.
+ */
+@Service
+class DiscoveryService(
+        private val cfDiscoverer: CFMultiDiscoverer,
+        private val clock: Clock,
+        @Value("\${promregator.discovery.v2.indexMaxAge:5}") private val indexMaxAge: Long,
+) {
+    private class Snapshot(val index: InstanceIndex, val created: Instant)
+
+    private val mutex = Mutex()
+
+    @Volatile
+    private var current: Snapshot? = null
+
+    /**
+     * provides the index of the instances discovered
+     * @param bypassCache if <code>true</code>, the discovery is performed, even if the index is still recent enough
+     * @return the index, or <code>null</code>, if the discovery has not been possible
+     */
+    suspend fun discover(bypassCache: Boolean): InstanceIndex? {
+        val cached = current
+        if (!bypassCache && cached != null && isRecent(cached)) {
+            return cached.index
+        }
+
+        return mutex.withLock {
+            val latest = current
+            if (!bypassCache && latest != null && isRecent(latest)) {
+                // another request has refreshed the index while we were waiting
+                return@withLock latest.index
+            }
+
+            val instances = Mono.fromCallable { cfDiscoverer.discover(null, null) }
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .awaitSingleOrNull()
+                    ?: return@withLock null
+
+            val index = if (latest != null && latest.index.instances == instances) {
+                latest.index
+            } else {
+                log.debug { "Indexing ${instances.size} instances for V2 discovery" }
+                InstanceIndex(instances)
+            }
+
+            current = Snapshot(index, clock.instant())
+            index
+        }
+    }
+
+    private fun isRecent(snapshot: Snapshot): Boolean =
+            Duration.between(snapshot.created, clock.instant()).seconds < indexMaxAge
+}
@@ -0,0 +1,37 @@
+package org.cloudfoundry.promregator.lite.discovery
+
+import org.cloudfoundry.promregator.scanner.Instance
+import java.util.Locale
+
+/**
+ * The instances discovered, indexed by the names of their org, space and application.
+ * Names are compared case-insensitively (like Cloud Foundry does).
+ * Filtering only visits the instances matching, and not the entire set of instances.
+ */
+class InstanceIndex(val instances: List<Instance>) {
+
+    private val index: Map<String, Map<String, Map<String, List<Instance>>>> = instances
+            .groupBy { key(it.target.orgName) }
+            .mapValues { (_, inOrg) ->
+                inOrg.groupBy { key(it.target.spaceName) }
+                        .mapValues { (_, inSpace) -> inSpace.groupBy { key(it.target.applicationName) } }
+            }
+
+    /**
+     * determines the instances matching the filter criteria
+     * @param org the name of the org, or <code>null</code> if the instances of all orgs shall be returned
+     * @param space the name of the space, or <code>null</code> if the instances of all spaces shall be returned
+     * @param application the name of the application, or <code>null</code> if the instances of all applications shall be returned
+     * @return the instances matching, grouped by org, space and application
+     */
+    fun filter(org: String?, space: String?, application: String?): List<Instance> =
+            select(index, org)
+                    .flatMap { select(it, space) }
+                    .flatMap { select(it, application) }
+                    .flatten()
+
+    private fun <V> select(map: Map<String, V>, name: String?): Collection<V> =
+            if (name == null) map.values else listOfNotNull(map[key(name)])
+
+    private fun key(name: String?): String = name.orEmpty().lowercase(Locale.ROOT)
+}
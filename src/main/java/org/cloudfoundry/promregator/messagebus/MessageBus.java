@@ -28,6 +28,10 @@ public class MessageBus {
 	
 	public void notifyEvent(String topic, Object message) {
 		final List<MessageSubscriber> subscriberList = this.topicSubscriberMap.get(topic);
+		if (subscriberList == null) {
+			// nobody is interested in this topic
+			return;
+		}
 		
 		subscriberList.forEach(subscriber -> {
 			try {
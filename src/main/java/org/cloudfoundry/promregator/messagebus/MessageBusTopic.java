@@ -8,4 +8,9 @@ public final class MessageBusTopic {
 	public static final String PREFIX = "org.cloudfoundry.promregator.";
 	
 	public static final String DISCOVERER_INSTANCE_REMOVED = PREFIX + "instanceRemoved";
+	
+	/**
+	 * the complete list of instances determined by a discovery (without any filter applied)
+	 */
+	public static final String DISCOVERER_INSTANCES_DISCOVERED = PREFIX + "instancesDiscovered";
 }
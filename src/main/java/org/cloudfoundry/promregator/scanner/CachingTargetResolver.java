@@ -66,6 +66,12 @@ public class CachingTargetResolver implements TargetResolver {
 		return new LinkedList<>(hset);
 	}
 
+	@Override
+	public ResolutionPlan getLastResolutionPlan() {
+		// targets served from the cache did not require any lookup
+		return this.parentTargetResolver.getLastResolutionPlan();
+	}
+
 	private void updateTargetResolutionCache(List<ResolvedTarget> newlyResolvedTargets) {
 		Map<Target, List<ResolvedTarget>> map = new HashMap<>();
 		for (ResolvedTarget rtarget : newlyResolvedTargets) {
@@ -10,6 +10,7 @@ public class Instance {
 	private String instanceId;
 	private String accessUrl;
 	private boolean internal;
+	private String directAccessUrl;
 	
 	public Instance() {
 		super();
@@ -43,6 +44,21 @@ public class Instance {
 		return accessUrl;
 	}
 	
+	/**
+	 * @return the URL, at which the instance may be scraped directly on its Diego cell (bypassing the gorouter); 
+	 * <code>null</code>, if not known
+	 */
+	public String getDirectAccessUrl() {
+		return directAccessUrl;
+	}
+
+	/**
+	 * @param directAccessUrl the URL, at which the instance may be scraped directly on its Diego cell
+	 */
+	public void setDirectAccessUrl(String directAccessUrl) {
+		this.directAccessUrl = directAccessUrl;
+	}
+	
 	public String getInstanceNumber() {
 		String[] parts = this.instanceId.split(":");
 		return parts[1];
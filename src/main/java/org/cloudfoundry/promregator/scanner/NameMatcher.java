@@ -0,0 +1,170 @@
+package org.cloudfoundry.promregator.scanner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies names (of organizations, spaces or applications) against the name filters of many
+ * targets at once. Each item is registered either with a name, which needs to match exactly
+ * (case-insensitive), with a pattern, which needs to match the entire name, or without any filter,
+ * i.e. it matches all names.
+ * <p>
+ * For each name classified, only those patterns are evaluated whose literal prefix is a prefix of the
+ * name. Identical patterns of multiple items are evaluated only once.
+ * <p>
+ * Instances are not thread-safe while items are being added.
+ *
+ * @param <T> the type of the items, which are classified
+ */
+class NameMatcher<T> {
+	private static final int MAX_PREFIX_LENGTH = 32;
+
+	private static record PatternEntry<T>(Pattern pattern, List<T> items) {}
+
+	private final List<T> itemsMatchingAll = new ArrayList<>();
+
+	private final Map<String, List<T>> itemsByName = new HashMap<>();
+
+	/**
+	 * key of the outer map: the literal prefix (in lower case) of the patterns
+	 * key of the inner map: the string representation of the pattern
+	 */
+	private final Map<String, Map<String, PatternEntry<T>>> patternsByPrefix = new HashMap<>();
+
+	private int maxPrefixLength = 0;
+
+	/**
+	 * registers an item
+	 * @param item the item to be registered
+	 * @param name the name, which needs to match (case-insensitive); ignored, if <code>pattern</code> is set
+	 * @param pattern the pattern, which needs to match the entire name; may be <code>null</code>
+	 */
+	public void add(T item, String name, Pattern pattern) {
+		if (pattern != null) {
+			final String prefix = literalPrefix(pattern.pattern());
+			this.maxPrefixLength = Math.max(this.maxPrefixLength, prefix.length());
+
+			this.patternsByPrefix.computeIfAbsent(prefix, key -> new LinkedHashMap<>())
+				.computeIfAbsent(pattern.pattern(), key -> new PatternEntry<>(pattern, new ArrayList<>()))
+				.items().add(item);
+		} else if (name != null) {
+			this.itemsByName.computeIfAbsent(name.toLowerCase(Locale.ENGLISH), key -> new ArrayList<>()).add(item);
+		} else {
+			this.itemsMatchingAll.add(item);
+		}
+	}
+
+	/**
+	 * determines all items, which match to a given name
+	 * @param name the name to classify
+	 * @return the list of items matching; never <code>null</code>. The list must not be modified.
+	 */
+	public List<T> match(String name) {
+		final List<T> itemsByNameList = this.itemsByName.get(name.toLowerCase(Locale.ENGLISH));
+
+		List<T> result = null;
+		final int maxLength = Math.min(this.maxPrefixLength, name.length());
+		for (int length = 0; length <= maxLength; length++) {
+			final Map<String, PatternEntry<T>> entries = this.patternsByPrefix.get(toLowerCaseAscii(name.substring(0, length)));
+			if (entries == null) {
+				continue;
+			}
+
+			for (PatternEntry<T> entry : entries.values()) {
+				if (!entry.pattern().matcher(name).matches()) {
+					continue;
+				}
+
+				if (result == null) {
+					result = new ArrayList<>(this.itemsMatchingAll);
+					if (itemsByNameList != null) {
+						result.addAll(itemsByNameList);
+					}
+				}
+				result.addAll(entry.items());
+			}
+		}
+
+		if (result != null) {
+			return result;
+		}
+
+		if (itemsByNameList == null) {
+			return this.itemsMatchingAll;
+		}
+
+		if (this.itemsMatchingAll.isEmpty()) {
+			return itemsByNameList;
+		}
+
+		result = new ArrayList<>(this.itemsMatchingAll);
+		result.addAll(itemsByNameList);
+		return result;
+	}
+
+	/**
+	 * @return <code>true</code>, if no item has been registered yet
+	 */
+	public boolean isEmpty() {
+		return this.itemsMatchingAll.isEmpty() && this.itemsByName.isEmpty() && this.patternsByPrefix.isEmpty();
+	}
+
+	/**
+	 * determines the prefix of a regular expression, which each string matching the regular expression
+	 * must start with. For the sake of simplicity, only ASCII letters, digits, dashes and underscores are
+	 * considered; the prefix is returned in lower case.
+	 * @param regex the regular expression
+	 * @return the literal prefix, which may be empty
+	 */
+	static String literalPrefix(String regex) {
+		if (regex.indexOf('|') >= 0) {
+			// alternatives may start with anything
+			return "";
+		}
+
+		int start = regex.startsWith("^") ? 1 : 0;
+
+		final StringBuilder sb = new StringBuilder();
+		for (int i = start; i < regex.length() && sb.length() < MAX_PREFIX_LENGTH; i++) {
+			final char c = regex.charAt(i);
+			if (!isLiteral(c)) {
+				break;
+			}
+
+			if (i + 1 < regex.length()) {
+				final char next = regex.charAt(i + 1);
+				if (next == '?' || next == '*' || next == '{') {
+					// the character is optional
+					break;
+				}
+			}
+
+			sb.append(c);
+		}
+
+		return toLowerCaseAscii(sb.toString());
+	}
+
+	private static boolean isLiteral(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+	}
+
+	/*
+	 * Patterns are compiled with Pattern.CASE_INSENSITIVE, but without Pattern.UNICODE_CASE.
+	 * Thus, only ASCII characters must be converted here.
+	 */
+	private static String toLowerCaseAscii(String s) {
+		final char[] chars = s.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			if (chars[i] >= 'A' && chars[i] <= 'Z') {
+				chars[i] = (char) (chars[i] + ('a' - 'A'));
+			}
+		}
+		return new String(chars);
+	}
+}
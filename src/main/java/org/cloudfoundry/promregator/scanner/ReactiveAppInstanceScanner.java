@@ -2,8 +2,15 @@ package org.cloudfoundry.promregator.scanner;
 
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,11 +20,17 @@ import org.apache.logging.log4j.util.Strings;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.cloudfoundry.client.v3.domains.DomainResource;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.PortMapping;
 import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.processes.ProcessState;
+import org.cloudfoundry.client.v3.processes.ProcessStatisticsResource;
 import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
 import org.cloudfoundry.client.v3.routes.RouteResource;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,10 +45,39 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 	private static final Logger log = LoggerFactory.getLogger(ReactiveAppInstanceScanner.class);
 	private static final String INVALID_ORG_ID = "***invalid***";
 	private static final String INVALID_SPACE_ID = "***invalid***";
+	
+	private static final String SCAN_STAGE_ORG = "org";
+	private static final String SCAN_STAGE_SPACE = "space";
+	private static final String SCAN_STAGE_PROCESS = "process";
+	private static final String SCAN_STAGE_PROCESS_STATS = "processStats";
+	private static final String SCAN_STAGE_ROUTE = "route";
+	private static final String SCAN_STAGE_DOMAIN = "domain";
 
 	@Value("${promregator.defaultInternalRoutePort:8080}")
 	private int defaultInternalRoutePort;
 
+	@Value("${cf.cache.spaceLevelRetrieval:false}")
+	private boolean spaceLevelRetrieval;
+
+	/**
+	 * the number of targets whose instances are determined concurrently
+	 */
+	/* NB: matches the default block size of the request aggregators (see cf.cache.aggregator.blocksize.*) */
+	@Value("${promregator.discoverer.concurrency:100}")
+	private int concurrency;
+
+	/**
+	 * if enabled, only those instances are returned, which the Cloud Controller reports to be running
+	 */
+	@Value("${promregator.discoverer.runningInstancesOnly:false}")
+	private boolean runningInstancesOnly;
+
+	/**
+	 * if enabled, the address of each instance on its Diego cell is determined, such that it may be scraped directly
+	 */
+	@Value("${promregator.scraping.directToCell:false}")
+	private boolean directToCell;
+
 	/**
 	 * OSA stands for Org-Space-Application
 	 */
@@ -46,8 +88,11 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 		private String spaceId;
 		private String applicationId;
 		private String domainId;
+		private String processId;
 		private String accessURL;
 		private int numberOfInstances;
+		private List<Integer> instanceIndexes;
+		private Map<Integer, String> cellAddresses;
 		private boolean internal;
 		private int internalRoutePort;
 
@@ -66,6 +111,14 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 			this.domainId = domainId;
 		}
 
+		public String getProcessId() {
+			return processId;
+		}
+
+		public void setProcessId(String processId) {
+			this.processId = processId;
+		}
+
 		public int getInternalRoutePort() {
 			return internalRoutePort;
 		}
@@ -165,190 +218,342 @@ public class ReactiveAppInstanceScanner implements AppInstanceScanner {
 			this.numberOfInstances = numberOfInstances;
 		}
 
+		/**
+		 * @return the indexes of the instances to be scraped; <code>null</code>, if all instances shall be scraped
+		 */
+		public List<Integer> getInstanceIndexes() {
+			return instanceIndexes;
+		}
+
+		/**
+		 * @param instanceIndexes the indexes of the instances to be scraped
+		 */
+		public void setInstanceIndexes(List<Integer> instanceIndexes) {
+			this.instanceIndexes = instanceIndexes;
+		}
+
+		/**
+		 * @return the addresses (host and port) of the instances on their Diego cells by instance index; 
+		 * <code>null</code>, if not determined
+		 */
+		public Map<Integer, String> getCellAddresses() {
+			return cellAddresses;
+		}
+
+		/**
+		 * @param cellAddresses the addresses of the instances on their Diego cells by instance index
+		 */
+		public void setCellAddresses(Map<Integer, String> cellAddresses) {
+			this.cellAddresses = cellAddresses;
+		}
+
 	}
 
 	@Autowired
 	private CFAccessor cfAccessor;
 
+	@Autowired
+	private InternalMetrics internalMetrics;
+
 	@Override
 	public List<Instance> determineInstancesFromTargets(List<ResolvedTarget> targets,
 			@Nullable Predicate<? super String> applicationIdFilter,
 			@Nullable Predicate<? super Instance> instanceFilter) {
-		Flux<ResolvedTarget> targetsFlux = Flux.fromIterable(targets);
-
+		final long startTime = System.nanoTime();
+		final Map<ProcessState, AtomicInteger> skippedInstances = new ConcurrentHashMap<>();
+		
 		/*
-		 * TODO V3: Check, if this serial approach below can be executed more in parallel
+		 * Each target runs through its own pipeline (org, space, process, route, domain),
+		 * such that a slow lookup of one target does not hold back the others.
+		 * Pre-filtering on the application id is done before any lookup takes place.
 		 */
+		Flux<Instance> instancesFlux = Flux.fromIterable(targets)
+				.filter(rt -> rt.getApplicationId() != null)
+				.filter(rt -> applicationIdFilter == null || applicationIdFilter.test(rt.getApplicationId()))
+				.flatMapSequential(rt -> this.scanTarget(rt, skippedInstances), this.concurrency);
+
+		// perform pre-filtering, if available
+		if (instanceFilter != null) {
+			instancesFlux = instancesFlux.filter(instanceFilter);
+		}
+
+		Mono<List<Instance>> listInstancesMono = instancesFlux.collectList()
+				.contextWrite(RequestPriority.contextOfCurrentThread());
+
+		List<Instance> result = null;
+		try {
+			result = listInstancesMono.block();
+		} catch (RuntimeException e) {
+			log.error("Error during retrieving the instances of a list of targets", e);
+			result = null;
+		} finally {
+			this.internalMetrics.observeScanDuration((System.nanoTime() - startTime) / 1e9);
+		}
 		
-		Flux<OSAVector> initialOSAVectorFlux = targetsFlux.filter(rt -> rt.getApplicationId() != null)
-			.map(target -> {
-				final OSAVector v = new OSAVector();
-				v.setTarget(target);
-				v.setApplicationId(target.getApplicationId());
-				v.setInternalRoutePort(target.getOriginalTarget().getInternalRoutePort());
-				return v;
-			});
-
-		Flux<String> orgIdFlux = initialOSAVectorFlux.flatMapSequential(v -> this.getOrgId(v.getTarget().getOrgName()));
-		Flux<OSAVector> osaVectorOrgFlux = Flux.zip(initialOSAVectorFlux, orgIdFlux).flatMap(tuple -> {
-			final OSAVector v = tuple.getT1();
-			if (INVALID_ORG_ID.equals(tuple.getT2())) {
-				// NB: This drops the current target!
-				return Mono.empty();
+		/*
+		 * Only a complete scan of all targets reveals the number of instances skipped;
+		 * filtered scans (e.g. for a single target scrape) would overwrite it with a fraction.
+		 */
+		if (this.runningInstancesOnly && result != null && applicationIdFilter == null && instanceFilter == null) {
+			for (ProcessState state : ProcessState.values()) {
+				if (state == ProcessState.RUNNING) {
+					continue;
+				}
+				
+				final AtomicInteger skipped = skippedInstances.get(state);
+				this.internalMetrics.setSkippedInstances(state.name().toLowerCase(Locale.ENGLISH), skipped == null ? 0 : skipped.get());
 			}
-			v.setOrgId(tuple.getT2());
-			return Mono.just(v);
-		});
+		}
 
-		Flux<String> spaceIdFlux = osaVectorOrgFlux.flatMapSequential(v -> this.getSpaceId(v.getOrgId(), v.getTarget().getSpaceName()));
-		Flux<OSAVector> osaVectorSpaceFlux = Flux.zip(osaVectorOrgFlux, spaceIdFlux).flatMap(tuple -> {
-			final OSAVector v = tuple.getT1();
-			if (INVALID_SPACE_ID.equals(tuple.getT2())) {
+		return result;
+	}
+	
+	private Flux<Instance> scanTarget(ResolvedTarget target, Map<ProcessState, AtomicInteger> skippedInstances) {
+		final OSAVector v = new OSAVector();
+		v.setTarget(target);
+		v.setApplicationId(target.getApplicationId());
+		v.setInternalRoutePort(target.getOriginalTarget().getInternalRoutePort());
+		
+		return this.timed(SCAN_STAGE_ORG, () -> this.getOrgId(target.getOrgName()))
 				// NB: This drops the current target!
-				return Mono.empty();
-			}
-			v.setSpaceId(tuple.getT2());
-			return Mono.just(v);
+				.filter(orgId -> !INVALID_ORG_ID.equals(orgId))
+				.flatMap(orgId -> {
+					v.setOrgId(orgId);
+					return this.timed(SCAN_STAGE_SPACE, () -> this.getSpaceId(orgId, target.getSpaceName()));
+				})
+				// NB: This drops the current target!
+				.filter(spaceId -> !INVALID_SPACE_ID.equals(spaceId))
+				.flatMap(spaceId -> {
+					v.setSpaceId(spaceId);
+					
+					/*
+					 * For V3 it is no longer possible to get the SpaceSummary.
+					 * This implies that we need to retrieve data on application level :-(
+					 * Instead, the instance count can be found at the Processes endpoint.
+					 * The ApplicationURL is buried in the Routes.
+					 */
+					return this.timed(SCAN_STAGE_PROCESS, () -> this.retrieveWebProcesses(v));
+				})
+				.flatMap(lapr -> this.applyWebProcesses(v, lapr))
+				.flatMap(__ -> this.determineInstanceStatistics(v, skippedInstances))
+				.flatMap(__ -> this.timed(SCAN_STAGE_ROUTE, () -> this.retrieveRoutes(v)))
+				.flatMap(lrp -> this.applyRoutes(v, lrp))
+				.flatMap(__ -> this.timed(SCAN_STAGE_DOMAIN, () -> this.cfAccessor.retrieveAllDomainsV3(v.getOrgId()).map(ListOrganizationDomainsResponse::getResources)))
+				.flatMap(domains -> this.applyDomains(v, domains))
+				.flatMapIterable(this::createInstances)
+				.doOnError(e -> log.warn("Error on determining the instances of application '{}' in org '{}' and space '{}'; skipping it", 
+						target.getApplicationName(), target.getOrgName(), target.getSpaceName(), e))
+				.onErrorResume(__ -> Flux.empty());
+	}
+	
+	private <T> Mono<T> timed(String stage, Supplier<Mono<T>> monoSupplier) {
+		return Mono.defer(() -> {
+			final long startTime = System.nanoTime();
+			return monoSupplier.get()
+					.doOnTerminate(() -> this.internalMetrics.observeScanStageLatency(stage, (System.nanoTime() - startTime) / 1e9));
 		});
-
-		/*
-		 * For V3 it is no longer possible to get the SpaceSummary.
-		 * This implies that we need to retrieve data on application level :-(
-		 * Instead, the instance count can be found at the Processes endpoint.
-		 * The ApplicationURL is buried in the Routes.
-		 */
+	}
+	
+	private Mono<OSAVector> applyWebProcesses(OSAVector osaVector, ListProcessesResponse lapr) {
+		final ResolvedTarget rt = osaVector.getTarget();
 		
-		Flux<ListProcessesResponse> webProcessForAppFlux = osaVectorSpaceFlux.flatMap(rt -> 
-			this.cfAccessor.retrieveWebProcessesForAppId(rt.getTarget().getApplicationId())
-		);
+		final List<ProcessResource> list = lapr.getResources();
+		if (list.size() > 1) {
+			log.error("Application Id {} with application name {} in org {} and space {} returned multiple web processes via CF API V3 Processes; Promregator does not know how to handle this. Provide your use case to the developers to understand how this shall be handled properly.", rt.getApplicationId(), rt.getApplicationName(), rt.getOrgName(), rt.getSpaceName());
+			return Mono.empty();
+		}
 		
-		Flux<OSAVector> numberInstancesOSAVectorFlux = Flux.zip(osaVectorSpaceFlux, webProcessForAppFlux).flatMap(tuple -> {
-			final OSAVector osaVector = tuple.getT1();
-			final ResolvedTarget rt = osaVector.getTarget();
-			final ListProcessesResponse lapr = tuple.getT2();
-			
-			final List<ProcessResource> list = lapr.getResources();
-			if (list.size() > 1) {
-				log.error("Application Id {} with application name {} in org {} and space {} returned multiple web processes via CF API V3 Processes; Promregator does not know how to handle this. Provide your use case to the developers to understand how this shall be handled properly.", rt.getApplicationId(), rt.getApplicationName(), rt.getOrgName(), rt.getSpaceName());
-				return Mono.empty();
-			}
-			
-			if (list.isEmpty()) {
-				log.error("Application Id {} with application name {} in org {} and space {} returned no web processes via CF API V3 Processes; Promregator does not know how to handle this. Provide your use case to the developers to understand how this shall be handled properly.", rt.getApplicationId(), rt.getApplicationName(), rt.getOrgName(), rt.getSpaceName());
-				return Mono.empty();
-			}
-			
-			final ProcessResource pr = list.get(0);
-			final int numberInstances = pr.getInstances();
-			osaVector.setNumberOfInstances(numberInstances);
+		if (list.isEmpty()) {
+			log.error("Application Id {} with application name {} in org {} and space {} returned no web processes via CF API V3 Processes; Promregator does not know how to handle this. Provide your use case to the developers to understand how this shall be handled properly.", rt.getApplicationId(), rt.getApplicationName(), rt.getOrgName(), rt.getSpaceName());
+			return Mono.empty();
+		}
+		
+		final ProcessResource pr = list.get(0);
+		final int numberInstances = pr.getInstances();
+		osaVector.setNumberOfInstances(numberInstances);
+		osaVector.setProcessId(pr.getId());
+		return Mono.just(osaVector);
+	}
+	
+	private Mono<OSAVector> determineInstanceStatistics(OSAVector osaVector, Map<ProcessState, AtomicInteger> skippedInstances) {
+		if (!this.runningInstancesOnly && (!this.directToCell || useOverrideRouteAndPath(osaVector))) {
 			return Mono.just(osaVector);
-		});
+		}
 		
-		Flux<ListRoutesResponse> routesForAppFlux = numberInstancesOSAVectorFlux.flatMap(rt -> this.cfAccessor.retrieveRoutesForAppId(rt.getTarget().getApplicationId()));
-		Flux<OSAVector> urlDomainOSAVectorFlux = Flux.zip(numberInstancesOSAVectorFlux, routesForAppFlux).flatMap(tuple -> {
-			final OSAVector osaVector = tuple.getT1();
-			final ListRoutesResponse lrp = tuple.getT2();
-			
-			final List<RouteResource> list = lrp.getResources();
-			if (list == null || list.isEmpty()) {
-				// no route defined; the target cannot be reached anyway
-				return Mono.empty();
+		return this.timed(SCAN_STAGE_PROCESS_STATS, () -> this.cfAccessor.retrieveProcessStatistics(osaVector.getProcessId()))
+				.map(stats -> this.applyProcessStatistics(osaVector, stats, skippedInstances))
+				.onErrorResume(e -> {
+					// without the statistics, we cannot tell which instances are running; better scrape all of them
+					log.warn("Unable to retrieve the statistics of process {} of application {}; assuming that all instances are running and reachable via their route", 
+							osaVector.getProcessId(), osaVector.getTarget().getApplicationName(), e);
+					return Mono.just(osaVector);
+				})
+				// NB: This drops the current target, if none of its instances is running
+				.filter(v -> v.getInstanceIndexes() == null || !v.getInstanceIndexes().isEmpty());
+	}
+	
+	private OSAVector applyProcessStatistics(OSAVector osaVector, GetProcessStatisticsResponse stats, Map<ProcessState, AtomicInteger> skippedInstances) {
+		final List<ProcessStatisticsResource> resources = stats.getResources();
+		if (resources == null) {
+			return osaVector;
+		}
+		
+		final List<Integer> runningIndexes = new ArrayList<>(resources.size());
+		final Map<Integer, String> cellAddresses = new HashMap<>();
+		resources.stream().sorted(Comparator.comparing(ProcessStatisticsResource::getIndex)).forEach(stat -> {
+			if (stat.getState() != ProcessState.RUNNING) {
+				if (this.runningInstancesOnly) {
+					log.debug("Skipping instance {} of application {}, as it is in state {}", stat.getIndex(), osaVector.getTarget().getApplicationName(), stat.getState());
+					skippedInstances.computeIfAbsent(stat.getState(), key -> new AtomicInteger()).incrementAndGet();
+				}
+				return;
 			}
 			
-			final List<String> urls = list.stream().map(RouteResource::getUrl).toList();
-			@NonNull
-			final List<Pattern> preferredRouteRegexPatterns = osaVector.getTarget().getOriginalTarget().getPreferredRouteRegexPatterns();
-			final String url = this.determineApplicationRoute(urls, preferredRouteRegexPatterns);
+			runningIndexes.add(stat.getIndex());
 			
-			if (url == null) {
-				// no suitable route found
-				return Mono.empty();
+			final String cellAddress = this.determineCellAddress(osaVector, stat);
+			if (cellAddress != null) {
+				cellAddresses.put(stat.getIndex(), cellAddress);
 			}
-			
-			osaVector.setAccessURL(url);
-			
-			// determine domain
-			final RouteResource selectedRouteResource = list.stream().filter(e -> e.getUrl().equals(url)).findFirst().get();
-			final String domainId = selectedRouteResource.getRelationships().getDomain().getData().getId();
-			osaVector.setDomainId(domainId);
-			
-			return Mono.just(osaVector);
 		});
 		
+		if (this.runningInstancesOnly) {
+			osaVector.setInstanceIndexes(runningIndexes);
+		}
+		
+		if (this.directToCell && !useOverrideRouteAndPath(osaVector)) {
+			osaVector.setCellAddresses(cellAddresses);
+		}
+		return osaVector;
+	}
+	
+	private String determineCellAddress(OSAVector osaVector, ProcessStatisticsResource stat) {
+		if (stat.getHost() == null || stat.getHost().isEmpty() || stat.getInstancePorts() == null) {
+			return null;
+		}
+		
+		final int containerPort = osaVector.getInternalRoutePort() != 0 ? osaVector.getInternalRoutePort() : this.defaultInternalRoutePort;
+		
+		// the external port is the port on the Diego cell, which is mapped to the port of the container
+		return stat.getInstancePorts().stream()
+				.filter(pm -> pm.getInternal() != null && pm.getInternal() == containerPort)
+				.map(PortMapping::getExternal)
+				.filter(port -> port != null && port != 0)
+				.findFirst()
+				.map(port -> String.format("%s:%d", stat.getHost(), port))
+				.orElse(null);
+	}
+	
+	private Mono<OSAVector> applyRoutes(OSAVector osaVector, ListRoutesResponse lrp) {
+		final List<RouteResource> list = lrp.getResources();
+		if (list == null || list.isEmpty()) {
+			// no route defined; the target cannot be reached anyway
+			return Mono.empty();
+		}
+		
+		final List<String> urls = list.stream().map(RouteResource::getUrl).toList();
+		@NonNull
+		final List<Pattern> preferredRouteRegexPatterns = osaVector.getTarget().getOriginalTarget().getPreferredRouteRegexPatterns();
+		final String url = this.determineApplicationRoute(urls, preferredRouteRegexPatterns);
+		
+		if (url == null) {
+			// no suitable route found
+			return Mono.empty();
+		}
+		
+		osaVector.setAccessURL(url);
+		
+		// determine domain
+		final RouteResource selectedRouteResource = list.stream().filter(e -> e.getUrl().equals(url)).findFirst().get();
+		final String domainId = selectedRouteResource.getRelationships().getDomain().getData().getId();
+		osaVector.setDomainId(domainId);
+		
+		return Mono.just(osaVector);
+	}
+	
+	private Mono<OSAVector> applyDomains(OSAVector v, List<DomainResource> domains) {
+		if (domains.size() == 0 || v.getDomainId() == null) {
+			// NB: This drops the current target!
+			return Mono.empty();
+		}
 
-		Flux<List<DomainResource>> domainFlux = urlDomainOSAVectorFlux.flatMapSequential(v -> this.cfAccessor.retrieveAllDomainsV3(v.getOrgId()).map(ListOrganizationDomainsResponse::getResources));
-		Flux<OSAVector> osaVectorDomainApplicationFlux = Flux.zip(urlDomainOSAVectorFlux, domainFlux).flatMap(tuple -> {
-			final OSAVector v = tuple.getT1();
-			final List<DomainResource> domains = tuple.getT2();
+		if (useOverrideRouteAndPath(v)) {
+			v.setInternal(true);
+		}
+		// we should only run this if we found a domain in the above step
+		// this is to make sure we have compatibility with existing behaviour
+		else if (!v.getDomainId().isEmpty()) {
+			try {
+				final DomainResource domain = domains.stream()
+						.filter(r -> r.getId().equals(v.getDomainId()))
+						.findFirst()
+						.get();
+				
+				v.setInternal(domain.isInternal());
+			} catch (Exception e) {
+				log.warn("Unable to find matching domain for the domain with id {}", v.getDomainId());
+			}
+		}
 
-			if (domains.size() == 0 || v.getDomainId() == null) {
-				// NB: This drops the current target!
-				return Mono.empty();
+		return Mono.just(v);
+	}
+	
+	private List<Instance> createInstances(OSAVector v) {
+		List<Integer> indexes = v.getInstanceIndexes();
+		if (indexes == null) {
+			indexes = new ArrayList<>(v.getNumberOfInstances());
+			for (int i = 0; i < v.getNumberOfInstances(); i++) {
+				indexes.add(i);
 			}
+		}
+		
+		final List<Instance> instances = new ArrayList<>(indexes.size());
+		for (int i : indexes) {
+			final Instance inst = new Instance(v.getTarget(), String.format("%s:%d", v.getApplicationId(), i), v.getAccessURL(), v.isInternal());
 
 			if (useOverrideRouteAndPath(v)) {
-				v.setInternal(true);
+				inst.setAccessUrl(this.formatAccessURL(v.getTarget().getProtocol(), v.getTarget().getOriginalTarget().getOverrideRouteAndPath(), v.getTarget().getPath()));
 			}
-			// we should only run this if we found a domain in the above step
-			// this is to make sure we have compatibility with existing behaviour
-			else if (!v.getDomainId().isEmpty()) {
-				try {
-					final DomainResource domain = domains.stream()
-							.filter(r -> r.getId().equals(v.getDomainId()))
-							.findFirst()
-							.get();
-					
-					v.setInternal(domain.isInternal());
-				} catch (Exception e) {
-					log.warn("Unable to find matching domain for the domain with id {}", v.getDomainId());
-				}
+			else if (v.isInternal()) {
+				inst.setAccessUrl(this.formatInternalAccessURL(v.getAccessURL(), v.getTarget().getPath(), v.getInternalRoutePort(), i));
+			} else {
+				inst.setAccessUrl(this.formatAccessURL(v.getTarget().getProtocol(), v.getAccessURL(), v.getTarget().getPath()));
 			}
-
-			return Mono.just(v);
-		});
-
-
-		// perform pre-filtering, if available
-		if (applicationIdFilter != null) {
-			osaVectorDomainApplicationFlux = osaVectorDomainApplicationFlux.filter(v -> applicationIdFilter.test(v.getApplicationId()));
-		}
-
-		Flux<Instance> instancesFlux = osaVectorDomainApplicationFlux.flatMapSequential(v -> {
-			final List<Instance> instances = new ArrayList<>(v.getNumberOfInstances());
-			for (int i = 0; i < v.numberOfInstances; i++) {
-				final Instance inst = new Instance(v.getTarget(), String.format("%s:%d", v.getApplicationId(), i), v.getAccessURL(), v.isInternal());
-
-				if (useOverrideRouteAndPath(v)) {
-					inst.setAccessUrl(this.formatAccessURL(v.getTarget().getProtocol(), v.getTarget().getOriginalTarget().getOverrideRouteAndPath(), v.getTarget().getPath()));
-				}
-				else if (v.isInternal()) {
-					inst.setAccessUrl(this.formatInternalAccessURL(v.getAccessURL(), v.getTarget().getPath(), v.getInternalRoutePort(), i));
-				} else {
-					inst.setAccessUrl(this.formatAccessURL(v.getTarget().getProtocol(), v.getAccessURL(), v.getTarget().getPath()));
-				}
-
-				instances.add(inst);
+			
+			final String cellAddress = v.getCellAddresses() == null ? null : v.getCellAddresses().get(i);
+			if (cellAddress != null) {
+				// the container port is reached without any TLS termination
+				inst.setDirectAccessUrl(this.formatAccessURL("http", cellAddress, v.getTarget().getPath()));
 			}
 
-			return Flux.fromIterable(instances);
-		});
-
-		// perform pre-filtering, if available
-		if (instanceFilter != null) {
-			instancesFlux = instancesFlux.filter(instanceFilter);
+			instances.add(inst);
 		}
+		
+		return instances;
+	}
 
-		Mono<List<Instance>> listInstancesMono = instancesFlux.collectList();
-
-		List<Instance> result = null;
-		try {
-			result = listInstancesMono.block();
-		} catch (RuntimeException e) {
-			log.error("Error during retrieving the instances of a list of targets", e);
-			result = null;
+	private Mono<ListProcessesResponse> retrieveWebProcesses(OSAVector v) {
+		final String applicationId = v.getTarget().getApplicationId();
+		
+		if (!this.spaceLevelRetrieval) {
+			return this.cfAccessor.retrieveWebProcessesForAppId(applicationId);
 		}
-
-		return result;
+		
+		/*
+		 * One request for all applications in the space is cheaper than
+		 * one (aggregated) request per application for large spaces.
+		 */
+		return this.cfAccessor.retrieveWebProcessesForAppIdInSpace(v.getSpaceId(), applicationId);
+	}
+	
+	private Mono<ListRoutesResponse> retrieveRoutes(OSAVector v) {
+		final String applicationId = v.getTarget().getApplicationId();
+		
+		if (!this.spaceLevelRetrieval) {
+			return this.cfAccessor.retrieveRoutesForAppId(applicationId);
+		}
+		
+		return this.cfAccessor.retrieveRoutesForAppIdInSpace(v.getSpaceId(), applicationId);
 	}
 
 	private boolean useOverrideRouteAndPath(OSAVector v) {
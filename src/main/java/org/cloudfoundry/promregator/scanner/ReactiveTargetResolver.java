@@ -2,24 +2,40 @@ package org.cloudfoundry.promregator.scanner;
 
 import static org.cloudfoundry.promregator.cfaccessor.ReactiveCFAccessorImpl.INVALID_APPLICATIONS_RESPONSE;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.NoSuchElementException;
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.cloudfoundry.client.v3.applications.ApplicationResource;
 import org.cloudfoundry.client.v3.applications.ApplicationState;
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.organizations.OrganizationResource;
+import org.cloudfoundry.client.v3.spaces.SpaceResource;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
 import org.cloudfoundry.promregator.config.Target;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 public class ReactiveTargetResolver implements TargetResolver {
 	private static final Logger log = LoggerFactory.getLogger(ReactiveTargetResolver.class);
@@ -30,6 +46,21 @@ public class ReactiveTargetResolver implements TargetResolver {
 	@Autowired
 	private CFAccessor cfAccessor;
 
+	/**
+	 * if enabled, the names of organizations, spaces and applications of all targets are looked up
+	 * in batches using the <code>names</code> filter of the Cloud Controller, instead of filtering
+	 * lists of all resources locally.
+	 */
+	@Value("${cf.resolver.serverSideFiltering:false}")
+	private boolean serverSideFiltering;
+
+	private volatile ResolutionPlan lastResolutionPlan;
+
+	/**
+	 * identifies a request for the applications of a space, which may be shared by multiple targets
+	 */
+	private static record ApplicationQuery(String orgId, String spaceId, String labelSelector) {}
+
 	private static class IntermediateTarget {
 		private Target configTarget;
 		private String resolvedOrgName;
@@ -39,6 +70,7 @@ public class ReactiveTargetResolver implements TargetResolver {
 		private String resolvedApplicationName;
 		private String resolvedApplicationId;
 		private String resolvedMetricsPath;
+		private Map<String, String> resolvedAnnotations;
 		
 		public IntermediateTarget() {
 			super();
@@ -53,6 +85,7 @@ public class ReactiveTargetResolver implements TargetResolver {
 			this.resolvedApplicationName = source.resolvedApplicationName;
 			this.resolvedApplicationId = source.resolvedApplicationId;
 			this.resolvedMetricsPath = source.resolvedMetricsPath;
+			this.resolvedAnnotations = source.resolvedAnnotations;
 		}
 
 		public IntermediateTarget(Target target) {
@@ -219,236 +252,447 @@ public class ReactiveTargetResolver implements TargetResolver {
 		public void setResolvedMetricsPath(String resolvedMetricsPath) {
 			this.resolvedMetricsPath = resolvedMetricsPath;
 		}
+
+		/**
+		 * @return the annotations of the resolved application; <code>null</code>, if the application has no annotations
+		 */
+		public Map<String, String> getResolvedAnnotations() {
+			return resolvedAnnotations;
+		}
+
+		/**
+		 * @param application the application resolved, from which the annotations shall be taken
+		 */
+		public void setResolvedAnnotations(ApplicationResource application) {
+			this.resolvedAnnotations = application.getMetadata() == null ? null : application.getMetadata().getAnnotations();
+		}
 		
 		
 	}
 
 	@Override
 	public List<ResolvedTarget> resolveTargets(List<Target> configTargets) {
-		return Flux.fromIterable(configTargets)
-				.parallel()
-				.runOn(Schedulers.parallel())
-				.map(IntermediateTarget::new)
-				.flatMap(this::resolveOrg)
-				.log(log.getName() + ".resolveOrg")
-				.flatMap(this::resolveSpace)
-				.log(log.getName() + ".resolveSpace")
-				.flatMap (this::resolveApplication)
-				.log(log.getName() + ".resolveApplication")
-				.flatMap(this::resolveAnnotations)
-				.log(log.getName() + ".resolveAnnotations")
+		final List<IntermediateTarget> intermediateTargets = configTargets.stream().map(IntermediateTarget::new).toList();
+		final ResolutionPlan plan = new ResolutionPlan(configTargets.size());
+		
+		/*
+		 * The targets are resolved level by level: on each level, the targets are grouped such that 
+		 * each distinct lookup is sent only once to the Cloud Controller. Its result is then fanned out 
+		 * to all targets of the group, classifying each resource against all targets in a single pass.
+		 */
+		final List<ResolvedTarget> result = this.resolveOrgs(intermediateTargets, plan)
+				.flatMap(list -> this.resolveSpaces(list, plan))
+				.flatMap(list -> this.resolveApplications(list, plan))
+				.map(list -> inOrderOfConfiguration(list, configTargets))
+				.flatMapMany(Flux::fromIterable)
+				.flatMapSequential(this::resolveAnnotations)
 				.map(IntermediateTarget::toResolvedTarget)
-				.sequential()
 				.distinct().collectList()
-				.doOnNext(it -> log.debug("Successfully resolved {} configuration targets to {} resolved targets", configTargets.size(), it.size()))
+				.doOnNext(it -> log.debug("Successfully resolved {} configuration targets to {} resolved targets using {} lookups ({} saved)", 
+						configTargets.size(), it.size(), plan.getLookupCount(), plan.getLookupsSaved()))
+				.contextWrite(RequestPriority.contextOfCurrentThread())
 				.block();
+		
+		this.lastResolutionPlan = plan;
+		return result;
+	}
+	
+	@Override
+	public ResolutionPlan getLastResolutionPlan() {
+		return this.lastResolutionPlan;
 	}
 
-	private Flux<IntermediateTarget> resolveOrg(IntermediateTarget it) {
+	private Mono<List<IntermediateTarget>> resolveOrgs(List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
 		/* NB: Now we have to consider three cases:
 		 * Case 1: both orgName and orgRegex is empty => select all orgs
 		 * Case 2: orgName is null, but orgRegex is filled => filter all orgs with the regex
 		 * Case 3: orgName is filled, but orgRegex is null => select a single org
 		 * In cases 1 and 2, we need the list of all orgs on the platform.
 		 */
+		final Map<Boolean, List<IntermediateTarget>> partitions = intermediateTargets.stream()
+				.collect(Collectors.partitioningBy(it -> isSingleOrg(it.getConfigTarget())));
 		
-		if (it.getConfigTarget().getOrgRegex() == null && it.getConfigTarget().getOrgName() != null) {
-			// Case 3: we have the orgName, but we also need its id
-			Mono<IntermediateTarget> itMono = this.cfAccessor.retrieveOrgIdV3(it.getConfigTarget().getOrgName())
-					.map(org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse::getResources)
-					.flatMap(resList -> {
-						if (resList == null || resList.isEmpty()) {
-							return Mono.empty();
-						}
-						
-						return Mono.just(resList.get(0));
-					})
-					.map(res -> {
-						it.setResolvedOrgName(res.getName());
-						it.setResolvedOrgId(res.getId());
-						return it;
-					})
-					.doOnError(e -> log.warn("Error on retrieving org id for org '{}'", it.getConfigTarget().getOrgName(), e))
-					.onErrorResume(__ -> Mono.empty());
-			
-			return itMono.flux();
-		}
+		// Case 3: we have the orgName, but we also need its id
+		final List<IntermediateTarget> singleOrgTargets = partitions.get(true);
+		final Mono<List<IntermediateTarget>> singleOrgsMono = this.serverSideFiltering
+				? this.resolveOrgsByNames(singleOrgTargets, plan)
+				: this.resolveSingleOrgs(singleOrgTargets, plan);
 		
 		// Case 1 & 2: Get all orgs from the platform
-		Mono<org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse> responseMono = this.cfAccessor.retrieveAllOrgIdsV3();
-
-		Flux<org.cloudfoundry.client.v3.organizations.OrganizationResource> orgResFlux = responseMono.map(org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse::getResources)
-			.flatMapMany(Flux::fromIterable);
-		
-		if (it.getConfigTarget().getOrgRegex() != null) {
-			// Case 2
-			final Pattern filterPattern = Pattern.compile(it.getConfigTarget().getOrgRegex(), Pattern.CASE_INSENSITIVE);
+		final List<IntermediateTarget> multipleOrgTargets = partitions.get(false);
+		Mono<List<IntermediateTarget>> matchingOrgsMono = Mono.just(Collections.emptyList());
+		if (!multipleOrgTargets.isEmpty()) {
+			final NameMatcher<IntermediateTarget> matcher = matcherOf(multipleOrgTargets, Target::getOrgName, Target::getOrgRegexPattern);
+			plan.addLookup(ResolutionPlan.LOOKUP_ALL_ORGS, "*", multipleOrgTargets.size());
 			
-			orgResFlux = orgResFlux.filter(orgRes -> {
-				Matcher m = filterPattern.matcher(orgRes.getName());
-				return m.matches();
-			});
+			matchingOrgsMono = this.cfAccessor.retrieveAllOrgIdsV3()
+					.map(response -> classify(matcher, response.getResources(), OrganizationResource::getName, (it, orgRes) -> {
+						it.setResolvedOrgId(orgRes.getId());
+						it.setResolvedOrgName(orgRes.getName());
+					}))
+					.defaultIfEmpty(Collections.emptyList());
 		}
 		
-		return orgResFlux.map(orgRes -> {
-			IntermediateTarget itnew = new IntermediateTarget(it);
-			itnew.setResolvedOrgId(orgRes.getId());
-			itnew.setResolvedOrgName(orgRes.getName());
-			
-			return itnew;
-		});
+		return Mono.zip(singleOrgsMono, matchingOrgsMono, ReactiveTargetResolver::concat);
+	}
+	
+	private Mono<List<IntermediateTarget>> resolveSingleOrgs(List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
+		final Map<String, List<IntermediateTarget>> targetsByOrgName = intermediateTargets.stream()
+				.collect(Collectors.groupingBy(it -> it.getConfigTarget().getOrgName().toLowerCase(Locale.ENGLISH), LinkedHashMap::new, Collectors.toList()));
+		
+		return Flux.fromIterable(targetsByOrgName.entrySet())
+				.flatMapSequential(entry -> {
+					final List<IntermediateTarget> group = entry.getValue();
+					final String orgName = group.get(0).getConfigTarget().getOrgName();
+					plan.addLookup(ResolutionPlan.LOOKUP_ORG, entry.getKey(), group.size());
+					
+					return this.retrieveOrg(orgName).map(res -> {
+						for (IntermediateTarget it : group) {
+							it.setResolvedOrgName(res.getName());
+							it.setResolvedOrgId(res.getId());
+						}
+						return group;
+					});
+				})
+				.flatMapIterable(Function.identity())
+				.collectList();
+	}
+	
+	private Mono<OrganizationResource> retrieveOrg(String orgName) {
+		return this.cfAccessor.retrieveOrgIdV3(orgName)
+				.map(org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse::getResources)
+				.flatMap(resList -> {
+					if (resList == null || resList.isEmpty()) {
+						return Mono.empty();
+					}
+					
+					return Mono.just(resList.get(0));
+				})
+				.doOnError(e -> log.warn("Error on retrieving org id for org '{}'", orgName, e))
+				.onErrorResume(__ -> Mono.empty());
 	}
 	
-	private Flux<IntermediateTarget> resolveSpace(IntermediateTarget it) {
+	private Mono<List<IntermediateTarget>> resolveSpaces(List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
 		/* NB: Now we have to consider three cases:
 		 * Case 1: both spaceName and spaceRegex is empty => select all spaces (within the org)
 		 * Case 2: spaceName is null, but spaceRegex is filled => filter all spaces with the regex
 		 * Case 3: spaceName is filled, but spaceRegex is null => select a single space
 		 * In cases 1 and 2, we need the list of all spaces in the org.
 		 */
+		final Map<Boolean, List<IntermediateTarget>> partitions = intermediateTargets.stream()
+				.collect(Collectors.partitioningBy(it -> isSingleSpace(it.getConfigTarget())));
 		
-		if (it.getConfigTarget().getSpaceRegex() == null && it.getConfigTarget().getSpaceName() != null) {
-			// Case 3: we have the spaceName, but we also need its id
-			Mono<IntermediateTarget> itMono = this.cfAccessor.retrieveSpaceIdV3(it.getResolvedOrgId(), it.getConfigTarget().getSpaceName())
-					.map(org.cloudfoundry.client.v3.spaces.ListSpacesResponse::getResources)
-					.flatMap(resList -> {
-						if (resList == null || resList.isEmpty()) {
-							return Mono.empty();
-						}
-						
-						return Mono.just(resList.get(0));
-					})
-					.map(res -> {
-						it.setResolvedSpaceName(res.getName());
-						it.setResolvedSpaceId(res.getId());
-						return it;
-					}).doOnError(e -> log.warn("Error on retrieving space id for org '{}' and space '{}'", it.getResolvedOrgName(), it.getConfigTarget().getSpaceName(), e))
-					.onErrorResume(__ -> Mono.empty());
-			
-			return itMono.flux();
-		}
+		// Case 3: we have the spaceName, but we also need its id
+		final List<IntermediateTarget> singleSpaceTargets = partitions.get(true);
+		final Mono<List<IntermediateTarget>> singleSpacesMono = this.serverSideFiltering
+				? this.resolveSpacesByNames(singleSpaceTargets, plan)
+				: this.resolveSingleSpaces(singleSpaceTargets, plan);
 		
-		// Case 1 & 2: Get all spaces in the current org
-		Mono<org.cloudfoundry.client.v3.spaces.ListSpacesResponse> responseMono = this.cfAccessor.retrieveSpaceIdsInOrgV3(it.getResolvedOrgId());
-
-		Flux<org.cloudfoundry.client.v3.spaces.SpaceResource> spaceResFlux = responseMono.map(org.cloudfoundry.client.v3.spaces.ListSpacesResponse::getResources)
-			.flatMapMany(Flux::fromIterable);
+		// Case 1 & 2: Get all spaces of each org only once
+		final Map<String, List<IntermediateTarget>> targetsByOrgId = partitions.get(false).stream()
+				.collect(Collectors.groupingBy(IntermediateTarget::getResolvedOrgId, LinkedHashMap::new, Collectors.toList()));
 		
-		if (it.getConfigTarget().getSpaceRegex() != null) {
-			// Case 2
-			final Pattern filterPattern = Pattern.compile(it.getConfigTarget().getSpaceRegex(), Pattern.CASE_INSENSITIVE);
-			
-			spaceResFlux = spaceResFlux.filter(spaceRes -> {
-				Matcher m = filterPattern.matcher(spaceRes.getName());
-				return m.matches();
-			});
-		}
+		final Mono<List<IntermediateTarget>> matchingSpacesMono = Flux.fromIterable(targetsByOrgId.entrySet())
+				.flatMapSequential(entry -> {
+					final NameMatcher<IntermediateTarget> matcher = matcherOf(entry.getValue(), Target::getSpaceName, Target::getSpaceRegexPattern);
+					plan.addLookup(ResolutionPlan.LOOKUP_ALL_SPACES_IN_ORG, entry.getKey(), entry.getValue().size());
+					
+					return this.cfAccessor.retrieveSpaceIdsInOrgV3(entry.getKey())
+							.map(response -> classify(matcher, response.getResources(), SpaceResource::getName, (it, spaceRes) -> {
+								it.setResolvedSpaceId(spaceRes.getId());
+								it.setResolvedSpaceName(spaceRes.getName());
+							}));
+				})
+				.flatMapIterable(Function.identity())
+				.collectList();
 		
-		return spaceResFlux.map(spaceRes -> {
-			IntermediateTarget itnew = new IntermediateTarget(it);
-			itnew.setResolvedSpaceId(spaceRes.getId());
-			itnew.setResolvedSpaceName(spaceRes.getName());
-			
-			return itnew;
-		});
+		return Mono.zip(singleSpacesMono, matchingSpacesMono, ReactiveTargetResolver::concat);
+	}
+	
+	private Mono<List<IntermediateTarget>> resolveSingleSpaces(List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
+		final Map<String, List<IntermediateTarget>> targetsBySpace = intermediateTargets.stream()
+				.collect(Collectors.groupingBy(it -> it.getResolvedOrgId() + "/" + it.getConfigTarget().getSpaceName().toLowerCase(Locale.ENGLISH), 
+						LinkedHashMap::new, Collectors.toList()));
+		
+		return Flux.fromIterable(targetsBySpace.entrySet())
+				.flatMapSequential(entry -> {
+					final List<IntermediateTarget> group = entry.getValue();
+					final IntermediateTarget first = group.get(0);
+					plan.addLookup(ResolutionPlan.LOOKUP_SPACE, entry.getKey(), group.size());
+					
+					return this.retrieveSpace(first.getResolvedOrgId(), first.getResolvedOrgName(), first.getConfigTarget().getSpaceName()).map(res -> {
+						for (IntermediateTarget it : group) {
+							it.setResolvedSpaceName(res.getName());
+							it.setResolvedSpaceId(res.getId());
+						}
+						return group;
+					});
+				})
+				.flatMapIterable(Function.identity())
+				.collectList();
+	}
+	
+	private Mono<SpaceResource> retrieveSpace(String orgId, String orgName, String spaceName) {
+		return this.cfAccessor.retrieveSpaceIdV3(orgId, spaceName)
+				.map(org.cloudfoundry.client.v3.spaces.ListSpacesResponse::getResources)
+				.flatMap(resList -> {
+					if (resList == null || resList.isEmpty()) {
+						return Mono.empty();
+					}
+					
+					return Mono.just(resList.get(0));
+				})
+				.doOnError(e -> log.warn("Error on retrieving space id for org '{}' and space '{}'", orgName, spaceName, e))
+				.onErrorResume(__ -> Mono.empty());
+	}
+	
+	private Mono<List<IntermediateTarget>> resolveApplications(List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
+		// all targets, which refer to the same space (and label selector), share the list of applications
+		final Map<ApplicationQuery, List<IntermediateTarget>> targetsByQuery = intermediateTargets.stream()
+				.collect(Collectors.groupingBy(it -> new ApplicationQuery(it.getResolvedOrgId(), it.getResolvedSpaceId(), it.getConfigTarget().getLabelSelector()), 
+						LinkedHashMap::new, Collectors.toList()));
+		
+		return Flux.fromIterable(targetsByQuery.entrySet())
+				.flatMapSequential(entry -> {
+					final IntermediateTarget first = entry.getValue().get(0);
+					
+					return this.retrieveApplications(entry.getKey(), entry.getValue(), plan)
+							.map(response -> {
+								if (response == INVALID_APPLICATIONS_RESPONSE) {
+									logEmptyTarget.debug("Your foundation does not support V3 APIs; no applications could be resolved in org '{}' and space '{}'", 
+											first.getResolvedOrgName(), first.getResolvedSpaceName());
+									return Collections.<IntermediateTarget>emptyList();
+								}
+								return this.selectApplications(entry.getValue(), response);
+							})
+							.doOnError(e -> log.warn("Error on retrieving list of applications in org '{}' and space '{}'", first.getResolvedOrgName(), first.getResolvedSpaceName(), e))
+							.onErrorResume(__ -> Mono.empty());
+				})
+				.flatMapIterable(Function.identity())
+				.collectList();
 	}
 	
-	private Flux<IntermediateTarget> resolveApplication(IntermediateTarget it) {
+	private List<IntermediateTarget> selectApplications(List<IntermediateTarget> intermediateTargets, ListApplicationsResponse response) {
 		/* NB: Now we have to consider three cases:
 		 * Case 1: both applicationName and applicationRegex is empty => select all applications (in the space)
 		 * Case 2: applicationName is null, but applicationRegex is filled => filter all applications with the regex
 		 * Case 3: applicationName is filled, but applicationRegex is null => select a single application
-		 * In cases 1 and 2, we need the list of all applications in the space.
+		 * All cases are served from the same list of applications.
 		 */
+		final NameMatcher<IntermediateTarget> matcher = matcherOf(intermediateTargets, Target::getApplicationName, Target::getApplicationRegexPattern);
 		
-		if (it.getConfigTarget().getApplicationRegex() == null && it.getConfigTarget().getApplicationName() != null) {
-			// Case 3: we have the applicationName, but we also need its id
+		final Set<IntermediateTarget> targetsFound = new HashSet<>();
+		final List<IntermediateTarget> result = new ArrayList<>();
+		for (ApplicationResource appRes : response.getResources()) {
+			final List<IntermediateTarget> matchingTargets = matcher.match(appRes.getName());
+			if (matchingTargets.isEmpty()) {
+				continue;
+			}
 			
-			String appNameToSearchFor = it.getConfigTarget().getApplicationName().toLowerCase(Locale.ENGLISH);
+			targetsFound.addAll(matchingTargets);
 			
-			Mono<IntermediateTarget> itMono = this.cfAccessor.retrieveAllApplicationsInSpaceV3(it.getResolvedOrgId(), it.getResolvedSpaceId())
-					.map(ListApplicationsResponse::getResources)
-					.flatMapMany(Flux::fromIterable)
-					.filter(appResource -> appNameToSearchFor.equals(appResource.getName().toLowerCase(Locale.ENGLISH)))
-					.single()
-					.doOnError(e -> {
-						if (e instanceof NoSuchElementException) {
-							logEmptyTarget.warn("Application id could not be found for org '{}', space '{}' and application '{}'. Check your configuration of targets; skipping it for now; this message may be muted by setting the log level of the emitting logger accordingly!", it.getResolvedOrgName(), it.getResolvedSpaceName(), it.getConfigTarget().getApplicationName());
-						}
-					})
-					.onErrorResume(e -> Mono.empty())
-					.filter( res -> this.isApplicationInScrapableState(res.getState()))
-					.map(res -> {
-						it.setResolvedApplicationName(res.getName());
-						it.setResolvedApplicationId(res.getId());
-						return it;
-					}).doOnError(e ->
-						log.warn("Error on retrieving application id for org '{}', space '{}' and application '{}'", it.getResolvedOrgName(), it.getResolvedSpaceName(), it.getConfigTarget().getApplicationName(), e)
-					)
-					.onErrorResume(__ -> Mono.empty());
+			if (!this.isApplicationInScrapableState(appRes.getState())) {
+				continue;
+			}
 			
-			return itMono.flux();
+			for (IntermediateTarget it : matchingTargets) {
+				IntermediateTarget itnew = new IntermediateTarget(it);
+				itnew.setResolvedApplicationId(appRes.getId());
+				itnew.setResolvedApplicationName(appRes.getName());
+				itnew.setResolvedAnnotations(appRes);
+				result.add(itnew);
+			}
 		}
 		
-		// Case 1 & 2: Get all applications in the current space
-		Mono<ListApplicationsResponse> responseMono = this.cfAccessor.retrieveAllApplicationsInSpaceV3(it.getResolvedOrgId(), it.getResolvedSpaceId());
-
-		Flux<ApplicationResource> appResFlux = responseMono.map(ListApplicationsResponse::getResources)
-			.flatMapMany(Flux::fromIterable)
-			.doOnError(e -> log.warn("Error on retrieving list of applications in org '{}' and space '{}'", it.getResolvedOrgName(), it.getResolvedSpaceName(), e))
-			.onErrorResume(__ -> Flux.empty());
-		
-		if (it.getConfigTarget().getApplicationRegex() != null) {
-			// Case 2
-			final Pattern filterPattern = Pattern.compile(it.getConfigTarget().getApplicationRegex(), Pattern.CASE_INSENSITIVE);
-			
-			appResFlux = appResFlux.filter(appRes -> {
-				Matcher m = filterPattern.matcher(appRes.getName());
-				return m.matches();
-			});
+		for (IntermediateTarget it : intermediateTargets) {
+			if (isSingleApplication(it.getConfigTarget()) && !targetsFound.contains(it)) {
+				logEmptyTarget.warn("Application id could not be found for org '{}', space '{}' and application '{}'. Check your configuration of targets; skipping it for now; this message may be muted by setting the log level of the emitting logger accordingly!", it.getResolvedOrgName(), it.getResolvedSpaceName(), it.getConfigTarget().getApplicationName());
+			}
 		}
 		
-		Flux<ApplicationResource> scrapableFlux = appResFlux.filter(appRes ->
-				this.isApplicationInScrapableState(appRes.getState()));
+		return result;
+	}
+
+	/*
+	 * The targets are grouped by lookup on each level; this sorts them back into the order of 
+	 * the configured targets they originate from. The order of the resources found for the same
+	 * configured target is retained (sort is stable).
+	 */
+	private static List<IntermediateTarget> inOrderOfConfiguration(List<IntermediateTarget> intermediateTargets, List<Target> configTargets) {
+		// NB: Target does not implement equals(); we are looking for the very same object here
+		final Map<Target, Integer> indexOfTarget = new IdentityHashMap<>(configTargets.size());
+		for (int i = 0; i < configTargets.size(); i++) {
+			indexOfTarget.putIfAbsent(configTargets.get(i), i);
+		}
 		
-		return scrapableFlux.map(appRes -> {
-			IntermediateTarget itnew = new IntermediateTarget(it);
-			itnew.setResolvedApplicationId(appRes.getId());
-			itnew.setResolvedApplicationName(appRes.getName());
-			
-			return itnew;
-		});
+		final List<IntermediateTarget> result = new ArrayList<>(intermediateTargets);
+		result.sort(Comparator.comparing(it -> indexOfTarget.get(it.getConfigTarget())));
+		return result;
 	}
 
 	private Flux<IntermediateTarget> resolveAnnotations(IntermediateTarget it) {
 		if (Boolean.TRUE.equals(it.getConfigTarget().getKubernetesAnnotations())) {
-			Mono<ListApplicationsResponse> response = this.cfAccessor
-				.retrieveAllApplicationsInSpaceV3(it.getResolvedOrgId(), it.getResolvedSpaceId());
-
-			return response.flatMap(res -> {
-				if (res == null || INVALID_APPLICATIONS_RESPONSE == res) {
-					logEmptyTarget.debug("Your foundation does not support V3 APIs, yet you have enabled Kubernetes Annotation filtering. Ignoring annotation filtering.");
-					return Mono.just(it);
-				}
-
-				return res.getResources().stream()
-						.filter(app -> it.getResolvedApplicationName().equals(app.getName().toLowerCase(Locale.ENGLISH)))
-						.filter(app -> this.isApplicationInScrapableState(app.getState()))
-						.filter(app -> app.getMetadata() != null)
-						.filter(app -> app.getMetadata().getAnnotations() != null)
-						.filter(app -> app.getMetadata().getAnnotations().getOrDefault(PROMETHEUS_IO_SCRAPE, "false").equals("true"))
-						.map(app -> {
-							it.setResolvedMetricsPath(app.getMetadata().getAnnotations().getOrDefault(PROMETHEUS_IO_PATH, null));
-							return Mono.just(it);
-						}).findFirst().orElseGet(Mono::empty);
-			}).doOnError(e ->
-				 log.warn("Error on retrieving application annotations for org '{}', space '{}' and application '{}'.",
-						it.getResolvedOrgName(), it.getResolvedSpaceName(), it.getConfigTarget().getApplicationName(), e)).flux();
+			/*
+			 * the annotations have already been retrieved together with the application; thus, unlike in former
+			 * versions, there is no separate lookup which may be unsupported by the foundation (see resolveApplications)
+			 */
+			final Map<String, String> annotations = it.getResolvedAnnotations();
+			if (annotations == null || !"true".equals(annotations.getOrDefault(PROMETHEUS_IO_SCRAPE, "false"))) {
+				return Flux.empty();
+			}
+			
+			it.setResolvedMetricsPath(annotations.get(PROMETHEUS_IO_PATH));
 		}
 
 		return Mono.just(it).flux();
 	}
 
+	private Mono<List<IntermediateTarget>> resolveOrgsByNames(List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
+		if (intermediateTargets.isEmpty()) {
+			return Mono.just(Collections.emptyList());
+		}
+		
+		final Set<String> orgNames = intermediateTargets.stream()
+				.map(it -> it.getConfigTarget().getOrgName())
+				.collect(Collectors.toCollection(TreeSet::new));
+		plan.addLookup(ResolutionPlan.LOOKUP_ORGS_BY_NAMES, orgNames.toString(), intermediateTargets.size());
+		
+		return this.cfAccessor.retrieveOrgIdsV3(orgNames)
+				.map(response -> indexByName(response.getResources(), OrganizationResource::getName))
+				.doOnError(e -> log.warn("Error on retrieving org ids for orgs {}", orgNames, e))
+				.onErrorReturn(Collections.emptyMap())
+				.map(orgsByName -> {
+					final List<IntermediateTarget> result = new ArrayList<>(intermediateTargets.size());
+					for (IntermediateTarget it : intermediateTargets) {
+						final OrganizationResource org = orgsByName.get(it.getConfigTarget().getOrgName().toLowerCase(Locale.ENGLISH));
+						if (org == null) {
+							continue;
+						}
+						
+						it.setResolvedOrgName(org.getName());
+						it.setResolvedOrgId(org.getId());
+						result.add(it);
+					}
+					return result;
+				});
+	}
+	
+	private Mono<List<IntermediateTarget>> resolveSpacesByNames(List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
+		final Map<String, List<IntermediateTarget>> targetsByOrgId = intermediateTargets.stream()
+				.collect(Collectors.groupingBy(IntermediateTarget::getResolvedOrgId, LinkedHashMap::new, Collectors.toList()));
+		
+		final Map<String, TreeSet<String>> spaceNamesByOrgId = new LinkedHashMap<>();
+		for (Map.Entry<String, List<IntermediateTarget>> entry : targetsByOrgId.entrySet()) {
+			final TreeSet<String> spaceNames = entry.getValue().stream()
+					.map(it -> it.getConfigTarget().getSpaceName())
+					.collect(Collectors.toCollection(TreeSet::new));
+			spaceNamesByOrgId.put(entry.getKey(), spaceNames);
+			plan.addLookup(ResolutionPlan.LOOKUP_SPACES_BY_NAMES, entry.getKey() + "/" + spaceNames, entry.getValue().size());
+		}
+		
+		Mono<Map<String, Map<String, SpaceResource>>> spacesByOrgIdMono = Flux.fromIterable(spaceNamesByOrgId.entrySet())
+				.flatMap(entry -> this.cfAccessor.retrieveSpaceIdsV3(entry.getKey(), entry.getValue())
+						.map(response -> Tuples.of(entry.getKey(), indexByName(response.getResources(), SpaceResource::getName)))
+						.doOnError(e -> log.warn("Error on retrieving space ids for org id '{}' and spaces {}", entry.getKey(), entry.getValue(), e))
+						.onErrorResume(__ -> Mono.empty()))
+				.collectMap(Tuple2::getT1, Tuple2::getT2);
+		
+		return spacesByOrgIdMono.map(spacesByOrgId -> {
+			final List<IntermediateTarget> result = new ArrayList<>(intermediateTargets.size());
+			for (IntermediateTarget it : intermediateTargets) {
+				final SpaceResource space = spacesByOrgId.getOrDefault(it.getResolvedOrgId(), Collections.emptyMap())
+						.get(it.getConfigTarget().getSpaceName().toLowerCase(Locale.ENGLISH));
+				if (space == null) {
+					continue;
+				}
+				
+				it.setResolvedSpaceName(space.getName());
+				it.setResolvedSpaceId(space.getId());
+				result.add(it);
+			}
+			return result;
+		});
+	}
+	
+	private Mono<ListApplicationsResponse> retrieveApplications(ApplicationQuery query, List<IntermediateTarget> intermediateTargets, ResolutionPlan plan) {
+		Set<String> applicationNames = null;
+		if (this.serverSideFiltering && intermediateTargets.stream().allMatch(it -> isSingleApplication(it.getConfigTarget()))) {
+			// all targets only look for applications by their name; otherwise, all applications are required anyway
+			applicationNames = intermediateTargets.stream()
+					.map(it -> it.getConfigTarget().getApplicationName())
+					.collect(Collectors.toCollection(TreeSet::new));
+		}
+		
+		String key = query.orgId() + "/" + query.spaceId();
+		if (query.labelSelector() != null) {
+			key += "?label_selector=" + query.labelSelector();
+		}
+		if (applicationNames != null) {
+			key += (query.labelSelector() != null ? "&names=" : "?names=") + applicationNames;
+		}
+		plan.addLookup(ResolutionPlan.LOOKUP_APPLICATIONS_IN_SPACE, key, intermediateTargets.size());
+		
+		if (applicationNames == null && query.labelSelector() == null) {
+			// the list of all applications in the space is cached
+			return this.cfAccessor.retrieveAllApplicationsInSpaceV3(query.orgId(), query.spaceId());
+		}
+		
+		return this.cfAccessor.retrieveApplicationsInSpaceV3(query.orgId(), query.spaceId(), applicationNames, query.labelSelector());
+	}
+	
+	private static NameMatcher<IntermediateTarget> matcherOf(List<IntermediateTarget> intermediateTargets, 
+			Function<Target, String> nameFunction, Function<Target, Pattern> patternFunction) {
+		final NameMatcher<IntermediateTarget> matcher = new NameMatcher<>();
+		for (IntermediateTarget it : intermediateTargets) {
+			matcher.add(it, nameFunction.apply(it.getConfigTarget()), patternFunction.apply(it.getConfigTarget()));
+		}
+		return matcher;
+	}
+	
+	private static <R> List<IntermediateTarget> classify(NameMatcher<IntermediateTarget> matcher, List<R> resources, 
+			Function<R, String> nameFunction, BiConsumer<IntermediateTarget, R> resolveFunction) {
+		final List<IntermediateTarget> result = new ArrayList<>();
+		for (R resource : resources) {
+			for (IntermediateTarget it : matcher.match(nameFunction.apply(resource))) {
+				IntermediateTarget itnew = new IntermediateTarget(it);
+				resolveFunction.accept(itnew, resource);
+				result.add(itnew);
+			}
+		}
+		return result;
+	}
+	
+	private static <T> List<T> concat(List<T> first, List<T> second) {
+		if (second.isEmpty()) {
+			return first;
+		}
+		
+		final List<T> result = new ArrayList<>(first.size() + second.size());
+		result.addAll(first);
+		result.addAll(second);
+		return result;
+	}
+	
+	private static <R> Map<String, R> indexByName(List<R> resources, Function<R, String> nameFunction) {
+		final Map<String, R> result = new HashMap<>();
+		for (R resource : resources) {
+			result.putIfAbsent(nameFunction.apply(resource).toLowerCase(Locale.ENGLISH), resource);
+		}
+		return result;
+	}
+	
+	private static boolean isSingleOrg(Target target) {
+		return target.getOrgRegex() == null && target.getOrgName() != null;
+	}
+	
+	private static boolean isSingleSpace(Target target) {
+		return target.getSpaceRegex() == null && target.getSpaceName() != null;
+	}
+	
+	private static boolean isSingleApplication(Target target) {
+		return target.getApplicationRegex() == null && target.getApplicationName() != null;
+	}
+
 	private boolean isApplicationInScrapableState(ApplicationState applicationState) {
 		if (applicationState == ApplicationState.STARTED) {
 			return true;
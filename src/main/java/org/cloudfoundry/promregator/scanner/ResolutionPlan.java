@@ -0,0 +1,91 @@
+package org.cloudfoundry.promregator.scanner;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes how a list of configured targets was resolved: which lookups were sent to the
+ * Cloud Controller and how many (intermediate) targets each lookup served.
+ * <p>
+ * Without sharing lookups, each target would have required a lookup of its own on each level;
+ * the number of lookups saved is the difference between both.
+ */
+public class ResolutionPlan {
+	public static final String LOOKUP_ORG = "org";
+	public static final String LOOKUP_ORGS_BY_NAMES = "orgsByNames";
+	public static final String LOOKUP_ALL_ORGS = "allOrgs";
+	public static final String LOOKUP_SPACE = "space";
+	public static final String LOOKUP_SPACES_BY_NAMES = "spacesByNames";
+	public static final String LOOKUP_ALL_SPACES_IN_ORG = "allSpacesInOrg";
+	public static final String LOOKUP_APPLICATIONS_IN_SPACE = "applicationsInSpace";
+
+	/**
+	 * a single lookup at the Cloud Controller
+	 * @param type the type of the lookup (see constants <code>LOOKUP_*</code>)
+	 * @param key identifies the lookup within its type, e.g. the name of the org
+	 * @param targets the number of targets served by this lookup
+	 */
+	public static record Lookup(String type, String key, int targets) {}
+
+	private final Instant created = Instant.now();
+
+	private final int configTargets;
+
+	private final List<Lookup> lookups = Collections.synchronizedList(new ArrayList<>());
+
+	public ResolutionPlan(int configTargets) {
+		this.configTargets = configTargets;
+	}
+
+	void addLookup(String type, String key, int targets) {
+		this.lookups.add(new Lookup(type, key, targets));
+	}
+
+	/**
+	 * @return the point in time when the resolution took place
+	 */
+	public Instant getCreated() {
+		return created;
+	}
+
+	/**
+	 * @return the number of configured targets, which were resolved
+	 */
+	public int getConfigTargets() {
+		return configTargets;
+	}
+
+	/**
+	 * @return the lookups in the order they were planned
+	 */
+	public List<Lookup> getLookups() {
+		synchronized (this.lookups) {
+			return new ArrayList<>(this.lookups);
+		}
+	}
+
+	/**
+	 * @return the number of lookups sent to the Cloud Controller
+	 */
+	public int getLookupCount() {
+		return this.lookups.size();
+	}
+
+	/**
+	 * @return the number of lookups, which would have been necessary, if each target was resolved on its own
+	 */
+	public int getLookupCountUnshared() {
+		synchronized (this.lookups) {
+			return this.lookups.stream().mapToInt(Lookup::targets).sum();
+		}
+	}
+
+	/**
+	 * @return the number of lookups saved by sharing them between targets
+	 */
+	public int getLookupsSaved() {
+		return this.getLookupCountUnshared() - this.getLookupCount();
+	}
+}
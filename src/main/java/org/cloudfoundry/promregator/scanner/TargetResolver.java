@@ -6,4 +6,11 @@ import org.cloudfoundry.promregator.config.Target;
 
 public interface TargetResolver {
 	List<ResolvedTarget> resolveTargets(List<Target> configTarget);
+	
+	/**
+	 * @return the plan of the latest resolution of targets; <code>null</code>, if not available
+	 */
+	default ResolutionPlan getLastResolutionPlan() {
+		return null;
+	}
 }
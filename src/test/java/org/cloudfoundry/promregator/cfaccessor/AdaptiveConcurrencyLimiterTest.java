@@ -0,0 +1,108 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.cloudfoundry.UnknownCloudFoundryException;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private InternalMetrics internalMetricsMocked = Mockito.mock(InternalMetrics.class);
+
+	@Test
+	void testDisabledDoesNotLimit() {
+		AdaptiveConcurrencyLimiter subject = AdaptiveConcurrencyLimiter.disabled();
+
+		Sinks.One<String> sink = Sinks.one();
+		Mono<String> pending = subject.limit(sink.asMono());
+		pending.subscribe();
+
+		Assertions.assertEquals("value", subject.limit(Mono.just("value")).block());
+		Assertions.assertEquals(0.0, subject.getInFlight());
+	}
+
+	@Test
+	void testLimitIsEnforced() {
+		AdaptiveConcurrencyLimiter subject = new AdaptiveConcurrencyLimiter(this.internalMetricsMocked, true, 2, 1, 2);
+		Mockito.verify(this.internalMetricsMocked).registerConcurrencyLimiterFunctions(Mockito.any(), Mockito.any(), Mockito.any());
+
+		Sinks.One<String> first = Sinks.one();
+		Sinks.One<String> second = Sinks.one();
+
+		subject.limit(first.asMono()).subscribe();
+		subject.limit(second.asMono()).subscribe();
+		Assertions.assertEquals(2.0, subject.getInFlight());
+
+		AtomicBoolean thirdSent = new AtomicBoolean(false);
+		subject.limit(Mono.fromCallable(() -> {
+			thirdSent.set(true);
+			return "third";
+		})).subscribe();
+
+		Assertions.assertFalse(thirdSent.get());
+		Assertions.assertEquals(1, subject.getQueueSize());
+
+		first.tryEmitValue("first");
+
+		Assertions.assertTrue(thirdSent.get());
+		Assertions.assertEquals(0, subject.getQueueSize());
+		Assertions.assertEquals(1.0, subject.getInFlight());
+	}
+
+	@Test
+	void testThrottlingResponseCutsLimit() {
+		AdaptiveConcurrencyLimiter subject = new AdaptiveConcurrencyLimiter(null, true, 10, 1, 100);
+
+		Mono<String> throttled = subject.limit(Mono.error(new UnknownCloudFoundryException(429)));
+		Assertions.assertThrows(UnknownCloudFoundryException.class, throttled::block);
+		Assertions.assertEquals(5.0, subject.getLimit());
+
+		Mono<String> timedOut = subject.limit(Mono.error(new TimeoutException()));
+		Assertions.assertThrows(RuntimeException.class, timedOut::block);
+		Assertions.assertEquals(2.0, subject.getLimit());
+
+		// client errors are no indication of overload
+		Mono<String> notFound = subject.limit(Mono.error(new UnknownCloudFoundryException(404)));
+		Assertions.assertThrows(UnknownCloudFoundryException.class, notFound::block);
+		Assertions.assertEquals(2.0, subject.getLimit());
+
+		Assertions.assertEquals(0.0, subject.getInFlight());
+	}
+
+	@Test
+	void testLimitGrowsWhenUsed() {
+		AdaptiveConcurrencyLimiter subject = new AdaptiveConcurrencyLimiter(null, true, 2, 1, 100);
+
+		for (int i = 0; i < 20; i++) {
+			Sinks.One<String> first = Sinks.one();
+			Sinks.One<String> second = Sinks.one();
+			subject.limit(first.asMono()).subscribe();
+			subject.limit(second.asMono()).subscribe();
+
+			first.tryEmitValue("first");
+			second.tryEmitValue("second");
+		}
+
+		Assertions.assertTrue(subject.getLimit() > 2.0);
+		Assertions.assertEquals(1.0, subject.getLatencyGradient(), 0.5);
+	}
+
+	@Test
+	void testLimitDoesNotDropBelowMinimum() {
+		AdaptiveConcurrencyLimiter subject = new AdaptiveConcurrencyLimiter(null, true, 4, 3, 100);
+
+		for (int i = 0; i < 5; i++) {
+			Mono<String> throttled = subject.limit(Mono.error(new UnknownCloudFoundryException(503)));
+			Assertions.assertThrows(UnknownCloudFoundryException.class, throttled::block);
+		}
+
+		Assertions.assertEquals(3.0, subject.getLimit());
+	}
+}
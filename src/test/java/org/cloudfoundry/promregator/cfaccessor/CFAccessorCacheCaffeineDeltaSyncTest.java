@@ -0,0 +1,184 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.cloudfoundry.client.v3.BuildpackData;
+import org.cloudfoundry.client.v3.Lifecycle;
+import org.cloudfoundry.client.v3.LifecycleType;
+import org.cloudfoundry.client.v3.Metadata;
+import org.cloudfoundry.client.v3.Relationship;
+import org.cloudfoundry.client.v3.ToOneRelationship;
+import org.cloudfoundry.client.v3.applications.ApplicationRelationships;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ApplicationState;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.processes.HealthCheck;
+import org.cloudfoundry.client.v3.processes.HealthCheckType;
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessRelationships;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.routes.Application;
+import org.cloudfoundry.client.v3.routes.Destination;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v3.routes.RouteRelationships;
+import org.cloudfoundry.client.v3.routes.RouteResource;
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Mono;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = CFAccessorCacheCaffeineSpringApplication.class)
+@TestPropertySource(locations="../default.properties", properties="cf.cache.deltaSync.enabled=true")
+@DirtiesContext(classMode=ClassMode.AFTER_CLASS)
+class CFAccessorCacheCaffeineDeltaSyncTest {
+
+	private static final String UPDATED_AT = "2030-01-01T00:00:00Z";
+	private static final String UPDATED_AT_LATER = "2031-01-01T00:00:00Z";
+
+	@Autowired
+	private CFAccessor parentMock;
+
+	@Autowired
+	private CFAccessorCacheCaffeine subject;
+
+	@BeforeEach
+	public void invalidateCaches() {
+		this.subject.invalidateCacheApplication();
+		this.subject.invalidateCacheRoute();
+		this.subject.invalidateCacheProcess();
+	}
+
+	@BeforeEach
+	public void clearMockCounters() {
+		Mockito.reset(this.parentMock);
+	}
+
+	@AfterAll
+	public static void runCleanup() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	@Test
+	void testUpdatedProcessIsPatchedIntoCache() {
+		ListProcessesResponse before = this.subject.retrieveWebProcessesForAppId("app1").block();
+		assertThat(before.getResources().get(0).getInstances()).isEqualTo(1);
+
+		ProcessResource updated = ProcessResource.builder().from(before.getResources().get(0))
+				.instances(3)
+				.updatedAt(UPDATED_AT_LATER)
+				.build();
+		Mockito.doReturn(Mono.just(ListProcessesResponse.builder().resource(updated).build()))
+			.when(this.parentMock).retrieveWebProcessesUpdatedSince(Mockito.any());
+
+		this.subject.synchronizeDelta().block();
+
+		ListProcessesResponse after = this.subject.retrieveWebProcessesForAppId("app1").block();
+		assertThat(after.getResources()).hasSize(1);
+		assertThat(after.getResources().get(0).getInstances()).isEqualTo(3);
+
+		// patched in place; not retrieved again
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveWebProcessesForAppIds(Mockito.anySet());
+
+		// the next synchronization starts at the latest update seen
+		this.subject.synchronizeDelta().block();
+		Mockito.verify(this.parentMock).retrieveWebProcessesUpdatedSince(Instant.parse(UPDATED_AT_LATER));
+	}
+
+	@Test
+	void testProcessOfUncachedApplicationIsIgnored() {
+		ProcessResource process = ProcessResource.builder()
+				.id("unknown")
+				.diskInMb(1024)
+				.createdAt("something")
+				.updatedAt(UPDATED_AT)
+				.memoryInMb(256)
+				.instances(1)
+				.type("web")
+				.relationships(ProcessRelationships.builder().app(ToOneRelationship.builder().data(Relationship.builder().id("unknown").build()).build()).build())
+				.command("cmd")
+				.healthCheck(HealthCheck.builder().type(HealthCheckType.HTTP).build())
+				.metadata(Metadata.builder().build())
+				.build();
+		Mockito.doReturn(Mono.just(ListProcessesResponse.builder().resource(process).build()))
+			.when(this.parentMock).retrieveWebProcessesUpdatedSince(Mockito.any());
+
+		this.subject.synchronizeDelta().block();
+
+		// not loaded by the synchronization
+		Mockito.verify(this.parentMock, Mockito.times(0)).retrieveWebProcessesForAppIds(Mockito.anySet());
+	}
+
+	@Test
+	void testRemappedRouteIsMovedBetweenApplications() {
+		ListRoutesResponse app1Before = this.subject.retrieveRoutesForAppId("app1").block();
+		this.subject.retrieveRoutesForAppId("app2").block();
+
+		RouteResource original = app1Before.getResources().get(0);
+		RouteResource remapped = RouteResource.builder().id(original.getId()).host(original.getHost()).path(original.getPath())
+				.createdAt(original.getCreatedAt()).updatedAt(UPDATED_AT).url(original.getUrl()).relationships(original.getRelationships())
+				.destination(Destination.builder().application(Application.builder().applicationId("app2").build()).build())
+				.build();
+		Mockito.doReturn(Mono.just(ListRoutesResponse.builder().resource(remapped).build()))
+			.when(this.parentMock).retrieveRoutesUpdatedSince(Mockito.any());
+
+		this.subject.synchronizeDelta().block();
+
+		assertThat(this.subject.retrieveRoutesForAppId("app1").block().getResources()).isEmpty();
+		assertThat(this.subject.retrieveRoutesForAppId("app2").block().getResources()).hasSize(2);
+	}
+
+	@Test
+	void testNewApplicationIsAddedToItsSpace() {
+		assertThat(this.subject.retrieveAllApplicationsInSpaceV3("org", "space").block().getResources()).isNullOrEmpty();
+
+		ApplicationResource app = ApplicationResource.builder().name("newapp")
+				.state(ApplicationState.STARTED).createdAt(UPDATED_AT).updatedAt(UPDATED_AT).id("newapp")
+				.lifecycle(Lifecycle.builder().data(BuildpackData.builder().build()).type(LifecycleType.BUILDPACK).build())
+				.metadata(Metadata.builder().build())
+				.relationships(ApplicationRelationships.builder().space(ToOneRelationship.builder().data(Relationship.builder().id("space").build()).build()).build())
+				.build();
+		Mockito.doReturn(Mono.just(ListApplicationsResponse.builder().resource(app).build()))
+			.when(this.parentMock).retrieveApplicationsUpdatedSince(Mockito.any());
+
+		this.subject.synchronizeDelta().block();
+
+		ListApplicationsResponse after = this.subject.retrieveAllApplicationsInSpaceV3("org", "space").block();
+		assertThat(after.getResources()).hasSize(1);
+		assertThat(after.getResources().get(0).getName()).isEqualTo("newapp");
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveAllApplicationsInSpaceV3("org", "space");
+	}
+
+	@Test
+	void testRouteWithoutRelationshipsIsTolerated() {
+		ListRoutesResponse before = this.subject.retrieveRoutesForSpaceId("space").block();
+
+		RouteResource route = RouteResource.builder().id("orphan").host("dummy.bogus").path("/").createdAt("something").url("http://dummy.bogus/")
+				.relationships(RouteRelationships.builder()
+						.domain(ToOneRelationship.builder().data(Relationship.builder().id("1").build()).build())
+						.space(ToOneRelationship.builder().build())
+						.build())
+				.build();
+		Mockito.doReturn(Mono.just(ListRoutesResponse.builder().resource(route).build()))
+			.when(this.parentMock).retrieveRoutesUpdatedSince(Mockito.any());
+
+		this.subject.synchronizeDelta().block();
+
+		// the route without space cannot be assigned; the entry of the space remains untouched
+		ListRoutesResponse after = this.subject.retrieveRoutesForSpaceId("space").block();
+		assertThat(after).isEqualTo(before);
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveRoutesForSpaceId("space");
+	}
+}
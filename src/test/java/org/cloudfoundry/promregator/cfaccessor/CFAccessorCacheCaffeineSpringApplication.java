@@ -1,5 +1,6 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 
@@ -7,7 +8,9 @@ import org.cloudfoundry.client.v3.Metadata;
 import org.cloudfoundry.client.v3.Relationship;
 import org.cloudfoundry.client.v3.ToOneRelationship;
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.HealthCheck;
 import org.cloudfoundry.client.v3.processes.HealthCheckType;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
@@ -124,6 +127,46 @@ public class CFAccessorCacheCaffeineSpringApplication {
 			}).toList();
 			return Mono.just(ListProcessesResponse.builder().resources(list).build());
 		}
+
+		@Override
+		public Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId) {
+			return this.retrieveRoutesForAppIds(Set.of(spaceId+"-app1", spaceId+"-app2"));
+		}
+
+		@Override
+		public Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId) {
+			return this.retrieveWebProcessesForAppIds(Set.of(spaceId+"-app1", spaceId+"-app2"));
+		}
+
+		@Override
+		public Mono<GetProcessStatisticsResponse> retrieveProcessStatistics(String processId) {
+			return Mono.just(GetProcessStatisticsResponse.builder().build());
+		}
+
+		@Override
+		public Mono<ListApplicationsResponse> retrieveApplicationsUpdatedSince(Instant since) {
+			return Mono.just(ListApplicationsResponse.builder().build());
+		}
+
+		@Override
+		public Mono<ListProcessesResponse> retrieveWebProcessesUpdatedSince(Instant since) {
+			return Mono.just(ListProcessesResponse.builder().build());
+		}
+
+		@Override
+		public Mono<ListRoutesResponse> retrieveRoutesUpdatedSince(Instant since) {
+			return Mono.just(ListRoutesResponse.builder().build());
+		}
+
+		@Override
+		public Mono<ListAuditEventsResponse> retrieveAuditEventsSince(Instant since, Set<String> eventTypes) {
+			return Mono.just(ListAuditEventsResponse.builder().build());
+		}
+
+		@Override
+		public Mono<ListAuditEventsResponse> retrieveLatestAuditEvent(Set<String> eventTypes) {
+			return Mono.just(ListAuditEventsResponse.builder().build());
+		}
 	}
 	
 	@Bean
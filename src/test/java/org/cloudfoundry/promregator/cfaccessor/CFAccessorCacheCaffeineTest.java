@@ -2,9 +2,14 @@ package org.cloudfoundry.promregator.cfaccessor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.awaitility.Awaitility;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
 import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
@@ -207,4 +212,80 @@ public class CFAccessorCacheCaffeineTest {
 		assertThat(response1.block()).isEqualTo(response2.block());
 		Mockito.verify(this.parentMock, Mockito.times(2)).retrieveWebProcessesForAppIds(set); /* not cached */
 	}
+	
+	@Test
+	void testRetrieveProcessesForSpaceIdPopulatesAppEntries() {
+		ListProcessesResponse response = subject.retrieveWebProcessesForSpaceId("space").block();
+		assertThat(response.getResources()).hasSize(2);
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveWebProcessesForSpaceId("space");
+		
+		subject.retrieveWebProcessesForSpaceId("space").block();
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveWebProcessesForSpaceId("space");
+		
+		ListProcessesResponse appResponse = subject.retrieveWebProcessesForAppId("space-app1").block();
+		assertThat(appResponse.getResources()).hasSize(1);
+		assertThat(appResponse.getResources().get(0).getId()).isEqualTo("space-app1");
+		
+		// served from the space-level response; no further request to the parent
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveWebProcessesForAppIds(Mockito.anySet());
+	}
+	
+	@Test
+	void testRetrieveRoutesForSpaceIdPopulatesAppEntries() {
+		ListRoutesResponse response = subject.retrieveRoutesForSpaceId("space").block();
+		assertThat(response.getResources()).hasSize(2);
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveRoutesForSpaceId("space");
+		
+		ListRoutesResponse appResponse = subject.retrieveRoutesForAppId("space-app2").block();
+		assertThat(appResponse.getResources()).hasSize(1);
+		assertThat(appResponse.getResources().get(0).getId()).isEqualTo("space-app2");
+		
+		// served from the space-level response; no further request to the parent
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveRoutesForAppIds(Mockito.anySet());
+	}
+	
+	@Test
+	void testRetrieveProcessesForAppIdInSpaceUsesAppEntry() {
+		ListProcessesResponse appResponse = subject.retrieveWebProcessesForAppIdInSpace("space", "space-app1").block();
+		assertThat(appResponse.getResources()).hasSize(1);
+		assertThat(appResponse.getResources().get(0).getId()).isEqualTo("space-app1");
+
+		ListRoutesResponse routesResponse = subject.retrieveRoutesForAppIdInSpace("space", "space-app2").block();
+		assertThat(routesResponse.getResources()).hasSize(1);
+		assertThat(routesResponse.getResources().get(0).getId()).isEqualTo("space-app2");
+
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveWebProcessesForSpaceId("space");
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveRoutesForSpaceId("space");
+	}
+
+	@Test
+	void testRefreshProcessesOfApplicationOnlyRefreshesCachedEntries() {
+		subject.retrieveWebProcessesForAppId("cached").block();
+		Mockito.verify(this.parentMock, Mockito.times(1)).retrieveWebProcessesForAppIds(Mockito.anySet());
+		
+		subject.refreshCacheProcessesOfApplication("cached", null);
+		subject.refreshCacheProcessesOfApplication("notCached", null);
+		
+		Mockito.verify(this.parentMock, Mockito.timeout(1000).times(1)).retrieveWebProcessesForAppIds(Set.of("cached"));
+		Mockito.verify(this.parentMock, Mockito.after(300).times(2)).retrieveWebProcessesForAppIds(Mockito.anySet());
+	}
+
+	@Test
+	void testRefreshOfProcessesIsSentInBackground() {
+		List<RequestPriority> priorities = new CopyOnWriteArrayList<>();
+		Mockito.doAnswer(invocation -> {
+			final Mono<?> response = (Mono<?>) invocation.callRealMethod();
+			return Mono.deferContextual(contextView -> {
+				priorities.add(SharedRequestPriority.fromContext(contextView).get());
+				return response;
+			});
+		}).when(this.parentMock).retrieveWebProcessesForAppIds(Mockito.anySet());
+		
+		subject.retrieveWebProcessesForAppId("refreshed").block();
+		subject.refreshCacheProcessesOfApplication("refreshed", null);
+		
+		Mockito.verify(this.parentMock, Mockito.timeout(1000).times(2)).retrieveWebProcessesForAppIds(Set.of("refreshed"));
+		Awaitility.await().atMost(Duration.ofSeconds(1)).until(() -> priorities.size() == 2);
+		assertThat(priorities).containsExactly(RequestPriority.FOREGROUND, RequestPriority.BACKGROUND_REFRESH);
+	}
 }
@@ -1,6 +1,7 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -16,14 +17,18 @@ import org.cloudfoundry.client.v3.ToOneRelationship;
 import org.cloudfoundry.client.v3.applications.ApplicationResource;
 import org.cloudfoundry.client.v3.applications.ApplicationState;
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
 import org.cloudfoundry.client.v3.domains.DomainRelationships;
 import org.cloudfoundry.client.v3.domains.DomainResource;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.HealthCheck;
 import org.cloudfoundry.client.v3.processes.HealthCheckType;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
 import org.cloudfoundry.client.v3.processes.ProcessRelationships;
 import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.processes.ProcessState;
+import org.cloudfoundry.client.v3.processes.ProcessStatisticsResource;
 import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
 import org.cloudfoundry.client.v3.routes.RouteRelationships;
 import org.cloudfoundry.client.v3.routes.RouteResource;
@@ -263,6 +268,52 @@ public class CFAccessorMassMock implements CFAccessor {
 		ListProcessesResponse resp = ListProcessesResponse.builder().resources(list).build();
 		return Mono.just(resp).delayElement(this.getSleepRandomDuration());
 	}
-	
-}
 
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId) {
+		Assertions.fail("Space-level retrieval of routes is not supported by this mock");
+		return null;
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId) {
+		Assertions.fail("Space-level retrieval of processes is not supported by this mock");
+		return null;
+	}
+
+	@Override
+	public Mono<GetProcessStatisticsResponse> retrieveProcessStatistics(String processId) {
+		final List<ProcessStatisticsResource> list = new ArrayList<>(this.amountInstances);
+		for (int i = 0; i < this.amountInstances; i++) {
+			list.add(ProcessStatisticsResource.builder().type("web").index(i).state(ProcessState.RUNNING)
+					.host("10.0.16.4").uptime(4711L).fileDescriptorQuota(16384L).build());
+		}
+		
+		return Mono.just(GetProcessStatisticsResponse.builder().resources(list).build()).delayElement(this.getSleepRandomDuration());
+	}
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsUpdatedSince(Instant since) {
+		return Mono.just(ListApplicationsResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesUpdatedSince(Instant since) {
+		return Mono.just(ListProcessesResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesUpdatedSince(Instant since) {
+		return Mono.just(ListRoutesResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveAuditEventsSince(Instant since, Set<String> eventTypes) {
+		return Mono.just(ListAuditEventsResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveLatestAuditEvent(Set<String> eventTypes) {
+		return Mono.just(ListAuditEventsResponse.builder().build());
+	}
+}
@@ -1,6 +1,8 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -14,14 +16,21 @@ import org.cloudfoundry.client.v3.ToOneRelationship;
 import org.cloudfoundry.client.v3.applications.ApplicationResource;
 import org.cloudfoundry.client.v3.applications.ApplicationState;
 import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
 import org.cloudfoundry.client.v3.domains.DomainRelationships;
 import org.cloudfoundry.client.v3.domains.DomainResource;
 import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
 import org.cloudfoundry.client.v3.processes.HealthCheck;
 import org.cloudfoundry.client.v3.processes.HealthCheckType;
 import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.PortMapping;
 import org.cloudfoundry.client.v3.processes.ProcessRelationships;
 import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.processes.ProcessState;
+import org.cloudfoundry.client.v3.processes.ProcessStatisticsResource;
+import org.cloudfoundry.client.v3.routes.Application;
+import org.cloudfoundry.client.v3.routes.Destination;
 import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
 import org.cloudfoundry.client.v3.routes.RouteRelationships;
 import org.cloudfoundry.client.v3.routes.RouteResource;
@@ -53,6 +62,9 @@ public class CFAccessorMock implements CFAccessor {
 	public static final String UNITTEST_INTERNAL_ROUTE_UUID = "d1aac229-cc4a-4332-89a7-2efa2378000a";
 
 	public static final String UNITTEST_APP_INTERNAL_UUID = "a8762694-95ce-4c3c-a4fb-250e28187a0a";
+	
+	public static final String UNITTEST_CELL_HOST = "10.0.16.4";
+	public static final int UNITTEST_CELL_PORT_BASE = 61000;
 	public static final String UNITTEST_APP_INTERNAL_HOST = "internal-app";
 
 	public static final String CREATED_AT_TIMESTAMP = "2014-11-24T19:32:49+00:00";
@@ -274,6 +286,7 @@ public class CFAccessorMock implements CFAccessor {
 					.id(UNITTEST_APP1_ROUTE_UUID)
 					.host(UNITTEST_APP1_HOST)
 					.path("/")
+					.destination(this.determineDestinationForApp(appId))
 					.build();
 			result.add(rr);
 		}
@@ -289,6 +302,7 @@ public class CFAccessorMock implements CFAccessor {
 					.id(UNITTEST_APP2_ROUTE_UUID)
 					.host(UNITTEST_APP2_HOST)
 					.path("/additionalPath")
+					.destination(this.determineDestinationForApp(appId))
 					.build();
 			result.add(rr);
 			
@@ -301,6 +315,7 @@ public class CFAccessorMock implements CFAccessor {
 					.id(UNITTEST_APP2_ROUTE_UUID+"i")
 					.host(UNITTEST_APP2_HOST)
 					.path("/additionalPath")
+					.destination(this.determineDestinationForApp(appId))
 					.build();
 			
 			result.add(rr);
@@ -322,6 +337,7 @@ public class CFAccessorMock implements CFAccessor {
 					.id(UNITTEST_INTERNAL_ROUTE_UUID)
 					.host(UNITTEST_APP_INTERNAL_HOST)
 					.path("/")
+					.destination(this.determineDestinationForApp(appId))
 					.build();
 			result.add(rr);
 		}
@@ -329,6 +345,10 @@ public class CFAccessorMock implements CFAccessor {
 		return result;
 	}
 	
+	private Destination determineDestinationForApp(String appId) {
+		return Destination.builder().destinationId("42"+appId).application(Application.builder().applicationId(appId).build()).build();
+	}
+	
 	@Override
 	public Mono<ListRoutesResponse> retrieveRoutesForAppId(String appId) {
 		List<RouteResource> list = this.determineRoutesDataForApp(appId);
@@ -379,7 +399,7 @@ public class CFAccessorMock implements CFAccessor {
 					.healthCheck(HealthCheck.builder().type(HealthCheckType.HTTP).build())
 					.memoryInMb(1024)
 					.metadata(Metadata.builder().build())
-					.relationships(ProcessRelationships.builder().build())
+					.relationships(ProcessRelationships.builder().app(ToOneRelationship.builder().data(Relationship.builder().id(applicationId).build()).build()).build())
 					.id(applicationId+"p")
 					.build();
 			return prWeb;
@@ -403,4 +423,87 @@ public class CFAccessorMock implements CFAccessor {
 		return Mono.just(resp);
 	}
 
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesForSpaceId(String spaceId) {
+		if (UNITTEST_SPACE_UUID.equals(spaceId)) {
+			List<RouteResource> list = new LinkedList<>();
+			for (String appId : this.determineAppIdsInSpace()) {
+				List<RouteResource> routes = this.determineRoutesDataForApp(appId);
+				if (routes != null) {
+					list.addAll(routes);
+				}
+			}
+			return Mono.just(ListRoutesResponse.builder().resources(list).build());
+		}
+		
+		Assertions.fail("Invalid retrieveRoutesForSpaceId request");
+		return null;
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesForSpaceId(String spaceId) {
+		if (UNITTEST_SPACE_UUID.equals(spaceId)) {
+			return this.retrieveWebProcessesForAppIds(this.determineAppIdsInSpace());
+		}
+		
+		Assertions.fail("Invalid retrieveWebProcessesForSpaceId request");
+		return null;
+	}
+
+	@Override
+	public Mono<GetProcessStatisticsResponse> retrieveProcessStatistics(String processId) {
+		if (processId.equals(UNITTEST_APP_INTERNAL_UUID+"p")) {
+			// the statistics of the internal app are not available (unit test case)
+			return Mono.error(new IllegalStateException("Process statistics of the internal app are unavailable"));
+		}
+		
+		if (processId.endsWith("p")) {
+			final ProcessResource pr = this.determineWebProcessesDataForApp(processId.substring(0, processId.length() - 1));
+			if (pr != null) {
+				final List<ProcessStatisticsResource> list = new ArrayList<>();
+				for (int i = 0; i < pr.getInstances(); i++) {
+					// the second instance of APP1 has crashed
+					final ProcessState state = processId.equals(UNITTEST_APP1_UUID+"p") && i == 1 ? ProcessState.CRASHED : ProcessState.RUNNING;
+					list.add(ProcessStatisticsResource.builder().type("web").index(i).state(state).uptime(4711L).fileDescriptorQuota(16384L)
+							.host(UNITTEST_CELL_HOST)
+							.instancePort(PortMapping.builder().external(UNITTEST_CELL_PORT_BASE + i).internal(8080).build())
+							.build());
+				}
+				
+				return Mono.just(GetProcessStatisticsResponse.builder().resources(list).build());
+			}
+		}
+		
+		Assertions.fail("Invalid retrieveProcessStatistics request");
+		return null;
+	}
+
+	private Set<String> determineAppIdsInSpace() {
+		return new HashSet<>(List.of(UNITTEST_APP1_UUID, UNITTEST_APP2_UUID, UNITTEST_APP3_UUID, UNITTEST_APP_INTERNAL_UUID));
+	}
+
+	@Override
+	public Mono<ListApplicationsResponse> retrieveApplicationsUpdatedSince(Instant since) {
+		return Mono.just(ListApplicationsResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListProcessesResponse> retrieveWebProcessesUpdatedSince(Instant since) {
+		return Mono.just(ListProcessesResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListRoutesResponse> retrieveRoutesUpdatedSince(Instant since) {
+		return Mono.just(ListRoutesResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveAuditEventsSince(Instant since, Set<String> eventTypes) {
+		return Mono.just(ListAuditEventsResponse.builder().build());
+	}
+
+	@Override
+	public Mono<ListAuditEventsResponse> retrieveLatestAuditEvent(Set<String> eventTypes) {
+		return Mono.just(ListAuditEventsResponse.builder().build());
+	}
 }
@@ -0,0 +1,123 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.time.Instant;
+
+import org.cloudfoundry.client.v3.Relationship;
+import org.cloudfoundry.client.v3.auditevents.AuditEventActor;
+import org.cloudfoundry.client.v3.auditevents.AuditEventResource;
+import org.cloudfoundry.client.v3.auditevents.AuditEventTarget;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsResponse;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import reactor.core.publisher.Mono;
+
+class CFAuditEventWatcherTest {
+
+	private CFAccessorCache cacheMocked = Mockito.mock(CFAccessorCache.class);
+
+	private InternalMetrics internalMetricsMocked = Mockito.mock(InternalMetrics.class);
+
+	private CFAuditEventWatcher subject;
+
+	@BeforeEach
+	void setupSubject() {
+		this.subject = new CFAuditEventWatcher(this.cacheMocked, this.internalMetricsMocked);
+
+		// the first run only determines the newest event of the Cloud Controller
+		Mockito.when(this.cacheMocked.retrieveLatestAuditEvent(Mockito.anySet()))
+			.thenReturn(Mono.just(ListAuditEventsResponse.builder()
+					.resource(event("e0", "audit.app.update", "app", "app0", "2030-01-01T00:00:00Z"))
+					.build()));
+		this.subject.processAuditEvents().block();
+	}
+
+	private static AuditEventResource event(String id, String type, String targetType, String targetId, String createdAt) {
+		return AuditEventResource.builder()
+				.id(id)
+				.type(type)
+				.createdAt(createdAt)
+				.updatedAt(createdAt)
+				.auditEventActor(AuditEventActor.builder().id("actor").name("admin").type("user").build())
+				.auditEventTarget(AuditEventTarget.builder().id(targetId).name("target").type(targetType).build())
+				.spaceRelationship(Relationship.builder().id("space1").build())
+				.organizationRelationship(Relationship.builder().id("org1").build())
+				.build();
+	}
+
+	private void respondWith(AuditEventResource... events) {
+		Mockito.when(this.cacheMocked.retrieveAuditEventsSince(Mockito.any(), Mockito.anySet()))
+			.thenReturn(Mono.just(ListAuditEventsResponse.builder().resources(events).build()));
+	}
+
+	@Test
+	void testEventsRefreshAffectedEntries() {
+		this.respondWith(
+				event("e4", "audit.route.update", "route", "route1", "2030-01-01T00:00:04Z"),
+				event("e3", "audit.app.map-route", "app", "app2", "2030-01-01T00:00:03Z"),
+				event("e2", "audit.app.process.scale", "app", "app1", "2030-01-01T00:00:02Z"),
+				event("e1", "audit.app.update", "app", "app1", "2030-01-01T00:00:01Z"));
+
+		this.subject.processAuditEvents().block();
+
+		InOrder inOrder = Mockito.inOrder(this.cacheMocked);
+		inOrder.verify(this.cacheMocked).refreshCacheApplicationsInSpace("space1");
+		inOrder.verify(this.cacheMocked, Mockito.times(2)).refreshCacheProcessesOfApplication("app1", "space1");
+		inOrder.verify(this.cacheMocked).refreshCacheRoutesOfApplication("app2", "space1");
+		inOrder.verify(this.cacheMocked).refreshCacheRoute("route1", "space1");
+
+		Mockito.verify(this.internalMetricsMocked).countAuditEvent("audit.app.process.scale");
+	}
+
+	@Test
+	void testEventsAreProcessedOnlyOnce() {
+		this.respondWith(
+				event("e2", "audit.app.process.scale", "app", "app2", "2030-01-01T00:00:01Z"),
+				event("e1", "audit.app.process.scale", "app", "app1", "2030-01-01T00:00:01Z"));
+		this.subject.processAuditEvents().block();
+
+		// the Cloud Controller returns the events at the boundary again
+		this.respondWith(
+				event("e3", "audit.app.process.scale", "app", "app3", "2030-01-01T00:00:01Z"),
+				event("e2", "audit.app.process.scale", "app", "app2", "2030-01-01T00:00:01Z"),
+				event("e1", "audit.app.process.scale", "app", "app1", "2030-01-01T00:00:01Z"));
+		this.subject.processAuditEvents().block();
+
+		Mockito.verify(this.cacheMocked, Mockito.times(1)).refreshCacheProcessesOfApplication("app1", "space1");
+		Mockito.verify(this.cacheMocked, Mockito.times(1)).refreshCacheProcessesOfApplication("app2", "space1");
+		Mockito.verify(this.cacheMocked, Mockito.times(1)).refreshCacheProcessesOfApplication("app3", "space1");
+
+		// the next run starts at the latest event seen
+		Mockito.verify(this.cacheMocked, Mockito.times(1)).retrieveAuditEventsSince(Mockito.eq(Instant.parse("2030-01-01T00:00:01Z")), Mockito.anySet());
+	}
+
+	@Test
+	void testUnknownEventTypeIsIgnored() {
+		this.respondWith(event("e1", "audit.service_instance.create", "service_instance", "si1", "2030-01-01T00:00:01Z"));
+
+		this.subject.processAuditEvents().block();
+
+		Mockito.verify(this.cacheMocked).retrieveLatestAuditEvent(Mockito.anySet());
+		Mockito.verify(this.cacheMocked).retrieveAuditEventsSince(Mockito.any(), Mockito.anySet());
+		Mockito.verifyNoMoreInteractions(this.cacheMocked);
+	}
+
+	@Test
+	void testFirstRunStartsAtNewestEventOfCloudController() {
+		// the setup has not processed the newest event itself
+		Mockito.verify(this.cacheMocked, Mockito.never()).refreshCacheApplicationsInSpace(Mockito.anyString());
+		Mockito.verify(this.cacheMocked, Mockito.never()).retrieveAuditEventsSince(Mockito.any(), Mockito.anySet());
+
+		this.respondWith(
+				event("e1", "audit.app.process.scale", "app", "app1", "2030-01-01T00:00:01Z"),
+				event("e0", "audit.app.update", "app", "app0", "2030-01-01T00:00:00Z"));
+		this.subject.processAuditEvents().block();
+
+		Mockito.verify(this.cacheMocked).retrieveAuditEventsSince(Mockito.eq(Instant.parse("2030-01-01T00:00:00Z")), Mockito.anySet());
+		Mockito.verify(this.cacheMocked).refreshCacheProcessesOfApplication("app1", "space1");
+		Mockito.verify(this.cacheMocked, Mockito.never()).refreshCacheProcessesOfApplication("app0", "space1");
+	}
+}
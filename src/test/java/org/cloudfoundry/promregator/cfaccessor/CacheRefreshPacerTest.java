@@ -0,0 +1,69 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+
+class CacheRefreshPacerTest {
+
+	private InternalMetrics internalMetricsMocked = Mockito.mock(InternalMetrics.class);
+
+	@Test
+	void testSlotsAreSpreadAccordingToMaxRate() {
+		CacheRefreshPacer subject = new CacheRefreshPacer(0.0, 10.0, this.internalMetricsMocked);
+
+		Duration first = subject.acquireSlot();
+		Duration second = subject.acquireSlot();
+		Duration third = subject.acquireSlot();
+
+		assertThat(first).isLessThanOrEqualTo(Duration.ofMillis(100));
+		assertThat(second).isBetween(Duration.ofMillis(50), Duration.ofMillis(100));
+		assertThat(third).isBetween(Duration.ofMillis(150), Duration.ofMillis(200));
+	}
+
+	@Test
+	void testNoSlotsWithoutMaxRate() {
+		CacheRefreshPacer subject = new CacheRefreshPacer(0.5, 0.0, this.internalMetricsMocked);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(subject.acquireSlot()).isZero();
+		}
+	}
+
+	@Test
+	void testJitterIsBounded() {
+		CacheRefreshPacer subject = new CacheRefreshPacer(0.5, 0.0, this.internalMetricsMocked);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(subject.determineJitterDelay(Duration.ofMillis(200))).isBetween(Duration.ZERO, Duration.ofMillis(200));
+		}
+		assertThat(subject.determineJitterDelay(Duration.ZERO)).isZero();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testPacedReloadDelegatesToLoader() throws Exception {
+		AsyncCacheLoader<String, String> loader = Mockito.mock(AsyncCacheLoader.class);
+		Mockito.doReturn(CompletableFuture.completedFuture("loaded")).when(loader).asyncLoad(Mockito.anyString(), Mockito.any());
+		Mockito.doReturn(CompletableFuture.completedFuture("reloaded")).when(loader).asyncReload(Mockito.anyString(), Mockito.anyString(), Mockito.any());
+
+		CacheRefreshPacer subject = new CacheRefreshPacer(0.01, 100.0, this.internalMetricsMocked);
+		AsyncCacheLoader<String, String> paced = subject.pace("unittest", 1, loader);
+
+		// initial loads are not delayed
+		assertThat(paced.asyncLoad("key", ForkJoinPool.commonPool()).getNow(null)).isEqualTo("loaded");
+
+		assertThat(paced.asyncReload("key", "old", ForkJoinPool.commonPool()).get()).isEqualTo("reloaded");
+		assertThat(subject.getQueueSize()).isZero();
+
+		Mockito.verify(this.internalMetricsMocked).countCacheRefresh("unittest");
+	}
+}
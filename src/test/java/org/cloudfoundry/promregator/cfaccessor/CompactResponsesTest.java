@@ -0,0 +1,121 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.cloudfoundry.client.v3.BuildpackData;
+import org.cloudfoundry.client.v3.Lifecycle;
+import org.cloudfoundry.client.v3.LifecycleType;
+import org.cloudfoundry.client.v3.Link;
+import org.cloudfoundry.client.v3.Metadata;
+import org.cloudfoundry.client.v3.Relationship;
+import org.cloudfoundry.client.v3.ToOneRelationship;
+import org.cloudfoundry.client.v3.applications.ApplicationRelationships;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ApplicationState;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.domains.DomainResource;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v3.routes.RouteResource;
+import org.junit.jupiter.api.Test;
+
+class CompactResponsesTest {
+
+	private CFAccessorMock cfAccessorMock = new CFAccessorMock();
+
+	@Test
+	void testApplicationsKeepOnlyRelevantAttributes() {
+		ApplicationResource app = ApplicationResource.builder()
+				.id("app1")
+				.name("testapp")
+				.state(ApplicationState.STARTED)
+				.createdAt(CFAccessorMock.CREATED_AT_TIMESTAMP)
+				.updatedAt(CFAccessorMock.UPDATED_AT_TIMESTAMP)
+				.lifecycle(Lifecycle.builder().type(LifecycleType.BUILDPACK).data(BuildpackData.builder().buildpack("java_buildpack").stack("cflinuxfs4").build()).build())
+				.relationships(ApplicationRelationships.builder().space(ToOneRelationship.builder().data(Relationship.builder().id("space1").build()).build()).build())
+				.metadata(Metadata.builder()
+						.annotation("prometheus.io/scrape", "true")
+						.annotation("prometheus.io/path", "/actuator/prometheus")
+						.annotation("owner", "someone")
+						.label("team", "unittest")
+						.build())
+				.link("self", Link.builder().href("https://api.example.org/v3/apps/app1").build())
+				.build();
+		ListApplicationsResponse response = ListApplicationsResponse.builder().resource(app).build();
+
+		ApplicationResource compacted = CompactResponses.compactApplications(response).getResources().get(0);
+
+		assertThat(compacted.getId()).isEqualTo("app1");
+		assertThat(compacted.getName()).isEqualTo("testapp");
+		assertThat(compacted.getState()).isEqualTo(ApplicationState.STARTED);
+		assertThat(compacted.getUpdatedAt()).isEqualTo(CFAccessorMock.UPDATED_AT_TIMESTAMP);
+		assertThat(compacted.getRelationships().getSpace().getData().getId()).isEqualTo("space1");
+		assertThat(compacted.getMetadata().getAnnotations())
+			.containsOnlyKeys("prometheus.io/scrape", "prometheus.io/path")
+			.containsEntry("prometheus.io/path", "/actuator/prometheus");
+		assertThat(compacted.getMetadata().getLabels()).isNullOrEmpty();
+		assertThat(compacted.getLinks()).isEmpty();
+
+		assertThat(CompactResponses.estimateWeight(CompactResponses.compactApplications(response)))
+			.isLessThan(CompactResponses.estimateWeight(response));
+	}
+
+	@Test
+	void testRoutesKeepUrlsRelationshipsAndDestinations() {
+		ListRoutesResponse response = this.cfAccessorMock.retrieveRoutesForAppIds(Set.of(CFAccessorMock.UNITTEST_APP1_UUID)).block();
+
+		ListRoutesResponse compactedResponse = CompactResponses.compactRoutes(response);
+
+		assertThat(compactedResponse.getResources()).hasSameSizeAs(response.getResources());
+		RouteResource original = response.getResources().get(0);
+		RouteResource compacted = compactedResponse.getResources().get(0);
+		assertThat(compacted.getId()).isEqualTo(original.getId());
+		assertThat(compacted.getUrl()).isEqualTo(original.getUrl());
+		assertThat(compacted.getRelationships().getDomain().getData().getId()).isEqualTo(original.getRelationships().getDomain().getData().getId());
+		assertThat(ResponsesByApplication.groupRoutes(compactedResponse)).containsOnlyKeys(ResponsesByApplication.groupRoutes(response).keySet());
+	}
+
+	@Test
+	void testProcessesKeepInstances() {
+		ListProcessesResponse response = this.cfAccessorMock.retrieveWebProcessesForAppIds(Set.of(CFAccessorMock.UNITTEST_APP1_UUID)).block();
+
+		ListProcessesResponse compactedResponse = CompactResponses.compactProcesses(response);
+
+		ProcessResource original = response.getResources().get(0);
+		ProcessResource compacted = compactedResponse.getResources().get(0);
+		assertThat(compacted.getId()).isEqualTo(original.getId());
+		assertThat(compacted.getType()).isEqualTo(original.getType());
+		assertThat(compacted.getInstances()).isEqualTo(original.getInstances());
+		assertThat(compacted.getCommand()).isEmpty();
+		assertThat(ResponsesByApplication.groupProcesses(compactedResponse)).containsOnlyKeys(ResponsesByApplication.groupProcesses(response).keySet());
+	}
+
+	@Test
+	void testDomainsKeepInternalFlag() {
+		ListOrganizationDomainsResponse response = this.cfAccessorMock.retrieveAllDomainsV3(CFAccessorMock.UNITTEST_ORG_UUID).block();
+
+		ListOrganizationDomainsResponse compactedResponse = CompactResponses.compactDomains(response);
+
+		assertThat(compactedResponse.getResources()).hasSameSizeAs(response.getResources());
+		for (int i = 0; i < response.getResources().size(); i++) {
+			DomainResource original = response.getResources().get(i);
+			DomainResource compacted = compactedResponse.getResources().get(i);
+			assertThat(compacted.getId()).isEqualTo(original.getId());
+			assertThat(compacted.getName()).isEqualTo(original.getName());
+			assertThat(compacted.isInternal()).isEqualTo(original.isInternal());
+		}
+	}
+
+	@Test
+	void testEmptyResponsesArePassedThrough() {
+		ListProcessesResponse empty = ListProcessesResponse.builder().build();
+
+		assertThat(CompactResponses.compactProcesses(empty)).isSameAs(empty);
+		assertThat(CompactResponses.compactProcesses(null)).isNull();
+		assertThat(CompactResponses.estimateWeight(empty)).isPositive();
+	}
+}
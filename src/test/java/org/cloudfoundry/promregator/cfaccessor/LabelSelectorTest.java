@@ -0,0 +1,49 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LabelSelectorTest {
+
+	private static final Map<String, String> LABELS = Map.of("team", "monitoring", "env", "prod", "example.org/tier", "backend");
+
+	@Test
+	void testEquality() {
+		assertThat(LabelSelector.parse("team=monitoring").matches(LABELS)).isTrue();
+		assertThat(LabelSelector.parse("team==monitoring").matches(LABELS)).isTrue();
+		assertThat(LabelSelector.parse("team=other").matches(LABELS)).isFalse();
+		assertThat(LabelSelector.parse("team!=other").matches(LABELS)).isTrue();
+		assertThat(LabelSelector.parse("owner!=other").matches(LABELS)).isTrue();
+		assertThat(LabelSelector.parse("example.org/tier=backend").matches(LABELS)).isTrue();
+	}
+
+	@Test
+	void testSets() {
+		assertThat(LabelSelector.parse("env in (prod,staging)").matches(LABELS)).isTrue();
+		assertThat(LabelSelector.parse("env notin (prod, staging)").matches(LABELS)).isFalse();
+		assertThat(LabelSelector.parse("owner notin (prod)").matches(LABELS)).isTrue();
+	}
+
+	@Test
+	void testExistence() {
+		assertThat(LabelSelector.parse("team").matches(LABELS)).isTrue();
+		assertThat(LabelSelector.parse("!team").matches(LABELS)).isFalse();
+		assertThat(LabelSelector.parse("!owner").matches(null)).isTrue();
+	}
+
+	@Test
+	void testAllRequirementsMustBeMet() {
+		assertThat(LabelSelector.parse("team=monitoring,env in (prod,staging)").matches(LABELS)).isTrue();
+		assertThat(LabelSelector.parse("team=monitoring,env in (dev,staging)").matches(LABELS)).isFalse();
+	}
+
+	@Test
+	void testMalformedSelector() {
+		assertThatThrownBy(() -> LabelSelector.parse("team=monitoring,")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> LabelSelector.parse("env within (prod)")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
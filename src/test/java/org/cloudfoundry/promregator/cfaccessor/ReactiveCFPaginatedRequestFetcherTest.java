@@ -1,8 +1,15 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsRequest;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
@@ -16,8 +23,10 @@ import org.mockito.Mockito;
 
 import com.google.common.util.concurrent.RateLimiter;
 
+import reactor.core.Disposable;
 import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 public class ReactiveCFPaginatedRequestFetcherTest {
 
@@ -414,6 +423,129 @@ public class ReactiveCFPaginatedRequestFetcherTest {
 		Assertions.assertEquals(fallback, subjectResponse);
 	}
 
+	@Test
+	public void testConcurrentIdenticalRequestsAreDeduplicated() {
+		ReactiveCFPaginatedRequestFetcher subject = new ReactiveCFPaginatedRequestFetcher(this.internalMetricsMocked, 0, Duration.ofMillis(100));
+
+		AtomicInteger numberOfRequests = new AtomicInteger(0);
+		Sinks.One<String> sink = Sinks.one();
+
+		Function<String, Mono<String>> requestFunction = request -> Mono.defer(() -> {
+			numberOfRequests.incrementAndGet();
+			return sink.asMono();
+		});
+
+		Mono<String> first = subject.performGenericRetrieval(RequestType.OTHER, "key", "request", requestFunction, 1000);
+		Mono<String> second = subject.performGenericRetrieval(RequestType.OTHER, "key", "request", requestFunction, 1000);
+		Mono<String> otherRequestData = subject.performGenericRetrieval(RequestType.OTHER, "key", "otherRequest", requestFunction, 1000);
+
+		// requests are only registered once they are subscribed
+		Assertions.assertEquals(0, subject.getNumberOfRequestsInFlight());
+
+		List<String> responses = new CopyOnWriteArrayList<>();
+		first.subscribe(responses::add);
+		second.subscribe(responses::add);
+		Assertions.assertEquals(1, subject.getNumberOfRequestsInFlight());
+		Mockito.verify(this.internalMetricsMocked, Mockito.times(1)).countRequestDeduplication(RequestType.OTHER.getMetricName());
+
+		otherRequestData.subscribe();
+		Assertions.assertEquals(2, subject.getNumberOfRequestsInFlight());
+		Assertions.assertEquals(2, numberOfRequests.get());
+
+		sink.tryEmitValue("response");
+
+		Assertions.assertEquals(List.of("response", "response"), responses);
+		Assertions.assertEquals(2, numberOfRequests.get());
+		Assertions.assertEquals(0, subject.getNumberOfRequestsInFlight());
+
+		// once completed, a new request must be sent
+		Mono<String> third = subject.performGenericRetrieval(RequestType.OTHER, "key", "request", requestFunction, 1000);
+		Assertions.assertEquals("response", third.block());
+		Assertions.assertEquals(3, numberOfRequests.get());
+	}
+
+	@Test
+	public void testSharedRequestIsRaisedToHighestPriorityOfSubscribers() {
+		ReactiveRateLimiter rateLimiter = new ReactiveRateLimiter(this.internalMetricsMocked, 1, Collections.emptyMap());
+		ReactiveCFPaginatedRequestFetcher subject = new ReactiveCFPaginatedRequestFetcher(this.internalMetricsMocked, rateLimiter,
+				AdaptiveConcurrencyLimiter.disabled(), new RetryBudget(this.internalMetricsMocked, 0, Duration.ofMillis(100), Duration.ZERO, -1.0, 0), 1);
+
+		// consume the initial token
+		rateLimiter.acquire(RequestType.OTHER, RequestPriority.FOREGROUND).block();
+
+		Mono<String> request = subject.performGenericRetrieval(RequestType.OTHER, "key", "request", r -> Mono.just("response"), 1000);
+
+		Disposable crawl = request.contextWrite(RequestPriority.DISCOVERY_CRAWL.asContext()).subscribe();
+		Assertions.assertEquals(1, rateLimiter.getQueueSize(RequestPriority.DISCOVERY_CRAWL));
+
+		Disposable foreground = request.subscribe();
+		Assertions.assertEquals(0, rateLimiter.getQueueSize(RequestPriority.DISCOVERY_CRAWL));
+		Assertions.assertEquals(1, rateLimiter.getQueueSize(RequestPriority.FOREGROUND));
+
+		crawl.dispose();
+		foreground.dispose();
+	}
+
+	@Test
+	public void testSubsequentPagesAreRetrievedInParallelAndCollectedInOrderV3() {
+		ReactiveCFPaginatedRequestFetcher subject = new ReactiveCFPaginatedRequestFetcher(this.internalMetricsMocked, new ReactiveRateLimiter(this.internalMetricsMocked, 0, Collections.emptyMap()),
+				AdaptiveConcurrencyLimiter.disabled(), new RetryBudget(this.internalMetricsMocked, 0, Duration.ofMillis(100), Duration.ZERO, -1.0, 0), 2);
+
+		final int totalPages = 5;
+		Map<Integer, Sinks.One<org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse>> pendingPages = new ConcurrentHashMap<>();
+
+		Mono<org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse> subjectResponseMono = subject
+			.performGenericPagedRetrievalV3(RequestType.OTHER, "nokey", requestGeneratorV3, request -> {
+				if (request.getPage() == 1) {
+					return Mono.just(pageResponse(1, totalPages));
+				}
+
+				return Mono.defer(() -> {
+					Sinks.One<org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse> sink = Sinks.one();
+					pendingPages.put(request.getPage(), sink);
+					return sink.asMono();
+				});
+			}, 1000, responseGeneratorV3);
+
+		List<String> received = new CopyOnWriteArrayList<>();
+		subjectResponseMono.subscribe(response -> response.getResources().forEach(resource -> received.add(resource.getId())));
+
+		// at most two of the subsequent pages are in flight at the same time
+		Assertions.assertEquals(2, pendingPages.size());
+
+		// a later page arriving first does not change the order of the resources
+		pendingPages.get(3).tryEmitValue(pageResponse(3, totalPages));
+		pendingPages.get(2).tryEmitValue(pageResponse(2, totalPages));
+		pendingPages.get(4).tryEmitValue(pageResponse(4, totalPages));
+		pendingPages.get(5).tryEmitValue(pageResponse(5, totalPages));
+		Assertions.assertEquals(List.of("org1", "org2", "org3", "org4", "org5"), received);
+	}
+
+	@Test
+	public void testSinglePageIsReusedIfRequestedV3() {
+		ReactiveCFPaginatedRequestFetcher subject = new ReactiveCFPaginatedRequestFetcher(this.internalMetricsMocked, 0, Duration.ZERO);
+
+		final org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse page = pageResponse(1, 1);
+
+		org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse reused = subject
+			.performGenericPagedRetrievalV3(RequestType.OTHER, "nokey", requestGeneratorV3, request -> Mono.just(page), 100, responseGeneratorV3, true)
+			.block();
+		Assertions.assertSame(page, reused);
+
+		org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse rebuilt = subject
+			.performGenericPagedRetrievalV3(RequestType.OTHER, "nokey", requestGeneratorV3, request -> Mono.just(page), 100, responseGeneratorV3)
+			.block();
+		Assertions.assertNotSame(page, rebuilt);
+		Assertions.assertEquals(page.getResources(), rebuilt.getResources());
+	}
+
+	private static org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse pageResponse(int page, int totalPages) {
+		return org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse.builder()
+			.resource(org.cloudfoundry.client.v3.organizations.OrganizationResource.builder().createdAt("").id("org"+page).metadata(Metadata.builder().build()).name("").build())
+			.pagination(Pagination.builder().totalPages(totalPages).totalResults(totalPages).build())
+			.build();
+	}
+
 	@Test
 	public void testInfiniteRateLimitPossible() {
 		RateLimiter rl = RateLimiter.create(Double.POSITIVE_INFINITY);
@@ -0,0 +1,128 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.awaitility.Awaitility;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import reactor.core.Disposable;
+
+class ReactiveRateLimiterTest {
+
+	private InternalMetrics internalMetricsMocked = Mockito.mock(InternalMetrics.class);
+
+	@Test
+	void testUnlimitedDoesNotThrottle() {
+		ReactiveRateLimiter subject = new ReactiveRateLimiter(this.internalMetricsMocked, 0, Collections.emptyMap());
+		Assertions.assertTrue(subject.isUnlimited());
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 1000; i++) {
+			subject.acquire(RequestType.OTHER, RequestPriority.FOREGROUND).block();
+		}
+		Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+	}
+
+	@Test
+	void testRateIsLimited() {
+		ReactiveRateLimiter subject = new ReactiveRateLimiter(this.internalMetricsMocked, 10, Collections.emptyMap());
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			subject.acquire(RequestType.OTHER, RequestPriority.FOREGROUND).block();
+		}
+		long durationInMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+		// first one is free, the remaining four require 100ms each
+		Assertions.assertTrue(durationInMillis >= 350, "Duration was "+durationInMillis);
+		Mockito.verify(this.internalMetricsMocked, Mockito.times(5)).increaseRateLimitQueueSize(RequestPriority.FOREGROUND.getMetricName());
+		Mockito.verify(this.internalMetricsMocked, Mockito.times(5)).decreaseRateLimitQueueSize(RequestPriority.FOREGROUND.getMetricName());
+	}
+
+	@Test
+	void testHigherPriorityIsServedFirst() {
+		ReactiveRateLimiter subject = new ReactiveRateLimiter(this.internalMetricsMocked, 5, Collections.emptyMap());
+
+		// consume the initial token
+		subject.acquire(RequestType.OTHER, RequestPriority.FOREGROUND).block();
+
+		List<RequestPriority> order = new CopyOnWriteArrayList<>();
+		subject.acquire(RequestType.OTHER, RequestPriority.DISCOVERY_CRAWL).doOnSuccess(x -> order.add(RequestPriority.DISCOVERY_CRAWL)).subscribe();
+		subject.acquire(RequestType.OTHER, RequestPriority.BACKGROUND_REFRESH).doOnSuccess(x -> order.add(RequestPriority.BACKGROUND_REFRESH)).subscribe();
+		subject.acquire(RequestType.OTHER, RequestPriority.FOREGROUND).doOnSuccess(x -> order.add(RequestPriority.FOREGROUND)).subscribe();
+
+		Assertions.assertEquals(1, subject.getQueueSize(RequestPriority.FOREGROUND));
+
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> order.size() == 3);
+
+		Assertions.assertEquals(List.of(RequestPriority.FOREGROUND, RequestPriority.BACKGROUND_REFRESH, RequestPriority.DISCOVERY_CRAWL), order);
+	}
+
+	@Test
+	void testRaisedPriorityMovesWaitingRequest() {
+		ReactiveRateLimiter subject = new ReactiveRateLimiter(this.internalMetricsMocked, 5, Collections.emptyMap());
+
+		// consume the initial token
+		subject.acquire(RequestType.OTHER, RequestPriority.FOREGROUND).block();
+
+		List<String> order = new CopyOnWriteArrayList<>();
+		SharedRequestPriority shared = new SharedRequestPriority(RequestPriority.DISCOVERY_CRAWL);
+		subject.acquire(RequestType.OTHER, RequestPriority.BACKGROUND_REFRESH).doOnSuccess(x -> order.add("refresh")).subscribe();
+		subject.acquire(RequestType.OTHER, shared).doOnSuccess(x -> order.add("shared")).subscribe();
+		Assertions.assertEquals(1, subject.getQueueSize(RequestPriority.DISCOVERY_CRAWL));
+
+		// a caller waiting in foreground joins the shared request
+		shared.raiseTo(RequestPriority.FOREGROUND);
+		Assertions.assertEquals(0, subject.getQueueSize(RequestPriority.DISCOVERY_CRAWL));
+		Assertions.assertEquals(1, subject.getQueueSize(RequestPriority.FOREGROUND));
+
+		// lowering is not possible
+		shared.raiseTo(RequestPriority.BACKGROUND_REFRESH);
+		Assertions.assertEquals(RequestPriority.FOREGROUND, shared.get());
+
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> order.size() == 2);
+		Assertions.assertEquals(List.of("shared", "refresh"), order);
+	}
+
+	@Test
+	void testSharedPriorityStopsFollowingOnceDisposed() {
+		SharedRequestPriority caller = new SharedRequestPriority(RequestPriority.DISCOVERY_CRAWL);
+		SharedRequestPriority request = new SharedRequestPriority(RequestPriority.DISCOVERY_CRAWL);
+
+		Disposable following = request.follow(caller);
+		caller.raiseTo(RequestPriority.BACKGROUND_REFRESH);
+		Assertions.assertEquals(RequestPriority.BACKGROUND_REFRESH, request.get());
+
+		// the request has terminated; the caller (which may live much longer) must not refer to it anymore
+		following.dispose();
+		caller.raiseTo(RequestPriority.FOREGROUND);
+		Assertions.assertEquals(RequestPriority.BACKGROUND_REFRESH, request.get());
+	}
+
+	@Test
+	void testRequestTypeBudgetDoesNotBlockOtherTypes() {
+		ReactiveRateLimiter subject = new ReactiveRateLimiter(this.internalMetricsMocked, 0, Map.of(RequestType.ROUTES.getMetricName(), 0.5));
+		Assertions.assertFalse(subject.isUnlimited());
+
+		// consume the initial token of the route budget
+		subject.acquire(RequestType.ROUTES, RequestPriority.FOREGROUND).block();
+
+		Disposable waitingRoute = subject.acquire(RequestType.ROUTES, RequestPriority.FOREGROUND).subscribe();
+		Assertions.assertEquals(1, subject.getQueueSize(RequestPriority.FOREGROUND));
+
+		long start = System.nanoTime();
+		subject.acquire(RequestType.PROCESSES, RequestPriority.FOREGROUND).block();
+		Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 500);
+
+		// cancelling removes the request from the queue
+		waitingRoute.dispose();
+		Assertions.assertEquals(0, subject.getQueueSize(RequestPriority.FOREGROUND));
+	}
+}
@@ -1,10 +1,12 @@
 package org.cloudfoundry.promregator.cfaccessor;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 
 import org.awaitility.Awaitility;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 class RequestAggregatorTest {
 
@@ -200,5 +203,105 @@ class RequestAggregatorTest {
 			subject.stop();
 		}
 	}
+	
+	private static class ReqeuestAggregatorWithSlowResponses extends RequestAggregator<Integer, String> {
+
+		private final List<Sinks.One<String>> pendingResponses = new CopyOnWriteArrayList<>();
+		private final List<List<Integer>> blocksSent = new CopyOnWriteArrayList<>();
+		
+		public ReqeuestAggregatorWithSlowResponses(int checkIntervalInMillis) {
+			super(RequestAggregator.Type.OTHER, null, Integer.class, String.class, checkIntervalInMillis, 2, 1);
+		}
+
+		@Override
+		protected Mono<String> sendRequest(List<Integer> block) {
+			this.blocksSent.add(block);
+			
+			Sinks.One<String> sink = Sinks.one();
+			this.pendingResponses.add(sink);
+			
+			List<String> stringList = block.stream().map(i -> i+"").toList();
+			return sink.asMono().map(x -> String.join(",", stringList));
+		}
 
+		@Override
+		protected Map<Integer, String> determineMapOfResponses(String response) {
+			Map<Integer, String> result = new HashMap<>();
+			List.of(response.split(",")).forEach(s -> result.put(Integer.parseInt(s), s));
+			return result;
+		}
+		
+	}
+	
+	@Test
+	void testFullBlockIsSentWithoutWaiting() {
+		ReqeuestAggregatorWithSlowResponses subject = new ReqeuestAggregatorWithSlowResponses(60_000);
+		
+		try {
+			final CompletableFuture<String> future1 = new CompletableFuture<>();
+			final CompletableFuture<String> future2 = new CompletableFuture<>();
+			subject.addToQueue(1, future1);
+			Assertions.assertEquals(0, subject.blocksSent.size());
+			
+			subject.addToQueue(2, future2);
+			Assertions.assertEquals(List.of(List.of(1, 2)), subject.blocksSent);
+			
+			subject.pendingResponses.get(0).tryEmitValue("ignored");
+			Assertions.assertEquals("1", future1.join());
+			Assertions.assertEquals("2", future2.join());
+		} finally {
+			subject.stop();
+		}
+	}
+	
+	@Test
+	void testLoneRequestIsSentAfterQuietPeriod() {
+		ReqeuestAggregatorWithSlowResponses subject = new ReqeuestAggregatorWithSlowResponses(5_000);
+		
+		try {
+			final CompletableFuture<String> future1 = new CompletableFuture<>();
+			subject.addToQueue(1, future1);
+			Assertions.assertEquals(0, subject.blocksSent.size());
+			
+			// no further request comes in: the block is sent after the quiet period (1s), not after 5s
+			Awaitility.await().atMost(Duration.ofMillis(3_000)).until(() -> subject.blocksSent.size() == 1);
+			Assertions.assertEquals(List.of(1), subject.blocksSent.get(0));
+			
+			subject.pendingResponses.get(0).tryEmitValue("ignored");
+			Assertions.assertEquals("1", future1.join());
+		} finally {
+			subject.stop();
+		}
+	}
+	
+	@Test
+	void testConcurrentBlocksAreLimited() {
+		ReqeuestAggregatorWithSlowResponses subject = new ReqeuestAggregatorWithSlowResponses(60_000);
+		
+		try {
+			List<CompletableFuture<String>> futures = new ArrayList<>();
+			for (int i = 1; i <= 5; i++) {
+				CompletableFuture<String> future = new CompletableFuture<>();
+				futures.add(future);
+				subject.addToQueue(i, future);
+			}
+			
+			// only one block may be in flight; the remaining requests wait in the queue
+			Assertions.assertEquals(1, subject.blocksSent.size());
+			Assertions.assertEquals(1, subject.getBlocksInFlight());
+			Assertions.assertEquals(3, subject.getQueueSize());
+			
+			subject.pendingResponses.get(0).tryEmitValue("ignored");
+			
+			// completing the first block immediately sends the next full one
+			Assertions.assertEquals(List.of(3, 4), subject.blocksSent.get(1));
+			Assertions.assertEquals(1, subject.getQueueSize());
+			Assertions.assertEquals("2", futures.get(1).join());
+		} finally {
+			subject.stop();
+		}
+		
+		// stopping does not leave anyone waiting
+		Assertions.assertEquals(0, subject.getQueueSize());
+	}
 }
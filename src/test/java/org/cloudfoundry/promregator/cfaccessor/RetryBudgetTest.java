@@ -0,0 +1,96 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.UnknownCloudFoundryException;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import reactor.core.publisher.Mono;
+
+class RetryBudgetTest {
+
+	private InternalMetrics internalMetricsMocked = Mockito.mock(InternalMetrics.class);
+
+	@Test
+	void testRetriesAreLimitedToRatioOfSuccesses() {
+		RetryBudget subject = new RetryBudget(this.internalMetricsMocked, 2, Duration.ZERO, Duration.ZERO, 0.1, 0);
+
+		Assertions.assertFalse(subject.tryAcquireRetry());
+
+		for (int i = 0; i < 20; i++) {
+			subject.recordSuccess();
+		}
+
+		Assertions.assertTrue(subject.tryAcquireRetry());
+		Assertions.assertTrue(subject.tryAcquireRetry());
+		Assertions.assertFalse(subject.tryAcquireRetry());
+	}
+
+	@Test
+	void testMinimalRetriesArePermittedWithoutSuccesses() {
+		RetryBudget subject = new RetryBudget(this.internalMetricsMocked, 2, Duration.ZERO, Duration.ZERO, 0.1, 0.2);
+
+		Assertions.assertTrue(subject.tryAcquireRetry());
+		Assertions.assertTrue(subject.tryAcquireRetry());
+		Assertions.assertFalse(subject.tryAcquireRetry());
+	}
+
+	@Test
+	void testNegativeRatioDisablesBudget() {
+		RetryBudget subject = new RetryBudget(this.internalMetricsMocked, 2, Duration.ZERO, Duration.ZERO, -1.0, 0);
+
+		for (int i = 0; i < 100; i++) {
+			Assertions.assertTrue(subject.tryAcquireRetry());
+		}
+	}
+
+	@Test
+	void testRetrySpecStopsWhenBudgetIsExhausted() {
+		RetryBudget subject = new RetryBudget(this.internalMetricsMocked, 2, Duration.ofMillis(10), Duration.ZERO, 0.1, 0.1);
+
+		AtomicInteger attempts = new AtomicInteger(0);
+		Mono<String> failing = Mono.<String>fromCallable(() -> {
+			attempts.incrementAndGet();
+			throw new UnknownCloudFoundryException(503);
+		}).retryWhen(subject.retrySpec(RequestType.OTHER));
+
+		// the original error is propagated, not a "retries exhausted" error
+		Assertions.assertThrows(UnknownCloudFoundryException.class, failing::block);
+
+		// only one retry is in the budget
+		Assertions.assertEquals(2, attempts.get());
+		Mockito.verify(this.internalMetricsMocked).countRetry(RequestType.OTHER.getMetricName(), true);
+		Mockito.verify(this.internalMetricsMocked).countRetry(RequestType.OTHER.getMetricName(), false);
+	}
+
+	@Test
+	void testRetrySpecHonorsMaximalNumberOfRetries() {
+		RetryBudget subject = new RetryBudget(this.internalMetricsMocked, 2, Duration.ofMillis(10), Duration.ZERO, -1.0, 0);
+
+		AtomicInteger attempts = new AtomicInteger(0);
+		Mono<String> failing = Mono.<String>fromCallable(() -> {
+			attempts.incrementAndGet();
+			throw new UnknownCloudFoundryException(503);
+		}).retryWhen(subject.retrySpec(RequestType.OTHER));
+
+		Assertions.assertThrows(UnknownCloudFoundryException.class, failing::block);
+		Assertions.assertEquals(3, attempts.get());
+	}
+
+	@Test
+	void testDelayUsesFullJitterAndThrottlingBackoff() {
+		RetryBudget subject = new RetryBudget(this.internalMetricsMocked, 2, Duration.ofMillis(100), Duration.ofMillis(1000), 0.1, 1);
+
+		for (int i = 0; i < 50; i++) {
+			long delay = subject.determineDelay(1, new UnknownCloudFoundryException(503)).toMillis();
+			Assertions.assertTrue(delay >= 0 && delay <= 200, "Delay was "+delay);
+
+			long throttledDelay = subject.determineDelay(0, new UnknownCloudFoundryException(429)).toMillis();
+			Assertions.assertTrue(throttledDelay >= 1000 && throttledDelay <= 1100, "Delay was "+throttledDelay);
+		}
+	}
+}
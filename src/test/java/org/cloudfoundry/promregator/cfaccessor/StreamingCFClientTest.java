@@ -0,0 +1,74 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.client.v3.ClientV3Exception;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.promregator.mockServer.CloudControllerMockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+class StreamingCFClientTest {
+
+	private static final String APPS_RESPONSE = "{\"pagination\": {\"total_results\": 1, \"total_pages\": 1}, "
+			+ "\"resources\": [{\"guid\": \"app1\", \"name\": \"testapp\", \"state\": \"STARTED\", \"relationships\": {\"space\": {\"data\": {\"guid\": \"space1\"}}}}]}";
+
+	private CloudControllerMockServer mockServer;
+
+	private AtomicInteger invalidations = new AtomicInteger();
+
+	@BeforeEach
+	void startMockServer() throws IOException {
+		this.mockServer = new CloudControllerMockServer();
+		this.mockServer.setResponse(APPS_RESPONSE);
+		this.mockServer.start();
+	}
+
+	@AfterEach
+	void stopMockServer() {
+		this.mockServer.stop();
+	}
+
+	private StreamingCFClient client(boolean compression) {
+		return new StreamingCFClient(HttpClient.create(), Mono.just(this.mockServer.getRootV3()), Mono.just("bearer unittest"),
+				this.invalidations::incrementAndGet, compression);
+	}
+
+	@Test
+	void testPageIsRetrievedAndParsed() {
+		ListApplicationsResponse response = this.client(false).get("apps?space_guids=space1&page=1", StreamingResponseParser::parseApplications).block();
+
+		assertThat(response.getResources()).hasSize(1);
+		assertThat(response.getResources().get(0).getId()).isEqualTo("app1");
+		assertThat(this.mockServer.getLastAuthorization()).isEqualTo("bearer unittest");
+		assertThat(this.mockServer.getLastQuery()).isEqualTo("space_guids=space1&page=1");
+		assertThat(this.mockServer.isLastResponseCompressed()).isFalse();
+	}
+
+	@Test
+	void testCompressedResponseIsDecoded() {
+		ListApplicationsResponse response = this.client(true).get("apps?page=1", StreamingResponseParser::parseApplications).block();
+
+		assertThat(this.mockServer.isLastResponseCompressed()).isTrue();
+		assertThat(response.getResources()).hasSize(1);
+		assertThat(response.getResources().get(0).getName()).isEqualTo("testapp");
+	}
+
+	@Test
+	void testUnauthorizedInvalidatesToken() {
+		this.mockServer.setStatus(401);
+
+		final StreamingCFClient client = this.client(false);
+		assertThatThrownBy(() -> client.get("apps?page=1", StreamingResponseParser::parseApplications).block())
+			.isInstanceOf(ClientV3Exception.class);
+		assertThat(this.invalidations.get()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,126 @@
+package org.cloudfoundry.promregator.cfaccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ApplicationState;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationDomainsResponse;
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v3.routes.RouteResource;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+class StreamingResponseParserTest {
+
+	private static InputStream json(String json) {
+		return new ByteArrayInputStream(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testParseApplications() throws IOException {
+		ListApplicationsResponse response = StreamingResponseParser.parseApplications(json("{"
+				+ "'pagination': {'total_results': 3, 'total_pages': 2, 'first': {'href': 'https://api.example.org/v3/apps?page=1'}, 'next': null},"
+				+ "'resources': [{"
+				+ "  'guid': 'app1', 'name': 'testapp', 'state': 'STARTED',"
+				+ "  'created_at': '2023-01-01T00:00:00Z', 'updated_at': '2023-01-02T00:00:00Z',"
+				+ "  'lifecycle': {'type': 'buildpack', 'data': {'buildpacks': ['java_buildpack'], 'stack': 'cflinuxfs4'}},"
+				+ "  'relationships': {'space': {'data': {'guid': 'space1'}}},"
+				+ "  'metadata': {'labels': {'team': 'unittest'}, 'annotations': {'prometheus.io/scrape': 'true', 'owner': 'someone'}},"
+				+ "  'links': {'self': {'href': 'https://api.example.org/v3/apps/app1'}}"
+				+ "}, {"
+				+ "  'guid': 'app2', 'name': 'otherapp', 'state': 'STOPPED', 'created_at': '2023-01-01T00:00:00Z'"
+				+ "}]"
+				+ "}"));
+
+		assertThat(response.getPagination().getTotalPages()).isEqualTo(2);
+		assertThat(response.getPagination().getTotalResults()).isEqualTo(3);
+		assertThat(response.getResources()).hasSize(2);
+
+		ApplicationResource app = response.getResources().get(0);
+		assertThat(app.getId()).isEqualTo("app1");
+		assertThat(app.getName()).isEqualTo("testapp");
+		assertThat(app.getState()).isEqualTo(ApplicationState.STARTED);
+		assertThat(app.getUpdatedAt()).isEqualTo("2023-01-02T00:00:00Z");
+		assertThat(app.getRelationships().getSpace().getData().getId()).isEqualTo("space1");
+		assertThat(app.getMetadata().getAnnotations()).containsOnlyKeys("prometheus.io/scrape");
+		assertThat(app.getMetadata().getLabels()).isNullOrEmpty();
+		assertThat(app.getLinks()).isEmpty();
+
+		assertThat(response.getResources().get(1).getState()).isEqualTo(ApplicationState.STOPPED);
+		assertThat(response.getResources().get(1).getMetadata().getAnnotations()).isNullOrEmpty();
+	}
+
+	@Test
+	void testParseProcesses() throws IOException {
+		ListProcessesResponse response = StreamingResponseParser.parseProcesses(json("{"
+				+ "'pagination': {'total_results': 1, 'total_pages': 1},"
+				+ "'resources': [{"
+				+ "  'guid': 'process1', 'type': 'web', 'command': 'java -jar app.jar', 'instances': 3, 'memory_in_mb': 1024,"
+				+ "  'health_check': {'type': 'port', 'data': {'timeout': null}},"
+				+ "  'relationships': {'app': {'data': {'guid': 'app1'}}, 'revision': null},"
+				+ "  'created_at': '2023-01-01T00:00:00Z'"
+				+ "}]"
+				+ "}"));
+
+		ProcessResource process = response.getResources().get(0);
+		assertThat(process.getId()).isEqualTo("process1");
+		assertThat(process.getType()).isEqualTo("web");
+		assertThat(process.getInstances()).isEqualTo(3);
+		assertThat(process.getRelationships().getApp().getData().getId()).isEqualTo("app1");
+		assertThat(process.getCommand()).isEmpty();
+	}
+
+	@Test
+	void testParseRoutes() throws IOException {
+		ListRoutesResponse response = StreamingResponseParser.parseRoutes(json("{"
+				+ "'pagination': {'total_results': 1, 'total_pages': 1},"
+				+ "'resources': [{"
+				+ "  'guid': 'route1', 'host': 'hostapp1', 'path': '/path', 'url': 'hostapp1.shared.domain.example.org/path',"
+				+ "  'destinations': [{'guid': 'dest1', 'app': {'guid': 'app1', 'process': {'type': 'web'}}, 'port': 8080}],"
+				+ "  'relationships': {'domain': {'data': {'guid': 'domain1'}}, 'space': {'data': {'guid': 'space1'}}},"
+				+ "  'created_at': '2023-01-01T00:00:00Z'"
+				+ "}]"
+				+ "}"));
+
+		RouteResource route = response.getResources().get(0);
+		assertThat(route.getId()).isEqualTo("route1");
+		assertThat(route.getUrl()).isEqualTo("hostapp1.shared.domain.example.org/path");
+		assertThat(route.getDestinations()).hasSize(1);
+		assertThat(route.getDestinations().get(0).getApplication().getApplicationId()).isEqualTo("app1");
+		assertThat(route.getRelationships().getDomain().getData().getId()).isEqualTo("domain1");
+		assertThat(route.getRelationships().getSpace().getData().getId()).isEqualTo("space1");
+		assertThat(ResponsesByApplication.groupRoutes(response)).containsOnlyKeys("app1");
+	}
+
+	@Test
+	void testParseDomains() throws IOException {
+		ListOrganizationDomainsResponse response = StreamingResponseParser.parseDomains(json("{"
+				+ "'pagination': {'total_results': 2, 'total_pages': 1},"
+				+ "'resources': ["
+				+ "  {'guid': 'domain1', 'name': 'shared.domain.example.org', 'internal': false, 'router_group': null, 'supported_protocols': ['http']},"
+				+ "  {'guid': 'domain2', 'name': 'apps.internal', 'internal': true}"
+				+ "]"
+				+ "}"));
+
+		assertThat(response.getResources()).hasSize(2);
+		assertThat(response.getResources().get(0).getName()).isEqualTo("shared.domain.example.org");
+		assertThat(response.getResources().get(0).isInternal()).isFalse();
+		assertThat(response.getResources().get(1).isInternal()).isTrue();
+	}
+
+	@Test
+	void testNonObjectResponseIsRejected() {
+		assertThatThrownBy(() -> StreamingResponseParser.parseApplications(json("['unexpected']")))
+			.isInstanceOf(JsonParseException.class);
+	}
+}
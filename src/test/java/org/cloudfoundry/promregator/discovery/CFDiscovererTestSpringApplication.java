@@ -56,6 +56,11 @@ public class CFDiscovererTestSpringApplication {
 		return new CFMultiDiscoverer();
 	}
 	
+	@Bean
+	public DiscoveryChangeFeed discoveryChangeFeed() {
+		return new DiscoveryChangeFeed();
+	}
+	
 	@Bean
 	public MessageBus messageBus() {
 		return new MessageBus();
@@ -0,0 +1,108 @@
+package org.cloudfoundry.promregator.discovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.cfaccessor.RequestPriority;
+import org.cloudfoundry.promregator.config.PromregatorConfiguration;
+import org.cloudfoundry.promregator.config.Target;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.cloudfoundry.promregator.scanner.AppInstanceScanner;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.cloudfoundry.promregator.scanner.TargetResolver;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = CacheWarmerTest.CacheWarmerTestConfiguration.class)
+class CacheWarmerTest {
+
+	@Configuration
+	static class CacheWarmerTestConfiguration {
+		@Bean
+		public TargetResolver targetResolver() {
+			return Mockito.mock(TargetResolver.class);
+		}
+
+		@Bean
+		public AppInstanceScanner appInstanceScanner() {
+			return Mockito.mock(AppInstanceScanner.class);
+		}
+
+		@Bean
+		public PromregatorConfiguration promregatorConfiguration() {
+			PromregatorConfiguration config = new PromregatorConfiguration();
+			config.setTargets(List.of(target("app1"), target("app2"), target("app3")));
+			return config;
+		}
+
+		@Bean
+		public InternalMetrics internalMetrics() {
+			return new InternalMetrics();
+		}
+
+		@Bean
+		public CacheWarmer cacheWarmer(TargetResolver targetResolver, AppInstanceScanner appInstanceScanner, PromregatorConfiguration promregatorConfiguration, InternalMetrics internalMetrics) {
+			return new CacheWarmer(targetResolver, appInstanceScanner, promregatorConfiguration, internalMetrics);
+		}
+	}
+
+	@AfterAll
+	static void cleanUp() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	@Autowired
+	private CacheWarmer subject;
+
+	@Autowired
+	private TargetResolver targetResolver;
+
+	@Autowired
+	private AppInstanceScanner appInstanceScanner;
+
+	private static Target target(String applicationName) {
+		Target t = new Target();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName(applicationName);
+		return t;
+	}
+
+	@Test
+	void testAllTargetsAreWarmedUpDespiteFailures() {
+		List<RequestPriority> priorities = new CopyOnWriteArrayList<>();
+		Mockito.when(this.targetResolver.resolveTargets(Mockito.anyList())).thenAnswer(invocation -> {
+			priorities.add(RequestPriority.fromContext(RequestPriority.contextOfCurrentThread()));
+			List<Target> targets = invocation.getArgument(0);
+			Target t = targets.get(0);
+			if ("app2".equals(t.getApplicationName())) {
+				throw new IllegalStateException("unit test failure");
+			}
+			return List.of(new ResolvedTarget(t));
+		});
+
+		this.subject.warmUp().block();
+
+		// each target is resolved on its own
+		Mockito.verify(this.targetResolver, Mockito.times(3)).resolveTargets(Mockito.argThat(list -> list.size() == 1));
+		// the failing target does not prevent the others from being scanned
+		Mockito.verify(this.appInstanceScanner, Mockito.times(2)).determineInstancesFromTargets(Mockito.anyList(), Mockito.isNull(), Mockito.isNull());
+
+		assertThat(this.subject.getTargetsTotal()).isEqualTo(3);
+		assertThat(this.subject.getTargetsWarmedUp()).isEqualTo(3);
+
+		// warming up must not compete with scrapes
+		assertThat(priorities).containsOnly(RequestPriority.DISCOVERY_CRAWL);
+	}
+}
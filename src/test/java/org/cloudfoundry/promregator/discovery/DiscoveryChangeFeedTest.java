@@ -0,0 +1,126 @@
+package org.cloudfoundry.promregator.discovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.discovery.DiscoveryChangeFeed.ChangeSet;
+import org.cloudfoundry.promregator.messagebus.MessageBus;
+import org.cloudfoundry.promregator.messagebus.MessageBusTopic;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.Disposable;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = CFDiscovererTestSpringApplication.class)
+@TestPropertySource(locations="default.properties", properties="promregator.discovery.feed.history=2")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class DiscoveryChangeFeedTest {
+
+	@AfterAll
+	static void cleanUp() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	@Autowired
+	private DiscoveryChangeFeed subject;
+
+	@Autowired
+	private MessageBus messageBus;
+
+	private static Instance instance(String applicationId, int instanceNumber) {
+		ResolvedTarget target = new ResolvedTarget();
+		target.setOrgName("unittestorg");
+		target.setSpaceName("unittestspace");
+		target.setApplicationName("app-" + applicationId);
+		target.setApplicationId(applicationId);
+		target.setPath("/metrics");
+		target.setProtocol("https");
+
+		return new Instance(target, applicationId + ":" + instanceNumber, "https://" + applicationId + ".example.org/metrics", false);
+	}
+
+	private final Instance instanceA0 = instance("a", 0);
+	private final Instance instanceA1 = instance("a", 1);
+	private final Instance instanceB0 = instance("b", 0);
+
+	@Test
+	void testUnknownTokenResultsInReset() {
+		this.messageBus.notifyEvent(MessageBusTopic.DISCOVERER_INSTANCES_DISCOVERED, List.of(instanceA0, instanceB0));
+
+		ChangeSet changes = this.subject.changesSince(null);
+		assertThat(changes.reset()).isTrue();
+		assertThat(changes.added()).containsExactly(instanceA0, instanceB0);
+		assertThat(changes.removed()).isEmpty();
+
+		assertThat(this.subject.changesSince("someOtherEpoch-1").reset()).isTrue();
+	}
+
+	@Test
+	void testOnlyChangesSinceTokenAreReported() {
+		this.subject.update(List.of(instanceA0, instanceB0));
+		String token = this.subject.changesSince(null).token();
+
+		// nothing has changed
+		this.subject.update(List.of(instanceB0, instanceA0));
+		ChangeSet noChanges = this.subject.changesSince(token);
+		assertThat(noChanges.isEmpty()).isTrue();
+		assertThat(noChanges.token()).isEqualTo(token);
+
+		// cf scale a -i 2
+		this.subject.update(List.of(instanceA0, instanceA1, instanceB0));
+		ChangeSet changes = this.subject.changesSince(token);
+		assertThat(changes.reset()).isFalse();
+		assertThat(changes.added()).containsExactly(instanceA1);
+		assertThat(changes.removed()).isEmpty();
+		assertThat(changes.token()).isNotEqualTo(token);
+
+		// cf scale a -i 1; the instance added in between is not reported at all
+		this.subject.update(List.of(instanceA0, instanceB0));
+		ChangeSet coalesced = this.subject.changesSince(token);
+		assertThat(coalesced.isEmpty()).isTrue();
+
+		ChangeSet removal = this.subject.changesSince(changes.token());
+		assertThat(removal.added()).isEmpty();
+		assertThat(removal.removed()).containsExactly(instanceA1);
+	}
+
+	@Test
+	void testTokenOlderThanHistoryResultsInReset() {
+		this.subject.update(List.of(instanceA0));
+		String token = this.subject.changesSince(null).token();
+
+		this.subject.update(List.of(instanceA0, instanceA1));
+		this.subject.update(List.of(instanceA0, instanceA1, instanceB0));
+		assertThat(this.subject.changesSince(token).reset()).isFalse();
+
+		// only two versions are kept in history
+		this.subject.update(List.of(instanceB0));
+		ChangeSet changes = this.subject.changesSince(token);
+		assertThat(changes.reset()).isTrue();
+		assertThat(changes.added()).containsExactly(instanceB0);
+	}
+
+	@Test
+	void testNewVersionsAreStreamed() {
+		List<String> tokens = new ArrayList<>();
+		Disposable subscription = this.subject.versions().subscribe(tokens::add);
+
+		this.subject.update(List.of(instanceA0));
+		this.subject.update(List.of(instanceA0));
+		subscription.dispose();
+
+		assertThat(tokens).containsExactly(this.subject.changesSince(null).token());
+	}
+}
@@ -0,0 +1,123 @@
+package org.cloudfoundry.promregator.discovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.cloudfoundry.promregator.config.Target;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiscoverySnapshotStoreTest {
+
+	private static final Instant NOW = Instant.parse("2030-01-01T00:00:00Z");
+
+	@TempDir
+	Path tempDir;
+
+	private static Target target(String appName) {
+		Target t = new Target();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName(appName);
+		return t;
+	}
+
+	private static ResolvedTarget resolvedTarget(Target t, String appId) {
+		ResolvedTarget rt = new ResolvedTarget(t);
+		rt.setApplicationId(appId);
+		return rt;
+	}
+
+	@Test
+	void testRoundTrip() throws IOException {
+		Target t = target("testapp");
+		ResolvedTarget rt = resolvedTarget(t, "app1");
+		Instance i0 = new Instance(rt, "app1:0", "https://hostapp1.shared.domain.example.org/metrics", false);
+		Instance i1 = new Instance(rt, "app1:1", "https://hostapp1.shared.domain.example.org/metrics", true);
+
+		DiscoverySnapshotStore subject = new DiscoverySnapshotStore(this.tempDir.resolve("snapshot.bin"));
+		subject.write(List.of(i0, i1), List.of(t), NOW);
+
+		List<Instance> result = subject.read(List.of(t), NOW.minusSeconds(60));
+		assertThat(result).containsExactlyInAnyOrder(i0, i1);
+		assertThat(result.get(0).getTarget().getOriginalTarget()).isSameAs(t);
+		assertThat(subject.readSnapshot(List.of(t), NOW.minusSeconds(60)).createdAt()).isEqualTo(NOW);
+
+		// no temporary files left behind
+		try (var files = Files.list(this.tempDir)) {
+			assertThat(files).containsExactly(subject.getFile());
+		}
+	}
+
+	@Test
+	void testDirectAccessUrlIsPersisted() throws IOException {
+		Target t = target("testapp");
+		ResolvedTarget rt = resolvedTarget(t, "app1");
+		Instance i0 = new Instance(rt, "app1:0", "https://hostapp1.shared.domain.example.org/metrics", false);
+		i0.setDirectAccessUrl("http://10.0.16.4:61001/metrics");
+		Instance i1 = new Instance(rt, "app1:1", "https://hostapp1.shared.domain.example.org/metrics", false);
+
+		DiscoverySnapshotStore subject = new DiscoverySnapshotStore(this.tempDir.resolve("snapshot.bin"));
+		subject.write(List.of(i0, i1), List.of(t), NOW);
+
+		List<Instance> result = subject.read(List.of(t), NOW);
+		assertThat(result).extracting("instanceId", "directAccessUrl").containsExactly(
+				tuple("app1:0", "http://10.0.16.4:61001/metrics"),
+				tuple("app1:1", null));
+	}
+
+	@Test
+	void testInstancesOfChangedTargetsAreDropped() throws IOException {
+		Target t1 = target("testapp");
+		Target t2 = target("testapp2");
+		Instance i1 = new Instance(resolvedTarget(t1, "app1"), "app1:0", "https://hostapp1/metrics", false);
+		Instance i2 = new Instance(resolvedTarget(t2, "app2"), "app2:0", "https://hostapp2/metrics", false);
+
+		DiscoverySnapshotStore subject = new DiscoverySnapshotStore(this.tempDir.resolve("snapshot.bin"));
+		subject.write(List.of(i1, i2), List.of(t1, t2), NOW);
+
+		Target t2Changed = target("testapp2");
+		t2Changed.setPath("/other");
+
+		List<Instance> result = subject.read(List.of(target("testapp"), t2Changed), NOW);
+		assertThat(result).hasSize(1);
+		assertThat(result.get(0).getInstanceId()).isEqualTo("app1:0");
+	}
+
+	@Test
+	void testOutdatedSnapshotIsIgnored() throws IOException {
+		Target t = target("testapp");
+		Instance i = new Instance(resolvedTarget(t, "app1"), "app1:0", "https://hostapp1/metrics", false);
+
+		DiscoverySnapshotStore subject = new DiscoverySnapshotStore(this.tempDir.resolve("snapshot.bin"));
+		subject.write(List.of(i), List.of(t), NOW);
+
+		assertThat(subject.read(List.of(t), NOW.plusSeconds(1))).isEmpty();
+	}
+
+	@Test
+	void testMissingSnapshotYieldsEmptyList() throws IOException {
+		DiscoverySnapshotStore subject = new DiscoverySnapshotStore(this.tempDir.resolve("doesnotexist.bin"));
+
+		assertThat(subject.read(List.of(target("testapp")), NOW)).isEmpty();
+	}
+
+	@Test
+	void testForeignFileIsRejected() throws IOException {
+		Path file = this.tempDir.resolve("snapshot.bin");
+		Files.writeString(file, "this is not a snapshot");
+
+		DiscoverySnapshotStore subject = new DiscoverySnapshotStore(file);
+
+		assertThatThrownBy(() -> subject.read(List.of(target("testapp")), NOW)).isInstanceOf(IOException.class);
+	}
+}
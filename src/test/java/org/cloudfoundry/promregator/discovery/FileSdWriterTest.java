@@ -0,0 +1,106 @@
+package org.cloudfoundry.promregator.discovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudfoundry.promregator.discovery.FileSdWriter.Format;
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yaml.snakeyaml.Yaml;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class FileSdWriterTest {
+
+	@TempDir
+	Path tempDir;
+
+	private static Instance instance(String orgName, String applicationId, int instanceNumber) {
+		ResolvedTarget target = new ResolvedTarget();
+		target.setOrgName(orgName);
+		target.setSpaceName("unittestspace");
+		target.setApplicationName("app \"" + applicationId + "\"");
+		target.setApplicationId(applicationId);
+		target.setPath("/metrics");
+		target.setProtocol("https");
+
+		return new Instance(target, applicationId + ":" + instanceNumber, "https://" + applicationId + ".example.org/metrics", false);
+	}
+
+	private final List<Instance> instances = List.of(instance("org1", "a", 0), instance("org1", "a", 1), instance("org/2", "b", 0));
+
+	@Test
+	void testJson() throws IOException {
+		Path file = this.tempDir.resolve("promregator.json");
+		FileSdWriter subject = new FileSdWriter(file, Format.JSON, false, "localhost:8080", true);
+
+		subject.write(this.instances);
+
+		JsonNode document = new ObjectMapper().readTree(file.toFile());
+		assertThat(document.size()).isEqualTo(4);
+		assertThat(document.get(0).get("targets").get(0).asText()).isEqualTo("localhost:8080");
+
+		JsonNode labels = document.get(1).get("labels");
+		assertThat(labels.get("__metrics_path__").asText()).isEqualTo("/singleTargetMetrics/a/1");
+		assertThat(labels.get("__meta_promregator_target_applicationName").asText()).isEqualTo("app \"a\"");
+		assertThat(labels.get("__meta_promregator_target_instanceId").asText()).isEqualTo("a:1");
+
+		assertThat(document.get(3).get("labels").get("__metrics_path__").asText()).isEqualTo("/promregatorMetrics");
+
+		// no temporary files are left behind
+		try (var files = Files.list(this.tempDir)) {
+			assertThat(files).containsExactly(file);
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testYaml() throws IOException {
+		Path file = this.tempDir.resolve("promregator.yml");
+		FileSdWriter subject = new FileSdWriter(file, Format.YAML, false, "localhost:8080", false);
+
+		subject.write(this.instances);
+
+		List<Map<String, Object>> document = new Yaml().load(Files.readString(file));
+		assertThat(document).hasSize(3);
+		assertThat((List<String>) document.get(2).get("targets")).containsExactly("localhost:8080");
+
+		Map<String, String> labels = (Map<String, String>) document.get(2).get("labels");
+		assertThat(labels).containsEntry("__metrics_path__", "/singleTargetMetrics/b/0")
+			.containsEntry("__meta_promregator_target_orgName", "org/2")
+			.containsEntry("__meta_promregator_target_applicationName", "app \"b\"");
+
+		subject.write(List.of());
+		assertThat((List<Object>) new Yaml().load(Files.readString(file))).isEmpty();
+	}
+
+	@Test
+	void testSplitByOrg() throws IOException {
+		Path file = this.tempDir.resolve("promregator.json");
+		FileSdWriter subject = new FileSdWriter(file, Format.JSON, true, "localhost:8080", true);
+
+		subject.write(this.instances);
+
+		Path org1File = this.tempDir.resolve("promregator-org1.json");
+		Path org2File = this.tempDir.resolve("promregator-org_2.json");
+		assertThat(subject.fileOfOrg("org/2")).isEqualTo(org2File);
+
+		ObjectMapper mapper = new ObjectMapper();
+		assertThat(mapper.readTree(file.toFile()).size()).isEqualTo(1);
+		assertThat(mapper.readTree(org1File.toFile()).size()).isEqualTo(2);
+		assertThat(mapper.readTree(org2File.toFile()).size()).isEqualTo(1);
+
+		// org/2 has no instances anymore
+		subject.write(this.instances.subList(0, 2));
+		assertThat(org1File).exists();
+		assertThat(org2File).doesNotExist();
+	}
+}
@@ -0,0 +1,87 @@
+package org.cloudfoundry.promregator.discovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class ShardAssignmentTest {
+
+	private static List<String> instanceIds(int count) {
+		List<String> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			// a few applications with many instances and many applications with few instances
+			result.add(UUID.nameUUIDFromBytes(Integer.toString(i / 4).getBytes()) + ":" + (i % 4));
+		}
+		return result;
+	}
+
+	@Test
+	void testWithoutShardingAllInstancesAreOwned() {
+		ShardAssignment subject = new ShardAssignment(1, 0);
+
+		assertThat(subject.isSharded()).isFalse();
+		assertThat(subject.isResponsibleFor("faedbb0a-2273-4cb4-a659-bd31331f7daf:0")).isTrue();
+	}
+
+	@Test
+	void testIndexIsIgnoredWithoutSharding() {
+		// e.g. the fourth replica, whose index is taken from CF_INSTANCE_INDEX
+		ShardAssignment subject = new ShardAssignment(1, 3);
+
+		assertThat(subject.isSharded()).isFalse();
+		assertThat(subject.getIndex()).isZero();
+		assertThat(subject.isResponsibleFor("faedbb0a-2273-4cb4-a659-bd31331f7daf:0")).isTrue();
+	}
+
+	@Test
+	void testEachInstanceIsOwnedByExactlyOneShard() {
+		ShardAssignment[] shards = { new ShardAssignment(3, 0), new ShardAssignment(3, 1), new ShardAssignment(3, 2) };
+		int[] counts = new int[shards.length];
+
+		List<String> instanceIds = instanceIds(3000);
+		for (String instanceId : instanceIds) {
+			int owners = 0;
+			for (int i = 0; i < shards.length; i++) {
+				if (shards[i].isResponsibleFor(instanceId)) {
+					owners++;
+					counts[i]++;
+				}
+			}
+			assertThat(owners).isEqualTo(1);
+		}
+
+		for (int count : counts) {
+			assertThat(count).isBetween(900, 1100);
+		}
+	}
+
+	@Test
+	void testAddingAShardOnlyMovesInstancesToTheNewShard() {
+		List<String> instanceIds = instanceIds(4000);
+
+		int moved = 0;
+		for (String instanceId : instanceIds) {
+			int before = ShardAssignment.shardOf(instanceId, 3);
+			int after = ShardAssignment.shardOf(instanceId, 4);
+			if (before != after) {
+				assertThat(after).isEqualTo(3);
+				moved++;
+			}
+		}
+
+		// ideally, a quarter of the instances moves to the new shard
+		assertThat(moved).isBetween(900, 1100);
+	}
+
+	@Test
+	void testInvalidConfigurationIsRejected() {
+		assertThatThrownBy(() -> new ShardAssignment(0, 0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new ShardAssignment(2, 2)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new ShardAssignment(2, -1)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -12,7 +12,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -34,8 +33,7 @@ public class DiscoveryEndpointNoPromregatorMetricsTest {
 	void testStraightForward() {
 		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
 		
-		ResponseEntity<DiscoveryResponse[]> responseEntity = this.subject.getDiscovery(requestMock);
-		DiscoveryResponse[] response = responseEntity.getBody();
+		DiscoveryResponse[] response = this.subject.determineDiscoveryDocument(requestMock).getResponses();
 		
 		Assertions.assertEquals(3, response.length);
 		
@@ -35,10 +35,10 @@ public class DiscoveryEndpointNoTargetsDefinedTest {
 	void testIssue180() {
 		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
 		
-		ResponseEntity<DiscoveryResponse[]> responseE = this.subject.getDiscovery(requestMock);
+		ResponseEntity<byte[]> responseE = this.subject.getDiscovery(requestMock);
 		Assertions.assertEquals(HttpStatus.OK, responseE.getStatusCode());
 		
-		DiscoveryResponse[] response = responseE.getBody();
+		DiscoveryResponse[] response = this.subject.determineDiscoveryDocument(requestMock).getResponses();
 		
 		Assertions.assertEquals(1, response.length);
 		
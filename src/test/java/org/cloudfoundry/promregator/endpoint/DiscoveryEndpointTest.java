@@ -1,10 +1,19 @@
 package org.cloudfoundry.promregator.endpoint;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer;
 import org.cloudfoundry.promregator.endpoint.DiscoveryEndpoint.DiscoveryLabel;
 import org.cloudfoundry.promregator.endpoint.DiscoveryEndpoint.DiscoveryResponse;
+import org.cloudfoundry.promregator.messagebus.MessageBus;
+import org.cloudfoundry.promregator.messagebus.MessageBusTopic;
+import org.cloudfoundry.promregator.scanner.Instance;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -12,6 +21,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -30,12 +41,17 @@ public class DiscoveryEndpointTest {
 	@Autowired
 	private DiscoveryEndpoint subject;
 	
+	@Autowired
+	private CFMultiDiscoverer cfDiscoverer;
+	
+	@Autowired
+	private MessageBus messageBus;
+	
 	@Test
 	void testStraightForward() {
 		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
 		
-		ResponseEntity<DiscoveryResponse[]> responseE = this.subject.getDiscovery(requestMock);
-		DiscoveryResponse[] response = responseE.getBody();
+		DiscoveryResponse[] response = this.subject.determineDiscoveryDocument(requestMock).getResponses();
 		
 		Assertions.assertEquals(4, response.length);
 		
@@ -90,5 +106,81 @@ public class DiscoveryEndpointTest {
 		Assertions.assertEquals(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS, label.getTargetPath());
 		
 	}
+	
+	@Test
+	void testDocumentIsReusedAndRevalidated() {
+		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
+		
+		ResponseEntity<byte[]> first = this.subject.getDiscovery(requestMock);
+		Assertions.assertEquals(HttpStatus.OK, first.getStatusCode());
+		String etag = first.getHeaders().getETag();
+		Assertions.assertNotNull(etag);
+		String version = first.getHeaders().getFirst(EndpointConstants.HTTP_HEADER_PROMREGATOR_DISCOVERY_VERSION);
+		
+		ResponseEntity<byte[]> second = this.subject.getDiscovery(requestMock);
+		Assertions.assertEquals(etag, second.getHeaders().getETag());
+		Assertions.assertEquals(version, second.getHeaders().getFirst(EndpointConstants.HTTP_HEADER_PROMREGATOR_DISCOVERY_VERSION));
+		// the very same serialized document is served again
+		Assertions.assertSame(first.getBody(), second.getBody());
+		
+		Mockito.when(requestMock.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"outdated\", " + etag);
+		ResponseEntity<byte[]> notModified = this.subject.getDiscovery(requestMock);
+		Assertions.assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+		Assertions.assertNull(notModified.getBody());
+		Assertions.assertEquals(etag, notModified.getHeaders().getETag());
+	}
+	
+	@Test
+	void testPrecompressedDocument() throws IOException {
+		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
+		
+		ResponseEntity<byte[]> plain = this.subject.getDiscovery(requestMock);
+		Assertions.assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		
+		Mockito.when(requestMock.getHeader(HttpHeaders.ACCEPT_ENCODING)).thenReturn("deflate, gzip;q=0.8");
+		ResponseEntity<byte[]> compressed = this.subject.getDiscovery(requestMock);
+		Assertions.assertEquals("gzip", compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		// the compressed document is a representation of its own
+		String plainEtag = plain.getHeaders().getETag();
+		Assertions.assertEquals(plainEtag.substring(0, plainEtag.length() - 1) + "-gzip\"", compressed.getHeaders().getETag());
+		
+		try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(compressed.getBody()))) {
+			Assertions.assertArrayEquals(plain.getBody(), gis.readAllBytes());
+		}
+		
+		Mockito.when(requestMock.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(compressed.getHeaders().getETag());
+		ResponseEntity<byte[]> notModified = this.subject.getDiscovery(requestMock);
+		Assertions.assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+		Assertions.assertEquals(compressed.getHeaders().getETag(), notModified.getHeaders().getETag());
+		
+		Mockito.when(requestMock.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(null);
+		Mockito.when(requestMock.getHeader(HttpHeaders.ACCEPT_ENCODING)).thenReturn("gzip;q=0");
+		Assertions.assertNull(this.subject.getDiscovery(requestMock).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+	}
+	
+	@Test
+	void testDocumentIsRebuiltOnPublishedDiscovery() {
+		HttpServletRequest requestMock = Mockito.mock(HttpServletRequest.class);
+		
+		List<Instance> instances = this.cfDiscoverer.discover(null, null);
+		DiscoveryDocument before = this.subject.determineDiscoveryDocument(requestMock);
+		Assertions.assertEquals(instances.size() + 1, before.getSize());
+		
+		try {
+			this.messageBus.notifyEvent(MessageBusTopic.DISCOVERER_INSTANCES_DISCOVERED, instances.subList(0, 1));
+			
+			DiscoveryDocument after = this.subject.determineDiscoveryDocument(requestMock);
+			Assertions.assertEquals(2, after.getSize());
+			Assertions.assertTrue(after.getVersion() > before.getVersion());
+			Assertions.assertNotEquals(before.getEtag(), after.getEtag());
+			
+			// the latest document is served as is
+			Assertions.assertSame(after, this.subject.determineDiscoveryDocument(requestMock));
+		} finally {
+			this.messageBus.notifyEvent(MessageBusTopic.DISCOVERER_INSTANCES_DISCOVERED, instances);
+		}
+		
+		Assertions.assertEquals(instances.size() + 1, this.subject.determineDiscoveryDocument(requestMock).getSize());
+	}
 
 }
@@ -0,0 +1,48 @@
+package org.cloudfoundry.promregator.endpoint;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MockedAppInstanceScannerEndpointSpringApplication.class)
+@TestPropertySource(locations="default.properties")
+@DirtiesContext
+class ReadinessEndpointTest {
+
+	@AfterAll
+	static void cleanupEnvironment() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	@Autowired
+	private ReadinessEndpoint subject;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Test
+	void testReadinessFollowsApplicationAvailability() {
+		ResponseEntity<String> response = this.subject.getReadiness();
+		Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+		Assertions.assertEquals("ACCEPTING_TRAFFIC", response.getBody());
+
+		AvailabilityChangeEvent.publish(this.applicationContext, ReadinessState.REFUSING_TRAFFIC);
+
+		response = this.subject.getReadiness();
+		Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		Assertions.assertEquals("REFUSING_TRAFFIC", response.getBody());
+	}
+}
@@ -213,5 +213,147 @@ public class MetricsFetcherTest {
 		Assertions.assertNull(response);
 	}
 
+	@Test
+	void testDirectToCell() throws Exception {
+		String instanceId = "abcd:4";
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		
+		// the route must not be used
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9042/metrics", "http://localhost:9002/metrics", instanceId, config, false);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST);
+		
+		FetchResult response = subject.call();
+		
+		ParserCompareUtils.compareFetchResult(response, DUMMY_METRICS_LIST);
+		Assertions.assertNull(this.mems.getMetricsEndpointHandler().getHeaders().getFirst("X-CF-APP-INSTANCE"));
+	}
+
+	@Test
+	void testDirectToCellFallsBackToRoute() throws Exception {
+		String instanceId = "abcd:4";
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		
+		// nobody is listening at the "cell"
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9002/metrics", "http://localhost:9042/metrics", instanceId, config, false);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST);
+		
+		final double fallbacksBefore = mfm.getDirectFallbacks().get();
+		
+		FetchResult response = subject.call();
+		
+		ParserCompareUtils.compareFetchResult(response, DUMMY_METRICS_LIST);
+		Assertions.assertEquals(instanceId, this.mems.getMetricsEndpointHandler().getHeaders().getFirst("X-CF-APP-INSTANCE"));
+		Assertions.assertEquals(fallbacksBefore + 1, mfm.getDirectFallbacks().get(), 0.001);
+	}
+
+	@Test
+	void testDirectToCellIsNotAuthenticatedByDefault() throws Exception {
+		String instanceId = "abcd:4";
+		TestAuthenticationEnricher ae = new TestAuthenticationEnricher();
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setAuthenticationEnricher(ae);
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9042/metrics", "http://localhost:9002/metrics", instanceId, config, false);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST);
+		
+		FetchResult response = subject.call();
+		
+		ParserCompareUtils.compareFetchResult(response, DUMMY_METRICS_LIST);
+		Assertions.assertFalse(ae.isCalled());
+		Assertions.assertNull(this.mems.getMetricsEndpointHandler().getHeaders().getFirst("Authentication"));
+	}
+
+	@Test
+	void testDirectToCellIsAuthenticatedIfEnabled() throws Exception {
+		String instanceId = "abcd:4";
+		TestAuthenticationEnricher ae = new TestAuthenticationEnricher();
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setAuthenticationEnricher(ae);
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		config.setDirectAuthenticationEnabled(true);
+		
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9042/metrics", "http://localhost:9002/metrics", instanceId, config, false);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST);
+		
+		FetchResult response = subject.call();
+		
+		ParserCompareUtils.compareFetchResult(response, DUMMY_METRICS_LIST);
+		Assertions.assertTrue(ae.isCalled());
+		Assertions.assertEquals("Bearer abc", this.mems.getMetricsEndpointHandler().getHeaders().getFirst("Authentication"));
+	}
+
+	@Test
+	void testDirectToCellUsesOwnTimeout() throws Exception {
+		String instanceId = "abcd:4";
+		NullMetricFamilySamplesEnricher dummymfse = new NullMetricFamilySamplesEnricher("dummy", "dummy", "dummy", "dummy:0");
+		List<String> labelValues = dummymfse.getEnrichedLabelValues(new LinkedList<>());
+		String[] ownTelemetryLabelValues = labelValues.toArray(new String[0]);
+		
+		MetricsFetcherMetrics mfm = new MetricsFetcherMetrics(ownTelemetryLabelValues, false);
+		
+		CFMetricsFetcherConfig config = new CFMetricsFetcherConfig();
+		config.setMetricsFetcherMetrics(mfm);
+		config.setPromregatorInstanceIdentifier(UUID.randomUUID());
+		config.setConnectionTimeoutInMillis(5000);
+		config.setSocketReadTimeoutInMillis(5000);
+		config.setDirectTimeoutInMillis(10); // Note that this is way too strict
+		
+		// both requests reach the same (slow) server; only the direct one times out
+		CFMetricsFetcher subject = new CFMetricsFetcher("http://localhost:9002/metrics", "http://localhost:9002/metrics", instanceId, config, false);
+		
+		this.mems.getMetricsEndpointHandler().setResponse(DUMMY_METRICS_LIST);
+		this.mems.getMetricsEndpointHandler().setDelayInMillis(500);
+		
+		final double fallbacksBefore = mfm.getDirectFallbacks().get();
+		
+		FetchResult response = subject.call();
+		
+		ParserCompareUtils.compareFetchResult(response, DUMMY_METRICS_LIST);
+		Assertions.assertEquals(instanceId, this.mems.getMetricsEndpointHandler().getHeaders().getFirst("X-CF-APP-INSTANCE"));
+		Assertions.assertEquals(fallbacksBefore + 1, mfm.getDirectFallbacks().get(), 0.001);
+	}
 
 }
@@ -0,0 +1,97 @@
+package org.cloudfoundry.promregator.lite.discovery
+
+import jakarta.servlet.http.HttpServletRequest
+import kotlinx.coroutines.runBlocking
+import org.assertj.core.api.Assertions.assertThat
+import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer
+import org.cloudfoundry.promregator.endpoint.EndpointConstants
+import org.cloudfoundry.promregator.scanner.Instance
+import org.cloudfoundry.promregator.scanner.ResolvedTarget
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import org.springframework.http.HttpStatus
+import java.time.Clock
+
+class DiscoveryControllerV2Test {
+
+    private val app1Instance0 = instance("org1", "space1", "app1", 0)
+    private val app2Instance0 = instance("org2", "space1", "app2", 0)
+
+    private val cfDiscoverer = Mockito.mock(CFMultiDiscoverer::class.java).also {
+        Mockito.`when`(it.discover(null, null)).thenReturn(listOf(app1Instance0, app2Instance0))
+    }
+
+    private val request = Mockito.mock(HttpServletRequest::class.java)
+
+    private fun subject(ownMetricsEndpoint: Boolean = true) = DiscoveryControllerV2(
+            DiscoveryService(cfDiscoverer, Clock.systemUTC(), 5),
+            "api.cf.example.org", "discovery-hostname", 1234, ownMetricsEndpoint)
+
+    @Test
+    fun testUnfilteredDocumentListsOwnMetricsEndpoint() = runBlocking<Unit> {
+        val response = subject().discovery(request, false, null, null, null, null)
+
+        assertThat(response.statusCode).isEqualTo(HttpStatus.OK)
+        val body = response.body!!
+        assertThat(body.map { it.labels.targetPath }).containsExactly(
+                "${EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING}/app1-guid/0",
+                "${EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING}/app2-guid/0",
+                EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS)
+        assertThat(body.flatMap { it.targets }).containsOnly("discovery-hostname:1234")
+        assertThat(body[0].labels.orgName).isEqualTo("org1")
+        assertThat(body[2].labels.orgName).isNull()
+    }
+
+    @Test
+    fun testFilteredDocumentOmitsOwnMetricsEndpoint() = runBlocking<Unit> {
+        val response = subject().discovery(request, false, null, "ORG2", null, null)
+
+        assertThat(response.body!!.map { it.labels.targetPath })
+                .containsExactly("${EndpointConstants.ENDPOINT_PATH_SINGLE_TARGET_SCRAPING}/app2-guid/0")
+    }
+
+    @Test
+    fun testOwnMetricsEndpointMayBeDisabled() = runBlocking<Unit> {
+        val response = subject(ownMetricsEndpoint = false).discovery(request, false, null, null, null, null)
+
+        assertThat(response.body!!.map { it.labels.targetPath }).hasSize(2)
+                .doesNotContain(EndpointConstants.ENDPOINT_PATH_PROMREGATOR_METRICS)
+    }
+
+    @Test
+    fun testOtherApiYieldsEmptyDocumentWithoutDiscovery() = runBlocking<Unit> {
+        val response = subject().discovery(request, false, "api.other.example.org", null, null, null)
+
+        assertThat(response.statusCode).isEqualTo(HttpStatus.OK)
+        assertThat(response.body).isEmpty()
+        Mockito.verifyNoInteractions(cfDiscoverer)
+    }
+
+    @Test
+    fun testOwnApiIsComparedCaseInsensitively() = runBlocking<Unit> {
+        val response = subject().discovery(request, false, "API.CF.example.org", "org1", null, null)
+
+        assertThat(response.body!!.map { it.labels.applicationName }).containsExactly("app1")
+    }
+
+    @Test
+    fun testUnsuccessfulDiscoveryYieldsServiceUnavailable() = runBlocking<Unit> {
+        Mockito.`when`(cfDiscoverer.discover(null, null)).thenReturn(null)
+
+        val response = subject().discovery(request, false, null, null, null, null)
+
+        assertThat(response.statusCode).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+    }
+
+    private fun instance(orgName: String, spaceName: String, applicationName: String, instanceNumber: Int): Instance {
+        val target = ResolvedTarget()
+        target.orgName = orgName
+        target.spaceName = spaceName
+        target.applicationName = applicationName
+        target.applicationId = "$applicationName-guid"
+        target.path = "/metrics"
+        target.protocol = "https"
+
+        return Instance(target, "$applicationName-guid:$instanceNumber", "https://$applicationName.example.org/metrics", false)
+    }
+}
@@ -0,0 +1,89 @@
+package org.cloudfoundry.promregator.lite.discovery
+
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.runBlocking
+import org.assertj.core.api.Assertions.assertThat
+import org.cloudfoundry.promregator.discovery.CFMultiDiscoverer
+import org.cloudfoundry.promregator.scanner.Instance
+import org.cloudfoundry.promregator.scanner.ResolvedTarget
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+
+class DiscoveryServiceTest {
+
+    private class MutableClock(var now: Instant) : Clock() {
+        override fun getZone(): ZoneId = ZoneOffset.UTC
+
+        override fun withZone(zone: ZoneId?): Clock = this
+
+        override fun instant(): Instant = now
+    }
+
+    private val instances = listOf(instance(0), instance(1))
+
+    private val cfDiscoverer = Mockito.mock(CFMultiDiscoverer::class.java).also {
+        Mockito.`when`(it.discover(null, null)).thenReturn(instances)
+    }
+
+    private val clock = MutableClock(Instant.parse("2030-01-01T00:00:00Z"))
+
+    private val subject = DiscoveryService(cfDiscoverer, clock, 5)
+
+    @Test
+    fun testConcurrentCallersTriggerOneDiscovery() = runBlocking<Unit> {
+        val indices = (1..10).map { async { subject.discover(false) } }.awaitAll()
+
+        assertThat(indices).hasSize(10)
+        assertThat(indices.distinct()).hasSize(1)
+        assertThat(indices[0]!!.instances).isEqualTo(instances)
+        Mockito.verify(cfDiscoverer, Mockito.times(1)).discover(null, null)
+    }
+
+    @Test
+    fun testIndexIsReusedUntilMaxAge() = runBlocking<Unit> {
+        val first = subject.discover(false)
+
+        clock.now = clock.now.plus(Duration.ofSeconds(4))
+        assertThat(subject.discover(false)).isSameAs(first)
+        Mockito.verify(cfDiscoverer, Mockito.times(1)).discover(null, null)
+
+        clock.now = clock.now.plus(Duration.ofSeconds(1))
+        subject.discover(false)
+        Mockito.verify(cfDiscoverer, Mockito.times(2)).discover(null, null)
+    }
+
+    @Test
+    fun testBypassCacheTriggersDiscovery() = runBlocking<Unit> {
+        subject.discover(false)
+        subject.discover(true)
+
+        Mockito.verify(cfDiscoverer, Mockito.times(2)).discover(null, null)
+    }
+
+    @Test
+    fun testUnsuccessfulDiscoveryIsNotCached() = runBlocking<Unit> {
+        Mockito.`when`(cfDiscoverer.discover(null, null)).thenReturn(null, instances)
+
+        assertThat(subject.discover(false)).isNull()
+        assertThat(subject.discover(false)!!.instances).isEqualTo(instances)
+        Mockito.verify(cfDiscoverer, Mockito.times(2)).discover(null, null)
+    }
+
+    private fun instance(instanceNumber: Int): Instance {
+        val target = ResolvedTarget()
+        target.orgName = "unittestorg"
+        target.spaceName = "unittestspace"
+        target.applicationName = "unittestapp"
+        target.applicationId = "unittestapp-guid"
+        target.path = "/metrics"
+        target.protocol = "https"
+
+        return Instance(target, "unittestapp-guid:$instanceNumber", "https://unittestapp.example.org/metrics", false)
+    }
+}
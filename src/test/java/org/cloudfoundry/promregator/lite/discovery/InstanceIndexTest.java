@@ -0,0 +1,56 @@
+package org.cloudfoundry.promregator.lite.discovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.cloudfoundry.promregator.scanner.Instance;
+import org.cloudfoundry.promregator.scanner.ResolvedTarget;
+import org.junit.jupiter.api.Test;
+
+class InstanceIndexTest {
+
+	private static Instance instance(String orgName, String spaceName, String applicationName, int instanceNumber) {
+		ResolvedTarget target = new ResolvedTarget();
+		target.setOrgName(orgName);
+		target.setSpaceName(spaceName);
+		target.setApplicationName(applicationName);
+		target.setApplicationId(applicationName + "-guid");
+		target.setPath("/metrics");
+		target.setProtocol("https");
+
+		return new Instance(target, applicationName + "-guid:" + instanceNumber, "https://" + applicationName + ".example.org/metrics", false);
+	}
+
+	private final Instance app1Instance0 = instance("org1", "space1", "app1", 0);
+	private final Instance app1Instance1 = instance("org1", "space1", "app1", 1);
+	private final Instance app2Instance0 = instance("org1", "space2", "app2", 0);
+	private final Instance app3Instance0 = instance("org2", "space1", "app3", 0);
+
+	private final InstanceIndex subject = new InstanceIndex(List.of(app1Instance0, app2Instance0, app3Instance0, app1Instance1));
+
+	@Test
+	void testWithoutFilterAllInstancesAreReturned() {
+		assertThat(this.subject.filter(null, null, null)).containsExactly(app1Instance0, app1Instance1, app2Instance0, app3Instance0);
+	}
+
+	@Test
+	void testFilterByOrg() {
+		assertThat(this.subject.filter("org1", null, null)).containsExactly(app1Instance0, app1Instance1, app2Instance0);
+		assertThat(this.subject.filter("ORG2", null, null)).containsExactly(app3Instance0);
+		assertThat(this.subject.filter("unknownOrg", null, null)).isEmpty();
+	}
+
+	@Test
+	void testFilterBySpaceAcrossOrgs() {
+		assertThat(this.subject.filter(null, "space1", null)).containsExactly(app1Instance0, app1Instance1, app3Instance0);
+		assertThat(this.subject.filter("org1", "Space1", null)).containsExactly(app1Instance0, app1Instance1);
+	}
+
+	@Test
+	void testFilterByApplication() {
+		assertThat(this.subject.filter(null, null, "app2")).containsExactly(app2Instance0);
+		assertThat(this.subject.filter("org2", null, "app2")).isEmpty();
+		assertThat(this.subject.filter("org1", "space1", "APP1")).containsExactly(app1Instance0, app1Instance1);
+	}
+}
@@ -0,0 +1,101 @@
+package org.cloudfoundry.promregator.mockServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stub of the V3 API of the Cloud Controller, which responds to all requests with the same
+ * (configurable) JSON document. The response is gzip-compressed, if the client accepts it.
+ */
+public class CloudControllerMockServer {
+	private HttpServer server;
+
+	protected int port = 9004;
+
+	private int status = 200;
+
+	private String response = "{}";
+
+	private int counterCalled = 0;
+
+	private String lastAuthorization;
+
+	private String lastQuery;
+
+	private boolean lastResponseCompressed;
+
+	public void start() throws IOException {
+		InetSocketAddress bindAddress = new InetSocketAddress("127.0.0.1", this.port);
+		this.server = HttpServer.create(bindAddress, 0);
+
+		this.server.createContext("/v3", new CloudControllerHttpHandler());
+
+		this.server.start();
+	}
+
+	public void stop() {
+		this.server.stop(1);
+	}
+
+	public String getRootV3() {
+		return String.format("http://127.0.0.1:%d/v3", this.port);
+	}
+
+	private class CloudControllerHttpHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange he) throws IOException {
+			counterCalled++;
+			lastAuthorization = he.getRequestHeaders().getFirst("Authorization");
+			lastQuery = he.getRequestURI().getQuery();
+
+			final String acceptEncoding = he.getRequestHeaders().getFirst("Accept-Encoding");
+			lastResponseCompressed = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+			final byte[] body = response.getBytes(StandardCharsets.UTF_8);
+			he.getResponseHeaders().add("Content-Type", "application/json");
+			if (lastResponseCompressed) {
+				he.getResponseHeaders().add("Content-Encoding", "gzip");
+				he.sendResponseHeaders(status, 0);
+				try (OutputStream os = new GZIPOutputStream(he.getResponseBody())) {
+					os.write(body);
+				}
+			} else {
+				he.sendResponseHeaders(status, body.length);
+				try (OutputStream os = he.getResponseBody()) {
+					os.write(body);
+				}
+			}
+		}
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public void setResponse(String response) {
+		this.response = response;
+	}
+
+	public int getCounterCalled() {
+		return counterCalled;
+	}
+
+	public String getLastAuthorization() {
+		return lastAuthorization;
+	}
+
+	public String getLastQuery() {
+		return lastQuery;
+	}
+
+	public boolean isLastResponseCompressed() {
+		return lastResponseCompressed;
+	}
+}
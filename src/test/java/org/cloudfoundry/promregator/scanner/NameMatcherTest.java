@@ -0,0 +1,79 @@
+package org.cloudfoundry.promregator.scanner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class NameMatcherTest {
+
+	private static Pattern pattern(String regex) {
+		return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+	}
+
+	@Test
+	void testNamesAreMatchedCaseInsensitively() {
+		NameMatcher<String> subject = new NameMatcher<>();
+		subject.add("a", "testApp", null);
+		subject.add("b", "otherapp", null);
+
+		assertThat(subject.match("TESTAPP")).containsExactly("a");
+		assertThat(subject.match("testapp2")).isEmpty();
+	}
+
+	@Test
+	void testItemsWithoutFilterMatchAllNames() {
+		NameMatcher<String> subject = new NameMatcher<>();
+		subject.add("all", null, null);
+		subject.add("a", "testapp", null);
+
+		assertThat(subject.match("testapp")).containsExactly("all", "a");
+		assertThat(subject.match("anything")).containsExactly("all");
+	}
+
+	@Test
+	void testPatternsMustMatchEntireName() {
+		NameMatcher<String> subject = new NameMatcher<>();
+		subject.add("a", null, pattern("test.*"));
+		subject.add("b", null, pattern(".*2"));
+		subject.add("c", "ignoredName", pattern("TESTAPP\\d"));
+
+		assertThat(subject.match("testapp")).containsExactly("a");
+		assertThat(subject.match("testapp2")).containsExactlyInAnyOrder("a", "b", "c");
+		assertThat(subject.match("mytestapp")).isEmpty();
+		assertThat(subject.match("ignoredName")).isEmpty();
+	}
+
+	@Test
+	void testIdenticalPatternsAreShared() {
+		NameMatcher<String> subject = new NameMatcher<>();
+		subject.add("a", null, pattern("app-.*"));
+		subject.add("b", null, pattern("app-.*"));
+
+		assertThat(subject.match("APP-1")).containsExactly("a", "b");
+	}
+
+	@Test
+	void testLiteralPrefix() {
+		assertThat(NameMatcher.literalPrefix("testapp.*")).isEqualTo("testapp");
+		assertThat(NameMatcher.literalPrefix("^Test-App_1\\d+")).isEqualTo("test-app_1");
+		assertThat(NameMatcher.literalPrefix("testapps?")).isEqualTo("testapp");
+		assertThat(NameMatcher.literalPrefix("testapp*")).isEqualTo("testap");
+		assertThat(NameMatcher.literalPrefix("ab{2}")).isEqualTo("a");
+		assertThat(NameMatcher.literalPrefix("ab+c")).isEqualTo("ab");
+		assertThat(NameMatcher.literalPrefix("abc|def")).isEmpty();
+		assertThat(NameMatcher.literalPrefix("(?i)abc")).isEmpty();
+		assertThat(NameMatcher.literalPrefix("[a-z]+")).isEmpty();
+	}
+
+	@Test
+	void testPatternsWithoutLiteralPrefixAreEvaluated() {
+		NameMatcher<String> subject = new NameMatcher<>();
+		subject.add("a", null, pattern("prod-.*"));
+		subject.add("b", null, pattern("[a-z]+-app"));
+
+		assertThat(subject.match("prod-app")).containsExactlyInAnyOrder("a", "b");
+		assertThat(subject.match("dev-app")).containsExactly("b");
+	}
+}
@@ -0,0 +1,76 @@
+package org.cloudfoundry.promregator.scanner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP1_UUID;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.config.Target;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MockedReactiveAppInstanceScannerSpringApplication.class)
+@TestPropertySource(locations="default.properties", properties="promregator.scraping.directToCell=true")
+class ReactiveAppInstanceScannerDirectToCellTest {
+
+	@Autowired
+	private AppInstanceScanner appInstanceScanner;
+
+	@AfterAll
+	static void cleanUp() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	private static ResolvedTarget target(Target originalTarget) {
+		ResolvedTarget t = new ResolvedTarget();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName("testapp");
+		t.setPath("/testpath1");
+		t.setProtocol("https");
+		t.setApplicationId(UNITTEST_APP1_UUID);
+		t.setOriginalTarget(originalTarget);
+		return t;
+	}
+
+	@Test
+	void testCellAddressIsDetermined() {
+		List<ResolvedTarget> targets = new LinkedList<>();
+		targets.add(target(new Target()));
+
+		List<Instance> result = this.appInstanceScanner.determineInstancesFromTargets(targets, null, null);
+
+		// crashed instances are still returned, but cannot be reached directly
+		assertThat(result).hasSize(2);
+
+		assertThat(result).filteredOn( instance -> instance.getInstanceId().equals(UNITTEST_APP1_UUID+":0") )
+				.extracting("accessUrl", "directAccessUrl")
+				.containsOnly(tuple("https://hostapp1.shared.domain.example.org/testpath1", "http://10.0.16.4:61000/testpath1"));
+
+		assertThat(result).filteredOn( instance -> instance.getInstanceId().equals(UNITTEST_APP1_UUID+":1") )
+				.extracting("directAccessUrl").containsOnlyNulls();
+	}
+
+	@Test
+	void testContainerPortOfTargetIsRespected() {
+		Target originalTarget = new Target();
+		originalTarget.setInternalRoutePort(9090);
+
+		List<ResolvedTarget> targets = new LinkedList<>();
+		targets.add(target(originalTarget));
+
+		List<Instance> result = this.appInstanceScanner.determineInstancesFromTargets(targets, null, null);
+
+		assertThat(result).hasSize(2);
+		assertThat(result).extracting("directAccessUrl").containsOnlyNulls();
+	}
+}
@@ -0,0 +1,116 @@
+package org.cloudfoundry.promregator.scanner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP1_UUID;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP2_UUID;
+
+import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.routes.ListRoutesResponse;
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessorMock;
+import org.cloudfoundry.promregator.config.Target;
+import org.cloudfoundry.promregator.internalmetrics.InternalMetrics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Mono;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = ReactiveAppInstanceScannerIsolationTest.IsolationTestSpringApplication.class)
+@TestPropertySource(locations="default.properties")
+class ReactiveAppInstanceScannerIsolationTest {
+
+	private static final String UNITTEST_APP_FAILING_UUID = "fa11fa11-0000-0000-0000-000000000000";
+
+	/**
+	 * a CF accessor, which is slow on looking up the processes of APP1 and fails on the processes of another application
+	 */
+	private static class SlowAndFailingCFAccessorMock extends CFAccessorMock {
+		@Override
+		public Mono<ListProcessesResponse> retrieveWebProcessesForAppId(String applicationId) {
+			if (UNITTEST_APP_FAILING_UUID.equals(applicationId)) {
+				return Mono.error(new IllegalStateException("Unit test exception on retrieving processes"));
+			}
+
+			if (UNITTEST_APP1_UUID.equals(applicationId)) {
+				return super.retrieveWebProcessesForAppId(applicationId).delayElement(Duration.ofMillis(300));
+			}
+
+			return super.retrieveWebProcessesForAppId(applicationId);
+		}
+
+		@Override
+		public Mono<ListRoutesResponse> retrieveRoutesForAppId(String appId) {
+			if (UNITTEST_APP_FAILING_UUID.equals(appId)) {
+				throw new IllegalStateException("Routes must not be requested for an application whose processes could not be retrieved");
+			}
+
+			return super.retrieveRoutesForAppId(appId);
+		}
+	}
+
+	@Configuration
+	static class IsolationTestSpringApplication {
+		@Bean
+		public InternalMetrics internalMetrics() {
+			return new InternalMetrics();
+		}
+
+		@Bean
+		public CFAccessor cfAccessor() {
+			return new SlowAndFailingCFAccessorMock();
+		}
+
+		@Bean
+		public AppInstanceScanner appInstanceScanner() {
+			return new ReactiveAppInstanceScanner();
+		}
+	}
+
+	@Autowired
+	private AppInstanceScanner appInstanceScanner;
+
+	@AfterAll
+	static void cleanUp() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	private static ResolvedTarget target(String applicationName, String applicationId) {
+		ResolvedTarget t = new ResolvedTarget();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName(applicationName);
+		t.setPath("/testpath");
+		t.setProtocol("https");
+		t.setApplicationId(applicationId);
+		t.setOriginalTarget(new Target());
+		return t;
+	}
+
+	@Test
+	void testFailingTargetDoesNotAffectOtherTargets() {
+		List<ResolvedTarget> targets = new LinkedList<>();
+		targets.add(target("testapp", UNITTEST_APP1_UUID));
+		targets.add(target("failingapp", UNITTEST_APP_FAILING_UUID));
+		targets.add(target("testapp2", UNITTEST_APP2_UUID));
+
+		List<Instance> result = this.appInstanceScanner.determineInstancesFromTargets(targets, null, null);
+
+		assertThat(result).isNotNull();
+		assertThat(result).extracting("target.applicationName").doesNotContain("failingapp");
+		// the order of the targets is retained, even though the first one is slower than the others
+		assertThat(result).extracting("instanceId").containsExactly(UNITTEST_APP1_UUID + ":0", UNITTEST_APP1_UUID + ":1", UNITTEST_APP2_UUID + ":0");
+	}
+}
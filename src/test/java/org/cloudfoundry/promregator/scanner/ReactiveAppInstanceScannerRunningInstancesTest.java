@@ -0,0 +1,104 @@
+package org.cloudfoundry.promregator.scanner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP1_UUID;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP2_UUID;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP_INTERNAL_UUID;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.config.Target;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.prometheus.client.CollectorRegistry;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MockedReactiveAppInstanceScannerSpringApplication.class)
+@TestPropertySource(locations="default.properties", properties="promregator.discoverer.runningInstancesOnly=true")
+class ReactiveAppInstanceScannerRunningInstancesTest {
+
+	@Autowired
+	private AppInstanceScanner appInstanceScanner;
+
+	@AfterAll
+	static void cleanUp() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	private static List<ResolvedTarget> targets() {
+		List<ResolvedTarget> targets = new LinkedList<>();
+
+		ResolvedTarget t = new ResolvedTarget();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName("testapp");
+		t.setPath("/testpath1");
+		t.setProtocol("http");
+		t.setApplicationId(UNITTEST_APP1_UUID);
+		final Target emptyTarget = new Target();
+		t.setOriginalTarget(emptyTarget);
+		targets.add(t);
+
+		t = new ResolvedTarget();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName("testapp2");
+		t.setPath("/testpath2");
+		t.setProtocol("https");
+		t.setApplicationId(UNITTEST_APP2_UUID);
+		t.setOriginalTarget(emptyTarget);
+		targets.add(t);
+
+		return targets;
+	}
+
+	@Test
+	void testCrashedInstancesAreSkipped() {
+		List<Instance> result = this.appInstanceScanner.determineInstancesFromTargets(targets(), null, null);
+
+		// the second instance of APP1 has crashed (see CFAccessorMock)
+		assertThat(result).extracting("instanceId").containsExactly(UNITTEST_APP1_UUID+":0", UNITTEST_APP2_UUID+":0");
+
+		assertThat(result).filteredOn( instance -> instance.getInstanceId().equals(UNITTEST_APP1_UUID+":0") )
+				.extracting("accessUrl").containsOnly("http://hostapp1.shared.domain.example.org/testpath1");
+	}
+
+	@Test
+	void testSkippedInstancesAreOnlyCountedOnCompleteScans() {
+		this.appInstanceScanner.determineInstancesFromTargets(targets(), null, null);
+		assertThat(skippedCrashedInstances()).isEqualTo(1.0);
+
+		// a filtered scan does not see the crashed instance of APP1
+		this.appInstanceScanner.determineInstancesFromTargets(targets(), UNITTEST_APP2_UUID::equals, null);
+		assertThat(skippedCrashedInstances()).isEqualTo(1.0);
+	}
+
+	@Test
+	void testAllInstancesAreAssumedRunningIfStatisticsAreUnavailable() {
+		ResolvedTarget t = new ResolvedTarget();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName("internalapp");
+		t.setPath("/testpath3");
+		t.setProtocol("http");
+		t.setApplicationId(UNITTEST_APP_INTERNAL_UUID);
+		t.setOriginalTarget(new Target());
+
+		// the statistics of the internal app cannot be retrieved (see CFAccessorMock)
+		List<Instance> result = this.appInstanceScanner.determineInstancesFromTargets(List.of(t), null, null);
+
+		assertThat(result).extracting("instanceId").containsExactly(UNITTEST_APP_INTERNAL_UUID+":0", UNITTEST_APP_INTERNAL_UUID+":1");
+	}
+
+	private static Double skippedCrashedInstances() {
+		return CollectorRegistry.defaultRegistry.getSampleValue("promregator_scan_skipped_instances", new String[] { "state" }, new String[] { "crashed" });
+	}
+}
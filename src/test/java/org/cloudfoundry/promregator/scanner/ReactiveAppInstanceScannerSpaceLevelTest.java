@@ -0,0 +1,69 @@
+package org.cloudfoundry.promregator.scanner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP1_UUID;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP2_UUID;
+import static org.cloudfoundry.promregator.cfaccessor.CFAccessorMock.UNITTEST_APP3_UUID;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.config.Target;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MockedReactiveAppInstanceScannerSpringApplication.class)
+@TestPropertySource(locations="default.properties", properties="cf.cache.spaceLevelRetrieval=true")
+class ReactiveAppInstanceScannerSpaceLevelTest {
+
+	@Autowired
+	private AppInstanceScanner appInstanceScanner;
+	
+	@AfterAll
+	static void cleanUp() {
+		JUnitTestUtils.cleanUpAll();
+	}
+	
+	private ResolvedTarget createTarget(String applicationName, String applicationId, String path, String protocol) {
+		ResolvedTarget t = new ResolvedTarget();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName(applicationName);
+		t.setPath(path);
+		t.setProtocol(protocol);
+		t.setApplicationId(applicationId);
+		t.setOriginalTarget(new Target());
+		return t;
+	}
+	
+	@Test
+	void testInstancesAreDeterminedFromSpaceLevelData() {
+		List<ResolvedTarget> targets = new LinkedList<>();
+		targets.add(this.createTarget("testapp", UNITTEST_APP1_UUID, "/testpath1", "http"));
+		targets.add(this.createTarget("testapp2", UNITTEST_APP2_UUID, "/testpath2", "https"));
+		targets.add(this.createTarget("testapp3", UNITTEST_APP3_UUID, "/testpath3", "https"));
+		
+		List<Instance> result = this.appInstanceScanner.determineInstancesFromTargets(targets, null, null);
+
+		assertThat(result).hasSize(3);
+		
+		assertThat(result).filteredOn( instance -> instance.getInstanceId().equals(UNITTEST_APP1_UUID+":0") )
+				.extracting("accessUrl").containsOnly("http://hostapp1.shared.domain.example.org/testpath1");
+
+		assertThat(result).filteredOn( instance -> instance.getInstanceId().equals(UNITTEST_APP1_UUID+":1") )
+				.extracting("accessUrl").containsOnly("http://hostapp1.shared.domain.example.org/testpath1");
+
+		assertThat(result).filteredOn( instance -> instance.getInstanceId().equals(UNITTEST_APP2_UUID+":0") )
+				.extracting("accessUrl").containsOnly("https://hostapp2.shared.domain.example.org/additionalPath/testpath2");
+		
+		// app3 does not have any route
+		assertThat(result).filteredOn( instance -> instance.getInstanceId().startsWith(UNITTEST_APP3_UUID) ).isEmpty();
+	}
+}
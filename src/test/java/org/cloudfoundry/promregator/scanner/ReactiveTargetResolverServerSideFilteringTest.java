@@ -0,0 +1,123 @@
+package org.cloudfoundry.promregator.scanner;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.promregator.JUnitTestUtils;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
+import org.cloudfoundry.promregator.cfaccessor.CFAccessorMock;
+import org.cloudfoundry.promregator.config.Target;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import reactor.core.publisher.Mono;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MockedReactiveTargetResolverSpringApplication.class)
+@TestPropertySource(properties="cf.resolver.serverSideFiltering=true")
+class ReactiveTargetResolverServerSideFilteringTest {
+	@AfterAll
+	static void cleanupEnvironment() {
+		JUnitTestUtils.cleanUpAll();
+	}
+
+	@AfterEach
+	void resetCFAccessorMock() {
+		Mockito.reset(this.cfAccessor);
+	}
+
+	@Autowired
+	private TargetResolver targetResolver;
+
+	@Autowired
+	private CFAccessor cfAccessor;
+
+	private static Target target(String orgName, String spaceName, String applicationName) {
+		Target t = new Target();
+		t.setOrgName(orgName);
+		t.setSpaceName(spaceName);
+		t.setApplicationName(applicationName);
+		t.setPath("path");
+		t.setProtocol("https");
+		return t;
+	}
+
+	@Test
+	void testNamesAreLookedUpInBatches() {
+		List<Target> list = new LinkedList<>();
+		list.add(target("unittestorg", "unittestspace", "testapp"));
+		list.add(target("unittestorg", "unittestspace", "testApp2"));
+		list.add(target("doesnotexist", "unittestspace", "testapp"));
+
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+
+		Assertions.assertEquals(2, actualList.size());
+		Assertions.assertEquals(Set.of("testapp", "testapp2"), actualList.stream().map(ResolvedTarget::getApplicationName).collect(Collectors.toSet()));
+		Assertions.assertEquals("unittestorg", actualList.get(0).getOrgName());
+		Assertions.assertEquals("unittestspace", actualList.get(0).getSpaceName());
+
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveOrgIdsV3(Set.of("doesnotexist", "unittestorg"));
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveSpaceIdsV3(CFAccessorMock.UNITTEST_ORG_UUID, Set.of("unittestspace"));
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID,
+				Set.of("testapp", "testApp2"), null);
+	}
+
+	@Test
+	void testRegexRequiresAllApplications() {
+		List<Target> list = new LinkedList<>();
+		list.add(target("unittestorg", "unittestspace", "testapp"));
+
+		Target t = target("unittestorg", "unittestspace", null);
+		t.setApplicationRegex(".*2");
+		list.add(t);
+
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+
+		Assertions.assertEquals(2, actualList.size());
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID);
+		Mockito.verify(this.cfAccessor, Mockito.times(0)).retrieveApplicationsInSpaceV3(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	void testLabelSelectorIsPassedToCloudController() {
+		Mockito.doReturn(Mono.just(ListApplicationsResponse.builder().build()))
+			.when(this.cfAccessor).retrieveApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID, null, "team=unittest");
+
+		List<Target> list = new LinkedList<>();
+		Target t = target("unittestorg", "unittestspace", null);
+		t.setLabelSelector("team=unittest");
+		list.add(t);
+
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+
+		Assertions.assertEquals(0, actualList.size());
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID, null, "team=unittest");
+		Mockito.verify(this.cfAccessor, Mockito.times(0)).retrieveAllApplicationsInSpaceV3(Mockito.anyString(), Mockito.anyString());
+	}
+
+	@Test
+	void testWithAnnotationsDoesNotRetrieveApplicationsAgain() {
+		List<Target> list = new LinkedList<>();
+		Target t = target("unittestorg", "unittestspace", null);
+		t.setKubernetesAnnotations(true);
+		list.add(t);
+
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+
+		Assertions.assertEquals(2, actualList.size());
+		Assertions.assertEquals("/actuator/prometheus", actualList.stream()
+				.filter(rt -> "internalapp".equals(rt.getApplicationName())).findFirst().get().getPath());
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID);
+	}
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import org.cloudfoundry.promregator.JUnitTestUtils;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessor;
 import org.cloudfoundry.promregator.cfaccessor.CFAccessorMock;
+import org.cloudfoundry.promregator.cfaccessor.ReactiveCFAccessorImpl;
 import org.cloudfoundry.promregator.config.Target;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -17,6 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import reactor.core.publisher.Mono;
+
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = MockedReactiveTargetResolverSpringApplication.class)
 public class ReactiveTargetResolverTest {
@@ -646,7 +649,7 @@ public class ReactiveTargetResolverTest {
 		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
 
 		Assertions.assertEquals(0, actualList.size());
-		Mockito.verify(this.cfAccessor, Mockito.times(2)).retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID,
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID,
 																						   CFAccessorMock.UNITTEST_SPACE_UUID);
 	}
 
@@ -684,7 +687,94 @@ public class ReactiveTargetResolverTest {
 		// Overrides pathing with annotations
 		Assertions.assertEquals("/actuator/prometheus", rt.getPath());
 		Assertions.assertEquals(t.getProtocol(), rt.getProtocol());
-		Mockito.verify(this.cfAccessor, Mockito.times(5)).retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID,
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID,
 																						   CFAccessorMock.UNITTEST_SPACE_UUID);
 	}
+
+	@Test
+	void testLookupsAreSharedBetweenTargets() {
+		List<Target> list = new LinkedList<>();
+		
+		Target t = new Target();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName("testapp");
+		t.setPath("path");
+		t.setProtocol("https");
+		list.add(t);
+		
+		t = new Target();
+		t.setOrgName("unittestOrg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationRegex("testapp\\d");
+		t.setPath("path");
+		t.setProtocol("https");
+		list.add(t);
+		
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+		
+		Assertions.assertEquals(3, actualList.size());
+		
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveOrgIdV3(Mockito.anyString());
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveSpaceIdV3(Mockito.anyString(), Mockito.anyString());
+		Mockito.verify(this.cfAccessor, Mockito.times(1)).retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID);
+		
+		ResolutionPlan plan = this.targetResolver.getLastResolutionPlan();
+		Assertions.assertEquals(2, plan.getConfigTargets());
+		Assertions.assertEquals(3, plan.getLookupCount());
+		Assertions.assertEquals(6, plan.getLookupCountUnshared());
+		Assertions.assertEquals(3, plan.getLookupsSaved());
+		Assertions.assertEquals(new ResolutionPlan.Lookup(ResolutionPlan.LOOKUP_ORG, "unittestorg", 2), plan.getLookups().get(0));
+	}
+
+	@Test
+	void testTargetsAreReturnedInOrderOfConfiguration() {
+		List<Target> list = new LinkedList<>();
+		
+		Target t = new Target();
+		t.setOrgRegex("unittest.*");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName("testapp2");
+		t.setPath("path");
+		t.setProtocol("https");
+		list.add(t);
+		
+		t = new Target();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationName("testapp");
+		t.setPath("path");
+		t.setProtocol("https");
+		list.add(t);
+		
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+		
+		// although the single org is looked up separately, the target with the org regex comes first
+		Assertions.assertEquals(2, actualList.size());
+		Assertions.assertEquals("testapp2", actualList.get(0).getApplicationName());
+		Assertions.assertSame(list.get(0), actualList.get(0).getOriginalTarget());
+		Assertions.assertEquals("testapp", actualList.get(1).getApplicationName());
+		Assertions.assertSame(list.get(1), actualList.get(1).getOriginalTarget());
+	}
+
+	@Test
+	void testUnsupportedApplicationsResponseResolvesNoTargets() {
+		Mockito.doReturn(Mono.just(ReactiveCFAccessorImpl.INVALID_APPLICATIONS_RESPONSE)).when(this.cfAccessor)
+			.retrieveAllApplicationsInSpaceV3(CFAccessorMock.UNITTEST_ORG_UUID, CFAccessorMock.UNITTEST_SPACE_UUID);
+		
+		List<Target> list = new LinkedList<>();
+
+		Target t = new Target();
+		t.setOrgName("unittestorg");
+		t.setSpaceName("unittestspace");
+		t.setApplicationRegex(".*");
+		t.setPath("path");
+		t.setProtocol("https");
+		t.setKubernetesAnnotations(true);
+		list.add(t);
+
+		List<ResolvedTarget> actualList = this.targetResolver.resolveTargets(list);
+
+		Assertions.assertEquals(0, actualList.size());
+	}
 }